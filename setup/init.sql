@@ -4,6 +4,29 @@ CREATE EXTENSION IF NOT EXISTS vector;
 -- Verifica se criou
 SELECT * FROM pg_extension WHERE extname = 'vector';
 
+-- Tabelas do vector store RAG (mindforge.rag.vector-store.type=pgvector)
+-- ai_vector_document só recebe a linha quando a ingestão termina
+CREATE TABLE IF NOT EXISTS ai_vector_document (
+    tenant_id BIGINT NOT NULL,
+    document_id VARCHAR(512) NOT NULL,
+    profile JSONB,
+    indexed_at TIMESTAMP NOT NULL DEFAULT now(),
+    PRIMARY KEY (tenant_id, document_id)
+);
+
+CREATE TABLE IF NOT EXISTS ai_vector_segment (
+    id VARCHAR(64) NOT NULL,
+    tenant_id BIGINT NOT NULL,
+    document_id VARCHAR(512) NOT NULL,
+    text TEXT,
+    metadata JSONB,
+    embedding vector NOT NULL,
+    PRIMARY KEY (tenant_id, document_id, id)
+);
+
+-- Full-text da busca lexical (recuperação híbrida)
+CREATE INDEX IF NOT EXISTS idx_ai_vector_segment_fts ON ai_vector_segment USING GIN (to_tsvector('simple', coalesce(text, '')));
+
 -- Opcional: cria schema separado
 -- CREATE SCHEMA IF NOT EXISTS mindforge;
 
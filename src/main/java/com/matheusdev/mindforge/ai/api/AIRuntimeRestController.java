@@ -0,0 +1,60 @@
+package com.matheusdev.mindforge.ai.api;
+
+import com.matheusdev.mindforge.ai.dto.CacheStatsDTO;
+import com.matheusdev.mindforge.ai.routing.HedgedRequestExecutor;
+import com.matheusdev.mindforge.ai.routing.ProviderTelemetry;
+import com.matheusdev.mindforge.ai.scheduler.AIWorkScheduler;
+import com.matheusdev.mindforge.ai.service.CacheStatsService;
+import com.matheusdev.mindforge.config.ContextPropagatingExecutor;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/v1/ai/runtime")
+@RequiredArgsConstructor
+@Tag(name = "AI Runtime", description = "Estado interno do pipeline de IA (executores, caches, filas)")
+public class AIRuntimeRestController {
+
+    private final ContextPropagatingExecutor aiExecutor;
+    private final CacheStatsService cacheStatsService;
+    private final AIWorkScheduler workScheduler;
+    private final ProviderTelemetry providerTelemetry;
+    private final HedgedRequestExecutor hedgedRequestExecutor;
+
+    @Operation(summary = "Estatísticas do executor de IA", description = "Tarefas submetidas, ativas, pico de concorrência, falhas e tempos médios de fila e execução.")
+    @GetMapping("/executor")
+    public ResponseEntity<ContextPropagatingExecutor.Stats> getExecutorStats() {
+        return ResponseEntity.ok(aiExecutor.stats());
+    }
+
+    @Operation(summary = "Estatísticas dos caches", description = "Política efetiva (tamanho/peso máximo, expiração) e contadores de hit, miss, eviction e tempo de carga de cada cache em memória.")
+    @GetMapping("/caches")
+    public ResponseEntity<List<CacheStatsDTO>> getCacheStats() {
+        return ResponseEntity.ok(cacheStatsService.getCacheStats());
+    }
+
+    @Operation(summary = "Filas dos provedores de IA", description = "Capacidade, chamadas em execução e, por prioridade, chamadas na fila, atendidas e espera média.")
+    @GetMapping("/scheduler")
+    public ResponseEntity<List<AIWorkScheduler.GateStats>> getSchedulerStats() {
+        return ResponseEntity.ok(workScheduler.stats());
+    }
+
+    @Operation(summary = "Latência observada dos provedores", description = "Por provedor/modelo: amostras, fator de velocidade aprendido, latência média e taxa de erro usados no roteamento.")
+    @GetMapping("/routing")
+    public ResponseEntity<List<ProviderTelemetry.ModelStats>> getRoutingStats() {
+        return ResponseEntity.ok(providerTelemetry.snapshot());
+    }
+
+    @Operation(summary = "Hedge entre provedores", description = "Chamadas elegíveis, backups disparados, vitórias do backup e chamadas perdedoras canceladas.")
+    @GetMapping("/hedging")
+    public ResponseEntity<HedgedRequestExecutor.HedgeStats> getHedgingStats() {
+        return ResponseEntity.ok(hedgedRequestExecutor.stats());
+    }
+}
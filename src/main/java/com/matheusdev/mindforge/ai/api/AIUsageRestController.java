@@ -0,0 +1,34 @@
+package com.matheusdev.mindforge.ai.api;
+
+import com.matheusdev.mindforge.ai.quota.AIQuotaService;
+import com.matheusdev.mindforge.core.auth.util.SecurityUtils;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/v1/ai/usage")
+@RequiredArgsConstructor
+@Tag(name = "AI Usage", description = "Cota de IA do tenant e consumo por provedor e tarefa")
+public class AIUsageRestController {
+
+    private final AIQuotaService quotaService;
+
+    @Operation(summary = "Saldo da cota de IA", description = "Plano, tokens usados e restantes no dia (UTC), requisições restantes no minuto e quando a cota diária renova. Calculado em memória, sem consulta ao banco.")
+    @GetMapping
+    public ResponseEntity<AIQuotaService.QuotaStatus> getQuotaStatus() {
+        return ResponseEntity.ok(quotaService.status(SecurityUtils.getCurrentTenantId()));
+    }
+
+    @Operation(summary = "Consumo de IA do dia", description = "Requisições e tokens do tenant no dia corrente, por provedor e tipo de tarefa.")
+    @GetMapping("/today")
+    public ResponseEntity<List<AIQuotaService.UsageLine>> getUsageToday() {
+        return ResponseEntity.ok(quotaService.usageToday(SecurityUtils.getCurrentTenantId()));
+    }
+}
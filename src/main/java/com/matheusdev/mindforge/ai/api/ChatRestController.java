@@ -4,19 +4,26 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.matheusdev.mindforge.ai.chat.model.ChatSession;
 import com.matheusdev.mindforge.ai.dto.ChatRequest;
 import com.matheusdev.mindforge.ai.dto.ChatResponseDTO;
+import com.matheusdev.mindforge.ai.provider.StreamAbortedByClientException;
 import com.matheusdev.mindforge.ai.service.AIOrchestrationService;
 import com.matheusdev.mindforge.ai.service.ChatService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 @RestController
 @RequestMapping("/v1/ai/chat")
@@ -28,6 +35,9 @@ public class ChatRestController {
     private final ChatService chatService;
     private final ObjectMapper objectMapper;
 
+    @Value("${mindforge.ai.stream.timeout-ms:600000}")
+    private long streamTimeoutMs;
+
     @PostMapping
     @Operation(summary = "Envia um prompt para o provedor de IA selecionado", description = "Permite enviar um prompt de texto direto para um provedor de IA (ex: Ollama, Groq) e receber uma resposta. Você pode especificar o provedor, o modelo e uma mensagem de sistema.")
     public ResponseEntity<?> chat(@RequestBody ChatRequest chatRequest) {
@@ -45,6 +55,10 @@ public class ChatRestController {
                                 try {
                                     ((java.util.Map<String, Object>) auditedObj).put("sessionId",
                                             response.getSessionId());
+                                    if (response.getCacheInfo() != null) {
+                                        ((java.util.Map<String, Object>) auditedObj).put("cache",
+                                                response.getCacheInfo());
+                                    }
                                 } catch (Exception e) {
                                     // Ignore se for mapa imutável (embora jackson retorne LinkedHashMap mutável)
                                 }
@@ -77,6 +91,63 @@ public class ChatRestController {
         }
     }
 
+    @PostMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Envia um prompt e recebe a resposta em streaming (SSE)", description = "Mesma entrada do POST /v1/ai/chat. Emite eventos 'token' ({content}) à medida que o modelo gera, e ao final 'done' ({sessionId, type, cache?}) depois que a resposta foi persistida, ou 'error' ({message, sessionId}).")
+    public SseEmitter streamChat(@RequestBody ChatRequest chatRequest) {
+        SseEmitter emitter = new SseEmitter(streamTimeoutMs);
+        AtomicBoolean open = new AtomicBoolean(true);
+        emitter.onCompletion(() -> open.set(false));
+        emitter.onTimeout(() -> open.set(false));
+        emitter.onError(ex -> open.set(false));
+
+        // A thread do servlet retorna aqui; os eventos saem das threads do provedor
+        aiOrchestrationService.streamChatInteraction(chatRequest, token -> {
+            if (!open.get()) {
+                // Cliente desconectou: aborta a leitura do provedor sem contar como falha dele
+                throw new StreamAbortedByClientException(null);
+            }
+            try {
+                sendEvent(emitter, "token", Map.of("content", token));
+            } catch (RuntimeException sendFailure) {
+                open.set(false);
+                throw new StreamAbortedByClientException(sendFailure);
+            }
+        }).whenComplete((response, ex) -> {
+            if (!open.get()) {
+                return;
+            }
+            try {
+                Map<String, Object> payload = new LinkedHashMap<>();
+                if (ex != null || response == null || response.getError() != null) {
+                    payload.put("message", ex != null ? ex.getMessage()
+                            : response == null ? "Resposta vazia" : response.getError());
+                    payload.put("sessionId", response != null ? response.getSessionId() : null);
+                    sendEvent(emitter, "error", payload);
+                } else {
+                    payload.put("sessionId", response.getSessionId());
+                    payload.put("type", response.getType());
+                    if (response.getCacheInfo() != null) {
+                        payload.put("cache", response.getCacheInfo());
+                    }
+                    sendEvent(emitter, "done", payload);
+                }
+                emitter.complete();
+            } catch (RuntimeException sendFailure) {
+                emitter.completeWithError(sendFailure);
+            }
+        });
+        return emitter;
+    }
+
+    private void sendEvent(SseEmitter emitter, String name, Object data) {
+        try {
+            // JSON em vez de texto cru: quebras de linha do token não quebram o framing SSE
+            emitter.send(SseEmitter.event().name(name).data(data, MediaType.APPLICATION_JSON));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     @PostMapping("/session")
     @Operation(summary = "Cria uma nova sessão de chat", description = "Cria uma nova sessão de chat vazia. O corpo da requisição é opcional.")
     public ResponseEntity<com.matheusdev.mindforge.knowledgeltem.dto.ChatSessionResponse> createSession(
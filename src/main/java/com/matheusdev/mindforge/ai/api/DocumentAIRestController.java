@@ -2,14 +2,19 @@ package com.matheusdev.mindforge.ai.api;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.matheusdev.mindforge.ai.dto.ChatResponseDTO;
+import com.matheusdev.mindforge.ai.ingestion.dto.IngestionJobResponse;
+import com.matheusdev.mindforge.ai.ingestion.service.DocumentIngestionJobService;
 import com.matheusdev.mindforge.ai.service.AIOrchestrationService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
@@ -29,6 +34,7 @@ public class DocumentAIRestController {
 
     private final AIOrchestrationService aiOrchestrationService;
     private final ObjectMapper objectMapper;
+    private final DocumentIngestionJobService ingestionJobService;
 
     @PostMapping(value = "/analyze", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     @Operation(summary = "Analisa um documento com um prompt de texto", description = "Faça upload de um documento (ex: PDF, DOCX, TXT) e forneça um prompt de texto. O serviço extrai o texto do documento, combina com seu prompt e envia para o provedor de IA selecionado para análise.")
@@ -76,4 +82,22 @@ public class DocumentAIRestController {
             return ResponseEntity.ok(new ChatResponseDTO("❌ Erro ao processar documento: " + e.getMessage(), "ERROR"));
         }
     }
+
+    @PostMapping(value = "/jobs", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(summary = "Enfileira a análise de um documento em background", description = "Mesmo processamento de /analyze, mas executado por um worker em background. Retorna imediatamente o id do job; acompanhe etapa, progresso e resultado em GET /jobs/{jobId}.")
+    public ResponseEntity<IngestionJobResponse> submitAnalysisJob(
+            @Parameter(description = "O arquivo do documento a ser analisado.", required = true) @RequestParam("file") MultipartFile file,
+            @Parameter(description = "O prompt de texto para guiar a análise da IA.", required = true) @RequestParam("prompt") String prompt,
+            @Parameter(description = "O provedor de IA a ser usado. Opções: 'ollamaProvider', 'groqProvider'.") @RequestParam(value = "provider", required = false) String provider)
+            throws IOException {
+        log.info(">>> DocumentAIRestController: Enfileirando análise de '{}' ({} bytes).", file.getOriginalFilename(),
+                file.getSize());
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(ingestionJobService.submit(file, prompt, provider));
+    }
+
+    @GetMapping("/jobs/{jobId}")
+    @Operation(summary = "Consulta o status de um job de análise de documento", description = "Retorna status (QUEUED, RUNNING, COMPLETED, FAILED), etapa atual, progresso (0-100) e, ao final, o resultado e o id da sessão de chat.")
+    public ResponseEntity<IngestionJobResponse> getAnalysisJob(@PathVariable String jobId) {
+        return ResponseEntity.ok(ingestionJobService.getJob(jobId));
+    }
 }
@@ -0,0 +1,51 @@
+package com.matheusdev.mindforge.ai.cache.model;
+
+import com.matheusdev.mindforge.ai.service.model.InteractionType;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Resposta de LLM persistida (L2 do cache "ai-prompts"), endereçada pelo
+ * SHA-256 da chave normalizada do prompt. Sobrevive a deploys e é
+ * compartilhada entre nós; entradas vencidas são ignoradas na leitura e
+ * removidas periodicamente.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@Table(name = "ai_response_cache", indexes = @Index(name = "idx_ai_response_cache_expires_at", columnList = "expiresAt"))
+public class AIResponseCacheEntry {
+
+    @Id
+    @Column(length = 64)
+    private String cacheKey;
+
+    @Column(columnDefinition = "TEXT", nullable = false)
+    private String content;
+
+    @Enumerated(EnumType.STRING)
+    private InteractionType type;
+
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+
+    public AIResponseCacheEntry(String cacheKey, String content, InteractionType type, LocalDateTime expiresAt) {
+        this.cacheKey = cacheKey;
+        this.content = content;
+        this.type = type;
+        this.expiresAt = expiresAt;
+    }
+
+    @PrePersist
+    @PreUpdate
+    protected void onSave() {
+        createdAt = LocalDateTime.now();
+    }
+}
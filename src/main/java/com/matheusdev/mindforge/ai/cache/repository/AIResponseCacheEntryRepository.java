@@ -0,0 +1,23 @@
+package com.matheusdev.mindforge.ai.cache.repository;
+
+import com.matheusdev.mindforge.ai.cache.model.AIResponseCacheEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface AIResponseCacheEntryRepository extends JpaRepository<AIResponseCacheEntry, String> {
+
+    Optional<AIResponseCacheEntry> findByCacheKeyAndExpiresAtAfter(String cacheKey, LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM AIResponseCacheEntry e WHERE e.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -1,20 +1,31 @@
 package com.matheusdev.mindforge.ai.config;
 
+import com.matheusdev.mindforge.ai.embedding.repository.EmbeddingCacheEntryRepository;
+import com.matheusdev.mindforge.ai.embedding.service.CachingEmbeddingModel;
+import com.matheusdev.mindforge.core.config.CacheConfig;
 import dev.langchain4j.model.embedding.EmbeddingModel;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
 
 /**
  * Configuração de modelos de embedding usando Ollama via LangChain4j.
- * Usa OllamaEmbeddingModel que chama a API do Ollama diretamente.
+ * Usa OllamaEmbeddingModel que chama a API do Ollama diretamente, envolvido
+ * pelo cache de embeddings endereçado por conteúdo.
  */
 @Configuration
 @RequiredArgsConstructor
 public class AIConfig {
 
     private final OllamaEmbeddingModel ollamaEmbeddingModel;
+    private final CacheManager cacheManager;
+    private final EmbeddingCacheEntryRepository embeddingCacheEntryRepository;
+
+    @Value("${mindforge.embedding.cache.persistent:true}")
+    private boolean persistentEmbeddingCache;
 
     @Bean
     @Primary
@@ -23,6 +34,11 @@ public class AIConfig {
         // Configuração está em application.properties:
         // ollama.embedding.base-url=http://localhost:11434
         // ollama.embedding.model=nomic-embed-text
-        return ollamaEmbeddingModel;
+        return new CachingEmbeddingModel(
+                ollamaEmbeddingModel,
+                ollamaEmbeddingModel.modelIdentity(),
+                cacheManager.getCache(CacheConfig.EMBEDDINGS_CACHE),
+                embeddingCacheEntryRepository,
+                persistentEmbeddingCache);
     }
 }
@@ -1,43 +1,105 @@
 package com.matheusdev.mindforge.ai.config;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.matheusdev.mindforge.ai.quota.AIQuotaService;
 import dev.langchain4j.data.embedding.Embedding;
 import dev.langchain4j.data.segment.TextSegment;
 import dev.langchain4j.model.embedding.EmbeddingModel;
 import dev.langchain4j.model.output.Response;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Implementação de EmbeddingModel do LangChain4j que usa a API do Ollama diretamente.
  * Não depende do Spring AI EmbeddingClient.
+ * <p>
+ * {@link #embedAll} agrupa os textos em lotes para o endpoint {@code /api/embed}
+ * (aceita vários inputs por chamada) e envia até {@code max-concurrency} lotes
+ * em paralelo sobre um HttpClient com conexões keep-alive reutilizadas.
+ * Servidores Ollama antigos, sem {@code /api/embed}, caem no endpoint legado
+ * {@code /api/embeddings} (um texto por chamada); um 404 com erro do próprio
+ * Ollama (modelo ausente) não desliga o lote.
+ * <p>
+ * Só textos que realmente chegam ao modelo passam por aqui (o cache de
+ * embeddings fica na frente), e cada chamada é admitida e contabilizada na
+ * cota do tenant como tarefa {@code embedding}.
  */
 @Component("langchain4jOllamaEmbeddingModel")
 @Slf4j
 public class OllamaEmbeddingModel implements EmbeddingModel {
 
-    private final RestTemplate restTemplate = new RestTemplate();
+    static final String QUOTA_PROVIDER = "ollamaEmbedding";
+    static final String QUOTA_TASK = "embedding";
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final RestTemplate restTemplate;
+    private final AIQuotaService quotaService;
+    private final ExecutorService batchExecutor;
     private final String ollamaBaseUrl;
     private final String embeddingModel;
-    private Integer cachedDimension;
+    private final int batchSize;
+    private volatile boolean batchEndpointAvailable = true;
+    private volatile Integer cachedDimension;
 
-    public OllamaEmbeddingModel(
+    public OllamaEmbeddingModel(AIQuotaService quotaService,
             @Value("${ollama.embedding.base-url:http://localhost:11434}") String ollamaBaseUrl,
-            @Value("${ollama.embedding.model:nomic-embed-text}") String embeddingModel) {
+            @Value("${ollama.embedding.model:nomic-embed-text}") String embeddingModel,
+            @Value("${ollama.embedding.batch-size:32}") int batchSize,
+            @Value("${ollama.embedding.max-concurrency:4}") int maxConcurrency) {
+        this.quotaService = quotaService;
         this.ollamaBaseUrl = ollamaBaseUrl;
         this.embeddingModel = embeddingModel;
-        log.info("OllamaEmbeddingModel configurado: baseUrl={}, model={}", ollamaBaseUrl, embeddingModel);
+        this.batchSize = Math.max(1, batchSize);
+
+        // HttpClient do JDK mantém um pool de conexões keep-alive por host
+        HttpClient httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .version(HttpClient.Version.HTTP_1_1)
+                .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(Duration.ofSeconds(300));
+        this.restTemplate = new RestTemplate(requestFactory);
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.batchExecutor = Executors.newFixedThreadPool(Math.max(1, maxConcurrency), runnable -> {
+            Thread thread = new Thread(runnable, "ollama-embed-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        log.info("OllamaEmbeddingModel configurado: baseUrl={}, model={}, batchSize={}, maxConcurrency={}",
+                ollamaBaseUrl, embeddingModel, this.batchSize, maxConcurrency);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        batchExecutor.shutdownNow();
     }
 
     @Override
     public Response<Embedding> embed(String text) {
+        int estimatedTokens = AIQuotaService.estimateTokens(text);
+        quotaService.admit(estimatedTokens);
         try {
-            float[] embedding = callOllamaEmbedding(text);
+            float[] embedding = embedBatch(List.of(text)).get(0);
+            quotaService.record(QUOTA_PROVIDER, QUOTA_TASK, estimatedTokens);
             return Response.from(new Embedding(embedding));
         } catch (Exception e) {
             log.error("Erro ao gerar embedding para texto: {}", text, e);
@@ -52,42 +114,130 @@ public class OllamaEmbeddingModel implements EmbeddingModel {
 
     @Override
     public Response<List<Embedding>> embedAll(List<TextSegment> textSegments) {
+        List<String> texts = textSegments.stream()
+                .map(TextSegment::text)
+                .toList();
+        int estimatedTokens = AIQuotaService.estimateTokens(texts.toArray(String[]::new));
+        quotaService.admit(estimatedTokens);
         try {
-            List<String> texts = textSegments.stream()
-                    .map(TextSegment::text)
-                    .collect(Collectors.toList());
-
-            List<Embedding> embeddings = texts.stream()
-                    .map(this::callOllamaEmbedding)
-                    .map(Embedding::new)
-                    .collect(Collectors.toList());
+            // Lotes disparados em paralelo (limitados pelo pool) e remontados na
+            // ordem original
+            List<CompletableFuture<List<float[]>>> batches = new ArrayList<>();
+            for (int start = 0; start < texts.size(); start += batchSize) {
+                List<String> batch = texts.subList(start, Math.min(start + batchSize, texts.size()));
+                batches.add(CompletableFuture.supplyAsync(() -> embedBatch(batch), batchExecutor));
+            }
 
+            List<Embedding> embeddings = new ArrayList<>(texts.size());
+            for (CompletableFuture<List<float[]>> batch : batches) {
+                for (float[] vector : batch.join()) {
+                    embeddings.add(new Embedding(vector));
+                }
+            }
+            log.debug("🧮 {} embeddings gerados em {} lote(s).", embeddings.size(), batches.size());
+            quotaService.record(QUOTA_PROVIDER, QUOTA_TASK, estimatedTokens);
             return Response.from(embeddings);
+        } catch (CompletionException e) {
+            log.error("Erro ao gerar embeddings para {} segmentos", textSegments.size(), e.getCause());
+            throw new RuntimeException("Falha ao gerar embeddings", e.getCause());
         } catch (Exception e) {
             log.error("Erro ao gerar embeddings para {} segmentos", textSegments.size(), e);
             throw new RuntimeException("Falha ao gerar embeddings", e);
         }
     }
 
+    /**
+     * Identidade do modelo usada nas chaves do cache de embeddings: vetores de
+     * modelos diferentes nunca são misturados.
+     */
+    public String modelIdentity() {
+        return "ollama/" + embeddingModel;
+    }
+
     @Override
     public int dimension() {
         if (cachedDimension != null) {
             return cachedDimension;
         }
         try {
-            float[] testEmbedding = callOllamaEmbedding("test");
-            cachedDimension = testEmbedding.length;
-            return cachedDimension;
+            float[] testEmbedding = embedBatch(List.of("test")).get(0);
+            return testEmbedding.length;
         } catch (Exception e) {
             log.warn("Não foi possível determinar a dimensão do embedding, usando 768 como padrão", e);
             return 768; // Dimensão comum para nomic-embed-text
         }
     }
 
+    private List<float[]> embedBatch(List<String> texts) {
+        if (batchEndpointAvailable) {
+            try {
+                return callOllamaBatchEmbedding(texts);
+            } catch (HttpClientErrorException.NotFound e) {
+                if (isOllamaErrorPayload(e.getResponseBodyAsString())) {
+                    // 404 do próprio Ollama (ex.: modelo não encontrado): o endpoint existe
+                    throw new RuntimeException("Falha ao chamar API do Ollama para embeddings: "
+                            + e.getResponseBodyAsString(), e);
+                }
+                log.warn("⚠️ Endpoint /api/embed indisponível neste Ollama. Usando /api/embeddings (sem lote).");
+                batchEndpointAvailable = false;
+            }
+        }
+        List<float[]> embeddings = new ArrayList<>(texts.size());
+        for (String text : texts) {
+            embeddings.add(callOllamaEmbedding(text));
+        }
+        return embeddings;
+    }
+
+    /**
+     * O Ollama responde 404 com {@code {"error": "..."}} quando o modelo não
+     * existe; servidores sem a rota {@code /api/embed} devolvem o 404 padrão do
+     * roteador (texto puro). Só o segundo caso justifica desligar o lote.
+     */
+    static boolean isOllamaErrorPayload(String body) {
+        if (body == null || body.isBlank()) {
+            return false;
+        }
+        try {
+            JsonNode json = OBJECT_MAPPER.readTree(body);
+            return json != null && json.isObject() && json.has("error");
+        } catch (JsonProcessingException e) {
+            return false;
+        }
+    }
+
+    private List<float[]> callOllamaBatchEmbedding(List<String> texts) {
+        String url = ollamaBaseUrl + "/api/embed";
+
+        Map<String, Object> request = Map.of(
+                "model", embeddingModel,
+                "input", texts);
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> response = restTemplate.postForObject(url, request, Map.class);
+
+        if (response == null || !response.containsKey("embeddings")) {
+            throw new RuntimeException("Resposta inválida do Ollama: " + response);
+        }
+
+        @SuppressWarnings("unchecked")
+        List<List<Number>> vectors = (List<List<Number>>) response.get("embeddings");
+        if (vectors.size() != texts.size()) {
+            throw new RuntimeException("Ollama retornou " + vectors.size() + " embeddings para "
+                    + texts.size() + " textos");
+        }
+
+        List<float[]> embeddings = new ArrayList<>(vectors.size());
+        for (List<Number> vector : vectors) {
+            embeddings.add(toFloatArray(vector));
+        }
+        return embeddings;
+    }
+
     private float[] callOllamaEmbedding(String text) {
         try {
             String url = ollamaBaseUrl + "/api/embeddings";
-            
+
             Map<String, Object> request = Map.of(
                     "model", embeddingModel,
                     "prompt", text
@@ -101,18 +251,22 @@ public class OllamaEmbeddingModel implements EmbeddingModel {
             }
 
             @SuppressWarnings("unchecked")
-            List<Double> embeddingDoubles = (List<Double>) response.get("embedding");
-
-            float[] embedding = new float[embeddingDoubles.size()];
-            for (int i = 0; i < embeddingDoubles.size(); i++) {
-                embedding[i] = embeddingDoubles.get(i).floatValue();
-            }
-
-            return embedding;
+            List<Number> embeddingValues = (List<Number>) response.get("embedding");
+            return toFloatArray(embeddingValues);
         } catch (Exception e) {
             log.error("Erro ao chamar API de embeddings do Ollama: {}", e.getMessage(), e);
             throw new RuntimeException("Falha ao chamar API do Ollama para embeddings", e);
         }
     }
-}
 
+    private float[] toFloatArray(List<Number> values) {
+        float[] embedding = new float[values.size()];
+        for (int i = 0; i < values.size(); i++) {
+            embedding[i] = values.get(i).floatValue();
+        }
+        if (cachedDimension == null) {
+            cachedDimension = embedding.length;
+        }
+        return embedding;
+    }
+}
@@ -0,0 +1,24 @@
+package com.matheusdev.mindforge.ai.dto;
+
+/**
+ * Política e estatísticas de um cache em memória.
+ * {@code weightedSize}/{@code maximum} estão em bytes estimados quando
+ * {@code weighted}, e em número de entradas caso contrário.
+ */
+public record CacheStatsDTO(
+        String name,
+        long estimatedSize,
+        boolean weighted,
+        Long weightedSize,
+        Long maximum,
+        Long expireAfterAccessSeconds,
+        Long expireAfterWriteSeconds,
+        long hitCount,
+        long missCount,
+        double hitRate,
+        long evictionCount,
+        long evictionWeight,
+        long loadSuccessCount,
+        long loadFailureCount,
+        double averageLoadPenaltyMs) {
+}
@@ -0,0 +1,69 @@
+package com.matheusdev.mindforge.ai.embedding.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Embedding persistido, endereçado pelo SHA-256 de (modelo + texto).
+ * Como o vetor depende apenas do conteúdo e do modelo, a entrada é
+ * compartilhada entre tenants e nós da aplicação.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@Table(name = "ai_embedding_cache")
+public class EmbeddingCacheEntry implements Persistable<String> {
+
+    @Id
+    @Column(length = 64)
+    private String contentHash;
+
+    @Column(nullable = false)
+    private String modelIdentity;
+
+    private int dimension;
+
+    // float32 little-endian
+    @Column(nullable = false, length = 65536)
+    private byte[] vector;
+
+    private LocalDateTime createdAt;
+
+    // Entradas nunca são atualizadas: evita o SELECT do merge em cada insert
+    @Transient
+    private boolean isNew = true;
+
+    public EmbeddingCacheEntry(String contentHash, String modelIdentity, int dimension, byte[] vector) {
+        this.contentHash = contentHash;
+        this.modelIdentity = modelIdentity;
+        this.dimension = dimension;
+        this.vector = vector;
+    }
+
+    @Override
+    public String getId() {
+        return contentHash;
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+
+    @PostLoad
+    @PostPersist
+    protected void markNotNew() {
+        isNew = false;
+    }
+}
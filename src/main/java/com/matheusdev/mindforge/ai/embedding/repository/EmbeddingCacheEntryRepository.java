@@ -0,0 +1,9 @@
+package com.matheusdev.mindforge.ai.embedding.repository;
+
+import com.matheusdev.mindforge.ai.embedding.model.EmbeddingCacheEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface EmbeddingCacheEntryRepository extends JpaRepository<EmbeddingCacheEntry, String> {
+}
@@ -0,0 +1,168 @@
+package com.matheusdev.mindforge.ai.embedding.service;
+
+import com.matheusdev.mindforge.ai.embedding.model.EmbeddingCacheEntry;
+import com.matheusdev.mindforge.ai.embedding.repository.EmbeddingCacheEntryRepository;
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.output.Response;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * Decorator de EmbeddingModel com cache endereçado por conteúdo.
+ * <p>
+ * A chave é o SHA-256 de {@code modelIdentity + texto}: textos diferentes
+ * nunca colidem e trocar de modelo invalida o cache naturalmente.
+ * Dois níveis: L1 em memória (cache "embeddings" do CacheManager) e L2 na
+ * tabela {@code ai_embedding_cache}, que sobrevive a restarts e é
+ * compartilhada entre nós. Falhas no L2 são logadas e não interrompem a
+ * geração de embeddings.
+ */
+@Slf4j
+public class CachingEmbeddingModel implements EmbeddingModel {
+
+    private final EmbeddingModel delegate;
+    private final String modelIdentity;
+    private final Cache memoryCache;
+    private final EmbeddingCacheEntryRepository repository;
+    private final boolean persistent;
+
+    public CachingEmbeddingModel(EmbeddingModel delegate, String modelIdentity, Cache memoryCache,
+            EmbeddingCacheEntryRepository repository, boolean persistent) {
+        this.delegate = delegate;
+        this.modelIdentity = modelIdentity;
+        this.memoryCache = memoryCache;
+        this.repository = repository;
+        this.persistent = persistent;
+    }
+
+    @Override
+    public Response<Embedding> embed(String text) {
+        return Response.from(embedAll(List.of(TextSegment.from(text))).content().get(0));
+    }
+
+    @Override
+    public Response<Embedding> embed(TextSegment textSegment) {
+        return embed(textSegment.text());
+    }
+
+    @Override
+    public Response<List<Embedding>> embedAll(List<TextSegment> textSegments) {
+        int total = textSegments.size();
+        String[] keys = new String[total];
+        float[][] vectors = new float[total][];
+
+        // 1. L1 (memória)
+        Map<String, List<Integer>> pending = new LinkedHashMap<>();
+        for (int i = 0; i < total; i++) {
+            keys[i] = contentHash(textSegments.get(i).text());
+            Cache.ValueWrapper cached = memoryCache.get(keys[i]);
+            if (cached != null) {
+                vectors[i] = (float[]) cached.get();
+            } else {
+                pending.computeIfAbsent(keys[i], k -> new ArrayList<>()).add(i);
+            }
+        }
+        int memoryHits = total - pending.values().stream().mapToInt(List::size).sum();
+
+        // 2. L2 (banco)
+        int persistentHits = 0;
+        if (persistent && !pending.isEmpty()) {
+            try {
+                for (EmbeddingCacheEntry entry : repository.findAllById(pending.keySet())) {
+                    float[] vector = fromBytes(entry.getVector());
+                    memoryCache.put(entry.getContentHash(), vector);
+                    for (int index : pending.remove(entry.getContentHash())) {
+                        vectors[index] = vector;
+                        persistentHits++;
+                    }
+                }
+            } catch (Exception e) {
+                log.warn("⚠️ Falha ao consultar cache persistente de embeddings: {}", e.getMessage());
+            }
+        }
+
+        // 3. Modelo, uma vez por texto distinto
+        if (!pending.isEmpty()) {
+            List<String> missKeys = new ArrayList<>(pending.keySet());
+            List<TextSegment> missSegments = new ArrayList<>(missKeys.size());
+            for (String key : missKeys) {
+                missSegments.add(textSegments.get(pending.get(key).get(0)));
+            }
+            List<Embedding> generated = delegate.embedAll(missSegments).content();
+
+            List<EmbeddingCacheEntry> newEntries = new ArrayList<>(missKeys.size());
+            for (int i = 0; i < missKeys.size(); i++) {
+                float[] vector = generated.get(i).vector();
+                memoryCache.put(missKeys.get(i), vector);
+                for (int index : pending.get(missKeys.get(i))) {
+                    vectors[index] = vector;
+                }
+                newEntries.add(new EmbeddingCacheEntry(missKeys.get(i), modelIdentity, vector.length,
+                        toBytes(vector)));
+            }
+            persist(newEntries);
+        }
+
+        if (total > 1) {
+            log.debug("🧮 Embeddings: {} textos | L1 hits={} | L2 hits={} | gerados={}",
+                    total, memoryHits, persistentHits, total - memoryHits - persistentHits);
+        }
+
+        List<Embedding> embeddings = new ArrayList<>(total);
+        for (float[] vector : vectors) {
+            // Cópia defensiva: o mesmo vetor em cache pode ser devolvido a vários chamadores
+            embeddings.add(new Embedding(vector.clone()));
+        }
+        return Response.from(embeddings);
+    }
+
+    @Override
+    public int dimension() {
+        return delegate.dimension();
+    }
+
+    private void persist(List<EmbeddingCacheEntry> entries) {
+        if (!persistent || entries.isEmpty()) {
+            return;
+        }
+        try {
+            repository.saveAll(entries);
+        } catch (Exception e) {
+            // Corrida com outro nó/thread gravando o mesmo hash, ou banco indisponível
+            log.warn("⚠️ Não foi possível gravar {} embeddings no cache persistente: {}", entries.size(),
+                    e.getMessage());
+        }
+    }
+
+    String contentHash(String text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(modelIdentity.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            return HexFormat.of().formatHex(digest.digest(text.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível", e);
+        }
+    }
+
+    static byte[] toBytes(float[] vector) {
+        ByteBuffer buffer = ByteBuffer.allocate(vector.length * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.asFloatBuffer().put(vector);
+        return buffer.array();
+    }
+
+    static float[] fromBytes(byte[] bytes) {
+        float[] vector = new float[bytes.length / Float.BYTES];
+        ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer().get(vector);
+        return vector;
+    }
+}
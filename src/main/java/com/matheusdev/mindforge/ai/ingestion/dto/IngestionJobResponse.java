@@ -0,0 +1,25 @@
+package com.matheusdev.mindforge.ai.ingestion.dto;
+
+import com.matheusdev.mindforge.ai.ingestion.model.IngestionJob;
+import com.matheusdev.mindforge.ai.ingestion.model.IngestionJobStatus;
+
+import java.time.LocalDateTime;
+
+public record IngestionJobResponse(
+        String jobId,
+        IngestionJobStatus status,
+        String stage,
+        int progress,
+        String fileName,
+        Long sessionId,
+        String result,
+        String error,
+        LocalDateTime createdAt,
+        LocalDateTime finishedAt) {
+
+    public static IngestionJobResponse from(IngestionJob job) {
+        return new IngestionJobResponse(job.getId(), job.getStatus(), job.getStage(), job.getProgress(),
+                job.getFileName(), job.getSessionId(), job.getResult(), job.getErrorMessage(), job.getCreatedAt(),
+                job.getFinishedAt());
+    }
+}
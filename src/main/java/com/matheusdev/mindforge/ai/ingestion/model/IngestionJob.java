@@ -0,0 +1,70 @@
+package com.matheusdev.mindforge.ai.ingestion.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Job persistido de ingestão/análise de documento. O arquivo enviado fica no
+ * FileStorageService até o job terminar, então um job interrompido por
+ * restart pode ser retomado por qualquer nó.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@Table(name = "ai_ingestion_jobs", indexes = {
+        @Index(name = "idx_ingestion_job_status", columnList = "status, createdAt")
+})
+public class IngestionJob {
+
+    @Id
+    @Column(length = 36)
+    private String id;
+
+    @Column(name = "tenant_id")
+    private Long tenantId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private IngestionJobStatus status;
+
+    // Etapa atual (PARSING, INDEXING, MAP, REDUCE, ...) e progresso de 0 a 100
+    private String stage;
+
+    private int progress;
+
+    private int attempts;
+
+    private String fileName;
+
+    private String contentType;
+
+    @Column(nullable = false)
+    private String storedFileName;
+
+    @Column(columnDefinition = "TEXT")
+    private String prompt;
+
+    private String provider;
+
+    private Long sessionId;
+
+    @Column(columnDefinition = "TEXT")
+    private String result;
+
+    @Column(columnDefinition = "TEXT")
+    private String errorMessage;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime startedAt;
+
+    // Atualizado periodicamente pelo nó que executa o job; heartbeat antigo = nó caiu
+    private LocalDateTime heartbeatAt;
+
+    private LocalDateTime finishedAt;
+}
@@ -0,0 +1,8 @@
+package com.matheusdev.mindforge.ai.ingestion.model;
+
+public enum IngestionJobStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,55 @@
+package com.matheusdev.mindforge.ai.ingestion.repository;
+
+import com.matheusdev.mindforge.ai.ingestion.model.IngestionJob;
+import com.matheusdev.mindforge.ai.ingestion.model.IngestionJobStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface IngestionJobRepository extends JpaRepository<IngestionJob, String> {
+
+    Optional<IngestionJob> findByIdAndTenantId(String id, Long tenantId);
+
+    List<IngestionJob> findByStatusOrderByCreatedAtAsc(IngestionJobStatus status, Pageable pageable);
+
+    List<IngestionJob> findByStatusAndHeartbeatAtBefore(IngestionJobStatus status, LocalDateTime cutoff);
+
+    /**
+     * Reivindica um job na fila. Retorna 0 se outro nó/worker chegou antes.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE IngestionJob j SET j.status = com.matheusdev.mindforge.ai.ingestion.model.IngestionJobStatus.RUNNING, "
+            + "j.startedAt = :now, j.heartbeatAt = :now, j.attempts = j.attempts + 1 "
+            + "WHERE j.id = :id AND j.status = com.matheusdev.mindforge.ai.ingestion.model.IngestionJobStatus.QUEUED")
+    int claim(@Param("id") String id, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE IngestionJob j SET j.stage = :stage, j.progress = :progress, j.heartbeatAt = :now WHERE j.id = :id")
+    int updateProgress(@Param("id") String id, @Param("stage") String stage, @Param("progress") int progress,
+            @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE IngestionJob j SET j.heartbeatAt = :now WHERE j.id IN :ids")
+    int touchHeartbeat(@Param("ids") Collection<String> ids, @Param("now") LocalDateTime now);
+
+    /**
+     * Devolve à fila um job cujo nó parou de enviar heartbeat.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE IngestionJob j SET j.status = com.matheusdev.mindforge.ai.ingestion.model.IngestionJobStatus.QUEUED "
+            + "WHERE j.id = :id AND j.status = com.matheusdev.mindforge.ai.ingestion.model.IngestionJobStatus.RUNNING "
+            + "AND j.heartbeatAt < :cutoff")
+    int requeueIfStale(@Param("id") String id, @Param("cutoff") LocalDateTime cutoff);
+}
@@ -0,0 +1,233 @@
+package com.matheusdev.mindforge.ai.ingestion.service;
+
+import com.matheusdev.mindforge.ai.ingestion.dto.IngestionJobResponse;
+import com.matheusdev.mindforge.ai.ingestion.model.IngestionJob;
+import com.matheusdev.mindforge.ai.ingestion.model.IngestionJobStatus;
+import com.matheusdev.mindforge.ai.ingestion.repository.IngestionJobRepository;
+import com.matheusdev.mindforge.ai.provider.dto.AIProviderResponse;
+import com.matheusdev.mindforge.ai.scheduler.AIWorkContext;
+import com.matheusdev.mindforge.ai.scheduler.AIWorkPriority;
+import com.matheusdev.mindforge.ai.service.orchestrator.DocumentAnalysisOrchestrator;
+import com.matheusdev.mindforge.core.tenant.context.TenantContext;
+import com.matheusdev.mindforge.document.service.FileStorageService;
+import com.matheusdev.mindforge.document.util.CustomMultipartFile;
+import com.matheusdev.mindforge.exception.ResourceNotFoundException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Ingestão de documentos como job persistido em background.
+ * <p>
+ * O upload só grava o arquivo e o job (status QUEUED) e devolve o id na hora;
+ * um pool fixo de workers executa a análise fora das threads do Tomcat e
+ * publica etapa/progresso no banco. Workers só reivindicam jobs quando há
+ * slot livre (claim atômico no banco), então a fila em memória nunca cresce.
+ * <p>
+ * Enquanto executa, o nó renova o heartbeat dos seus jobs. Jobs RUNNING sem
+ * heartbeat recente (nó reiniciado ou morto) voltam para a fila e são
+ * retomados por qualquer nó, até {@code max-attempts} tentativas.
+ */
+@Service
+@Slf4j
+public class DocumentIngestionJobService {
+
+    private static final String INGESTION_TASK = "document-ingestion";
+
+    private final IngestionJobRepository repository;
+    private final FileStorageService fileStorageService;
+    private final DocumentAnalysisOrchestrator documentAnalysisOrchestrator;
+
+    private final int workerThreads;
+    private final int maxAttempts;
+    private final long staleAfterSeconds;
+
+    private final ExecutorService workers;
+    private final Set<String> runningLocally = ConcurrentHashMap.newKeySet();
+
+    public DocumentIngestionJobService(IngestionJobRepository repository, FileStorageService fileStorageService,
+            DocumentAnalysisOrchestrator documentAnalysisOrchestrator,
+            @Value("${mindforge.ingestion.worker-threads:2}") int workerThreads,
+            @Value("${mindforge.ingestion.max-attempts:3}") int maxAttempts,
+            @Value("${mindforge.ingestion.stale-after-seconds:120}") long staleAfterSeconds) {
+        this.repository = repository;
+        this.fileStorageService = fileStorageService;
+        this.documentAnalysisOrchestrator = documentAnalysisOrchestrator;
+        this.workerThreads = Math.max(1, workerThreads);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.staleAfterSeconds = staleAfterSeconds;
+
+        AtomicInteger counter = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(this.workerThreads, runnable -> {
+            Thread thread = new Thread(runnable, "ingestion-worker-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Enfileira a análise do arquivo e retorna imediatamente com o id do job.
+     */
+    public IngestionJobResponse submit(MultipartFile file, String prompt, String provider) throws IOException {
+        IngestionJob job = new IngestionJob();
+        job.setId(UUID.randomUUID().toString());
+        job.setTenantId(TenantContext.getTenantId());
+        job.setStatus(IngestionJobStatus.QUEUED);
+        job.setStage("QUEUED");
+        job.setFileName(file.getOriginalFilename());
+        job.setContentType(file.getContentType());
+        job.setStoredFileName(fileStorageService.storeFile(file));
+        job.setPrompt(prompt);
+        job.setProvider(provider);
+        job.setCreatedAt(LocalDateTime.now());
+        repository.save(job);
+
+        log.info("📥 Job de ingestão {} enfileirado para '{}'.", job.getId(), job.getFileName());
+        dispatch();
+        return IngestionJobResponse.from(job);
+    }
+
+    public IngestionJobResponse getJob(String jobId) {
+        return repository.findByIdAndTenantId(jobId, TenantContext.getTenantId())
+                .map(IngestionJobResponse::from)
+                .orElseThrow(() -> new ResourceNotFoundException("Job de ingestão não encontrado: " + jobId));
+    }
+
+    /**
+     * Heartbeat dos jobs locais, recuperação de jobs órfãos e despacho da fila.
+     */
+    @Scheduled(fixedDelayString = "${mindforge.ingestion.poll-interval-ms:5000}")
+    public void poll() {
+        LocalDateTime now = LocalDateTime.now();
+        if (!runningLocally.isEmpty()) {
+            repository.touchHeartbeat(Set.copyOf(runningLocally), now);
+        }
+        recoverStaleJobs(now.minusSeconds(staleAfterSeconds));
+        dispatch();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeOnStartup() {
+        log.info("🔄 Verificando jobs de ingestão pendentes após inicialização...");
+        poll();
+    }
+
+    private void recoverStaleJobs(LocalDateTime cutoff) {
+        for (IngestionJob stale : repository.findByStatusAndHeartbeatAtBefore(IngestionJobStatus.RUNNING, cutoff)) {
+            if (runningLocally.contains(stale.getId())) {
+                continue;
+            }
+            if (stale.getAttempts() >= maxAttempts) {
+                log.error("❌ Job de ingestão {} abandonado após {} tentativas.", stale.getId(), stale.getAttempts());
+                finish(stale.getId(), IngestionJobStatus.FAILED, null, null,
+                        "Job interrompido repetidamente (" + stale.getAttempts() + " tentativas)");
+                deleteStoredFile(stale);
+            } else if (repository.requeueIfStale(stale.getId(), cutoff) == 1) {
+                log.warn("♻️ Job de ingestão {} sem heartbeat desde {}. Devolvido à fila.", stale.getId(),
+                        stale.getHeartbeatAt());
+            }
+        }
+    }
+
+    private synchronized void dispatch() {
+        int free = workerThreads - runningLocally.size();
+        if (free <= 0) {
+            return;
+        }
+        List<IngestionJob> queued = repository.findByStatusOrderByCreatedAtAsc(IngestionJobStatus.QUEUED,
+                PageRequest.of(0, free));
+        for (IngestionJob job : queued) {
+            if (repository.claim(job.getId(), LocalDateTime.now()) == 1) {
+                runningLocally.add(job.getId());
+                workers.execute(() -> run(job.getId()));
+            }
+        }
+    }
+
+    private void run(String jobId) {
+        try {
+            IngestionJob job = repository.findById(jobId).orElseThrow();
+            TenantContext.setTenantId(job.getTenantId());
+            log.info("⚙️ Executando job de ingestão {} (tentativa {}).", jobId, job.getAttempts());
+
+            byte[] content = fileStorageService.loadFileAsBytes(job.getStoredFileName());
+            MultipartFile file = new CustomMultipartFile(content, "file", job.getFileName(), job.getContentType());
+
+            // Job em background: não disputa com o chat as vagas reservadas ao trabalho interativo
+            AIProviderResponse response = AIWorkContext.callAs(AIWorkPriority.BACKGROUND, INGESTION_TASK, () -> {
+                try {
+                    return documentAnalysisOrchestrator
+                            .handleFileAnalysis(job.getPrompt(), job.getProvider(), file,
+                                    (stage, progress) -> repository.updateProgress(jobId, stage, progress,
+                                            LocalDateTime.now()))
+                            .join();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+
+            if (response.getError() != null) {
+                finish(jobId, IngestionJobStatus.FAILED, response.getSessionId(), response.getContent(),
+                        response.getError());
+            } else {
+                finish(jobId, IngestionJobStatus.COMPLETED, response.getSessionId(), response.getContent(), null);
+            }
+            deleteStoredFile(job);
+            log.info("✅ Job de ingestão {} concluído.", jobId);
+        } catch (Exception e) {
+            log.error("❌ Job de ingestão {} falhou: {}", jobId, e.getMessage(), e);
+            finish(jobId, IngestionJobStatus.FAILED, null, null, e.getMessage());
+            repository.findById(jobId).ifPresent(this::deleteStoredFile);
+        } finally {
+            runningLocally.remove(jobId);
+            TenantContext.clear();
+            dispatch();
+        }
+    }
+
+    private void finish(String jobId, IngestionJobStatus status, Long sessionId, String result, String error) {
+        repository.findById(jobId).ifPresent(job -> {
+            job.setStatus(status);
+            job.setStage(status.name());
+            if (status == IngestionJobStatus.COMPLETED) {
+                job.setProgress(100);
+            }
+            job.setSessionId(sessionId);
+            job.setResult(result);
+            job.setErrorMessage(error);
+            job.setFinishedAt(LocalDateTime.now());
+            repository.save(job);
+        });
+    }
+
+    private void deleteStoredFile(IngestionJob job) {
+        try {
+            fileStorageService.deleteFile(job.getStoredFileName());
+        } catch (Exception e) {
+            log.warn("Não foi possível remover o arquivo temporário do job {}: {}", job.getId(), e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Jobs interrompidos aqui ficam RUNNING e são retomados via heartbeat expirado
+        workers.shutdownNow();
+    }
+}
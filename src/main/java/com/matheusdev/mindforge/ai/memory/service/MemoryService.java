@@ -5,6 +5,8 @@ import com.matheusdev.mindforge.ai.provider.dto.AIProviderResponse;
 import com.matheusdev.mindforge.ai.memory.model.UserProfileAI;
 import com.matheusdev.mindforge.ai.memory.repository.UserProfileAIRepository;
 import com.matheusdev.mindforge.ai.service.AIOrchestrationService;
+import com.matheusdev.mindforge.ai.scheduler.AIWorkContext;
+import com.matheusdev.mindforge.ai.scheduler.AIWorkPriority;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.scheduling.annotation.Async;
@@ -66,6 +68,14 @@ public class MemoryService {
      * @param chatHistory Lista de mensagens da sessão atual.
      */
     public void updateUserProfile(Long userId, List<Map<String, String>> chatHistory) {
+        // Meta-análise em background: só usa a capacidade que o trabalho interativo deixar livre
+        AIWorkContext.callAs(AIWorkPriority.BACKGROUND, "profile", () -> {
+            analyzeAndUpdateProfile(userId, chatHistory);
+            return null;
+        });
+    }
+
+    private void analyzeAndUpdateProfile(Long userId, List<Map<String, String>> chatHistory) {
         try {
             long delay = 5000L; // 5 segundos
             log.debug("Aguardando {}ms antes de iniciar análise de perfil para aliviar carga...", delay);
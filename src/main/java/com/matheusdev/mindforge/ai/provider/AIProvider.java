@@ -4,7 +4,25 @@ import com.matheusdev.mindforge.ai.provider.dto.AIProviderResponse;
 import com.matheusdev.mindforge.ai.provider.dto.AIProviderRequest;
 
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 public interface AIProvider {
     CompletableFuture<AIProviderResponse> executeTask(AIProviderRequest request);
+
+    /**
+     * Executa a tarefa entregando o texto a {@code onToken} à medida que é
+     * gerado. O futuro completa com a resposta inteira quando o stream termina.
+     * <p>
+     * Provedores sem streaming usam esta implementação padrão, que entrega a
+     * resposta completa em um único pedaço.
+     */
+    default CompletableFuture<AIProviderResponse> executeTaskStreaming(AIProviderRequest request,
+            Consumer<String> onToken) {
+        return executeTask(request).thenApply(response -> {
+            if (response != null && response.getError() == null && response.getContent() != null) {
+                onToken.accept(response.getContent());
+            }
+            return response;
+        });
+    }
 }
@@ -0,0 +1,33 @@
+package com.matheusdev.mindforge.ai.provider;
+
+/**
+ * Lançada pelo consumidor de tokens quando o cliente encerrou o stream
+ * (desconectou ou fechou a aba). A leitura do provedor é abortada, mas isso
+ * não diz nada sobre a saúde dele: não conta no circuit breaker, não troca
+ * de provedor e não entra na telemetria de latência.
+ */
+public class StreamAbortedByClientException extends RuntimeException {
+
+    public StreamAbortedByClientException(Throwable cause) {
+        super("Cliente encerrou o stream", cause);
+    }
+
+    /**
+     * Procura o abort do cliente na cadeia de causas.
+     */
+    public static StreamAbortedByClientException find(Throwable throwable) {
+        for (Throwable current = throwable; current != null; current = current.getCause()) {
+            if (current instanceof StreamAbortedByClientException aborted) {
+                return aborted;
+            }
+            if (current == current.getCause()) {
+                break;
+            }
+        }
+        return null;
+    }
+
+    public static boolean isClientAbort(Throwable throwable) {
+        return find(throwable) != null;
+    }
+}
@@ -0,0 +1,32 @@
+package com.matheusdev.mindforge.ai.provider;
+
+/**
+ * Falha no meio de um stream, depois que parte do texto já foi entregue ao
+ * cliente. Nesse ponto não dá para trocar de provedor sem duplicar a resposta,
+ * então o fallback só reporta o erro com o conteúdo parcial.
+ */
+public class StreamInterruptedException extends RuntimeException {
+
+    private final String partialContent;
+
+    public StreamInterruptedException(String partialContent, Throwable cause) {
+        super("Stream interrompido após " + partialContent.length() + " caracteres: " + cause.getMessage(), cause);
+        this.partialContent = partialContent;
+    }
+
+    public String getPartialContent() {
+        return partialContent;
+    }
+
+    /**
+     * Procura a interrupção de stream na cadeia de causas.
+     */
+    public static StreamInterruptedException find(Throwable throwable) {
+        for (Throwable current = throwable; current != null; current = current.getCause()) {
+            if (current instanceof StreamInterruptedException interrupted) {
+                return interrupted;
+            }
+        }
+        return null;
+    }
+}
@@ -17,4 +17,19 @@ public class AIProviderResponse {
     private String error;
     private List<Evidence> evidences;
     private InteractionType type;
+    // Preenchido só quando a resposta veio de cache (depuração/explicação)
+    private CacheInfo cacheInfo;
+
+    public AIProviderResponse(String content, Long sessionId, String error, List<Evidence> evidences,
+            InteractionType type) {
+        this(content, sessionId, error, evidences, type, null);
+    }
+
+    /**
+     * Cópia rasa: respostas guardadas em cache são mutadas pelas etapas
+     * seguintes (sessionId, type) e não podem ser compartilhadas entre sessões.
+     */
+    public AIProviderResponse copy() {
+        return new AIProviderResponse(content, sessionId, error, evidences, type, cacheInfo);
+    }
 }
@@ -0,0 +1,18 @@
+package com.matheusdev.mindforge.ai.provider.dto;
+
+import java.time.Instant;
+
+/**
+ * Metadados de depuração de uma resposta servida por cache: qual camada
+ * respondeu e, no cache semântico, com que similaridade e a partir de qual
+ * pergunta original.
+ */
+public record CacheInfo(
+        String layer,
+        Double similarity,
+        Double threshold,
+        String matchedQuestion,
+        Instant cachedAt) {
+
+    public static final String SEMANTIC = "semantic";
+}
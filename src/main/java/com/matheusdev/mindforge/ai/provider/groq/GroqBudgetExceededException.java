@@ -1,5 +1,7 @@
 package com.matheusdev.mindforge.ai.provider.groq;
 
+import java.time.Duration;
+
 /**
  * Exceção lançada quando o orçamento de tokens da API Groq é excedido.
  */
@@ -7,13 +9,22 @@ public class GroqBudgetExceededException extends RuntimeException {
 
     private final int remainingBudget;
     private final int requestedTokens;
+    private final Duration retryAfter;
 
     public GroqBudgetExceededException(int remainingBudget, int requestedTokens) {
+        this(remainingBudget, requestedTokens, Duration.ofMinutes(1));
+    }
+
+    /**
+     * @param retryAfter quanto falta para a janela liberar os tokens pedidos.
+     */
+    public GroqBudgetExceededException(int remainingBudget, int requestedTokens, Duration retryAfter) {
         super(String.format(
-                "Groq budget excedido. Disponível: %d tokens, Solicitado: %d tokens. Aguarde reset da janela (1 minuto).",
-                remainingBudget, requestedTokens));
+                "Groq budget excedido. Disponível: %d tokens, Solicitado: %d tokens. Tente novamente em %d s.",
+                remainingBudget, requestedTokens, Math.max(1, (retryAfter.toMillis() + 999) / 1000)));
         this.remainingBudget = remainingBudget;
         this.requestedTokens = requestedTokens;
+        this.retryAfter = retryAfter;
     }
 
     public int getRemainingBudget() {
@@ -23,4 +34,8 @@ public class GroqBudgetExceededException extends RuntimeException {
     public int getRequestedTokens() {
         return requestedTokens;
     }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
 }
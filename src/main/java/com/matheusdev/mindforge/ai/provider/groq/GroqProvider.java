@@ -3,12 +3,20 @@ package com.matheusdev.mindforge.ai.provider.groq;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.matheusdev.mindforge.ai.provider.AIProvider;
+import com.matheusdev.mindforge.ai.provider.StreamAbortedByClientException;
+import com.matheusdev.mindforge.ai.provider.StreamInterruptedException;
 import com.matheusdev.mindforge.ai.provider.dto.AIProviderRequest;
 import com.matheusdev.mindforge.ai.provider.dto.AIProviderResponse;
 import com.matheusdev.mindforge.ai.provider.groq.dto.GroqRequest;
 import com.matheusdev.mindforge.ai.provider.groq.dto.GroqResponse;
+import com.matheusdev.mindforge.ai.provider.groq.dto.GroqStreamChunk;
+import com.matheusdev.mindforge.ai.quota.AIQuotaService;
+import com.matheusdev.mindforge.ai.routing.ProviderTelemetry;
 import com.matheusdev.mindforge.ai.service.model.InteractionType;
 import com.matheusdev.mindforge.core.config.ResilienceConfig;
+import com.matheusdev.mindforge.ai.scheduler.AIWorkCancelledException;
+import com.matheusdev.mindforge.ai.scheduler.AIWorkScheduler;
+import com.matheusdev.mindforge.config.ContextPropagatingExecutor;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import io.github.resilience4j.ratelimiter.annotation.RateLimiter;
 import io.github.resilience4j.retry.annotation.Retry;
@@ -19,16 +27,21 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Base64;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 @Service("groqProvider")
 @RequiredArgsConstructor
@@ -54,6 +67,10 @@ public class GroqProvider implements AIProvider {
     private final RestTemplate restTemplate;
     private final ObjectMapper objectMapper;
     private final GroqTokenBudgetManager budgetManager;
+    private final ContextPropagatingExecutor aiExecutor;
+    private final AIWorkScheduler workScheduler;
+    private final AIQuotaService quotaService;
+    private final ProviderTelemetry telemetry;
 
     @Value("${groq.api.key}")
     private String apiKey;
@@ -108,65 +125,14 @@ public class GroqProvider implements AIProvider {
      * @return Future com a resposta da IA.
      */
     public CompletableFuture<AIProviderResponse> executeTask(AIProviderRequest request) {
-        return CompletableFuture.supplyAsync(() -> {
+        return aiExecutor.supplyAsync(workScheduler.gated(ResilienceConfig.GROQ_INSTANCE, () -> {
+            GroqModel selectedModel = resolveModel(request);
+            long budgetTicket = reserveBudget(request, selectedModel);
+            // Medido após a reserva: a espera pelo budget é estimada à parte pelo roteador
+            long startNanos = System.nanoTime();
+            boolean usageRecorded = false;
             try {
-                // Validar budget antes de fazer a requisição
-                GroqModel selectedModel = GroqModel.fromString(request.model());
-
-                // 🔥 AUTO-SWITCH TO VISION MODEL IF MULTIMODAL
-                if (request.multimodal() && request.imageData() != null) {
-                    log.info("👁️ Modo Multimodal detectado no Groq. Alternando para modelo Vision.");
-                    selectedModel = GroqModel.VISION;
-                }
-                int estimatedTokens = estimateTokens(SYSTEM_INSTRUCTION, request.textPrompt(),
-                        selectedModel.getMaxTokens());
-
-                if (!budgetManager.canConsume(estimatedTokens)) {
-                    int available = budgetManager.getAvailableBudget();
-                    throw new GroqBudgetExceededException(available, estimatedTokens);
-                }
-                HttpHeaders headers = new HttpHeaders();
-                headers.setContentType(MediaType.APPLICATION_JSON);
-                headers.set("Authorization", "Bearer " + apiKey);
-
-                List<GroqRequest.Message> messages = new ArrayList<>();
-                String systemContent = StringUtils.hasText(request.systemMessage())
-                        ? request.systemMessage()
-                        : SYSTEM_INSTRUCTION;
-                messages.add(new GroqRequest.Message("system", systemContent));
-
-                Object messageContent;
-                if (request.multimodal() && request.imageData() != null) {
-                    List<GroqRequest.ContentPart> contentParts = new ArrayList<>();
-                    contentParts.add(GroqRequest.ContentPart.fromText(request.textPrompt()));
-
-                    String base64Image = Base64.getEncoder().encodeToString(request.imageData());
-                    String dataUri = "data:" + request.imageMimeType() + ";base64," + base64Image;
-                    contentParts.add(GroqRequest.ContentPart.fromImageUrl(dataUri));
-
-                    messageContent = contentParts;
-                } else {
-                    messageContent = request.textPrompt();
-                }
-                messages.add(new GroqRequest.Message("user", messageContent));
-
-                double temperature = (request.temperature() != null && request.temperature() > 0)
-                        ? request.temperature()
-                        : 0.7; // Default seguro (era 1.0)
-
-                int effectiveMaxTokens = (request.maxTokens() != null && request.maxTokens() > 0)
-                        ? request.maxTokens()
-                        : selectedModel.getMaxTokens();
-
-                GroqRequest groqRequest = new GroqRequest(
-                        selectedModel.getModelName(),
-                        messages,
-                        false,
-                        temperature, // Usando temperatura dinâmica
-                        effectiveMaxTokens,
-                        1.0,
-                        null,
-                        selectedModel.getReasoningEffort());
+                GroqRequest groqRequest = buildGroqRequest(request, selectedModel, false);
 
                 // --- LOG DE DEBUG: MOSTRA O QUE ESTÁ SENDO ENVIADO ---
                 String requestJson = objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(groqRequest);
@@ -175,7 +141,7 @@ public class GroqProvider implements AIProvider {
                         apiUrl, requestJson);
                 // -----------------------------------------------------
 
-                HttpEntity<GroqRequest> entity = new HttpEntity<>(groqRequest, headers);
+                HttpEntity<GroqRequest> entity = new HttpEntity<>(groqRequest, jsonHeaders());
                 GroqResponse response = restTemplate.postForObject(apiUrl, entity, GroqResponse.class);
 
                 // --- LOG DE DEBUG: MOSTRA O QUE FOI RECEBIDO ---
@@ -189,20 +155,9 @@ public class GroqProvider implements AIProvider {
                     String responseText = response.choices().get(0).message().content();
 
                     // Registrar uso de tokens (Real ou Estimado)
-                    int totalTokens = 0;
-                    if (response.usage() != null && response.usage().totalTokens() > 0) {
-                        totalTokens = response.usage().totalTokens();
-                    } else {
-                        // Fallback: estimativa se a API retornar 0 (comum em alguns tiers/modelos)
-                        int inputLength = (request.textPrompt() != null ? request.textPrompt().length() : 0) +
-                                (request.systemMessage() != null ? request.systemMessage().length() : 0);
-                        int outputLength = responseText != null ? responseText.length() : 0;
-                        totalTokens = (inputLength + outputLength) / 4;
-                        log.info("⚠️ Groq API reportou 0 tokens. Usando estimativa baseada em caracteres: ~{} tokens.",
-                                totalTokens);
-                    }
-
-                    budgetManager.recordUsage(totalTokens);
+                    int reportedTokens = response.usage() != null ? response.usage().totalTokens() : 0;
+                    recordUsage(budgetTicket, request, responseText, reportedTokens);
+                    usageRecorded = true;
 
                     return new AIProviderResponse(responseText, null, null, null, null);
                 }
@@ -214,8 +169,199 @@ public class GroqProvider implements AIProvider {
             } catch (Exception e) {
                 log.error("Erro ao comunicar com Groq: {} - {}", e.getClass().getSimpleName(), e.getMessage(), e);
                 throw new RuntimeException("Erro na comunicação com Groq", e);
+            } finally {
+                if (!usageRecorded) {
+                    // Falhou antes da resposta: a reserva volta para a janela
+                    budgetManager.reconcile(budgetTicket, 0);
+                }
+                observe(request, selectedModel, startNanos, usageRecorded);
             }
-        });
+        }));
+    }
+
+    /**
+     * Versão em streaming (SSE no formato OpenAI). Cada {@code delta.content}
+     * é repassado assim que chega; o uso de tokens vem no último evento.
+     */
+    @Override
+    @CircuitBreaker(name = ResilienceConfig.GROQ_INSTANCE, fallbackMethod = "streamingFallback")
+    @RateLimiter(name = ResilienceConfig.GROQ_INSTANCE)
+    public CompletableFuture<AIProviderResponse> executeTaskStreaming(AIProviderRequest request,
+            Consumer<String> onToken) {
+        return aiExecutor.supplyAsync(workScheduler.gated(ResilienceConfig.GROQ_INSTANCE, () -> {
+            GroqModel selectedModel = resolveModel(request);
+            long budgetTicket = reserveBudget(request, selectedModel);
+            GroqRequest groqRequest = buildGroqRequest(request, selectedModel, true);
+            long startNanos = System.nanoTime();
+
+            StringBuilder content = new StringBuilder();
+            int[] reportedTokens = new int[1];
+            try {
+                restTemplate.execute(apiUrl, HttpMethod.POST, httpRequest -> {
+                    httpRequest.getHeaders().putAll(jsonHeaders());
+                    httpRequest.getBody().write(objectMapper.writeValueAsBytes(groqRequest));
+                }, httpResponse -> {
+                    try (BufferedReader reader = new BufferedReader(
+                            new InputStreamReader(httpResponse.getBody(), StandardCharsets.UTF_8))) {
+                        String line;
+                        while ((line = reader.readLine()) != null) {
+                            if (!line.startsWith("data:")) {
+                                continue;
+                            }
+                            String data = line.substring(5).trim();
+                            if ("[DONE]".equals(data)) {
+                                break;
+                            }
+                            GroqStreamChunk chunk = objectMapper.readValue(data, GroqStreamChunk.class);
+                            if (chunk.xGroq() != null && chunk.xGroq().usage() != null) {
+                                reportedTokens[0] = chunk.xGroq().usage().totalTokens();
+                            }
+                            if (chunk.choices() == null || chunk.choices().isEmpty()
+                                    || chunk.choices().get(0).delta() == null) {
+                                continue;
+                            }
+                            String token = chunk.choices().get(0).delta().content();
+                            if (token != null && !token.isEmpty()) {
+                                content.append(token);
+                                onToken.accept(token);
+                            }
+                        }
+                    }
+                    return null;
+                });
+            } catch (RuntimeException e) {
+                StreamAbortedByClientException aborted = StreamAbortedByClientException.find(e);
+                if (aborted != null) {
+                    // Tokens gerados até aqui foram cobrados pelo Groq; a latência truncada não entra na telemetria
+                    log.info("🔌 Cliente encerrou o stream do Groq após {} caracteres", content.length());
+                    recordUsage(budgetTicket, request, content.toString(), 0);
+                    throw aborted;
+                }
+                observe(request, selectedModel, startNanos, false);
+                if (content.length() > 0) {
+                    recordUsage(budgetTicket, request, content.toString(), 0);
+                    throw new StreamInterruptedException(content.toString(), e);
+                }
+                budgetManager.reconcile(budgetTicket, 0);
+                throw e;
+            }
+
+            observe(request, selectedModel, startNanos, true);
+            recordUsage(budgetTicket, request, content.toString(), reportedTokens[0]);
+            log.info("✅ [GROQ] Stream concluído. Tamanho da resposta: {} caracteres", content.length());
+            return new AIProviderResponse(content.toString(), null, null, null, null);
+        }));
+    }
+
+    public CompletableFuture<AIProviderResponse> streamingFallback(AIProviderRequest request,
+            Consumer<String> onToken, Throwable t) {
+        if (StreamAbortedByClientException.isClientAbort(t)) {
+            return CompletableFuture.failedFuture(t);
+        }
+        StreamInterruptedException interrupted = StreamInterruptedException.find(t);
+        String partial = interrupted != null ? interrupted.getPartialContent() : null;
+        log.error("!!! ALERTA !!! Stream do Groq falhou. Causa: {}", t.getMessage());
+        String errorMessage = "Desculpe, não foi possível concluir a resposta devido a uma instabilidade no serviço de IA (Groq). Erro: "
+                + t.getMessage();
+        return CompletableFuture.completedFuture(new AIProviderResponse(partial != null ? partial : errorMessage,
+                null, errorMessage, null, InteractionType.SYSTEM));
+    }
+
+    private GroqModel resolveModel(AIProviderRequest request) {
+        GroqModel selectedModel = GroqModel.fromString(request.model());
+
+        // 🔥 AUTO-SWITCH TO VISION MODEL IF MULTIMODAL
+        if (request.multimodal() && request.imageData() != null) {
+            log.info("👁️ Modo Multimodal detectado no Groq. Alternando para modelo Vision.");
+            selectedModel = GroqModel.VISION;
+        }
+        return selectedModel;
+    }
+
+    /**
+     * Reserva a estimativa de tokens antes da requisição, aguardando na fila
+     * do budget se a janela estiver cheia.
+     *
+     * @return ticket da reserva, acertado com o uso real em {@link #recordUsage}.
+     */
+    private long reserveBudget(AIProviderRequest request, GroqModel selectedModel) {
+        String systemMessage = StringUtils.hasText(request.systemMessage()) ? request.systemMessage()
+                : SYSTEM_INSTRUCTION;
+        int estimatedTokens = estimateTokens(systemMessage, request.textPrompt(), selectedModel.getMaxTokens());
+        return budgetManager.reserve(estimatedTokens);
+    }
+
+    private void observe(AIProviderRequest request, GroqModel selectedModel, long startNanos, boolean success) {
+        telemetry.observe(ResilienceConfig.GROQ_INSTANCE, selectedModel.name(), ProviderTelemetry.promptChars(request),
+                (System.nanoTime() - startNanos) / 1_000_000, success);
+    }
+
+    private HttpHeaders jsonHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.set("Authorization", "Bearer " + apiKey);
+        return headers;
+    }
+
+    private GroqRequest buildGroqRequest(AIProviderRequest request, GroqModel selectedModel, boolean stream) {
+        List<GroqRequest.Message> messages = new ArrayList<>();
+        String systemContent = StringUtils.hasText(request.systemMessage())
+                ? request.systemMessage()
+                : SYSTEM_INSTRUCTION;
+        messages.add(new GroqRequest.Message("system", systemContent));
+
+        Object messageContent;
+        if (request.multimodal() && request.imageData() != null) {
+            List<GroqRequest.ContentPart> contentParts = new ArrayList<>();
+            contentParts.add(GroqRequest.ContentPart.fromText(request.textPrompt()));
+
+            String base64Image = Base64.getEncoder().encodeToString(request.imageData());
+            String dataUri = "data:" + request.imageMimeType() + ";base64," + base64Image;
+            contentParts.add(GroqRequest.ContentPart.fromImageUrl(dataUri));
+
+            messageContent = contentParts;
+        } else {
+            messageContent = request.textPrompt();
+        }
+        messages.add(new GroqRequest.Message("user", messageContent));
+
+        double temperature = (request.temperature() != null && request.temperature() > 0)
+                ? request.temperature()
+                : 0.7; // Default seguro (era 1.0)
+
+        int effectiveMaxTokens = (request.maxTokens() != null && request.maxTokens() > 0)
+                ? request.maxTokens()
+                : selectedModel.getMaxTokens();
+
+        return new GroqRequest(
+                selectedModel.getModelName(),
+                messages,
+                stream,
+                temperature, // Usando temperatura dinâmica
+                effectiveMaxTokens,
+                1.0,
+                null,
+                selectedModel.getReasoningEffort());
+    }
+
+    /**
+     * Registra o uso real de tokens ou, se a API reportar 0, uma estimativa,
+     * na janela do Groq e na cota do tenant.
+     */
+    private void recordUsage(long budgetTicket, AIProviderRequest request, String responseText,
+            int reportedTokens) {
+        int totalTokens = reportedTokens;
+        if (totalTokens <= 0) {
+            // Fallback: estimativa se a API retornar 0 (comum em alguns tiers/modelos)
+            int inputLength = (request.textPrompt() != null ? request.textPrompt().length() : 0) +
+                    (request.systemMessage() != null ? request.systemMessage().length() : 0);
+            int outputLength = responseText != null ? responseText.length() : 0;
+            totalTokens = (inputLength + outputLength) / 4;
+            log.info("⚠️ Groq API reportou 0 tokens. Usando estimativa baseada em caracteres: ~{} tokens.",
+                    totalTokens);
+        }
+        budgetManager.reconcile(budgetTicket, totalTokens);
+        quotaService.record(ResilienceConfig.GROQ_INSTANCE, totalTokens);
     }
 
     /**
@@ -226,6 +372,10 @@ public class GroqProvider implements AIProvider {
      * @return Resposta de erro formatada.
      */
     public CompletableFuture<AIProviderResponse> fallback(AIProviderRequest request, Throwable t) {
+        if (AIWorkCancelledException.isCancellation(t)) {
+            // Quem disparou desistiu da chamada (hedge): nada a recuperar
+            return CompletableFuture.failedFuture(t);
+        }
         log.error("!!! ALERTA !!! Serviço de IA (Groq) indisponível ou falhou. Causa: {}", t.getMessage());
         String errorMessage = "Desculpe, não foi possível processar sua solicitação no momento devido a uma instabilidade no serviço de IA (Groq). Erro: "
                 + t.getMessage();
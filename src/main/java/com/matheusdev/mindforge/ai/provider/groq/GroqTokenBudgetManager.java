@@ -1,40 +1,155 @@
 package com.matheusdev.mindforge.ai.provider.groq;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import java.time.Instant;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
 
 /**
  * Gerenciador de orçamento de tokens para a API Groq.
  * Rastreia o consumo de tokens em uma janela deslizante de 1 minuto
  * para garantir que o limite do free tier (6.000 TPM) não seja excedido.
+ * <p>
+ * O consumo fica num anel fixo de 60 slots (um por segundo), cada um um
+ * {@code long} com o segundo e os tokens empacotados, mais um total atômico
+ * da janela. Nada é alocado por chamada e nada usa lock:
+ * <ul>
+ * <li>{@link #reserve} debita a estimativa de forma atômica (CAS no total)
+ * antes da chamada — requisições concorrentes não passam todas pela checagem
+ * para estourar o limite juntas. Sem espaço, o chamador espera numa fila
+ * limitada até o segundo em que tokens suficientes saem da janela, ou recebe
+ * {@link GroqBudgetExceededException} com esse prazo.</li>
+ * <li>{@link #reconcile} acerta a diferença entre estimativa e uso real
+ * quando a resposta chega (devolvendo ou cobrando tokens).</li>
+ * </ul>
  */
 @Component
 @Slf4j
 public class GroqTokenBudgetManager {
 
-    @Value("${groq.budget.tokens-per-minute:6000}")
-    private int tokensPerMinute;
+    private static final int WINDOW_SECONDS = 60;
+    private static final long MIN_PARK_MILLIS = 50;
 
-    @Value("${groq.budget.safety-margin:500}")
-    private int safetyMargin;
+    private final int tokensPerMinute;
+    private final int safetyMargin;
+    private final boolean enabled;
+    private final long maxWaitMillis;
+    private final int maxWaiters;
+    private final LongSupplier clockMillis;
 
-    @Value("${groq.budget.enabled:true}")
-    private boolean enabled;
+    // Slot i guarda (segundo << 32 | tokens) do último segundo s com s % 60 == i
+    private final AtomicLongArray slots = new AtomicLongArray(WINDOW_SECONDS);
+    // Tokens dentro da janela (soma dos slots vivos), usado na admissão
+    private final AtomicLong windowUsage = new AtomicLong();
+    private final AtomicLong lastSweptSecond = new AtomicLong();
+    private final AtomicInteger waiters = new AtomicInteger();
 
-    // Fila de registros de uso (timestamp + tokens)
-    private final ConcurrentLinkedQueue<TokenUsageRecord> usageHistory = new ConcurrentLinkedQueue<>();
+    @Autowired
+    public GroqTokenBudgetManager(@Value("${groq.budget.tokens-per-minute:6000}") int tokensPerMinute,
+            @Value("${groq.budget.safety-margin:500}") int safetyMargin,
+            @Value("${groq.budget.enabled:true}") boolean enabled,
+            @Value("${groq.budget.max-wait-ms:20000}") long maxWaitMillis,
+            @Value("${groq.budget.max-waiters:32}") int maxWaiters) {
+        this(tokensPerMinute, safetyMargin, enabled, maxWaitMillis, maxWaiters, System::currentTimeMillis);
+    }
+
+    GroqTokenBudgetManager(int tokensPerMinute, int safetyMargin, boolean enabled, long maxWaitMillis,
+            int maxWaiters, LongSupplier clockMillis) {
+        this.tokensPerMinute = tokensPerMinute;
+        this.safetyMargin = safetyMargin;
+        this.enabled = enabled;
+        this.maxWaitMillis = Math.max(0, maxWaitMillis);
+        this.maxWaiters = Math.max(0, maxWaiters);
+        this.clockMillis = clockMillis;
+        this.lastSweptSecond.set(currentSecond());
+    }
 
-    // Contador de tokens consumidos na janela atual
-    private final AtomicInteger currentUsage = new AtomicInteger(0);
+    /**
+     * Reserva {@code estimatedTokens} na janela, esperando por espaço até
+     * {@code groq.budget.max-wait-ms} se necessário.
+     *
+     * @return ticket a ser devolvido em {@link #reconcile} com o uso real.
+     * @throws GroqBudgetExceededException se o espaço não abrir dentro do prazo,
+     *                                     se a fila de espera estiver cheia ou
+     *                                     se a estimativa nunca couber no limite.
+     */
+    public long reserve(int estimatedTokens) {
+        if (!enabled) {
+            return 0L;
+        }
+        long ticket = tryReserve(estimatedTokens);
+        if (ticket != 0L) {
+            return ticket;
+        }
+        if (estimatedTokens > effectiveLimit()) {
+            throw exceeded(estimatedTokens, Duration.ZERO);
+        }
+
+        Duration freesIn = timeUntilAvailable(estimatedTokens);
+        if (freesIn.toMillis() > maxWaitMillis) {
+            throw exceeded(estimatedTokens, freesIn);
+        }
+        if (waiters.incrementAndGet() > maxWaiters) {
+            waiters.decrementAndGet();
+            throw exceeded(estimatedTokens, freesIn);
+        }
+        try {
+            long deadline = clockMillis.getAsLong() + maxWaitMillis;
+            log.info("⏳ Groq budget cheio: aguardando ~{} ms por {} tokens ({} na fila)", freesIn.toMillis(),
+                    estimatedTokens, waiters.get());
+            while (true) {
+                long remaining = deadline - clockMillis.getAsLong();
+                if (remaining <= 0 || Thread.currentThread().isInterrupted()) {
+                    throw exceeded(estimatedTokens, timeUntilAvailable(estimatedTokens));
+                }
+                long park = Math.min(remaining, Math.max(MIN_PARK_MILLIS, freesIn.toMillis()));
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(park));
+                ticket = tryReserve(estimatedTokens);
+                if (ticket != 0L) {
+                    return ticket;
+                }
+                freesIn = timeUntilAvailable(estimatedTokens);
+            }
+        } finally {
+            waiters.decrementAndGet();
+        }
+    }
+
+    /**
+     * Acerta a reserva com o consumo real. Se o real for menor, a diferença
+     * volta para a janela (desde que o segundo da reserva ainda esteja nela);
+     * se for maior, o excedente é cobrado no segundo atual.
+     */
+    public void reconcile(long ticket, int actualTokens) {
+        if (!enabled || ticket == 0L) {
+            return;
+        }
+        long second = second(ticket);
+        int delta = actualTokens - tokens(ticket);
+        if (delta < 0) {
+            // Devolve no slot original; se ele já saiu da janela, a reserva já expirou sozinha
+            if (addToSlot(second, delta, false)) {
+                windowUsage.addAndGet(delta);
+            }
+        } else if (delta > 0) {
+            charge(delta);
+        }
+        log.info("📊 Groq tokens consumidos: {} (reservados {}) | Restante: {}/{} tokens",
+                actualTokens, tokens(ticket), getAvailableBudget(), tokensPerMinute);
+    }
 
     /**
      * Verifica se é possível consumir a quantidade estimada de tokens
-     * sem exceder o limite do orçamento.
+     * sem exceder o limite do orçamento. Não reserva: para admissão use
+     * {@link #reserve}.
      *
      * @param estimatedTokens Quantidade estimada de tokens a consumir
      * @return true se há budget disponível, false caso contrário
@@ -43,40 +158,27 @@ public class GroqTokenBudgetManager {
         if (!enabled) {
             return true; // Budget desabilitado
         }
-
-        cleanupOldRecords();
-
         int available = getAvailableBudget();
         boolean canConsume = estimatedTokens <= available;
-
         if (!canConsume) {
             log.warn("⚠️ Groq budget insuficiente. Necessário: {} tokens, Disponível: {}/{} tokens",
                     estimatedTokens, available, tokensPerMinute);
-        } else {
-            log.debug("✅ Budget disponível: {}/{} tokens (requisição: {} tokens)",
-                    available, tokensPerMinute, estimatedTokens);
         }
-
         return canConsume;
     }
 
     /**
-     * Registra o uso real de tokens após uma requisição bem-sucedida.
+     * Registra um uso de tokens que não passou por {@link #reserve}.
      *
      * @param actualTokens Quantidade real de tokens consumidos
      */
     public void recordUsage(int actualTokens) {
-        if (!enabled) {
+        if (!enabled || actualTokens <= 0) {
             return;
         }
-
-        TokenUsageRecord record = new TokenUsageRecord(Instant.now(), actualTokens);
-        usageHistory.offer(record);
-        currentUsage.addAndGet(actualTokens);
-
-        int remaining = getAvailableBudget();
+        charge(actualTokens);
         log.info("📊 Groq tokens consumidos: {} | Restante: {}/{} tokens",
-                actualTokens, remaining, tokensPerMinute);
+                actualTokens, getAvailableBudget(), tokensPerMinute);
     }
 
     /**
@@ -88,64 +190,167 @@ public class GroqTokenBudgetManager {
         if (!enabled) {
             return Integer.MAX_VALUE;
         }
-
-        cleanupOldRecords();
-        int effectiveLimit = tokensPerMinute - safetyMargin;
-        return Math.max(0, effectiveLimit - currentUsage.get());
+        sweep(currentSecond());
+        return (int) Math.max(0, effectiveLimit() - windowUsage.get());
     }
 
     /**
-     * Retorna o total de tokens consumidos na janela atual.
+     * Retorna o total de tokens consumidos (ou reservados) na janela atual.
      *
      * @return Quantidade de tokens consumidos
      */
     public int getCurrentUsage() {
-        cleanupOldRecords();
-        return currentUsage.get();
+        sweep(currentSecond());
+        return (int) windowUsage.get();
     }
 
     /**
-     * Remove registros mais antigos que 1 minuto e atualiza o contador.
+     * Maior reserva que pode caber na janela (limite menos a margem de
+     * segurança). Uma estimativa acima disso nunca é admitida.
      */
-    private void cleanupOldRecords() {
-        Instant oneMinuteAgo = Instant.now().minusSeconds(60);
-        int removedTokens = 0;
-
-        while (!usageHistory.isEmpty()) {
-            TokenUsageRecord oldest = usageHistory.peek();
-            if (oldest != null && oldest.timestamp.isBefore(oneMinuteAgo)) {
-                usageHistory.poll();
-                removedTokens += oldest.tokens;
-            } else {
-                break;
-            }
-        }
+    public int getWindowLimit() {
+        return enabled ? (int) Math.max(0, effectiveLimit()) : Integer.MAX_VALUE;
+    }
 
-        if (removedTokens > 0) {
-            currentUsage.addAndGet(-removedTokens);
-            log.debug("🔄 Budget resetado: {} tokens removidos da janela", removedTokens);
+    /**
+     * Quanto falta para que {@code tokens} caibam na janela, considerando o
+     * segundo em que cada slot expira. Zero se já cabem.
+     */
+    public Duration timeUntilAvailable(int tokens) {
+        if (!enabled) {
+            return Duration.ZERO;
+        }
+        long now = currentSecond();
+        sweep(now);
+        long excess = windowUsage.get() + tokens - effectiveLimit();
+        if (excess <= 0) {
+            return Duration.ZERO;
         }
+        long nowMillis = clockMillis.getAsLong();
+        for (long s = now - WINDOW_SECONDS + 1; s <= now; s++) {
+            long slot = slots.get(index(s));
+            if (second(slot) == s) {
+                excess -= tokens(slot);
+                if (excess <= 0) {
+                    // Os tokens do segundo s saem da janela quando o relógio chega a s + 60
+                    return Duration.ofMillis(Math.max(0, (s + WINDOW_SECONDS) * 1000 - nowMillis));
+                }
+            }
+        }
+        return Duration.ofSeconds(WINDOW_SECONDS);
     }
 
     /**
      * Reseta completamente o budget (útil para testes).
      */
     public void reset() {
-        usageHistory.clear();
-        currentUsage.set(0);
+        for (int i = 0; i < WINDOW_SECONDS; i++) {
+            slots.set(i, 0L);
+        }
+        windowUsage.set(0);
+        lastSweptSecond.set(currentSecond());
         log.info("🔄 Groq budget resetado completamente");
     }
 
+    private long tryReserve(int tokens) {
+        long now = currentSecond();
+        sweep(now);
+        long limit = effectiveLimit();
+        while (true) {
+            long current = windowUsage.get();
+            if (current + tokens > limit) {
+                return 0L;
+            }
+            if (windowUsage.compareAndSet(current, current + tokens)) {
+                if (!addToSlot(now, tokens, true)) {
+                    // O anel já andou além deste segundo (thread muito atrasada): desfaz
+                    windowUsage.addAndGet(-tokens);
+                    return 0L;
+                }
+                return pack(now, tokens);
+            }
+        }
+    }
+
+    private void charge(int tokens) {
+        long now = currentSecond();
+        sweep(now);
+        windowUsage.addAndGet(tokens);
+        if (!addToSlot(now, tokens, true)) {
+            windowUsage.addAndGet(-tokens);
+        }
+    }
+
     /**
-     * Registro de uso de tokens com timestamp.
+     * Soma {@code delta} ao slot do segundo {@code second}. Com
+     * {@code roll=true}, um slot ainda com um segundo antigo é reaproveitado e
+     * os tokens que ele guardava saem do total da janela.
+     *
+     * @return false se o slot já pertence a um segundo posterior (ou, sem
+     *         {@code roll}, a outro segundo).
      */
-    private static class TokenUsageRecord {
-        final Instant timestamp;
-        final int tokens;
+    private boolean addToSlot(long second, int delta, boolean roll) {
+        int i = index(second);
+        while (true) {
+            long slot = slots.get(i);
+            long slotSecond = second(slot);
+            if (slotSecond == second) {
+                if (slots.compareAndSet(i, slot, pack(second, tokens(slot) + delta))) {
+                    return true;
+                }
+            } else if (roll && slotSecond < second) {
+                if (slots.compareAndSet(i, slot, pack(second, delta))) {
+                    windowUsage.addAndGet(-tokens(slot));
+                    return true;
+                }
+            } else {
+                return false;
+            }
+        }
+    }
 
-        TokenUsageRecord(Instant timestamp, int tokens) {
-            this.timestamp = timestamp;
-            this.tokens = tokens;
+    /**
+     * Expira os slots dos segundos que passaram sem tráfego desde a última
+     * varredura (no máximo 60 posições). Só quem ganha o CAS varre.
+     */
+    private void sweep(long now) {
+        long last = lastSweptSecond.get();
+        if (now <= last || !lastSweptSecond.compareAndSet(last, now)) {
+            return;
+        }
+        for (long s = Math.max(last + 1, now - WINDOW_SECONDS + 1); s <= now; s++) {
+            addToSlot(s, 0, true);
         }
     }
+
+    private GroqBudgetExceededException exceeded(int requested, Duration retryAfter) {
+        int available = getAvailableBudget();
+        log.warn("⚠️ Groq budget insuficiente. Necessário: {} tokens, Disponível: {}/{} tokens, libera em {} ms",
+                requested, available, tokensPerMinute, retryAfter.toMillis());
+        return new GroqBudgetExceededException(available, requested, retryAfter);
+    }
+
+    private long effectiveLimit() {
+        return tokensPerMinute - safetyMargin;
+    }
+
+    private long currentSecond() {
+        return clockMillis.getAsLong() / 1000;
+    }
+
+    private static int index(long second) {
+        return (int) (second % WINDOW_SECONDS);
+    }
+
+    private static long pack(long second, int tokens) {
+        return (second << 32) | (tokens & 0xFFFFFFFFL);
+    }
+
+    private static long second(long packed) {
+        return packed >>> 32;
+    }
+
+    private static int tokens(long packed) {
+        return (int) packed;
+    }
 }
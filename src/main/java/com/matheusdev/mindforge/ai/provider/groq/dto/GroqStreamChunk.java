@@ -0,0 +1,32 @@
+package com.matheusdev.mindforge.ai.provider.groq.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/**
+ * Evento {@code data:} do streaming (formato OpenAI) da API Groq. O uso de
+ * tokens chega no último evento, em {@code x_groq.usage}.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record GroqStreamChunk(
+        List<Choice> choices,
+        @JsonProperty("x_groq") XGroq xGroq) {
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Choice(Delta delta, @JsonProperty("finish_reason") String finishReason) {
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Delta(String content) {
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record XGroq(Usage usage) {
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Usage(@JsonProperty("total_tokens") int totalTokens) {
+    }
+}
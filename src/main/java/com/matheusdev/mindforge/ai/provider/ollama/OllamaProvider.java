@@ -3,12 +3,19 @@ package com.matheusdev.mindforge.ai.provider.ollama;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.matheusdev.mindforge.ai.provider.AIProvider;
+import com.matheusdev.mindforge.ai.provider.StreamAbortedByClientException;
+import com.matheusdev.mindforge.ai.provider.StreamInterruptedException;
 import com.matheusdev.mindforge.ai.provider.dto.AIProviderRequest;
 import com.matheusdev.mindforge.ai.provider.dto.AIProviderResponse;
 import com.matheusdev.mindforge.ai.provider.groq.GroqProvider;
 import com.matheusdev.mindforge.ai.provider.ollama.dto.OllamaRequest;
 import com.matheusdev.mindforge.ai.provider.ollama.dto.OllamaResponse;
+import com.matheusdev.mindforge.ai.quota.AIQuotaService;
+import com.matheusdev.mindforge.ai.routing.ProviderTelemetry;
 import com.matheusdev.mindforge.core.config.ResilienceConfig;
+import com.matheusdev.mindforge.ai.scheduler.AIWorkCancelledException;
+import com.matheusdev.mindforge.ai.scheduler.AIWorkScheduler;
+import com.matheusdev.mindforge.config.ContextPropagatingExecutor;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import io.github.resilience4j.ratelimiter.annotation.RateLimiter;
 import io.github.resilience4j.retry.annotation.Retry;
@@ -19,15 +26,21 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Base64;
 import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 /**
  * Implementação do provedor de IA usando Ollama (Local ou Remoto).
@@ -41,6 +54,10 @@ public class OllamaProvider implements AIProvider {
 
     private final RestTemplate restTemplate;
     private final GroqProvider groqProvider;
+    private final ContextPropagatingExecutor aiExecutor;
+    private final AIWorkScheduler workScheduler;
+    private final AIQuotaService quotaService;
+    private final ProviderTelemetry telemetry;
     private final ObjectMapper objectMapper; // Usado para logar o JSON da requisição/resposta
 
     @Value("${ollama.api.url}")
@@ -59,10 +76,10 @@ public class OllamaProvider implements AIProvider {
     @Retry(name = ResilienceConfig.OLLAMA_INSTANCE)
     @TimeLimiter(name = ResilienceConfig.OLLAMA_INSTANCE)
     public CompletableFuture<AIProviderResponse> executeTask(AIProviderRequest request) {
-        return CompletableFuture.supplyAsync(() -> {
+        return aiExecutor.supplyAsync(workScheduler.gated(ResilienceConfig.OLLAMA_INSTANCE, timed(request, () -> {
             try {
                 // 1. Constrói o objeto de requisição específico do Ollama
-                OllamaRequest ollamaRequest = buildOllamaRequest(request);
+                OllamaRequest ollamaRequest = buildOllamaRequest(request, false);
 
                 // --- LOG DE DEBUG: MOSTRA O QUE ESTÁ SENDO ENVIADO ---
                 String requestJson = objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(ollamaRequest);
@@ -89,6 +106,7 @@ public class OllamaProvider implements AIProvider {
                 if (response != null && response.message() != null) {
                     log.info("✅ [OLLAMA] Resposta recebida com sucesso! Tamanho da resposta: {} caracteres",
                             response.message().content() != null ? response.message().content().length() : 0);
+                    recordUsage(request, response.message().content());
                     return new AIProviderResponse(response.message().content(), null, null, null, null);
                 }
 
@@ -112,16 +130,100 @@ public class OllamaProvider implements AIProvider {
                 log.error("Erro ao comunicar com Ollama: {} - {}", e.getClass().getSimpleName(), e.getMessage(), e);
                 throw e;
             }
-        });
+        })));
+    }
+
+    /**
+     * Versão em streaming: lê o NDJSON de {@code /api/chat} (stream=true) e
+     * repassa cada pedaço assim que chega. Sem Retry/TimeLimiter, que
+     * duplicariam ou cortariam uma geração em andamento; se falhar antes do
+     * primeiro token, o fallback tenta o Groq em streaming.
+     */
+    @Override
+    @CircuitBreaker(name = ResilienceConfig.OLLAMA_INSTANCE, fallbackMethod = "streamingFallback")
+    @RateLimiter(name = ResilienceConfig.OLLAMA_INSTANCE)
+    public CompletableFuture<AIProviderResponse> executeTaskStreaming(AIProviderRequest request,
+            Consumer<String> onToken) {
+        return aiExecutor.supplyAsync(workScheduler.gated(ResilienceConfig.OLLAMA_INSTANCE, timed(request, () -> {
+            OllamaRequest ollamaRequest = buildOllamaRequest(request, true);
+            StringBuilder content = new StringBuilder();
+            try {
+                restTemplate.execute(apiUrl, HttpMethod.POST, httpRequest -> {
+                    httpRequest.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+                    httpRequest.getBody().write(objectMapper.writeValueAsBytes(ollamaRequest));
+                }, httpResponse -> {
+                    try (BufferedReader reader = new BufferedReader(
+                            new InputStreamReader(httpResponse.getBody(), StandardCharsets.UTF_8))) {
+                        String line;
+                        while ((line = reader.readLine()) != null) {
+                            if (line.isBlank()) {
+                                continue;
+                            }
+                            OllamaResponse chunk = objectMapper.readValue(line, OllamaResponse.class);
+                            if (chunk.error() != null) {
+                                throw new IllegalStateException("Ollama retornou erro no stream: " + chunk.error());
+                            }
+                            if (chunk.message() != null && chunk.message().content() != null
+                                    && !chunk.message().content().isEmpty()) {
+                                content.append(chunk.message().content());
+                                onToken.accept(chunk.message().content());
+                            }
+                            if (Boolean.TRUE.equals(chunk.done())) {
+                                break;
+                            }
+                        }
+                    }
+                    return null;
+                });
+            } catch (RuntimeException e) {
+                StreamAbortedByClientException aborted = StreamAbortedByClientException.find(e);
+                if (aborted != null) {
+                    // O que já foi gerado consumiu a cota; o Ollama não falhou
+                    log.info("🔌 Cliente encerrou o stream do Ollama após {} caracteres", content.length());
+                    recordUsage(request, content.toString());
+                    throw aborted;
+                }
+                if (content.length() > 0) {
+                    recordUsage(request, content.toString());
+                    throw new StreamInterruptedException(content.toString(), e);
+                }
+                log.error("Erro ao iniciar stream do Ollama em {}: {}", apiUrl, e.getMessage());
+                throw e;
+            }
+            log.info("✅ [OLLAMA] Stream concluído. Tamanho da resposta: {} caracteres", content.length());
+            recordUsage(request, content.toString());
+            return new AIProviderResponse(content.toString(), null, null, null, null);
+        })));
+    }
+
+    /**
+     * O Ollama não devolve contagem de tokens no formato usado aqui: a cota
+     * do tenant é debitada pela estimativa de caracteres.
+     */
+    private void recordUsage(AIProviderRequest request, String responseText) {
+        quotaService.record(ResilienceConfig.OLLAMA_INSTANCE,
+                AIQuotaService.estimateTokens(request.systemMessage(), request.textPrompt(), responseText));
     }
 
     @Value("${ollama.model.vision:qwen3-vl:4b}")
     private String visionModel;
 
+    /**
+     * Mede a chamada (após a vaga no scheduler) para o roteamento adaptativo.
+     */
+    private <T> Supplier<T> timed(AIProviderRequest request, Supplier<T> call) {
+        return telemetry.timed(ResilienceConfig.OLLAMA_INSTANCE, selectModel(request),
+                ProviderTelemetry.promptChars(request), call);
+    }
+
+    private String selectModel(AIProviderRequest request) {
+        return request.multimodal() && request.imageData() != null ? visionModel : model;
+    }
+
     /**
      * Constrói o objeto de requisição (DTO) para o formato esperado pelo Ollama.
      */
-    private OllamaRequest buildOllamaRequest(AIProviderRequest request) {
+    private OllamaRequest buildOllamaRequest(AIProviderRequest request, boolean stream) {
         List<OllamaRequest.Message> messages = new ArrayList<>();
 
         // Adiciona mensagem de sistema se houver
@@ -153,7 +255,7 @@ public class OllamaProvider implements AIProvider {
         return OllamaRequest.builder()
                 .model(selectedModel)
                 .messages(messages)
-                .stream(false) // Desativa streaming para simplificar o tratamento
+                .stream(stream)
                 .options(new OllamaRequest.Options(request.temperature() != null ? request.temperature() : 0.7))
                 .build();
     }
@@ -163,6 +265,10 @@ public class OllamaProvider implements AIProvider {
      * Redireciona a chamada para o GroqProvider se houver budget disponível.
      */
     public CompletableFuture<AIProviderResponse> fallback(AIProviderRequest request, Throwable t) {
+        if (AIWorkCancelledException.isCancellation(t)) {
+            // Quem disparou desistiu da chamada (hedge): nada a recuperar
+            return CompletableFuture.failedFuture(t);
+        }
         log.warn("!!! ALERTA !!! Serviço de IA (Ollama) indisponível ou falhou. Causa: {}", t.getMessage());
 
         // Log genérico para indicar que o fallback está ocorrendo
@@ -180,4 +286,32 @@ public class OllamaProvider implements AIProvider {
                     new AIProviderResponse(errorMessage, null, errorMessage, null, null));
         }
     }
+
+    /**
+     * Fallback do streaming. Só troca para o Groq se nada foi entregue ainda;
+     * com o stream já iniciado, devolve o conteúdo parcial marcado como erro.
+     */
+    public CompletableFuture<AIProviderResponse> streamingFallback(AIProviderRequest request,
+            Consumer<String> onToken, Throwable t) {
+        if (StreamAbortedByClientException.isClientAbort(t)) {
+            // Ninguém mais está ouvindo: não há o que redirecionar ao Groq
+            return CompletableFuture.failedFuture(t);
+        }
+        StreamInterruptedException interrupted = StreamInterruptedException.find(t);
+        if (interrupted != null) {
+            log.warn("⚠️ Stream do Ollama interrompido: {}", interrupted.getMessage());
+            return CompletableFuture.completedFuture(new AIProviderResponse(interrupted.getPartialContent(), null,
+                    interrupted.getMessage(), null, null));
+        }
+        log.warn("!!! ALERTA !!! Stream do Ollama indisponível. Causa: {}. Redirecionando para o Groq.",
+                t.getMessage());
+        try {
+            return groqProvider.executeTaskStreaming(request, onToken);
+        } catch (com.matheusdev.mindforge.ai.provider.groq.GroqBudgetExceededException budgetEx) {
+            log.warn("⚠️ Groq backup indisponível: {}", budgetEx.getMessage());
+            String errorMessage = "Ollama indisponível e Groq sem budget disponível. Aguarde 1 minuto ou tente novamente.";
+            return CompletableFuture.completedFuture(
+                    new AIProviderResponse(errorMessage, null, errorMessage, null, null));
+        }
+    }
 }
@@ -9,7 +9,8 @@ public record OllamaResponse(
         @JsonProperty("created_at")
         String createdAt,
         Message message,
-        Boolean done
+        Boolean done,
+        String error
 ) {
     @JsonIgnoreProperties(ignoreUnknown = true)
     public record Message(
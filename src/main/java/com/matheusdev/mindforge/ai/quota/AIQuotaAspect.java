@@ -0,0 +1,114 @@
+package com.matheusdev.mindforge.ai.quota;
+
+import com.matheusdev.mindforge.ai.provider.dto.AIProviderRequest;
+import com.matheusdev.mindforge.ai.provider.dto.AIProviderResponse;
+import com.matheusdev.mindforge.ai.scheduler.AIWorkCall;
+import com.matheusdev.mindforge.ai.scheduler.AIWorkContext;
+import com.matheusdev.mindforge.ai.service.model.InteractionType;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Aplica a cota do tenant em toda chamada a um {@code AIProvider}.
+ * <p>
+ * Roda com a maior precedência, por fora dos aspectos do Resilience4j: uma
+ * chamada recusada não consome permissão do rate limiter global, não conta
+ * como falha no circuit breaker e não é retentada. A recusa volta como
+ * resposta de erro, como os fallbacks dos provedores.
+ * <p>
+ * A requisição é contada por chamada lógica ({@link AIWorkCall}): fallbacks
+ * para outro provedor, backups do hedge e retentativas feitos dentro dela não
+ * contam outra no limite por minuto, mas cada um ainda confere os tokens do
+ * dia, que crescem a cada chamada interna. Quem compõe várias chamadas numa só (hedge, map-reduce)
+ * abre a chamada lógica com {@link AIWorkContext#callAsOneCall}.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+@Slf4j
+public class AIQuotaAspect {
+
+    private final AIQuotaService quotaService;
+
+    @Around("execution(* com.matheusdev.mindforge.ai.provider.AIProvider+.executeTask*(..))")
+    public Object enforceQuota(ProceedingJoinPoint joinPoint) throws Throwable {
+        // Requisição lida dos argumentos: o binding por args(..) não é resolvido nos proxies dos provedores
+        Object[] args = joinPoint.getArgs();
+        if (args.length == 0 || !(args[0] instanceof AIProviderRequest request)) {
+            return joinPoint.proceed();
+        }
+        AIWorkCall call = AIWorkContext.getOpenCall();
+        if (call != null) {
+            // Chamada interna de uma chamada lógica já admitida (fallback, backup do hedge, trecho, retentativa):
+            // não conta outra requisição, mas ainda respeita os tokens do dia
+            AIProviderResponse refusal = call.claimAdmission() ? admit(request, call) : checkDailyTokens(request);
+            return refusal != null ? CompletableFuture.completedFuture(refusal) : joinPoint.proceed();
+        }
+
+        // Chamada avulsa: abre a chamada lógica, herdada pelas chamadas internas que ela fizer
+        call = new AIWorkCall();
+        call.claimAdmission();
+        AIProviderResponse refusal = admit(request, call);
+        if (refusal != null) {
+            return CompletableFuture.completedFuture(refusal);
+        }
+        AIWorkCall previous = AIWorkContext.getCall();
+        AIWorkContext.setCall(call);
+        Object result;
+        try {
+            result = joinPoint.proceed();
+        } catch (Throwable e) {
+            call.close();
+            throw e;
+        } finally {
+            AIWorkContext.setCall(previous);
+        }
+        if (result instanceof CompletableFuture<?> future) {
+            return call.closeWhenDone(future);
+        }
+        call.close();
+        return result;
+    }
+
+    /**
+     * Admite a chamada na cota do tenant; devolve a resposta de recusa, ou
+     * {@code null} se admitida.
+     */
+    private AIProviderResponse admit(AIProviderRequest request, AIWorkCall call) {
+        try {
+            quotaService.admit(AIQuotaService.estimateTokens(request.systemMessage(), request.textPrompt()));
+            return null;
+        } catch (AIQuotaExceededException e) {
+            call.releaseAdmission();
+            return refusal(e);
+        }
+    }
+
+    /**
+     * Confere os tokens do dia para uma chamada interna; devolve a resposta
+     * de recusa, ou {@code null} se cabe na cota.
+     */
+    private AIProviderResponse checkDailyTokens(AIProviderRequest request) {
+        try {
+            quotaService.checkDailyTokens(
+                    AIQuotaService.estimateTokens(request.systemMessage(), request.textPrompt()));
+            return null;
+        } catch (AIQuotaExceededException e) {
+            return refusal(e);
+        }
+    }
+
+    private static AIProviderResponse refusal(AIQuotaExceededException e) {
+        log.warn("🎟️ Chamada de IA recusada para o tenant {}: {}", e.getTenantId(), e.getMessage());
+        return new AIProviderResponse(e.getMessage(), null, e.getMessage(), null, InteractionType.SYSTEM);
+    }
+}
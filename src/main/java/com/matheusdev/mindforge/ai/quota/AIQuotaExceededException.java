@@ -0,0 +1,36 @@
+package com.matheusdev.mindforge.ai.quota;
+
+import com.matheusdev.mindforge.core.tenant.model.TenantPlan;
+
+import java.time.Duration;
+
+/**
+ * Lançada quando o tenant esgotou a cota de IA do seu plano (tokens do dia ou
+ * requisições do minuto). Só afeta o próprio tenant.
+ */
+public class AIQuotaExceededException extends RuntimeException {
+
+    private final Long tenantId;
+    private final TenantPlan plan;
+    private final Duration retryAfter;
+
+    public AIQuotaExceededException(Long tenantId, TenantPlan plan, String reason, Duration retryAfter) {
+        super(String.format("Cota de IA do plano %s esgotada (%s). Tente novamente em %d s.", plan, reason,
+                Math.max(1, (retryAfter.toMillis() + 999) / 1000)));
+        this.tenantId = tenantId;
+        this.plan = plan;
+        this.retryAfter = retryAfter;
+    }
+
+    public Long getTenantId() {
+        return tenantId;
+    }
+
+    public TenantPlan getPlan() {
+        return plan;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
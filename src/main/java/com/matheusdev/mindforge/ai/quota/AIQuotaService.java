@@ -0,0 +1,333 @@
+package com.matheusdev.mindforge.ai.quota;
+
+import com.matheusdev.mindforge.ai.quota.model.AIUsageRecord;
+import com.matheusdev.mindforge.ai.quota.repository.AIUsageRecordRepository;
+import com.matheusdev.mindforge.ai.scheduler.AIWorkContext;
+import com.matheusdev.mindforge.core.tenant.context.TenantContext;
+import com.matheusdev.mindforge.core.tenant.model.TenantPlan;
+import com.matheusdev.mindforge.core.tenant.service.TenantPlanResolver;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Cotas de IA por tenant, conforme o plano.
+ * <p>
+ * Cada plano tem um limite de tokens por dia (UTC) e de requisições por
+ * minuto; {@code -1} desliga o limite. {@link #admit} é chamado antes de cada
+ * chamada a provedor — antes das filas, do rate limiter e do budget do Groq,
+ * que são compartilhados — então um tenant que esgotou a cota recebe a recusa
+ * sem consumir a capacidade dos demais.
+ * <p>
+ * {@link #record} contabiliza o uso real por tenant, provedor e tipo de tarefa
+ * ({@link AIWorkContext#getTask()}). Os contadores ficam em memória (a
+ * consulta de saldo não toca o banco) e os deltas são somados na tabela
+ * {@code ai_tenant_usage} periodicamente. O total do dia é carregado do banco
+ * no primeiro uso do tenant em cada dia; entre nós, a cota é aproximada pelo
+ * intervalo de gravação.
+ */
+@Service
+@Slf4j
+public class AIQuotaService {
+
+    private static final long MILLIS_PER_MINUTE = 60_000L;
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+
+    /**
+     * Limites de um plano; valores negativos significam sem limite.
+     */
+    public record Limits(long tokensPerDay, int requestsPerMinute) {
+    }
+
+    /**
+     * Saldo do tenant. Campos de limite e restante valem {@code -1} quando o
+     * plano não tem aquele limite.
+     */
+    public record QuotaStatus(Long tenantId, TenantPlan plan, long tokensPerDay, long tokensUsedToday,
+            long tokensRemaining, int requestsPerMinute, int requestsRemainingThisMinute, Instant resetsAt) {
+    }
+
+    public record UsageLine(String provider, String taskType, long requests, long tokens) {
+    }
+
+    private record UsageKey(Long tenantId, LocalDate day, String provider, String taskType) {
+    }
+
+    private record Delta(long requests, long tokens) {
+        Delta plus(Delta other) {
+            return new Delta(requests + other.requests, tokens + other.tokens);
+        }
+    }
+
+    private final TenantPlanResolver planResolver;
+    private final AIUsageRecordRepository repository;
+    private final boolean enabled;
+    private final Map<TenantPlan, Limits> limits;
+    private final LongSupplier clockMillis;
+
+    private final Map<Long, TenantUsage> usages = new ConcurrentHashMap<>();
+    // Deltas ainda não gravados; merge/remove são atômicos por chave
+    private final Map<UsageKey, Delta> pending = new ConcurrentHashMap<>();
+
+    @Autowired
+    public AIQuotaService(TenantPlanResolver planResolver, AIUsageRecordRepository repository,
+            @Value("${mindforge.ai.quota.enabled:true}") boolean enabled,
+            @Value("${mindforge.ai.quota.free.tokens-per-day:100000}") long freeTokensPerDay,
+            @Value("${mindforge.ai.quota.free.requests-per-minute:10}") int freeRequestsPerMinute,
+            @Value("${mindforge.ai.quota.pro.tokens-per-day:1000000}") long proTokensPerDay,
+            @Value("${mindforge.ai.quota.pro.requests-per-minute:60}") int proRequestsPerMinute,
+            @Value("${mindforge.ai.quota.enterprise.tokens-per-day:-1}") long enterpriseTokensPerDay,
+            @Value("${mindforge.ai.quota.enterprise.requests-per-minute:300}") int enterpriseRequestsPerMinute) {
+        this(planResolver, repository, enabled,
+                new EnumMap<>(Map.of(TenantPlan.FREE, new Limits(freeTokensPerDay, freeRequestsPerMinute),
+                        TenantPlan.PRO, new Limits(proTokensPerDay, proRequestsPerMinute),
+                        TenantPlan.ENTERPRISE, new Limits(enterpriseTokensPerDay, enterpriseRequestsPerMinute))),
+                System::currentTimeMillis);
+    }
+
+    AIQuotaService(TenantPlanResolver planResolver, AIUsageRecordRepository repository, boolean enabled,
+            Map<TenantPlan, Limits> limits, LongSupplier clockMillis) {
+        this.planResolver = planResolver;
+        this.repository = repository;
+        this.enabled = enabled;
+        this.limits = limits;
+        this.clockMillis = clockMillis;
+        if (enabled) {
+            log.info("🎟️ Cotas de IA por tenant ativas: {}", limits);
+        }
+    }
+
+    /**
+     * Admite uma chamada do tenant atual, contando-a no limite por minuto.
+     * Sem tenant (tarefas do sistema) ou com as cotas desligadas, não faz nada.
+     *
+     * @param estimatedTokens tokens de entrada estimados da chamada.
+     * @throws AIQuotaExceededException se a chamada passaria dos tokens do dia
+     *                                  ou das requisições do minuto.
+     */
+    public void admit(int estimatedTokens) {
+        check(estimatedTokens, true);
+    }
+
+    /**
+     * Confere só os tokens do dia, sem contar uma nova requisição: usado nas
+     * chamadas internas de uma chamada lógica já admitida, que não podem
+     * passar da cota diária mesmo tendo entrado por uma única admissão.
+     *
+     * @throws AIQuotaExceededException se a chamada passaria dos tokens do dia.
+     */
+    public void checkDailyTokens(int estimatedTokens) {
+        check(estimatedTokens, false);
+    }
+
+    private void check(int estimatedTokens, boolean countRequest) {
+        Long tenantId = TenantContext.getTenantId();
+        if (!enabled || tenantId == null) {
+            return;
+        }
+        TenantPlan plan = planResolver.planOf(tenantId);
+        Limits planLimits = limitsOf(plan);
+        long now = clockMillis.getAsLong();
+        TenantUsage usage = usageOf(tenantId, dayOf(now));
+
+        if (planLimits.tokensPerDay() >= 0
+                && usage.tokens.get() + estimatedTokens > planLimits.tokensPerDay()) {
+            throw new AIQuotaExceededException(tenantId, plan, "tokens do dia",
+                    Duration.ofMillis(MILLIS_PER_DAY - Math.floorMod(now, MILLIS_PER_DAY)));
+        }
+        if (countRequest && planLimits.requestsPerMinute() >= 0
+                && !usage.tryCountRequest(now / MILLIS_PER_MINUTE, planLimits.requestsPerMinute())) {
+            throw new AIQuotaExceededException(tenantId, plan, "requisições por minuto",
+                    Duration.ofMillis(MILLIS_PER_MINUTE - Math.floorMod(now, MILLIS_PER_MINUTE)));
+        }
+    }
+
+    /**
+     * Registra uma chamada concluída do tenant atual, na tarefa do
+     * {@link AIWorkContext}.
+     */
+    public void record(String provider, long tokens) {
+        record(provider, AIWorkContext.getTask(), tokens);
+    }
+
+    public void record(String provider, String taskType, long tokens) {
+        Long tenantId = TenantContext.getTenantId();
+        if (tenantId == null) {
+            return;
+        }
+        LocalDate day = dayOf(clockMillis.getAsLong());
+        usageOf(tenantId, day).tokens.addAndGet(tokens);
+        pending.merge(new UsageKey(tenantId, day, provider, taskType), new Delta(1, tokens), Delta::plus);
+    }
+
+    /**
+     * Saldo do tenant, calculado só com os contadores em memória.
+     */
+    public QuotaStatus status(Long tenantId) {
+        TenantPlan plan = planResolver.planOf(tenantId);
+        Limits planLimits = limitsOf(plan);
+        long now = clockMillis.getAsLong();
+        LocalDate day = dayOf(now);
+        TenantUsage usage = usageOf(tenantId, day);
+
+        long used = usage.tokens.get();
+        long tokensRemaining = planLimits.tokensPerDay() < 0 ? -1
+                : Math.max(0, planLimits.tokensPerDay() - used);
+        int requestsRemaining = planLimits.requestsPerMinute() < 0 ? -1
+                : Math.max(0, planLimits.requestsPerMinute() - usage.requestsIn(now / MILLIS_PER_MINUTE));
+        return new QuotaStatus(tenantId, plan, planLimits.tokensPerDay(), used, tokensRemaining,
+                planLimits.requestsPerMinute(), requestsRemaining,
+                Instant.ofEpochMilli((day.toEpochDay() + 1) * MILLIS_PER_DAY));
+    }
+
+    /**
+     * Uso do tenant no dia corrente por provedor e tarefa (gravado + pendente).
+     */
+    public List<UsageLine> usageToday(Long tenantId) {
+        LocalDate day = dayOf(clockMillis.getAsLong());
+        Map<List<String>, Delta> lines = new LinkedHashMap<>();
+        for (AIUsageRecord row : repository.findByTenantIdAndUsageDate(tenantId, day)) {
+            lines.merge(List.of(row.getProvider(), row.getTaskType()),
+                    new Delta(row.getRequests(), row.getTokens()), Delta::plus);
+        }
+        pending.forEach((key, delta) -> {
+            if (key.tenantId().equals(tenantId) && key.day().equals(day)) {
+                lines.merge(List.of(key.provider(), key.taskType()), delta, Delta::plus);
+            }
+        });
+        List<UsageLine> result = new ArrayList<>(lines.size());
+        lines.forEach((key, delta) -> result.add(
+                new UsageLine(key.get(0), key.get(1), delta.requests(), delta.tokens())));
+        return result;
+    }
+
+    /**
+     * Soma os deltas pendentes no banco. Em caso de falha, o delta volta para
+     * a fila e é tentado no próximo ciclo.
+     */
+    @Scheduled(fixedDelayString = "${mindforge.ai.quota.flush-interval-ms:30000}")
+    @PreDestroy
+    public void flush() {
+        LocalDate today = dayOf(clockMillis.getAsLong());
+        usages.values().removeIf(usage -> usage.day.isBefore(today));
+
+        int flushed = 0;
+        for (UsageKey key : new ArrayList<>(pending.keySet())) {
+            Delta delta = pending.remove(key);
+            if (delta == null) {
+                continue;
+            }
+            try {
+                persist(key, delta);
+                flushed++;
+            } catch (Exception e) {
+                pending.merge(key, delta, Delta::plus);
+                log.warn("⚠️ Falha ao gravar uso de IA por tenant ({} pendentes): {}", pending.size(),
+                        e.getMessage());
+                return;
+            }
+        }
+        if (flushed > 0) {
+            log.debug("🎟️ Uso de IA gravado: {} linha(s)", flushed);
+        }
+    }
+
+    /**
+     * Estimativa de tokens a partir dos textos (~4 caracteres por token).
+     */
+    public static int estimateTokens(String... texts) {
+        long chars = 0;
+        for (String text : texts) {
+            chars += text != null ? text.length() : 0;
+        }
+        return (int) Math.min(Integer.MAX_VALUE, chars / 4);
+    }
+
+    private void persist(UsageKey key, Delta delta) {
+        if (repository.addUsage(key.tenantId(), key.day(), key.provider(), key.taskType(), delta.requests(),
+                delta.tokens()) > 0) {
+            return;
+        }
+        try {
+            repository.save(new AIUsageRecord(key.tenantId(), key.day(), key.provider(), key.taskType(),
+                    delta.requests(), delta.tokens()));
+        } catch (DataIntegrityViolationException e) {
+            // Outro nó criou a linha primeiro
+            repository.addUsage(key.tenantId(), key.day(), key.provider(), key.taskType(), delta.requests(),
+                    delta.tokens());
+        }
+    }
+
+    private Limits limitsOf(TenantPlan plan) {
+        return limits.getOrDefault(plan, limits.get(TenantPlan.FREE));
+    }
+
+    private TenantUsage usageOf(Long tenantId, LocalDate day) {
+        TenantUsage usage = usages.get(tenantId);
+        if (usage != null && usage.day.equals(day)) {
+            return usage;
+        }
+        return usages.compute(tenantId, (id, current) -> current != null && current.day.equals(day) ? current
+                : new TenantUsage(day, persistedTokens(id, day)));
+    }
+
+    private long persistedTokens(Long tenantId, LocalDate day) {
+        try {
+            return repository.sumTokens(tenantId, day);
+        } catch (Exception e) {
+            log.warn("⚠️ Não foi possível carregar o uso de IA do tenant {}: {}", tenantId, e.getMessage());
+            return 0;
+        }
+    }
+
+    private static LocalDate dayOf(long epochMillis) {
+        return LocalDate.ofEpochDay(Math.floorDiv(epochMillis, MILLIS_PER_DAY));
+    }
+
+    /**
+     * Contadores em memória de um tenant no dia.
+     */
+    private static final class TenantUsage {
+        final LocalDate day;
+        final AtomicLong tokens;
+        private long minute;
+        private int requestsInMinute;
+
+        TenantUsage(LocalDate day, long tokens) {
+            this.day = day;
+            this.tokens = new AtomicLong(tokens);
+        }
+
+        synchronized boolean tryCountRequest(long currentMinute, int limit) {
+            if (minute != currentMinute) {
+                minute = currentMinute;
+                requestsInMinute = 0;
+            }
+            if (requestsInMinute >= limit) {
+                return false;
+            }
+            requestsInMinute++;
+            return true;
+        }
+
+        synchronized int requestsIn(long currentMinute) {
+            return minute == currentMinute ? requestsInMinute : 0;
+        }
+    }
+}
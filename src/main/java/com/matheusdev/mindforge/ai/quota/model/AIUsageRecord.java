@@ -0,0 +1,53 @@
+package com.matheusdev.mindforge.ai.quota.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+/**
+ * Uso agregado de IA de um tenant em um dia (UTC), por provedor e por tipo de
+ * tarefa. As linhas são acumuladas em memória e gravadas periodicamente pelo
+ * {@code AIQuotaService}; o incremento é feito no banco, então vários nós
+ * podem somar na mesma linha.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@Table(name = "ai_tenant_usage", uniqueConstraints = @UniqueConstraint(name = "uk_ai_tenant_usage",
+        columnNames = { "tenantId", "usageDate", "provider", "taskType" }))
+public class AIUsageRecord {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long tenantId;
+
+    @Column(nullable = false)
+    private LocalDate usageDate;
+
+    @Column(nullable = false, length = 64)
+    private String provider;
+
+    @Column(nullable = false, length = 64)
+    private String taskType;
+
+    private long requests;
+
+    private long tokens;
+
+    public AIUsageRecord(Long tenantId, LocalDate usageDate, String provider, String taskType, long requests,
+            long tokens) {
+        this.tenantId = tenantId;
+        this.usageDate = usageDate;
+        this.provider = provider;
+        this.taskType = taskType;
+        this.requests = requests;
+        this.tokens = tokens;
+    }
+}
@@ -0,0 +1,31 @@
+package com.matheusdev.mindforge.ai.quota.repository;
+
+import com.matheusdev.mindforge.ai.quota.model.AIUsageRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface AIUsageRecordRepository extends JpaRepository<AIUsageRecord, Long> {
+
+    List<AIUsageRecord> findByTenantIdAndUsageDate(Long tenantId, LocalDate usageDate);
+
+    @Query("SELECT COALESCE(SUM(r.tokens), 0) FROM AIUsageRecord r WHERE r.tenantId = :tenantId AND r.usageDate = :day")
+    long sumTokens(@Param("tenantId") Long tenantId, @Param("day") LocalDate day);
+
+    /**
+     * Soma o delta na linha existente; devolve 0 se a linha ainda não existe.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE AIUsageRecord r SET r.requests = r.requests + :requests, r.tokens = r.tokens + :tokens "
+            + "WHERE r.tenantId = :tenantId AND r.usageDate = :day AND r.provider = :provider AND r.taskType = :taskType")
+    int addUsage(@Param("tenantId") Long tenantId, @Param("day") LocalDate day, @Param("provider") String provider,
+            @Param("taskType") String taskType, @Param("requests") long requests, @Param("tokens") long tokens);
+}
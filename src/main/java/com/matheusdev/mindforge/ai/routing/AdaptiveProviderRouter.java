@@ -0,0 +1,160 @@
+package com.matheusdev.mindforge.ai.routing;
+
+import com.matheusdev.mindforge.ai.provider.groq.GroqProvider;
+import com.matheusdev.mindforge.ai.provider.groq.GroqTokenBudgetManager;
+import com.matheusdev.mindforge.ai.scheduler.AIWorkScheduler;
+import com.matheusdev.mindforge.core.config.ResilienceConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Escolhe provedor e modelo pelo menor tempo esperado de conclusão, em vez
+ * de limites fixos de tamanho.
+ * <p>
+ * Para cada candidato, o tempo esperado é a soma de três partes:
+ * <ul>
+ * <li>duração da chamada, pela latência observada em {@link ProviderTelemetry}
+ * para o tamanho do prompt;</li>
+ * <li>espera na fila do {@link AIWorkScheduler}, pelas chamadas à frente
+ * divididas pela capacidade do provedor;</li>
+ * <li>no Groq, o tempo até o orçamento de tokens comportar a chamada.</li>
+ * </ul>
+ * O total é dividido por {@code 1 - taxa de erro} (retentativas esperadas).
+ * Provedores com circuit breaker aberto ficam de fora. Com o roteamento
+ * desligado, ou sem candidato, vale o Ollama.
+ */
+@Component
+@Slf4j
+public class AdaptiveProviderRouter {
+
+    public static final String OLLAMA_PROVIDER = ResilienceConfig.OLLAMA_INSTANCE;
+    public static final String GROQ_PROVIDER = ResilienceConfig.GROQ_INSTANCE;
+
+    // Reserva de resposta usada na estimativa de tokens do Groq (mesma do MAP)
+    private static final int GROQ_RESPONSE_RESERVE_TOKENS = 1127;
+    private static final double MAX_ERROR_RATE = 0.9;
+
+    public record Route(String provider, String model, long expectedMs) {
+    }
+
+    private final ProviderTelemetry telemetry;
+    private final AIWorkScheduler workScheduler;
+    private final GroqTokenBudgetManager budgetManager;
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final boolean enabled;
+    private final String ollamaModel;
+    private final String ollamaVisionModel;
+
+    public AdaptiveProviderRouter(ProviderTelemetry telemetry, AIWorkScheduler workScheduler,
+            GroqTokenBudgetManager budgetManager, CircuitBreakerRegistry circuitBreakerRegistry,
+            @Value("${mindforge.ai.routing.enabled:true}") boolean enabled,
+            @Value("${ollama.model:default}") String ollamaModel,
+            @Value("${ollama.model.vision:qwen3-vl:4b}") String ollamaVisionModel) {
+        this.telemetry = telemetry;
+        this.workScheduler = workScheduler;
+        this.budgetManager = budgetManager;
+        this.circuitBreakerRegistry = circuitBreakerRegistry;
+        this.enabled = enabled;
+        this.ollamaModel = ollamaModel;
+        this.ollamaVisionModel = ollamaVisionModel;
+    }
+
+    /**
+     * Melhor rota para um prompt de {@code promptChars} caracteres, com o
+     * modelo padrão do Groq.
+     */
+    public Route route(int promptChars) {
+        return route(promptChars, null);
+    }
+
+    /**
+     * @param groqModel modelo do Groq a considerar ({@code null} = padrão).
+     */
+    public Route route(int promptChars, String groqModel) {
+        return best(promptChars, rank(promptChars, ollamaModel, groqModelName(groqModel)));
+    }
+
+    /**
+     * Melhor rota para uma análise de imagem (modelos de visão).
+     */
+    public Route routeVision(int promptChars) {
+        return best(promptChars, rank(promptChars, ollamaVisionModel, GroqProvider.GroqModel.VISION.name()));
+    }
+
+    /**
+     * Candidatos disponíveis, do menor para o maior tempo esperado.
+     */
+    public List<Route> rank(int promptChars, String groqModel) {
+        return rank(promptChars, ollamaModel, groqModelName(groqModel));
+    }
+
+    private Route best(int promptChars, List<Route> ranked) {
+        Route best = ranked.isEmpty() ? new Route(OLLAMA_PROVIDER, ollamaModel, -1) : ranked.get(0);
+        log.debug("🧭 Rota para {} chars: {} (candidatos: {})", promptChars, best, ranked);
+        return best;
+    }
+
+    private List<Route> rank(int promptChars, String ollamaModelName, String groqModelName) {
+        if (!enabled) {
+            return List.of(new Route(OLLAMA_PROVIDER, ollamaModelName, -1));
+        }
+        List<Route> candidates = new ArrayList<>(2);
+        addCandidate(candidates, OLLAMA_PROVIDER, ollamaModelName, promptChars, 0);
+        long groqTokens = (long) promptChars / 4 + GROQ_RESPONSE_RESERVE_TOKENS;
+        // Prompt que nunca cabe numa janela do Groq falharia no reserve(): não é candidato
+        if (groqTokens <= budgetManager.getWindowLimit()) {
+            long budgetWaitMs = budgetManager.timeUntilAvailable((int) groqTokens).toMillis();
+            addCandidate(candidates, GROQ_PROVIDER, groqModelName, promptChars, budgetWaitMs);
+        }
+        // Empate favorece o Ollama (local, sem custo de budget)
+        candidates.sort(Comparator.comparingLong(Route::expectedMs));
+        return candidates;
+    }
+
+    private static String groqModelName(String groqModel) {
+        try {
+            return GroqProvider.GroqModel.fromString(groqModel).name();
+        } catch (IllegalArgumentException e) {
+            return GroqProvider.GroqModel.fromString(null).name();
+        }
+    }
+
+    private void addCandidate(List<Route> candidates, String provider, String model, int promptChars,
+            long extraWaitMs) {
+        if (isCircuitOpen(provider)) {
+            return;
+        }
+        double serviceMs = telemetry.expectedServiceMs(provider, model, promptChars);
+        double queueMs = queueWaitMs(provider, telemetry.averageLatencyMs(provider, model, serviceMs));
+        double errorRate = Math.min(MAX_ERROR_RATE, telemetry.errorRate(provider, model));
+        long expectedMs = Math.round((serviceMs + queueMs + extraWaitMs) / (1 - errorRate));
+        candidates.add(new Route(provider, model, expectedMs));
+    }
+
+    private double queueWaitMs(String provider, double avgLatencyMs) {
+        for (AIWorkScheduler.GateStats gate : workScheduler.stats()) {
+            if (gate.provider().equals(provider)) {
+                int queued = gate.queued().values().stream().mapToInt(Integer::intValue).sum();
+                int ahead = gate.running() + queued - gate.capacity() + 1;
+                return ahead <= 0 ? 0 : avgLatencyMs * ahead / gate.capacity();
+            }
+        }
+        return 0;
+    }
+
+    private boolean isCircuitOpen(String provider) {
+        try {
+            CircuitBreaker.State state = circuitBreakerRegistry.circuitBreaker(provider).getState();
+            return state == CircuitBreaker.State.OPEN || state == CircuitBreaker.State.FORCED_OPEN;
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package com.matheusdev.mindforge.ai.routing;
+
+import com.matheusdev.mindforge.ai.provider.AIProvider;
+import com.matheusdev.mindforge.ai.provider.dto.AIProviderRequest;
+import com.matheusdev.mindforge.ai.provider.dto.AIProviderResponse;
+import com.matheusdev.mindforge.ai.scheduler.AIWorkCancellation;
+import com.matheusdev.mindforge.ai.scheduler.AIWorkContext;
+import com.matheusdev.mindforge.config.ContextPropagatingExecutor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hedge entre provedores para tarefas idempotentes (opt-in).
+ * <p>
+ * A chamada vai para o provedor escolhido; se ele não responder dentro do
+ * percentil {@code percentile} da duração observada em
+ * {@link ProviderTelemetry} para aquele tamanho de prompt, a mesma
+ * requisição vai também para o outro provedor disponível. Vale a primeira
+ * resposta sem erro; a outra chamada é cancelada pelo
+ * {@link AIWorkCancellation} (sai da fila do scheduler ou tem a conexão
+ * interrompida).
+ * <p>
+ * Backups ficam limitados a {@code max-hedge-ratio} das chamadas, para que o
+ * hedge corte a cauda sem dobrar a carga média. Requisições multimodais não
+ * usam hedge.
+ */
+@Component
+@Slf4j
+public class HedgedRequestExecutor {
+
+    public record HedgeStats(boolean enabled, long calls, long hedged, long backupWins, long cancelled) {
+    }
+
+    private record Attempt(String provider, boolean backup, AIWorkCancellation cancellation,
+            CompletableFuture<AIProviderResponse> future) {
+    }
+
+    private final Map<String, AIProvider> aiProviders;
+    private final ProviderTelemetry telemetry;
+    private final AdaptiveProviderRouter providerRouter;
+    private final Executor executor;
+    private final boolean enabled;
+    private final double percentile;
+    private final int minSamples;
+    private final long minDelayMs;
+    private final long maxDelayMs;
+    private final double maxHedgeRatio;
+
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong hedged = new AtomicLong();
+    private final AtomicLong backupWins = new AtomicLong();
+    private final AtomicLong cancelled = new AtomicLong();
+
+    @Autowired
+    public HedgedRequestExecutor(Map<String, AIProvider> aiProviders, ProviderTelemetry telemetry,
+            AdaptiveProviderRouter providerRouter, ContextPropagatingExecutor aiExecutor,
+            @Value("${mindforge.ai.hedging.enabled:false}") boolean enabled,
+            @Value("${mindforge.ai.hedging.percentile:0.95}") double percentile,
+            @Value("${mindforge.ai.hedging.min-samples:20}") int minSamples,
+            @Value("${mindforge.ai.hedging.min-delay-ms:1000}") long minDelayMs,
+            @Value("${mindforge.ai.hedging.max-delay-ms:60000}") long maxDelayMs,
+            @Value("${mindforge.ai.hedging.max-hedge-ratio:0.1}") double maxHedgeRatio) {
+        this(aiProviders, telemetry, providerRouter, (Executor) aiExecutor, enabled, percentile, minSamples,
+                minDelayMs, maxDelayMs, maxHedgeRatio);
+    }
+
+    HedgedRequestExecutor(Map<String, AIProvider> aiProviders, ProviderTelemetry telemetry,
+            AdaptiveProviderRouter providerRouter, Executor executor, boolean enabled, double percentile,
+            int minSamples, long minDelayMs, long maxDelayMs, double maxHedgeRatio) {
+        this.aiProviders = aiProviders;
+        this.telemetry = telemetry;
+        this.providerRouter = providerRouter;
+        this.executor = executor;
+        this.enabled = enabled;
+        this.percentile = Math.min(1, Math.max(0.5, percentile));
+        this.minSamples = Math.max(1, minSamples);
+        this.minDelayMs = Math.max(0, minDelayMs);
+        this.maxDelayMs = Math.max(this.minDelayMs, maxDelayMs);
+        this.maxHedgeRatio = Math.max(0, maxHedgeRatio);
+        if (enabled) {
+            log.info("🏁 Hedge entre provedores ativo: p{} da latência, até {}% das chamadas",
+                    Math.round(this.percentile * 100), Math.round(this.maxHedgeRatio * 100));
+        }
+    }
+
+    /**
+     * Provedor que executa com hedge a partir de {@code primaryProvider}. Para
+     * usar com o {@code PromptCacheService}: cache e single-flight continuam
+     * valendo para a chamada como um todo.
+     */
+    public AIProvider hedged(String primaryProvider) {
+        return request -> execute(primaryProvider, request);
+    }
+
+    public CompletableFuture<AIProviderResponse> execute(String primaryProvider, AIProviderRequest request) {
+        // Primário e backup são a mesma chamada lógica: contam uma requisição na cota do tenant
+        return AIWorkContext.callAsOneCall(() -> hedge(primaryProvider, request));
+    }
+
+    private CompletableFuture<AIProviderResponse> hedge(String primaryProvider, AIProviderRequest request) {
+        AIProvider primary = getProvider(primaryProvider);
+        if (!enabled || request.multimodal()) {
+            return primary.executeTask(request);
+        }
+        int promptChars = ProviderTelemetry.promptChars(request);
+        List<AdaptiveProviderRouter.Route> routes = providerRouter.rank(promptChars, request.model());
+        AdaptiveProviderRouter.Route primaryRoute = null;
+        AdaptiveProviderRouter.Route backupRoute = null;
+        for (AdaptiveProviderRouter.Route route : routes) {
+            if (route.provider().equals(primaryProvider)) {
+                primaryRoute = route;
+            } else if (backupRoute == null && aiProviders.containsKey(route.provider())) {
+                backupRoute = route;
+            }
+        }
+        if (primaryRoute == null || backupRoute == null) {
+            // Sem alternativa disponível (ou primário com circuito aberto, que tem o próprio fallback)
+            return primary.executeTask(request);
+        }
+
+        calls.incrementAndGet();
+        long delayMs = hedgeDelayMs(primaryProvider, primaryRoute.model(), promptChars);
+        Hedge hedge = new Hedge();
+        hedge.start(primaryProvider, false, primary, request);
+
+        String backupProvider = backupRoute.provider();
+        // O modelo da requisição é do provedor primário; o backup usa o padrão dele
+        AIProviderRequest backupRequest = request.withPreferredProvider(backupProvider).withModel(null);
+        ContextPropagatingExecutor.Snapshot snapshot = ContextPropagatingExecutor.Snapshot.capture();
+        CompletableFuture.delayedExecutor(delayMs, TimeUnit.MILLISECONDS, executor)
+                .execute(() -> snapshot.run(() -> launchBackup(hedge, primaryProvider, backupProvider, backupRequest,
+                        delayMs)));
+        return hedge.result;
+    }
+
+    public HedgeStats stats() {
+        return new HedgeStats(enabled, calls.get(), hedged.get(), backupWins.get(), cancelled.get());
+    }
+
+    /**
+     * Espera antes do backup: percentil da duração observada para o tamanho
+     * do prompt; sem amostras suficientes, o dobro da duração esperada.
+     */
+    long hedgeDelayMs(String provider, String model, int promptChars) {
+        double delay = telemetry.serviceTimePercentileMs(provider, model, promptChars, percentile, minSamples);
+        if (delay < 0) {
+            delay = 2 * telemetry.expectedServiceMs(provider, model, promptChars);
+        }
+        return Math.min(maxDelayMs, Math.max(minDelayMs, Math.round(delay)));
+    }
+
+    private void launchBackup(Hedge hedge, String primaryProvider, String backupProvider,
+            AIProviderRequest backupRequest, long delayMs) {
+        if (hedge.result.isDone()) {
+            return;
+        }
+        if (hedged.get() >= Math.max(1.0, maxHedgeRatio * calls.get())) {
+            log.debug("🏁 Hedge ignorado: limite de {}% de backups atingido", Math.round(maxHedgeRatio * 100));
+            return;
+        }
+        hedged.incrementAndGet();
+        log.info("🏁 {} sem resposta em {} ms: disparando backup em {}", primaryProvider, delayMs, backupProvider);
+        hedge.start(backupProvider, true, getProvider(backupProvider), backupRequest);
+    }
+
+    private AIProvider getProvider(String providerName) {
+        AIProvider provider = aiProviders.get(providerName);
+        if (provider == null) {
+            throw new IllegalArgumentException("Provedor de IA desconhecido: " + providerName);
+        }
+        return provider;
+    }
+
+    /**
+     * Corrida entre a chamada primária e o backup. A primeira resposta sem
+     * erro completa o resultado; se todas falharem, vale a falha do primário.
+     */
+    private final class Hedge {
+        final CompletableFuture<AIProviderResponse> result = new CompletableFuture<>();
+        private final List<Attempt> attempts = new ArrayList<>(2);
+        private int pending;
+        private AIProviderResponse failedResponse;
+        private Throwable failure;
+        private boolean primaryFailed;
+
+        Hedge() {
+            // Resultado decidido (ou cancelado por quem chamou): as chamadas restantes não são mais necessárias
+            result.whenComplete((response, error) -> cancelRemaining());
+        }
+
+        void start(String provider, boolean backup, AIProvider target, AIProviderRequest request) {
+            AIWorkCancellation cancellation = new AIWorkCancellation();
+            CompletableFuture<AIProviderResponse> call;
+            try {
+                call = AIWorkContext.callWith(cancellation, () -> target.executeTask(request));
+            } catch (RuntimeException e) {
+                call = CompletableFuture.failedFuture(e);
+            }
+            Attempt attempt = new Attempt(provider, backup, cancellation, call);
+            synchronized (this) {
+                attempts.add(attempt);
+                pending++;
+            }
+            call.whenComplete((response, error) -> onComplete(attempt, response, error));
+            if (result.isDone()) {
+                cancelRemaining();
+            }
+        }
+
+        private void onComplete(Attempt attempt, AIProviderResponse response, Throwable error) {
+            if (error == null && response != null && response.getError() == null) {
+                synchronized (this) {
+                    pending--;
+                }
+                if (result.complete(response) && attempt.backup()) {
+                    backupWins.incrementAndGet();
+                    log.info("🏁 Backup em {} respondeu primeiro", attempt.provider());
+                }
+                return;
+            }
+            boolean exhausted;
+            synchronized (this) {
+                pending--;
+                // A falha do primário tem preferência sobre a do backup
+                if (failure == null && failedResponse == null || !attempt.backup() && !primaryFailed) {
+                    failedResponse = error == null ? response : null;
+                    failure = error;
+                }
+                primaryFailed |= !attempt.backup();
+                exhausted = pending == 0;
+            }
+            if (exhausted) {
+                if (failure != null) {
+                    result.completeExceptionally(failure);
+                } else {
+                    result.complete(failedResponse);
+                }
+            }
+        }
+
+        private void cancelRemaining() {
+            List<Attempt> running;
+            synchronized (this) {
+                running = attempts.stream().filter(attempt -> !attempt.future().isDone()).toList();
+            }
+            for (Attempt attempt : running) {
+                if (attempt.cancellation().cancel()) {
+                    cancelled.incrementAndGet();
+                    log.debug("🏁 Chamada em {} cancelada: resultado já decidido", attempt.provider());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package com.matheusdev.mindforge.ai.routing;
+
+import com.matheusdev.mindforge.ai.provider.StreamAbortedByClientException;
+import com.matheusdev.mindforge.ai.provider.dto.AIProviderRequest;
+import com.matheusdev.mindforge.ai.scheduler.AIWorkContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Latência e taxa de erro observadas por provedor e modelo, em médias
+ * móveis exponenciais (EWMA).
+ * <p>
+ * A latência é medida depois da vaga no scheduler (a espera em fila é
+ * estimada à parte pelo roteador) e normalizada por uma forma de custo
+ * {@code base + ms/1k caracteres} do provedor: o que se aprende é um fator
+ * de velocidade ({@code observado / previsto}), que vale para prompts de
+ * qualquer tamanho. Sem amostras recentes, fator e taxa de erro voltam aos
+ * valores neutros, de modo que um provedor que esteve lento volta a ser
+ * testado.
+ * <p>
+ * Os fatores das últimas chamadas com sucesso ficam numa janela, de onde
+ * saem os percentis de duração usados no hedge. Chamadas canceladas pelo
+ * hedge não entram nas estatísticas.
+ */
+@Component
+public class ProviderTelemetry {
+
+    /**
+     * Forma de custo de um provedor antes de qualquer observação.
+     */
+    public record CostShape(double baseMs, double msPerKChar) {
+        double predict(int promptChars) {
+            return baseMs + msPerKChar * promptChars / 1000.0;
+        }
+    }
+
+    public record ModelStats(String provider, String model, long samples, double speedFactor, double avgLatencyMs,
+            double errorRate, long lastSampleAgeMs) {
+    }
+
+    private static final CostShape DEFAULT_SHAPE = new CostShape(1000, 200);
+    private static final int PERCENTILE_WINDOW = 128;
+
+    private final double alpha;
+    private final long staleAfterMs;
+    private final Map<String, CostShape> shapes;
+    private final LongSupplier clockMillis;
+    private final Map<String, Stats> stats = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ProviderTelemetry(@Value("${mindforge.ai.routing.ewma-alpha:0.2}") double alpha,
+            @Value("${mindforge.ai.routing.stale-after-ms:300000}") long staleAfterMs,
+            @Value("${mindforge.ai.routing.prior.ollama.base-ms:800}") double ollamaBaseMs,
+            @Value("${mindforge.ai.routing.prior.ollama.ms-per-kchar:400}") double ollamaMsPerKChar,
+            @Value("${mindforge.ai.routing.prior.groq.base-ms:2300}") double groqBaseMs,
+            @Value("${mindforge.ai.routing.prior.groq.ms-per-kchar:100}") double groqMsPerKChar) {
+        this(alpha, staleAfterMs, Map.of(
+                "ollamaProvider", new CostShape(ollamaBaseMs, ollamaMsPerKChar),
+                "groqProvider", new CostShape(groqBaseMs, groqMsPerKChar)), System::currentTimeMillis);
+    }
+
+    ProviderTelemetry(double alpha, long staleAfterMs, Map<String, CostShape> shapes, LongSupplier clockMillis) {
+        this.alpha = Math.min(1, Math.max(0.01, alpha));
+        this.staleAfterMs = Math.max(1, staleAfterMs);
+        this.shapes = shapes;
+        this.clockMillis = clockMillis;
+    }
+
+    /**
+     * Registra uma chamada concluída (com sucesso ou não).
+     */
+    public void observe(String provider, String model, int promptChars, long latencyMs, boolean success) {
+        if (AIWorkContext.isCancelled()) {
+            // Interrompida por quem a disparou: não diz nada sobre o provedor
+            return;
+        }
+        double predicted = shapeOf(provider).predict(promptChars);
+        stats.computeIfAbsent(key(provider, model), k -> new Stats(provider, model))
+                .add(latencyMs, latencyMs / predicted, success, clockMillis.getAsLong());
+    }
+
+    /**
+     * Envolve o corpo de uma chamada medindo sua duração; exceção conta como
+     * erro, exceto o abort de stream pelo cliente.
+     */
+    public <T> Supplier<T> timed(String provider, String model, int promptChars, Supplier<T> call) {
+        return () -> {
+            long start = System.nanoTime();
+            try {
+                T result = call.get();
+                observe(provider, model, promptChars, (System.nanoTime() - start) / 1_000_000, true);
+                return result;
+            } catch (RuntimeException | Error e) {
+                // Stream abortado pelo cliente: duração truncada, sem falha do provedor
+                if (!StreamAbortedByClientException.isClientAbort(e)) {
+                    observe(provider, model, promptChars, (System.nanoTime() - start) / 1_000_000, false);
+                }
+                throw e;
+            }
+        };
+    }
+
+    /**
+     * Duração esperada da chamada, sem fila: forma do provedor vezes o fator
+     * aprendido para o modelo.
+     */
+    public double expectedServiceMs(String provider, String model, int promptChars) {
+        double predicted = shapeOf(provider).predict(promptChars);
+        Stats current = stats.get(key(provider, model));
+        return current == null ? predicted : predicted * current.speedFactor(clockMillis.getAsLong(), staleAfterMs);
+    }
+
+    /**
+     * Percentil {@code percentile} (0-1) da duração da chamada, sem fila, para
+     * o tamanho do prompt, pelas últimas chamadas com sucesso. Devolve
+     * {@code -1} com menos de {@code minSamples} amostras.
+     */
+    public double serviceTimePercentileMs(String provider, String model, int promptChars, double percentile,
+            int minSamples) {
+        Stats current = stats.get(key(provider, model));
+        double factor = current == null ? -1
+                : current.factorPercentile(percentile, minSamples, clockMillis.getAsLong(), staleAfterMs);
+        return factor < 0 ? -1 : shapeOf(provider).predict(promptChars) * factor;
+    }
+
+    /**
+     * Duração média recente das chamadas ao modelo, usada para estimar a fila.
+     */
+    public double averageLatencyMs(String provider, String model, double fallback) {
+        Stats current = stats.get(key(provider, model));
+        return current == null ? fallback : current.avgLatencyMs(fallback);
+    }
+
+    public double errorRate(String provider, String model) {
+        Stats current = stats.get(key(provider, model));
+        return current == null ? 0 : current.errorRate(clockMillis.getAsLong(), staleAfterMs);
+    }
+
+    public List<ModelStats> snapshot() {
+        long now = clockMillis.getAsLong();
+        return stats.values().stream().map(s -> s.snapshot(now, staleAfterMs))
+                .sorted(Comparator.comparing(ModelStats::provider).thenComparing(ModelStats::model)).toList();
+    }
+
+    /**
+     * Tamanho do prompt (system + usuário) usado nas estimativas.
+     */
+    public static int promptChars(AIProviderRequest request) {
+        return (request.systemMessage() != null ? request.systemMessage().length() : 0)
+                + (request.textPrompt() != null ? request.textPrompt().length() : 0);
+    }
+
+    private CostShape shapeOf(String provider) {
+        return shapes.getOrDefault(provider, DEFAULT_SHAPE);
+    }
+
+    private static String key(String provider, String model) {
+        return provider + "/" + model;
+    }
+
+    private final class Stats {
+        final String provider;
+        final String model;
+        private long samples;
+        private double speedFactor = 1;
+        private double avgLatencyMs;
+        private double errorRate;
+        private long lastSampleAt;
+        private final double[] recentFactors = new double[PERCENTILE_WINDOW];
+        private int recentCount;
+        private int recentNext;
+
+        Stats(String provider, String model) {
+            this.provider = provider;
+            this.model = model;
+        }
+
+        synchronized void add(long latencyMs, double factor, boolean success, long now) {
+            if (samples == 0) {
+                avgLatencyMs = latencyMs;
+                speedFactor = success ? factor : Math.max(1, factor);
+            } else {
+                double decay = freshness(now, staleAfterMs);
+                speedFactor = 1 + (speedFactor - 1) * decay;
+                errorRate *= decay;
+                // Falha rápida não indica velocidade; falha lenta (timeout) indica saturação
+                if (success || factor > speedFactor) {
+                    speedFactor += alpha * (factor - speedFactor);
+                }
+                avgLatencyMs += alpha * (latencyMs - avgLatencyMs);
+            }
+            errorRate += alpha * ((success ? 0 : 1) - errorRate);
+            if (success) {
+                recentFactors[recentNext] = factor;
+                recentNext = (recentNext + 1) % PERCENTILE_WINDOW;
+                recentCount = Math.min(PERCENTILE_WINDOW, recentCount + 1);
+            }
+            samples++;
+            lastSampleAt = now;
+        }
+
+        synchronized double speedFactor(long now, long staleAfterMs) {
+            return 1 + (speedFactor - 1) * freshness(now, staleAfterMs);
+        }
+
+        /**
+         * Percentil dos fatores na janela, puxado para o neutro como o fator médio.
+         */
+        synchronized double factorPercentile(double percentile, int minSamples, long now, long staleAfterMs) {
+            if (recentCount == 0 || recentCount < minSamples) {
+                return -1;
+            }
+            double[] sorted = Arrays.copyOf(recentFactors, recentCount);
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(Math.min(1, Math.max(0, percentile)) * recentCount) - 1;
+            double factor = sorted[Math.max(0, index)];
+            return 1 + (factor - 1) * freshness(now, staleAfterMs);
+        }
+
+        synchronized double avgLatencyMs(double fallback) {
+            return samples == 0 ? fallback : avgLatencyMs;
+        }
+
+        synchronized double errorRate(long now, long staleAfterMs) {
+            return errorRate * freshness(now, staleAfterMs);
+        }
+
+        synchronized ModelStats snapshot(long now, long staleAfterMs) {
+            return new ModelStats(provider, model, samples, speedFactor(now, staleAfterMs), avgLatencyMs,
+                    errorRate(now, staleAfterMs), now - lastSampleAt);
+        }
+
+        private double freshness(long now, long staleAfterMs) {
+            return Math.exp(-Math.max(0, now - lastSampleAt) / (double) staleAfterMs);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.matheusdev.mindforge.ai.scheduler;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Chamada lógica de IA, propagada junto com o {@link AIWorkContext} para as
+ * chamadas internas que a compõem: fallback para outro provedor, backup do
+ * hedge, trechos do map-reduce e suas retentativas.
+ * <p>
+ * A requisição conta uma vez por chamada lógica no limite por minuto do
+ * tenant: a primeira chamada a provedor dentro dela reivindica a admissão
+ * ({@link #claimAdmission()}) e as demais só conferem os tokens do dia.
+ * Uma chamada encerrada ({@link #close()})
+ * deixa de valer, e o que vier depois dela na mesma thread é outra chamada.
+ */
+public final class AIWorkCall {
+
+    private final AtomicBoolean admitted = new AtomicBoolean();
+    private volatile boolean open = true;
+
+    public boolean isOpen() {
+        return open;
+    }
+
+    public void close() {
+        open = false;
+    }
+
+    /**
+     * Futuro que completa como {@code future}, com a chamada já encerrada:
+     * quem encadear nele está fora dela. Cancelá-lo cancela {@code future}.
+     */
+    public <T> CompletableFuture<T> closeWhenDone(CompletableFuture<T> future) {
+        CompletableFuture<T> result = future.whenComplete((value, error) -> close());
+        result.whenComplete((value, error) -> {
+            if (result.isCancelled()) {
+                future.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * @return {@code true} para quem deve admitir a chamada na cota; as
+     *         chamadas seguintes recebem {@code false}.
+     */
+    public boolean claimAdmission() {
+        return admitted.compareAndSet(false, true);
+    }
+
+    /**
+     * Devolve a admissão reivindicada, quando a cota a recusou: a próxima
+     * tentativa dentro da chamada é cobrada de novo.
+     */
+    public void releaseAdmission() {
+        admitted.set(false);
+    }
+}
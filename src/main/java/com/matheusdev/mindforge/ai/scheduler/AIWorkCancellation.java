@@ -0,0 +1,63 @@
+package com.matheusdev.mindforge.ai.scheduler;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Sinal de cancelamento de uma chamada de IA, propagado junto com o
+ * {@link AIWorkContext} para as threads que executam a chamada.
+ * <p>
+ * Enquanto executam, essas threads ficam vinculadas ao sinal; {@link #cancel()}
+ * as interrompe: uma chamada ainda na fila do {@link AIWorkScheduler} desiste
+ * da vaga, e uma chamada HTTP em virtual thread tem o socket fechado. O
+ * executor de IA entrega o resultado de uma chamada cancelada como
+ * {@link AIWorkCancelledException}.
+ */
+public final class AIWorkCancellation {
+
+    private final Set<Thread> threads = new HashSet<>();
+    private boolean cancelled;
+
+    public synchronized boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * @return {@code false} se já estava cancelado.
+     */
+    public synchronized boolean cancel() {
+        if (cancelled) {
+            return false;
+        }
+        cancelled = true;
+        threads.forEach(Thread::interrupt);
+        return true;
+    }
+
+    /**
+     * Executa {@code task} vinculando a thread atual ao sinal: um
+     * cancelamento durante a execução interrompe a thread. A interrupção não
+     * sobrevive ao fim da tarefa.
+     */
+    public <T> T run(Supplier<T> task) {
+        Thread current = Thread.currentThread();
+        synchronized (this) {
+            threads.add(current);
+            if (cancelled) {
+                current.interrupt();
+            }
+        }
+        try {
+            return task.get();
+        } finally {
+            synchronized (this) {
+                threads.remove(current);
+                if (cancelled) {
+                    // A interrupção era para esta chamada; não vaza para a próxima tarefa da thread
+                    Thread.interrupted();
+                }
+            }
+        }
+    }
+}
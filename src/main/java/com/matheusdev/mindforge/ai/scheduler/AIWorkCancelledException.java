@@ -0,0 +1,28 @@
+package com.matheusdev.mindforge.ai.scheduler;
+
+/**
+ * Lançada por uma chamada de IA interrompida porque o resultado deixou de
+ * ser necessário (ex.: perdeu a corrida de um hedge). Não indica falha do
+ * provedor: não conta no circuit breaker nem dispara retry ou fallback.
+ */
+public class AIWorkCancelledException extends RuntimeException {
+
+    public AIWorkCancelledException(Throwable cause) {
+        super("Chamada de IA cancelada: o resultado não é mais necessário.", cause);
+    }
+
+    /**
+     * Indica se {@code throwable} (ou uma de suas causas) é um cancelamento.
+     */
+    public static boolean isCancellation(Throwable throwable) {
+        for (Throwable current = throwable; current != null; current = current.getCause()) {
+            if (current instanceof AIWorkCancelledException) {
+                return true;
+            }
+            if (current == current.getCause()) {
+                break;
+            }
+        }
+        return false;
+    }
+}
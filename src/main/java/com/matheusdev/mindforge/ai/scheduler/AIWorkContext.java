@@ -0,0 +1,194 @@
+package com.matheusdev.mindforge.ai.scheduler;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Prioridade do trabalho de IA em andamento na thread, no mesmo molde do
+ * {@code TenantContext}. Sem marcação, o trabalho é
+ * {@link AIWorkPriority#INTERACTIVE}. O {@code ContextPropagatingExecutor}
+ * propaga a prioridade para as etapas assíncronas, de modo que basta marcar
+ * o ponto de entrada de um fluxo em background.
+ * <p>
+ * Junto com a prioridade vai um rótulo de tarefa (ex.: {@code "quiz"},
+ * {@code "embedding"}), usado na contabilização de uso por tenant. Sem
+ * rótulo, a tarefa é o nome da prioridade.
+ * <p>
+ * Também vai junto o {@link AIWorkCancellation} da chamada, quando quem a
+ * disparou pode desistir dela (ex.: hedge entre provedores), e a
+ * {@link AIWorkCall} da chamada lógica em andamento, que conta uma requisição
+ * só na cota do tenant pelas chamadas internas que a compõem.
+ */
+public final class AIWorkContext {
+
+    private static final ThreadLocal<AIWorkPriority> CURRENT_PRIORITY = new ThreadLocal<>();
+    private static final ThreadLocal<String> CURRENT_TASK = new ThreadLocal<>();
+    private static final ThreadLocal<AIWorkCancellation> CURRENT_CANCELLATION = new ThreadLocal<>();
+    private static final ThreadLocal<AIWorkCall> CURRENT_CALL = new ThreadLocal<>();
+
+    private AIWorkContext() {
+    }
+
+    public static AIWorkPriority getPriority() {
+        AIWorkPriority priority = CURRENT_PRIORITY.get();
+        return priority != null ? priority : AIWorkPriority.INTERACTIVE;
+    }
+
+    /**
+     * Prioridade marcada explicitamente, ou {@code null} (usado na propagação).
+     */
+    public static AIWorkPriority getExplicitPriority() {
+        return CURRENT_PRIORITY.get();
+    }
+
+    public static void setPriority(AIWorkPriority priority) {
+        if (priority != null) {
+            CURRENT_PRIORITY.set(priority);
+        } else {
+            CURRENT_PRIORITY.remove();
+        }
+    }
+
+    /**
+     * Rótulo da tarefa em andamento; sem marcação, o nome da prioridade.
+     */
+    public static String getTask() {
+        String task = CURRENT_TASK.get();
+        return task != null ? task : getPriority().name().toLowerCase();
+    }
+
+    /**
+     * Rótulo marcado explicitamente, ou {@code null} (usado na propagação).
+     */
+    public static String getExplicitTask() {
+        return CURRENT_TASK.get();
+    }
+
+    public static void setTask(String task) {
+        if (task != null) {
+            CURRENT_TASK.set(task);
+        } else {
+            CURRENT_TASK.remove();
+        }
+    }
+
+    /**
+     * Sinal de cancelamento da chamada em andamento, ou {@code null}.
+     */
+    public static AIWorkCancellation getCancellation() {
+        return CURRENT_CANCELLATION.get();
+    }
+
+    public static void setCancellation(AIWorkCancellation cancellation) {
+        if (cancellation != null) {
+            CURRENT_CANCELLATION.set(cancellation);
+        } else {
+            CURRENT_CANCELLATION.remove();
+        }
+    }
+
+    public static boolean isCancelled() {
+        AIWorkCancellation cancellation = CURRENT_CANCELLATION.get();
+        return cancellation != null && cancellation.isCancelled();
+    }
+
+    /**
+     * Chamada lógica marcada na thread (mesmo encerrada), ou {@code null}
+     * (usado na propagação).
+     */
+    public static AIWorkCall getCall() {
+        return CURRENT_CALL.get();
+    }
+
+    /**
+     * Chamada lógica em andamento, ou {@code null} se não há uma aberta.
+     */
+    public static AIWorkCall getOpenCall() {
+        AIWorkCall call = CURRENT_CALL.get();
+        return call != null && call.isOpen() ? call : null;
+    }
+
+    public static void setCall(AIWorkCall call) {
+        if (call != null) {
+            CURRENT_CALL.set(call);
+        } else {
+            CURRENT_CALL.remove();
+        }
+    }
+
+    public static void clear() {
+        CURRENT_PRIORITY.remove();
+        CURRENT_TASK.remove();
+        CURRENT_CANCELLATION.remove();
+        CURRENT_CALL.remove();
+    }
+
+    /**
+     * Executa {@code work} com a prioridade dada e restaura a anterior. Tudo
+     * o que for submetido ao executor de IA dentro dele herda a prioridade.
+     */
+    public static <T> T callAs(AIWorkPriority priority, Supplier<T> work) {
+        AIWorkPriority previous = CURRENT_PRIORITY.get();
+        setPriority(priority);
+        try {
+            return work.get();
+        } finally {
+            setPriority(previous);
+        }
+    }
+
+    /**
+     * Como {@link #callAs(AIWorkPriority, Supplier)}, marcando também o
+     * rótulo da tarefa.
+     */
+    public static <T> T callAs(AIWorkPriority priority, String task, Supplier<T> work) {
+        String previous = CURRENT_TASK.get();
+        setTask(task);
+        try {
+            return callAs(priority, work);
+        } finally {
+            setTask(previous);
+        }
+    }
+
+    /**
+     * Executa {@code work} com o sinal de cancelamento dado: o que for
+     * submetido ao executor de IA dentro dele pode ser cancelado por
+     * {@link AIWorkCancellation#cancel()}.
+     */
+    public static <T> T callWith(AIWorkCancellation cancellation, Supplier<T> work) {
+        AIWorkCancellation previous = CURRENT_CANCELLATION.get();
+        setCancellation(cancellation);
+        try {
+            return work.get();
+        } finally {
+            setCancellation(previous);
+        }
+    }
+
+    /**
+     * Executa {@code work} como uma única chamada lógica de IA, encerrada
+     * quando o futuro devolvido completa. As chamadas a provedor feitas
+     * dentro dele (e nas etapas assíncronas que herdam o contexto) contam uma
+     * requisição só na cota. Dentro de uma chamada já aberta, apenas
+     * executa {@code work}.
+     */
+    public static <T> CompletableFuture<T> callAsOneCall(Supplier<CompletableFuture<T>> work) {
+        if (getOpenCall() != null) {
+            return work.get();
+        }
+        AIWorkCall call = new AIWorkCall();
+        AIWorkCall previous = CURRENT_CALL.get();
+        setCall(call);
+        CompletableFuture<T> future;
+        try {
+            future = work.get();
+        } catch (RuntimeException | Error e) {
+            call.close();
+            throw e;
+        } finally {
+            setCall(previous);
+        }
+        return call.closeWhenDone(future);
+    }
+}
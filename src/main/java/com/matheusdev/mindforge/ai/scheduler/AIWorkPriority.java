@@ -0,0 +1,15 @@
+package com.matheusdev.mindforge.ai.scheduler;
+
+/**
+ * Classe de prioridade de uma chamada a provedor de IA, da mais para a menos
+ * urgente. O {@link AIWorkScheduler} sempre atende a classe mais alta com
+ * fila; as demais só usam a capacidade que sobra.
+ */
+public enum AIWorkPriority {
+    /** Alguém está esperando a resposta na tela (chat, assistentes). */
+    INTERACTIVE,
+    /** Trabalho disparado pelo sistema, sem usuário esperando (perfil, roadmap, quiz). */
+    BACKGROUND,
+    /** Lotes grandes que geram muitas chamadas (map-reduce de documentos). */
+    BULK
+}
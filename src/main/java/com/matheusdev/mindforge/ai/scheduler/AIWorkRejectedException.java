@@ -0,0 +1,26 @@
+package com.matheusdev.mindforge.ai.scheduler;
+
+/**
+ * Lançada quando uma chamada de IA não consegue vaga no provedor dentro do
+ * tempo máximo de fila.
+ */
+public class AIWorkRejectedException extends RuntimeException {
+
+    private final String provider;
+    private final AIWorkPriority priority;
+
+    public AIWorkRejectedException(String provider, AIWorkPriority priority, long waitedMs) {
+        super(String.format("Provedor %s sem capacidade para trabalho %s após %d ms de fila.", provider, priority,
+                waitedMs));
+        this.provider = provider;
+        this.priority = priority;
+    }
+
+    public String getProvider() {
+        return provider;
+    }
+
+    public AIWorkPriority getPriority() {
+        return priority;
+    }
+}
@@ -0,0 +1,317 @@
+package com.matheusdev.mindforge.ai.scheduler;
+
+import com.matheusdev.mindforge.core.tenant.context.TenantContext;
+import com.matheusdev.mindforge.core.tenant.model.TenantPlan;
+import com.matheusdev.mindforge.core.tenant.service.TenantPlanResolver;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Porta de entrada das chamadas aos provedores de IA.
+ * <p>
+ * Cada provedor tem um número fixo de chamadas simultâneas. Quem chega com
+ * vaga livre passa direto; os demais esperam em filas por
+ * {@link AIWorkPriority}:
+ * <ul>
+ * <li>a classe mais alta com fila é sempre atendida primeiro;</li>
+ * <li>{@code interactive-reserved} vagas de cada provedor ficam reservadas ao
+ * trabalho interativo — background e bulk só usam o que sobra, então um
+ * map-reduce grande não tira o chat do ar;</li>
+ * <li>dentro de uma classe, os tenants são atendidos por fair queuing
+ * ponderado pelo plano: cada chamada recebe a etiqueta de término virtual
+ * {@code max(V, último término do tenant) + 1/peso}, sai a de menor etiqueta
+ * e o tempo virtual {@code V} avança para o início da que saiu. Um tenant com
+ * muitas chamadas na fila não passa na frente de quem tem uma só.</li>
+ * </ul>
+ * A prioridade vem do {@link AIWorkContext} e o tenant do
+ * {@link TenantContext} da thread que chama {@link #acquire}.
+ */
+@Component
+@Slf4j
+public class AIWorkScheduler {
+
+    public record GateStats(String provider, int capacity, int running, Map<AIWorkPriority, Integer> queued,
+            Map<AIWorkPriority, Long> granted, Map<AIWorkPriority, Double> avgWaitMs) {
+    }
+
+    /**
+     * Vaga obtida em {@link #acquire}; deve ser fechada ao fim da chamada.
+     */
+    public interface Permit extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    private static final Permit NO_OP = () -> {
+    };
+
+    private final TenantPlanResolver planResolver;
+    private final boolean enabled;
+    private final int defaultCapacity;
+    private final int interactiveReserved;
+    private final long maxQueueWaitMs;
+    private final Map<String, Integer> capacities;
+    private final Map<TenantPlan, Double> planWeights;
+    private final Map<String, Gate> gates = new ConcurrentHashMap<>();
+
+    public AIWorkScheduler(TenantPlanResolver planResolver,
+            @Value("${mindforge.ai.scheduler.enabled:true}") boolean enabled,
+            @Value("${mindforge.ai.scheduler.ollama-concurrency:2}") int ollamaConcurrency,
+            @Value("${mindforge.ai.scheduler.groq-concurrency:8}") int groqConcurrency,
+            @Value("${mindforge.ai.scheduler.default-concurrency:4}") int defaultConcurrency,
+            @Value("${mindforge.ai.scheduler.interactive-reserved:1}") int interactiveReserved,
+            @Value("${mindforge.ai.scheduler.max-queue-wait-ms:120000}") long maxQueueWaitMs,
+            @Value("${mindforge.ai.scheduler.weight.free:1}") double freeWeight,
+            @Value("${mindforge.ai.scheduler.weight.pro:2}") double proWeight,
+            @Value("${mindforge.ai.scheduler.weight.enterprise:4}") double enterpriseWeight) {
+        this.planResolver = planResolver;
+        this.enabled = enabled;
+        this.defaultCapacity = Math.max(1, defaultConcurrency);
+        this.interactiveReserved = Math.max(0, interactiveReserved);
+        this.maxQueueWaitMs = maxQueueWaitMs;
+        this.capacities = Map.of("ollamaProvider", Math.max(1, ollamaConcurrency),
+                "groqProvider", Math.max(1, groqConcurrency));
+        this.planWeights = new EnumMap<>(Map.of(TenantPlan.FREE, Math.max(0.01, freeWeight),
+                TenantPlan.PRO, Math.max(0.01, proWeight),
+                TenantPlan.ENTERPRISE, Math.max(0.01, enterpriseWeight)));
+        if (enabled) {
+            log.info("🚦 Scheduler de IA ativo: capacidades {}, {} vaga(s) reservada(s) ao interativo", capacities,
+                    this.interactiveReserved);
+        }
+    }
+
+    /**
+     * Obtém uma vaga no provedor, esperando na fila da prioridade atual se
+     * necessário. Deve ser chamado na thread que fará a chamada (bloqueia).
+     *
+     * @throws AIWorkRejectedException se a vaga não vier em
+     *                                 {@code max-queue-wait-ms}.
+     */
+    public Permit acquire(String provider) {
+        if (!enabled) {
+            return NO_OP;
+        }
+        AIWorkPriority priority = AIWorkContext.getPriority();
+        Long tenantId = TenantContext.getTenantId();
+        Gate gate = gates.computeIfAbsent(provider,
+                name -> new Gate(name, capacities.getOrDefault(name, defaultCapacity)));
+
+        Waiter waiter = gate.enter(priority, tenantId, weightOf(tenantId));
+        if (waiter == null) {
+            return gate.permit();
+        }
+        try {
+            waiter.granted.get(maxQueueWaitMs, TimeUnit.MILLISECONDS);
+            return gate.permit();
+        } catch (TimeoutException | InterruptedException | ExecutionException e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            if (gate.abandon(waiter)) {
+                throw new AIWorkRejectedException(provider, priority, maxQueueWaitMs);
+            }
+            // A vaga chegou junto com o timeout: usa
+            return gate.permit();
+        }
+    }
+
+    /**
+     * Envolve o corpo de uma chamada ao provedor: obtém a vaga, executa e a
+     * devolve ao final (com sucesso ou erro).
+     */
+    public <T> Supplier<T> gated(String provider, Supplier<T> call) {
+        return () -> {
+            try (Permit permit = acquire(provider)) {
+                return call.get();
+            }
+        };
+    }
+
+    public List<GateStats> stats() {
+        return gates.values().stream().map(Gate::stats).sorted(Comparator.comparing(GateStats::provider)).toList();
+    }
+
+    private double weightOf(Long tenantId) {
+        try {
+            return planWeights.getOrDefault(planResolver.planOf(tenantId), 1.0);
+        } catch (RuntimeException e) {
+            log.warn("⚠️ Plano do tenant {} indisponível, usando peso 1: {}", tenantId, e.getMessage());
+            return 1.0;
+        }
+    }
+
+    private static final class Waiter {
+        final AIWorkPriority priority;
+        final Long tenantId;
+        final double startTag;
+        final double finishTag;
+        final long sequence;
+        final long enqueuedAt = System.nanoTime();
+        final CompletableFuture<Void> granted = new CompletableFuture<>();
+
+        Waiter(AIWorkPriority priority, Long tenantId, double startTag, double finishTag, long sequence) {
+            this.priority = priority;
+            this.tenantId = tenantId;
+            this.startTag = startTag;
+            this.finishTag = finishTag;
+            this.sequence = sequence;
+        }
+    }
+
+    /**
+     * Estado de um provedor. Todas as decisões são tomadas sob o monitor do
+     * gate; a espera em si acontece fora dele, no futuro do {@link Waiter}.
+     */
+    private final class Gate {
+        final String provider;
+        final int capacity;
+        int running;
+        long sequence;
+        final Map<AIWorkPriority, PriorityQueue<Waiter>> queues = new EnumMap<>(AIWorkPriority.class);
+        final Map<AIWorkPriority, Double> virtualTime = new EnumMap<>(AIWorkPriority.class);
+        // Último término virtual de cada tenant com chamadas na fila, por classe
+        final Map<AIWorkPriority, Map<Long, Double>> lastFinish = new EnumMap<>(AIWorkPriority.class);
+        final Map<AIWorkPriority, Map<Long, Integer>> queuedByTenant = new EnumMap<>(AIWorkPriority.class);
+        final Map<AIWorkPriority, Long> granted = new EnumMap<>(AIWorkPriority.class);
+        final Map<AIWorkPriority, Long> waitNanos = new EnumMap<>(AIWorkPriority.class);
+
+        Gate(String provider, int capacity) {
+            this.provider = provider;
+            this.capacity = capacity;
+            for (AIWorkPriority priority : AIWorkPriority.values()) {
+                queues.put(priority, new PriorityQueue<>(Comparator.<Waiter>comparingDouble(w -> w.finishTag)
+                        .thenComparingLong(w -> w.sequence)));
+                virtualTime.put(priority, 0.0);
+                lastFinish.put(priority, new HashMap<>());
+                queuedByTenant.put(priority, new HashMap<>());
+                granted.put(priority, 0L);
+                waitNanos.put(priority, 0L);
+            }
+        }
+
+        /**
+         * Entra direto (devolve {@code null}) se há vaga e ninguém de
+         * prioridade igual ou maior esperando; senão entra na fila.
+         */
+        synchronized Waiter enter(AIWorkPriority priority, Long tenantId, double weight) {
+            if (hasRoomFor(priority) && !hasWaitersAtOrAbove(priority)) {
+                running++;
+                granted.merge(priority, 1L, Long::sum);
+                return null;
+            }
+            Map<Long, Double> finishes = lastFinish.get(priority);
+            double start = Math.max(virtualTime.get(priority), finishes.getOrDefault(tenantId, 0.0));
+            double finish = start + 1.0 / weight;
+            finishes.put(tenantId, finish);
+            queuedByTenant.get(priority).merge(tenantId, 1, Integer::sum);
+            Waiter waiter = new Waiter(priority, tenantId, start, finish, sequence++);
+            queues.get(priority).add(waiter);
+            log.debug("🚦 {} cheio: {} do tenant {} na fila (etiqueta {})", provider, priority, tenantId,
+                    String.format("%.2f", finish));
+            return waiter;
+        }
+
+        Permit permit() {
+            return new Permit() {
+                private boolean closed;
+
+                @Override
+                public void close() {
+                    if (!closed) {
+                        closed = true;
+                        release();
+                    }
+                }
+            };
+        }
+
+        synchronized void release() {
+            running--;
+            dispatch();
+        }
+
+        /**
+         * Remove um waiter que desistiu. Devolve {@code false} se ele já tinha
+         * recebido a vaga (e então deve usá-la).
+         */
+        synchronized boolean abandon(Waiter waiter) {
+            if (waiter.granted.isDone()) {
+                return false;
+            }
+            queues.get(waiter.priority).remove(waiter);
+            dequeued(waiter);
+            waiter.granted.cancel(false);
+            return true;
+        }
+
+        private void dispatch() {
+            for (AIWorkPriority priority : AIWorkPriority.values()) {
+                PriorityQueue<Waiter> queue = queues.get(priority);
+                while (!queue.isEmpty() && hasRoomFor(priority)) {
+                    Waiter next = queue.poll();
+                    virtualTime.put(priority, Math.max(virtualTime.get(priority), next.startTag));
+                    dequeued(next);
+                    running++;
+                    granted.merge(priority, 1L, Long::sum);
+                    waitNanos.merge(priority, System.nanoTime() - next.enqueuedAt, Long::sum);
+                    next.granted.complete(null);
+                }
+                if (!queue.isEmpty()) {
+                    // Classe mais alta ainda esperando: as de baixo não passam na frente
+                    return;
+                }
+            }
+        }
+
+        private void dequeued(Waiter waiter) {
+            Map<Long, Integer> counts = queuedByTenant.get(waiter.priority);
+            if (counts.merge(waiter.tenantId, -1, Integer::sum) <= 0) {
+                // Tenant sem fila: a próxima chamada dele parte do tempo virtual atual
+                counts.remove(waiter.tenantId);
+                lastFinish.get(waiter.priority).remove(waiter.tenantId);
+            }
+        }
+
+        private boolean hasRoomFor(AIWorkPriority priority) {
+            int limit = priority == AIWorkPriority.INTERACTIVE ? capacity
+                    : Math.max(1, capacity - interactiveReserved);
+            return running < limit;
+        }
+
+        private boolean hasWaitersAtOrAbove(AIWorkPriority priority) {
+            for (AIWorkPriority p : AIWorkPriority.values()) {
+                if (!queues.get(p).isEmpty()) {
+                    return true;
+                }
+                if (p == priority) {
+                    return false;
+                }
+            }
+            return false;
+        }
+
+        synchronized GateStats stats() {
+            Map<AIWorkPriority, Integer> queued = new EnumMap<>(AIWorkPriority.class);
+            Map<AIWorkPriority, Double> avgWait = new EnumMap<>(AIWorkPriority.class);
+            for (AIWorkPriority priority : AIWorkPriority.values()) {
+                queued.put(priority, queues.get(priority).size());
+                avgWait.put(priority, waitNanos.get(priority) / 1_000_000.0 / Math.max(1, granted.get(priority)));
+            }
+            return new GateStats(provider, capacity, running, queued, new EnumMap<>(granted), avgWait);
+        }
+    }
+}
@@ -18,6 +18,7 @@ import org.springframework.web.multipart.MultipartFile;
 import java.io.IOException;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 @Service
 @RequiredArgsConstructor
@@ -59,6 +60,11 @@ public class AIOrchestrationService {
         return chatOrchestrator.handleChatInteraction(chatRequest);
     }
 
+    public CompletableFuture<AIProviderResponse> streamChatInteraction(ChatRequest chatRequest,
+            Consumer<String> onToken) {
+        return chatOrchestrator.streamChatInteraction(chatRequest, onToken);
+    }
+
     public CompletableFuture<AIProviderResponse> fallbackChatInteraction(ChatRequest chatRequest, Throwable t) {
         log.error("AI Service Fallback triggered for chat: {}", t.getMessage());
         AIProviderResponse response = new AIProviderResponse();
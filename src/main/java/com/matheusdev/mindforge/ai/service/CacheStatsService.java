@@ -0,0 +1,64 @@
+package com.matheusdev.mindforge.ai.service;
+
+import com.github.benmanes.caffeine.cache.Policy;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.matheusdev.mindforge.ai.dto.CacheStatsDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lê as estatísticas registradas pelo Caffeine ({@code recordStats}) de cada
+ * cache do CacheManager, junto com a política efetiva, para dimensionar os
+ * caches a partir de dados.
+ */
+@Service
+@RequiredArgsConstructor
+public class CacheStatsService {
+
+    private final CacheManager cacheManager;
+
+    public List<CacheStatsDTO> getCacheStats() {
+        List<CacheStatsDTO> result = new ArrayList<>();
+        for (String name : cacheManager.getCacheNames().stream().sorted().toList()) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache instanceof CaffeineCache caffeineCache) {
+                result.add(toDto(name, caffeineCache.getNativeCache()));
+            }
+        }
+        return result;
+    }
+
+    private CacheStatsDTO toDto(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> cache) {
+        CacheStats stats = cache.stats();
+        Policy<Object, Object> policy = cache.policy();
+        Optional<Policy.Eviction<Object, Object>> eviction = policy.eviction();
+        boolean weighted = eviction.map(Policy.Eviction::isWeighted).orElse(false);
+
+        return new CacheStatsDTO(
+                name,
+                cache.estimatedSize(),
+                weighted,
+                eviction.flatMap(e -> e.weightedSize().isPresent()
+                        ? Optional.of(e.weightedSize().getAsLong())
+                        : Optional.empty()).orElse(null),
+                eviction.map(Policy.Eviction::getMaximum).orElse(null),
+                policy.expireAfterAccess().map(e -> e.getExpiresAfter(TimeUnit.SECONDS)).orElse(null),
+                policy.expireAfterWrite().map(e -> e.getExpiresAfter(TimeUnit.SECONDS)).orElse(null),
+                stats.hitCount(),
+                stats.missCount(),
+                stats.hitRate(),
+                stats.evictionCount(),
+                stats.evictionWeight(),
+                stats.loadSuccessCount(),
+                stats.loadFailureCount(),
+                stats.averageLoadPenalty() / 1_000_000.0);
+    }
+}
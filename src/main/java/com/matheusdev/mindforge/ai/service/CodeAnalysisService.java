@@ -9,6 +9,7 @@ import com.matheusdev.mindforge.ai.memory.model.UserProfileAI;
 import com.matheusdev.mindforge.ai.memory.service.MemoryService;
 import com.matheusdev.mindforge.ai.provider.dto.AIProviderRequest;
 import com.matheusdev.mindforge.ai.provider.dto.AIProviderResponse;
+import com.matheusdev.mindforge.ai.routing.AdaptiveProviderRouter;
 import com.matheusdev.mindforge.document.model.Document;
 import com.matheusdev.mindforge.document.repository.DocumentRepository;
 import com.matheusdev.mindforge.document.service.FileStorageService;
@@ -47,6 +48,7 @@ public class CodeAnalysisService {
     private final UserIntegrationRepository userIntegrationRepository;
     private final GitHubClient gitHubClient;
     private final AIOrchestrationService aiOrchestrationService;
+    private final AdaptiveProviderRouter providerRouter;
 
     @Transactional
     public ChatMessage analyzeCodeForProficiency(CodeAnalysisRequest request) throws IOException {
@@ -79,9 +81,12 @@ public class CodeAnalysisService {
         ChatMessage userMessage = chatService.saveMessage(session, "user", prompts.userPrompt());
 
         try {
-            // Tenta usar GROQ primeiro pela velocidade
-            String primaryProvider = "groqProvider";
-            String fallbackProvider = "ollamaProvider";
+            // Tenta primeiro o provedor com menor tempo esperado; o outro fica de fallback
+            String primaryProvider = providerRouter
+                    .route(prompts.userPrompt().length() + prompts.systemPrompt().length()).provider();
+            String fallbackProvider = AdaptiveProviderRouter.GROQ_PROVIDER.equals(primaryProvider)
+                    ? AdaptiveProviderRouter.OLLAMA_PROVIDER
+                    : AdaptiveProviderRouter.GROQ_PROVIDER;
 
             AIProviderResponse aiResponse;
             try {
@@ -93,7 +98,7 @@ public class CodeAnalysisService {
                     throw new BusinessException("Erro no provedor primário: " + aiResponse.getError());
                 }
             } catch (Exception e) {
-                // Fallback para Ollama
+                // Fallback para o outro provedor
                 AIProviderRequest providerRequest = new AIProviderRequest(prompts.userPrompt(), prompts.systemPrompt(),
                         null, fallbackProvider);
                 aiResponse = aiOrchestrationService
@@ -0,0 +1,157 @@
+package com.matheusdev.mindforge.ai.service;
+
+import com.matheusdev.mindforge.core.config.CacheConfig;
+import com.matheusdev.mindforge.core.tenant.context.TenantContext;
+import com.matheusdev.mindforge.knowledgeltem.repository.KnowledgeItemRepository;
+import com.matheusdev.mindforge.study.note.repository.StudyNoteRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * Mantém o índice vetorial de conteúdo editável (itens de conhecimento e notas
+ * de estudo) sincronizado com as edições.
+ * <p>
+ * Roda fora da requisição, no {@code taskExecutor}, depois do commit da
+ * transação que alterou a entidade. As tarefas não carregam o conteúdo: cada
+ * uma relê a entidade dentro do lock do documento
+ * ({@link VectorStoreService#syncText}), de modo que edições e remoções
+ * concorrentes terminam no estado mais recente qualquer que seja a ordem de
+ * execução, e uma entidade apagada só tem o índice removido. Enquanto uma
+ * sincronização do documento espera na fila, novas edições não agendam outra.
+ * <p>
+ * O {@link TenantContext} chega à tarefa pelo decorator do executor; o tenant
+ * também vai explícito porque identifica a entidade, o store e as buscas em
+ * cache ({@link CacheConfig#RAG_RETRIEVAL_CACHE} e as respostas do
+ * {@link SemanticPromptCacheService}) descartadas ao fim de cada sincronização. Cada edição reindexa só os chunks que mudaram (ver
+ * {@link VectorStoreService#indexOrUpdateText}). Os ids gerados aqui são os
+ * consultados pelo RAG dos orquestradores de Knowledge e de notas de estudo.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class ContentIndexingService {
+
+    public static final String KNOWLEDGE_PREFIX = "knowledge_";
+    public static final String STUDY_NOTE_PREFIX = "study_note_";
+
+    private final VectorStoreService vectorStoreService;
+    private final CacheManager cacheManager;
+    private final SemanticPromptCacheService semanticPromptCacheService;
+    private final KnowledgeItemRepository knowledgeItemRepository;
+    private final StudyNoteRepository studyNoteRepository;
+    private final Executor taskExecutor;
+
+    // Documentos com sincronização agendada que ainda não começou
+    private final Set<String> queued = ConcurrentHashMap.newKeySet();
+
+    public static String knowledgeDocumentId(Long knowledgeItemId) {
+        return KNOWLEDGE_PREFIX + knowledgeItemId;
+    }
+
+    public static String studyNoteDocumentId(Long noteId) {
+        return STUDY_NOTE_PREFIX + noteId;
+    }
+
+    public void reindexKnowledgeItem(Long tenantId, Long knowledgeItemId) {
+        scheduleSync(tenantId, knowledgeDocumentId(knowledgeItemId), () -> knowledgeItemRepository
+                .findByIdAndTenantId(knowledgeItemId, tenantId)
+                .map(item -> buildText(item.getTitle(), item.getContent())));
+    }
+
+    public void reindexStudyNote(Long tenantId, Long noteId) {
+        scheduleSync(tenantId, studyNoteDocumentId(noteId), () -> studyNoteRepository
+                .findByIdAndTenantId(noteId, tenantId)
+                .map(note -> buildText(note.getTitle(), note.getContent())));
+    }
+
+    /**
+     * A remoção é a mesma sincronização: a entidade relida já não existe. Se
+     * ela ainda existir (remoção revertida), o índice continua válido.
+     */
+    public void removeKnowledgeItem(Long tenantId, Long knowledgeItemId) {
+        reindexKnowledgeItem(tenantId, knowledgeItemId);
+    }
+
+    public void removeStudyNote(Long tenantId, Long noteId) {
+        reindexStudyNote(tenantId, noteId);
+    }
+
+    private void scheduleSync(Long tenantId, String documentId, Supplier<Optional<String>> currentText) {
+        Runnable submit = () -> {
+            String pendingKey = tenantId + ":" + documentId;
+            if (!queued.add(pendingKey)) {
+                // A sincronização já na fila vai reler a entidade com esta edição
+                return;
+            }
+            taskExecutor.execute(() -> {
+                queued.remove(pendingKey);
+                sync(tenantId, documentId, currentText);
+            });
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Antes do commit, a tarefa poderia reler a versão anterior
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    submit.run();
+                }
+            });
+        } else {
+            submit.run();
+        }
+    }
+
+    private void sync(Long tenantId, String documentId, Supplier<Optional<String>> currentText) {
+        try {
+            TenantContext.setTenantId(tenantId);
+            vectorStoreService.syncText(documentId, currentText);
+        } catch (Exception e) {
+            log.error("❌ Falha ao sincronizar índice de '{}': {}", documentId, e.getMessage(), e);
+        } finally {
+            evictRetrievals(tenantId, documentId);
+            semanticPromptCacheService.evict(tenantId, documentId);
+            TenantContext.clear();
+        }
+    }
+
+    /**
+     * Remove as buscas em cache do documento. A chave do cache é a lista
+     * {@code [tenantId, documentId, query, maxResults]} montada no
+     * {@code @Cacheable} de {@link RAGService#processQueryWithRAG}.
+     */
+    void evictRetrievals(Long tenantId, String documentId) {
+        Cache cache = cacheManager.getCache(CacheConfig.RAG_RETRIEVAL_CACHE);
+        if (!(cache instanceof CaffeineCache caffeineCache)) {
+            return;
+        }
+        caffeineCache.getNativeCache().asMap().keySet().removeIf(key -> key instanceof List<?> parts
+                && parts.size() >= 2
+                && Objects.equals(parts.get(0), tenantId)
+                && documentId.equals(parts.get(1)));
+    }
+
+    private static String buildText(String title, String content) {
+        StringBuilder sb = new StringBuilder();
+        if (title != null && !title.isBlank()) {
+            sb.append("# ").append(title.strip()).append("\n\n");
+        }
+        if (content != null) {
+            sb.append(content);
+        }
+        return sb.toString();
+    }
+}
@@ -64,11 +64,20 @@ public class DocumentAnalyzer {
 
     // Mapa de definições para Injeção de Conhecimento (Glossário Dinâmico)
     private final Map<String, String> termDefinitions = new HashMap<>();
+    private TermMatcher glossaryMatcher = TermMatcher.empty();
 
     public Map<String, String> getTermDefinitions() {
         return Collections.unmodifiableMap(termDefinitions);
     }
 
+    /**
+     * Definições dos termos do glossário citados no texto, em uma única passada
+     * (sem distinção de caixa, palavras inteiras, na ordem em que aparecem).
+     */
+    public List<String> findGlossaryDefinitions(String text) {
+        return glossaryMatcher.findValues(text);
+    }
+
     @PostConstruct
     public void loadTermExpansions() {
         try {
@@ -96,6 +105,8 @@ public class DocumentAnalyzer {
                     commonTerms.add(term);
             }
 
+            glossaryMatcher = TermMatcher.of(termDefinitions, true);
+
             log.info("📚 Expansões de termos carregadas: {} technical, {} academic, {} security, {} common",
                     technicalTerms.size(), academicTerms.size(), securityTerms.size(), commonTerms.size());
 
@@ -138,6 +149,21 @@ public class DocumentAnalyzer {
         public Map<String, String> dynamicGlossary = new HashMap<>();
         public Set<String> coreConcepts = new HashSet<>();
 
+        // Compilado sob demanda na primeira consulta; não é serializado
+        private transient volatile TermMatcher dynamicGlossaryMatcher;
+
+        /**
+         * Casador dos acrônimos do glossário dinâmico (com distinção de caixa).
+         */
+        public TermMatcher dynamicGlossaryMatcher() {
+            TermMatcher matcher = dynamicGlossaryMatcher;
+            if (matcher == null) {
+                matcher = TermMatcher.of(dynamicGlossary, false);
+                dynamicGlossaryMatcher = matcher;
+            }
+            return matcher;
+        }
+
         @Override
         public String toString() {
             return String.format(
@@ -1,14 +1,28 @@
 package com.matheusdev.mindforge.ai.service;
 
+import com.matheusdev.mindforge.ai.cache.model.AIResponseCacheEntry;
+import com.matheusdev.mindforge.ai.cache.repository.AIResponseCacheEntryRepository;
 import com.matheusdev.mindforge.ai.provider.dto.AIProviderRequest;
 import com.matheusdev.mindforge.ai.provider.dto.AIProviderResponse;
 import com.matheusdev.mindforge.core.config.CacheConfig;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.CacheManager;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 @Service
 @Slf4j
@@ -16,6 +30,29 @@ import java.util.concurrent.CompletableFuture;
 public class PromptCacheService {
 
     private final CacheManager cacheManager;
+    private final AIResponseCacheEntryRepository responseCacheRepository;
+
+    // L2 opcional no banco (tabela ai_response_cache): respostas sobrevivem a deploys e são compartilhadas entre nós
+    @Value("${mindforge.ai.response-cache.persistent:false}")
+    private boolean persistent;
+
+    @Value("${mindforge.ai.response-cache.ttl-hours:24}")
+    private long persistentTtlHours;
+
+    /**
+     * Requisições em andamento por chave de cache (single-flight): chamadas
+     * idênticas concorrentes aguardam o mesmo future do provedor em vez de
+     * gastar tokens de novo.
+     */
+    private final ConcurrentMap<String, Flight> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Chamada compartilhada. {@code streaming} marca as que vieram de
+     * {@link #executeStreamingWithCache}: essas não passam pelo TimeLimiter
+     * do provedor e podem durar tanto quanto a geração.
+     */
+    private record Flight(CompletableFuture<AIProviderResponse> future, boolean streaming) {
+    }
 
     /**
      * Executa a requisição para o provedor de IA gerenciando o cache manualmente.
@@ -24,7 +61,9 @@ public class PromptCacheService {
      * 1. Gera uma chave normalizada (ignorando espaços extras e quebras de linha).
      * 2. Verifica se já existe uma resposta SUCESSO no cache.
      * 3. Se sim, retorna imediatamente (CompletableFuture.completedFuture).
-     * 4. Se não, executa a request e, ao terminar com sucesso, salva no cache.
+     * 4. Se já existe uma requisição idêntica em andamento, aguarda o resultado dela
+     * (exceto se for um stream, que não tem limite de duração: aí faz a própria chamada).
+     * 5. Se não, executa a request e, ao terminar com sucesso, salva no cache.
      *
      * @param provider O provedor de IA a ser utilizado via funcionalinterface ou
      *                 objeto
@@ -36,59 +75,231 @@ public class PromptCacheService {
         String cacheKey = generateCacheKey(request);
         org.springframework.cache.Cache cache = cacheManager.getCache(CacheConfig.AI_PROMPTS_CACHE);
 
-        if (cache != null) {
-            AIProviderResponse cachedResponse = cache.get(cacheKey, AIProviderResponse.class);
-            if (cachedResponse != null) {
-                log.info("🎯 Cache HIT para prompt normalizado. Chave: '{}'", limitLog(cacheKey));
-                return CompletableFuture.completedFuture(cachedResponse);
-            }
+        AIProviderResponse cachedResponse = getCached(cache, cacheKey);
+        if (cachedResponse != null) {
+            log.info("🎯 Cache HIT para prompt normalizado. Chave: '{}'", limitLog(cacheKey));
+            return CompletableFuture.completedFuture(cachedResponse.copy());
+        }
+
+        Flight flight = new Flight(new CompletableFuture<>(), false);
+        Flight running = inFlight.putIfAbsent(cacheKey, flight);
+        if (running != null && running.streaming()) {
+            // Esperar o stream deixaria este chamador sem o timeout da chamada bloqueante
+            log.info("🔀 Stream idêntico em andamento; chamada bloqueante segue por conta própria. Chave: '{}'",
+                    limitLog(cacheKey));
+            return executeAndCache(cache, cacheKey, provider.executeTask(request));
+        }
+        if (running != null) {
+            log.info("🔗 Requisição idêntica em andamento, aguardando a mesma resposta. Chave: '{}'",
+                    limitLog(cacheKey));
+            // Cópia por chamador: cada sessão muta a sua resposta (sessionId, type)
+            return running.future().thenApply(AIProviderResponse::copy);
         }
 
         log.debug("💨 Cache MISS. Executando requisição no provedor...");
-        return provider.executeTask(request).thenApply(response -> {
-            // Só faz cache se a resposta for válida e não tiver erro
-            if (response != null && response.getContent() != null && !response.getContent().isBlank()) {
-                if (cache != null) {
-                    log.debug("💾 Salvando resposta no cache. Chave: '{}'", limitLog(cacheKey));
-                    cache.put(cacheKey, response);
+        return lead(cacheKey, cache, flight, () -> provider.executeTask(request), content -> {
+        });
+    }
+
+    /**
+     * Variante em streaming de {@link #executeWithCache}. Um HIT é entregue em
+     * um único pedaço; um MISS é transmitido token a token e só entra no cache
+     * quando o stream termina sem erro. Quem chega enquanto a mesma chave está
+     * em andamento recebe a resposta completa em um único pedaço ao final.
+     */
+    public CompletableFuture<AIProviderResponse> executeStreamingWithCache(
+            com.matheusdev.mindforge.ai.provider.AIProvider provider, AIProviderRequest request,
+            Consumer<String> onToken) {
+        String cacheKey = generateCacheKey(request);
+        org.springframework.cache.Cache cache = cacheManager.getCache(CacheConfig.AI_PROMPTS_CACHE);
+
+        AIProviderResponse cachedResponse = getCached(cache, cacheKey);
+        if (cachedResponse != null) {
+            log.info("🎯 Cache HIT (stream) para prompt normalizado. Chave: '{}'", limitLog(cacheKey));
+            onToken.accept(cachedResponse.getContent());
+            return CompletableFuture.completedFuture(cachedResponse.copy());
+        }
+
+        Flight flight = new Flight(new CompletableFuture<>(), true);
+        Flight running = inFlight.putIfAbsent(cacheKey, flight);
+        if (running != null) {
+            log.info("🔗 Requisição idêntica em andamento (stream), aguardando a mesma resposta. Chave: '{}'",
+                    limitLog(cacheKey));
+            return running.future().thenApply(response -> {
+                if (isCacheable(response)) {
+                    onToken.accept(response.getContent());
                 }
+                return response.copy();
+            });
+        }
+
+        return lead(cacheKey, cache, flight, () -> provider.executeTaskStreaming(request, onToken), onToken);
+    }
+
+    /**
+     * Executa a chamada da qual esta requisição é dona e publica o resultado
+     * (resposta ou exceção) para todos que aguardam a mesma chave. O cache é
+     * preenchido antes de a chave sair do mapa, para que quem chegar depois
+     * encontre o HIT. Cada chamador recebe uma cópia: cancelar ou estourar o
+     * timeout de uma delas não afeta as demais nem a chamada compartilhada.
+     * Um HIT de última hora é entregue a {@code onCachedContent} (o stream
+     * recebe o conteúdo em um único pedaço, como num HIT comum).
+     */
+    private CompletableFuture<AIProviderResponse> lead(String cacheKey, org.springframework.cache.Cache cache,
+            Flight flight, Supplier<CompletableFuture<AIProviderResponse>> call, Consumer<String> onCachedContent) {
+        CompletableFuture<AIProviderResponse> shared = flight.future();
+        // Uma requisição anterior pode ter terminado entre o get do cache e o putIfAbsent
+        AIProviderResponse cachedResponse = getCached(cache, cacheKey);
+        if (cachedResponse != null) {
+            inFlight.remove(cacheKey, flight);
+            onCachedContent.accept(cachedResponse.getContent());
+            shared.complete(cachedResponse.copy());
+            return shared.copy();
+        }
+
+        CompletableFuture<AIProviderResponse> execution;
+        try {
+            execution = call.get();
+        } catch (RuntimeException e) {
+            execution = CompletableFuture.failedFuture(e);
+        }
+        execution.whenComplete((response, error) -> {
+            if (error == null && isCacheable(response)) {
+                // Cópia: as etapas seguintes mutam a resposta devolvida (sessionId, type)
+                putCached(cache, cacheKey, response.copy());
+            }
+            inFlight.remove(cacheKey, flight);
+            if (error != null) {
+                shared.completeExceptionally(error);
+            } else {
+                shared.complete(response);
             }
-            return response;
         });
+        return shared.copy();
     }
 
     /**
-     * Gera uma chave de cache normalizada para aumentar a taxa de acerto.
-     * Remove espaços extras, trim e considera o contexto do sistema.
+     * Chamada fora do single-flight; a resposta válida ainda alimenta o cache.
      */
-    private String generateCacheKey(AIProviderRequest request) {
-        StringBuilder keyBuilder = new StringBuilder();
+    private CompletableFuture<AIProviderResponse> executeAndCache(org.springframework.cache.Cache cache,
+            String cacheKey, CompletableFuture<AIProviderResponse> execution) {
+        return execution.thenApply(response -> {
+            if (isCacheable(response)) {
+                putCached(cache, cacheKey, response.copy());
+            }
+            return response;
+        });
+    }
 
-        // 1. Normaliza Prompt do Usuário (Otimização "Pulo do Gato")
-        if (request.textPrompt() != null) {
-            keyBuilder.append(normalizeText(request.textPrompt()));
+    /**
+     * L1 (memória) e, se habilitado, L2 (banco). Um HIT no L2 reaquece o L1.
+     */
+    private AIProviderResponse getCached(org.springframework.cache.Cache cache, String cacheKey) {
+        AIProviderResponse cached = cache != null ? cache.get(cacheKey, AIProviderResponse.class) : null;
+        if (cached != null || !persistent) {
+            return cached;
+        }
+        try {
+            Optional<AIResponseCacheEntry> entry = responseCacheRepository
+                    .findByCacheKeyAndExpiresAtAfter(cacheKey, LocalDateTime.now());
+            if (entry.isEmpty()) {
+                return null;
+            }
+            log.info("💽 Cache L2 HIT para prompt. Chave: '{}'", limitLog(cacheKey));
+            AIProviderResponse response = new AIProviderResponse(entry.get().getContent(), null, null, null,
+                    entry.get().getType());
+            if (cache != null) {
+                cache.put(cacheKey, response);
+            }
+            return response;
+        } catch (Exception e) {
+            log.warn("⚠️ Falha ao consultar cache persistente de respostas: {}", e.getMessage());
+            return null;
         }
+    }
 
-        keyBuilder.append("|");
+    private void putCached(org.springframework.cache.Cache cache, String cacheKey, AIProviderResponse response) {
+        log.debug("💾 Salvando resposta no cache. Chave: '{}'", limitLog(cacheKey));
+        if (cache != null) {
+            cache.put(cacheKey, response);
+        }
+        if (!persistent) {
+            return;
+        }
+        try {
+            responseCacheRepository.save(new AIResponseCacheEntry(cacheKey, response.getContent(), response.getType(),
+                    LocalDateTime.now().plusHours(persistentTtlHours)));
+        } catch (Exception e) {
+            // Corrida com outro nó gravando a mesma chave, ou banco indisponível
+            log.warn("⚠️ Não foi possível gravar a resposta no cache persistente: {}", e.getMessage());
+        }
+    }
 
-        // 2. Considera System Message (CRUCIAL para RAG/Contexto diferente)
-        if (request.systemMessage() != null) {
-            keyBuilder.append(request.systemMessage().hashCode());
+    /**
+     * Remove do L2 as respostas vencidas (as leituras já as ignoram).
+     */
+    @Scheduled(fixedDelayString = "${mindforge.ai.response-cache.purge-interval-ms:3600000}")
+    public void purgeExpiredPersistentEntries() {
+        if (!persistent) {
+            return;
         }
+        try {
+            int removed = responseCacheRepository.deleteExpired(LocalDateTime.now());
+            if (removed > 0) {
+                log.info("🧹 {} respostas vencidas removidas do cache persistente", removed);
+            }
+        } catch (Exception e) {
+            log.warn("⚠️ Falha ao limpar cache persistente de respostas: {}", e.getMessage());
+        }
+    }
 
-        keyBuilder.append("|");
+    // Só faz cache se a resposta for válida e não tiver erro (fallbacks trazem a mensagem de erro no content)
+    private boolean isCacheable(AIProviderResponse response) {
+        return response != null && response.getError() == null
+                && response.getContent() != null && !response.getContent().isBlank();
+    }
 
-        // 3. Modelo (Se mudar o modelo, a resposta deve ser diferente)
-        if (request.model() != null) {
-            keyBuilder.append(request.model());
+    /**
+     * Gera uma chave de cache normalizada para aumentar a taxa de acerto.
+     * Remove espaços extras, trim e considera o contexto do sistema.
+     * <p>
+     * A chave é o SHA-256 das partes (64 caracteres): prompts longos, imagens e
+     * documentos não ficam retidos no heap como chave, e o system message
+     * entra inteiro em vez de só o hashCode de 32 bits.
+     */
+    String generateCacheKey(AIProviderRequest request) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível", e);
         }
 
-        // 4. Se for imagem ou documento, adiciona hash do conteúdo
-        if (request.imageData() != null) {
-            keyBuilder.append("|IMG:").append(java.util.Arrays.hashCode(request.imageData()));
-        }
+        // 1. Normaliza Prompt do Usuário (Otimização "Pulo do Gato")
+        updateDigest(digest, normalizeText(request.textPrompt()));
+        // 2. Considera System Message (CRUCIAL para RAG/Contexto diferente)
+        updateDigest(digest, request.systemMessage());
+        // 3. Modelo (Se mudar o modelo, a resposta deve ser diferente)
+        updateDigest(digest, request.model());
+        // 4. Se for imagem ou documento, considera o conteúdo
+        updateDigest(digest, request.imageData());
+        updateDigest(digest, request.documentData());
 
-        return keyBuilder.toString();
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static void updateDigest(MessageDigest digest, String part) {
+        updateDigest(digest, part != null ? part.getBytes(StandardCharsets.UTF_8) : null);
+    }
+
+    // Prefixo com o tamanho: partes adjacentes nunca se confundem ("ab"+"c" != "a"+"bc") e null != vazio
+    private static void updateDigest(MessageDigest digest, byte[] part) {
+        int length = part != null ? part.length : -1;
+        digest.update(new byte[] { (byte) (length >>> 24), (byte) (length >>> 16), (byte) (length >>> 8),
+                (byte) length });
+        if (part != null) {
+            digest.update(part);
+        }
     }
 
     private String normalizeText(String text) {
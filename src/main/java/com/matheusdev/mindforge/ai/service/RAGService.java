@@ -1,11 +1,13 @@
 package com.matheusdev.mindforge.ai.service;
 
 import com.matheusdev.mindforge.ai.service.model.Evidence;
+import com.matheusdev.mindforge.ai.vectorstore.VectorMath;
 import dev.langchain4j.data.document.Document;
 import dev.langchain4j.data.segment.TextSegment;
 import dev.langchain4j.store.embedding.EmbeddingMatch;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
@@ -21,11 +23,15 @@ public class RAGService {
     private final VectorStoreService vectorStoreService;
     private final DocumentAnalyzer documentAnalyzer;
 
+    // Com a busca híbrida os candidatos já vêm melhores: buscamos 2x (antes 3x)
+    @Value("${mindforge.rag.hybrid.candidate-multiplier:2}")
+    private int candidateMultiplier;
+
     /**
      * Processa query com RAG ADAPTATIVO.
      * MinScore e maxResults ajustados automaticamente baseado no documento.
      */
-    @org.springframework.cache.annotation.Cacheable(value = com.matheusdev.mindforge.core.config.CacheConfig.RAG_RETRIEVAL_CACHE, key = "{#documentId, #query.trim().toLowerCase(), #maxResults}")
+    @org.springframework.cache.annotation.Cacheable(value = com.matheusdev.mindforge.core.config.CacheConfig.RAG_RETRIEVAL_CACHE, key = "{T(com.matheusdev.mindforge.core.tenant.context.TenantContext).getTenantId(), #documentId, #query.trim().toLowerCase(), #maxResults}")
     public List<Evidence> processQueryWithRAG(String documentId, Document document, String query, int maxResults) {
         log.info("🚀 Iniciando RAG ADAPTATIVO para '{}' com query: '{}' (Cache MISS)", documentId, query);
 
@@ -68,15 +74,18 @@ public class RAGService {
                 adaptiveMaxResults, minScore, profile.type);
 
         // --- DIVERSITY RERANKING & FILTERING ---
-        // Buscamos 3x mais candidatos para poder filtrar duplicatas e cabeçalhos
-        // inúteis
-        int fetchCandidates = Math.min(60, adaptiveMaxResults * 3);
+        // Buscamos mais candidatos que o necessário para poder filtrar duplicatas e
+        // cabeçalhos inúteis
+        int fetchCandidates = Math.min(60, adaptiveMaxResults * Math.max(1, candidateMultiplier));
 
         // Buscar segmentos (Pool de Candidatos)
         List<EmbeddingMatch<TextSegment>> rawMatches = vectorStoreService.findRelevantSegments(
                 documentId, query, fetchCandidates, minScore);
 
         List<EmbeddingMatch<TextSegment>> relevantMatches = new ArrayList<>();
+        // Vetores normalizados dos já escolhidos: cada par é comparado com um único
+        // produto escalar no kernel SIMD, sem recalcular normas
+        List<float[]> selectedVectors = new ArrayList<>();
 
         // Dedup logic
         for (EmbeddingMatch<TextSegment> match : rawMatches) {
@@ -104,11 +113,10 @@ public class RAGService {
 
             // 2. Filtrar Redundância Semântica (Flood)
             boolean isRedundant = false;
-            for (EmbeddingMatch<TextSegment> selected : relevantMatches) {
-                // EmbeddingMatch do langchain4j usually has embedding if store provided it.
-                // Assuming InMemoryEmbeddingStore which does.
-                if (match.embedding() != null && selected.embedding() != null) {
-                    double similarity = cosineSimilarity(match.embedding().vector(), selected.embedding().vector());
+            float[] vector = match.embedding() != null ? unitVector(match.embedding().vector()) : null;
+            if (vector != null) {
+                for (float[] selected : selectedVectors) {
+                    double similarity = selected.length == vector.length ? VectorMath.dot(vector, selected) : 0.0;
                     if (similarity > 0.88) { // Se for 88% similar a algo já escolhido
                         isRedundant = true;
                         log.debug("🔄 Filtrando Redundância: '{}' similar a anterior (Sim: {})",
@@ -120,6 +128,9 @@ public class RAGService {
 
             if (!isRedundant) {
                 relevantMatches.add(match);
+                if (vector != null) {
+                    selectedVectors.add(vector);
+                }
             }
         }
 
@@ -280,18 +291,13 @@ public class RAGService {
                 .collect(Collectors.toList());
     }
 
-    private double cosineSimilarity(float[] vectorA, float[] vectorB) {
-        if (vectorA.length != vectorB.length)
-            return 0.0;
-        double dotProduct = 0.0;
-        double normA = 0.0;
-        double normB = 0.0;
-        for (int i = 0; i < vectorA.length; i++) {
-            dotProduct += vectorA[i] * vectorB[i];
-            normA += Math.pow(vectorA[i], 2);
-            normB += Math.pow(vectorB[i], 2);
-        }
-        return dotProduct / (Math.sqrt(normA) * Math.sqrt(normB));
+    /**
+     * Os stores devolvem embeddings já normalizados; só normaliza (uma vez por
+     * candidato) se algum vier fora da norma unitária.
+     */
+    private static float[] unitVector(float[] vector) {
+        float norm = VectorMath.norm(vector);
+        return Math.abs(norm - 1f) < 1e-3f ? vector : VectorMath.normalize(vector);
     }
 
     @SuppressWarnings("deprecation")
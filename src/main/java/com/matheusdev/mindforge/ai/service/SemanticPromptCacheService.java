@@ -0,0 +1,207 @@
+package com.matheusdev.mindforge.ai.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.matheusdev.mindforge.ai.provider.dto.AIProviderResponse;
+import com.matheusdev.mindforge.ai.provider.dto.CacheInfo;
+import com.matheusdev.mindforge.ai.vectorstore.VectorMath;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Cache semântico (opt-in) de respostas sobre documentos.
+ * <p>
+ * Perguntas reformuladas ("o que é RAG?" / "explique RAG") não batem no cache
+ * exato do {@link PromptCacheService}. Aqui a pergunta é embedada e comparada
+ * com as perguntas já respondidas no mesmo escopo — tenant, documento, system
+ * prompt e modelo — e a resposta é reaproveitada quando a similaridade de
+ * cosseno passa do limiar configurado.
+ * <p>
+ * Escopos sem tenant ou sem documento nunca são cacheados, de modo que uma
+ * resposta jamais atravessa tenants. Cada escopo guarda no máximo
+ * {@code max-entries-per-scope} perguntas (as mais antigas saem primeiro),
+ * e a busca é linear sobre elas.
+ */
+@Service
+@Slf4j
+public class SemanticPromptCacheService {
+
+    /**
+     * Chave de isolamento: só perguntas com o mesmo escopo são comparadas. O
+     * system prompt entra pelo SHA-256 (64 caracteres hex), não pelo hashCode
+     * de 32 bits, que colide entre prompts diferentes.
+     */
+    public record Scope(Long tenantId, String documentId, String systemPromptDigest, String model) {
+    }
+
+    private record Entry(String question, float[] embedding, AIProviderResponse response, Instant cachedAt) {
+    }
+
+    private final EmbeddingModel embeddingModel;
+    private final boolean enabled;
+    private final double similarityThreshold;
+    private final int maxEntriesPerScope;
+    private final Duration ttl;
+    private final Cache<Scope, List<Entry>> entries;
+
+    public SemanticPromptCacheService(EmbeddingModel embeddingModel,
+            @Value("${mindforge.ai.semantic-cache.enabled:false}") boolean enabled,
+            @Value("${mindforge.ai.semantic-cache.similarity-threshold:0.92}") double similarityThreshold,
+            @Value("${mindforge.ai.semantic-cache.max-entries-per-scope:64}") int maxEntriesPerScope,
+            @Value("${mindforge.ai.semantic-cache.max-scopes:1000}") long maxScopes,
+            @Value("${mindforge.ai.semantic-cache.ttl-minutes:60}") long ttlMinutes) {
+        this.embeddingModel = embeddingModel;
+        this.enabled = enabled;
+        this.similarityThreshold = similarityThreshold;
+        this.maxEntriesPerScope = Math.max(1, maxEntriesPerScope);
+        this.ttl = Duration.ofMinutes(ttlMinutes);
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(maxScopes)
+                .expireAfterWrite(ttl)
+                .build();
+        if (enabled) {
+            log.info("Cache semântico de prompts ativo: threshold={}, maxEntriesPerScope={}, ttl={}min",
+                    similarityThreshold, this.maxEntriesPerScope, ttlMinutes);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Monta o escopo da pergunta, ou {@code null} quando ela não pode ser
+     * cacheada com segurança (sem tenant ou sem documento).
+     */
+    public Scope scope(Long tenantId, String documentId, String systemPrompt, String model) {
+        if (!enabled || tenantId == null || !StringUtils.hasText(documentId)) {
+            return null;
+        }
+        return new Scope(tenantId, documentId, digest(systemPrompt), model != null ? model : "");
+    }
+
+    /**
+     * Descarta todas as perguntas cacheadas do documento no tenant, em
+     * qualquer system prompt ou modelo: as respostas foram dadas sobre um
+     * conteúdo que mudou ou deixou de existir.
+     */
+    public void evict(Long tenantId, String documentId) {
+        entries.asMap().keySet().removeIf(scope -> Objects.equals(scope.tenantId(), tenantId)
+                && Objects.equals(scope.documentId(), documentId));
+    }
+
+    /**
+     * Procura uma pergunta equivalente já respondida no escopo. Em caso de
+     * acerto devolve uma cópia da resposta com {@link CacheInfo} preenchido.
+     */
+    public Optional<AIProviderResponse> lookup(Scope scope, String question) {
+        if (scope == null || !StringUtils.hasText(question)) {
+            return Optional.empty();
+        }
+        List<Entry> candidates = entries.getIfPresent(scope);
+        if (candidates == null || candidates.isEmpty()) {
+            // Escopo vazio: nem gasta o embedding da pergunta
+            return Optional.empty();
+        }
+
+        float[] query;
+        try {
+            query = embed(question);
+        } catch (RuntimeException e) {
+            log.warn("⚠️ Cache semântico indisponível (falha no embedding da pergunta): {}", e.getMessage());
+            return Optional.empty();
+        }
+        // Cada escrita renova a expiração do escopo inteiro; a idade de cada entrada é checada aqui
+        Instant oldest = Instant.now().minus(ttl);
+        Entry best = null;
+        double bestSimilarity = -1;
+        for (Entry candidate : candidates) {
+            if (candidate.cachedAt().isBefore(oldest)) {
+                continue;
+            }
+            double similarity = VectorMath.dot(query, candidate.embedding());
+            if (similarity > bestSimilarity) {
+                bestSimilarity = similarity;
+                best = candidate;
+            }
+        }
+
+        if (best == null || bestSimilarity < similarityThreshold) {
+            log.debug("🧭 Cache semântico MISS (doc {}): melhor similaridade {} < {}", scope.documentId(),
+                    String.format("%.3f", bestSimilarity), similarityThreshold);
+            return Optional.empty();
+        }
+
+        log.info("🧭 Cache semântico HIT (doc {}): similaridade {} com '{}'", scope.documentId(),
+                String.format("%.3f", bestSimilarity), limitLog(best.question()));
+        AIProviderResponse response = best.response().copy();
+        response.setCacheInfo(new CacheInfo(CacheInfo.SEMANTIC, bestSimilarity, similarityThreshold,
+                best.question(), best.cachedAt()));
+        return Optional.of(response);
+    }
+
+    /**
+     * Guarda a resposta de uma pergunta que passou pelo LLM. Respostas com
+     * erro ou vazias são ignoradas.
+     */
+    public void store(Scope scope, String question, AIProviderResponse response) {
+        if (scope == null || !StringUtils.hasText(question) || response == null || response.getError() != null
+                || !StringUtils.hasText(response.getContent())) {
+            return;
+        }
+        AIProviderResponse snapshot = response.copy();
+        snapshot.setSessionId(null);
+        snapshot.setCacheInfo(null);
+        Entry entry;
+        try {
+            entry = new Entry(question, embed(question), snapshot, Instant.now());
+        } catch (RuntimeException e) {
+            log.warn("⚠️ Resposta não guardada no cache semântico (falha no embedding): {}", e.getMessage());
+            return;
+        }
+
+        entries.asMap().compute(scope, (key, current) -> {
+            List<Entry> updated = new ArrayList<>(current != null ? current : List.of());
+            updated.add(entry);
+            if (updated.size() > maxEntriesPerScope) {
+                updated.remove(0);
+            }
+            // Lista imutável: leituras concorrentes no lookup não precisam de lock
+            return List.copyOf(updated);
+        });
+    }
+
+    private static String digest(String systemPrompt) {
+        if (systemPrompt == null) {
+            return "";
+        }
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(systemPrompt.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível", e);
+        }
+    }
+
+    private float[] embed(String question) {
+        return VectorMath.normalize(embeddingModel.embed(question).content().vector());
+    }
+
+    private String limitLog(String text) {
+        return text.length() > 50 ? text.substring(0, 50) + "..." : text;
+    }
+}
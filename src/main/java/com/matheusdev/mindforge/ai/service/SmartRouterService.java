@@ -1,16 +1,25 @@
 package com.matheusdev.mindforge.ai.service;
 
+import com.matheusdev.mindforge.ai.routing.AdaptiveProviderRouter;
+import com.matheusdev.mindforge.ai.service.orchestrator.MapReduceScheduler;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 /**
  * Smart Router que decide a estratégia de processamento de documentos
- * baseado no tamanho do documento e no custo computacional.
- * 
+ * pelo tempo esperado de cada uma, com a capacidade real dos provedores.
+ *
  * Estratégias:
- * - Até 10k chars: One-shot (envio direto)
- * - 10k a 100k chars: Map-Reduce (análise por chunks)
- * - Acima de 100k chars: RAG (busca semântica com vector store)
+ * - One-shot (envio direto): se o documento cabe no contexto e a melhor rota
+ *   termina dentro de {@code one-shot-target-ms}
+ * - Map-Reduce (análise por chunks): se o MAP paralelo + REDUCE termina
+ *   dentro de {@code map-reduce-target-ms}
+ * - RAG (busca semântica com vector store): nos demais casos
+ *
+ * As estimativas vêm do {@link AdaptiveProviderRouter} (latência observada,
+ * fila, erros e budget do Groq). Com o roteamento desligado, valem os
+ * limites fixos de tamanho.
  */
 @Service
 @Slf4j
@@ -20,6 +29,24 @@ public class SmartRouterService {
     private static final int MAP_REDUCE_THRESHOLD = 100_000; // 100k caracteres
     private static final int RAG_FOR_MEDIUM_THRESHOLD = 50_000; // 50k caracteres - usar RAG para evitar rate limit
     private static final int ESTIMATED_CHUNKS_PER_10K = 4; // Estimativa: ~4 chunks por 10k chars (com chunk de 2500 tokens)
+    private static final int ESTIMATED_PARTIAL_CHARS = 800; // Tamanho típico de um parcial do MAP
+
+    private final AdaptiveProviderRouter providerRouter;
+    private final MapReduceScheduler mapReduceScheduler;
+    private final int oneShotMaxChars;
+    private final long oneShotTargetMs;
+    private final long mapReduceTargetMs;
+
+    public SmartRouterService(AdaptiveProviderRouter providerRouter, MapReduceScheduler mapReduceScheduler,
+            @Value("${mindforge.analysis.strategy.one-shot-max-chars:16000}") int oneShotMaxChars,
+            @Value("${mindforge.analysis.strategy.one-shot-target-ms:60000}") long oneShotTargetMs,
+            @Value("${mindforge.analysis.strategy.map-reduce-target-ms:180000}") long mapReduceTargetMs) {
+        this.providerRouter = providerRouter;
+        this.mapReduceScheduler = mapReduceScheduler;
+        this.oneShotMaxChars = oneShotMaxChars;
+        this.oneShotTargetMs = oneShotTargetMs;
+        this.mapReduceTargetMs = mapReduceTargetMs;
+    }
 
     public enum ProcessingStrategy {
         ONE_SHOT,      // Envio direto para documentos pequenos
@@ -28,61 +55,109 @@ public class SmartRouterService {
     }
 
     /**
-     * Decide a estratégia de processamento baseado no tamanho do documento.
-     * 
+     * Decide a estratégia de processamento pelo tempo esperado de cada uma.
+     *
      * @param documentLength Tamanho do documento em caracteres
      * @return Estratégia de processamento recomendada
      */
     public ProcessingStrategy decideStrategy(int documentLength) {
+        AdaptiveProviderRouter.Route oneShot = providerRouter.route(documentLength);
+        if (oneShot.expectedMs() < 0) {
+            return decideByLength(documentLength);
+        }
+
+        if (documentLength <= oneShotMaxChars && oneShot.expectedMs() <= oneShotTargetMs) {
+            log.info("🤖 Smart Router: Documento de {} chars -> Estratégia: ONE-SHOT via {} (~{} ms)",
+                    documentLength, oneShot.provider(), oneShot.expectedMs());
+            return ProcessingStrategy.ONE_SHOT;
+        }
+
+        long mapReduceMs = estimateMapReduceMs(documentLength);
+        if (mapReduceMs <= mapReduceTargetMs) {
+            log.info("🤖 Smart Router: Documento de {} chars -> Estratégia: MAP-REDUCE (~{} ms estimados)",
+                    documentLength, mapReduceMs);
+            return ProcessingStrategy.MAP_REDUCE;
+        }
+        log.info("🤖 Smart Router: Documento de {} chars -> Estratégia: RAG (Map-Reduce levaria ~{} ms)",
+                documentLength, mapReduceMs);
+        return ProcessingStrategy.RAG;
+    }
+
+    /**
+     * Verifica se o documento é pequeno o suficiente para processamento one-shot.
+     */
+    public boolean isOneShot(int documentLength) {
+        return decideStrategy(documentLength) == ProcessingStrategy.ONE_SHOT;
+    }
+
+    /**
+     * Verifica se o documento requer processamento Map-Reduce.
+     */
+    public boolean requiresMapReduce(int documentLength) {
+        return decideStrategy(documentLength) == ProcessingStrategy.MAP_REDUCE;
+    }
+
+    /**
+     * Verifica se o documento requer processamento RAG.
+     */
+    public boolean requiresRAG(int documentLength) {
+        return decideStrategy(documentLength) == ProcessingStrategy.RAG;
+    }
+
+    /**
+     * MAP em ondas de {@code parallelism} trechos, mais os níveis de REDUCE
+     * necessários para os parciais caberem numa chamada.
+     */
+    private long estimateMapReduceMs(int documentLength) {
+        // Mesmo tamanho de trecho usado pelo orquestrador ao dividir o documento
+        int shardChars = Math.max(1, mapReduceScheduler.shardMaxChars(null));
+        int shards = Math.max(1, (documentLength + shardChars - 1) / shardChars);
+        int parallelism = Math.max(1, mapReduceScheduler.parallelism());
+        int waves = (shards + parallelism - 1) / parallelism;
+        long shardMs = providerRouter.route(Math.min(shardChars, documentLength)).expectedMs();
+
+        int reduceMaxChars = mapReduceScheduler.reduceMaxChars();
+        long partialChars = (long) shards * ESTIMATED_PARTIAL_CHARS;
+        int reduceLevels = 1;
+        while (partialChars > reduceMaxChars) {
+            partialChars /= 2;
+            reduceLevels++;
+        }
+        long reduceMs = providerRouter.route(Math.min(reduceMaxChars, shards * ESTIMATED_PARTIAL_CHARS)).expectedMs();
+        return waves * shardMs + reduceLevels * reduceMs;
+    }
+
+    /**
+     * Limites fixos de tamanho, usados quando não há estimativa de tempo.
+     */
+    private ProcessingStrategy decideByLength(int documentLength) {
         ProcessingStrategy strategy;
-        
+
         if (documentLength <= ONE_SHOT_THRESHOLD) {
             strategy = ProcessingStrategy.ONE_SHOT;
-            log.info("🤖 Smart Router: Documento PEQUENO ({} chars <= {}) -> Estratégia: ONE-SHOT (Envio Direto)", 
+            log.info("🤖 Smart Router: Documento PEQUENO ({} chars <= {}) -> Estratégia: ONE-SHOT (Envio Direto)",
                     documentLength, ONE_SHOT_THRESHOLD);
         } else if (documentLength > MAP_REDUCE_THRESHOLD) {
             strategy = ProcessingStrategy.RAG;
-            log.info("🤖 Smart Router: Documento GRANDE ({} chars > {}) -> Estratégia: RAG (Busca Semântica)", 
+            log.info("🤖 Smart Router: Documento GRANDE ({} chars > {}) -> Estratégia: RAG (Busca Semântica)",
                     documentLength, MAP_REDUCE_THRESHOLD);
         } else {
             // Para documentos médios, estima quantos chunks seriam gerados
             int estimatedChunks = (documentLength / 10_000) * ESTIMATED_CHUNKS_PER_10K;
-            
+
             // Se o documento é médio-grande (> 50k) ou geraria muitos chunks (> 15), usa RAG
             // para evitar rate limit e reduzir número de requisições
             if (documentLength >= RAG_FOR_MEDIUM_THRESHOLD || estimatedChunks > 15) {
                 strategy = ProcessingStrategy.RAG;
-                log.info("🤖 Smart Router: Documento MÉDIO-GRANDE ({} chars, ~{} chunks estimados) -> Estratégia: RAG (Evita Rate Limit)", 
+                log.info("🤖 Smart Router: Documento MÉDIO-GRANDE ({} chars, ~{} chunks estimados) -> Estratégia: RAG (Evita Rate Limit)",
                         documentLength, estimatedChunks);
             } else {
                 strategy = ProcessingStrategy.MAP_REDUCE;
-                log.info("🤖 Smart Router: Documento MÉDIO ({} chars, ~{} chunks estimados) -> Estratégia: MAP-REDUCE (Análise por Chunks)", 
+                log.info("🤖 Smart Router: Documento MÉDIO ({} chars, ~{} chunks estimados) -> Estratégia: MAP-REDUCE (Análise por Chunks)",
                         documentLength, estimatedChunks);
             }
         }
-        
-        return strategy;
-    }
 
-    /**
-     * Verifica se o documento é pequeno o suficiente para processamento one-shot.
-     */
-    public boolean isOneShot(int documentLength) {
-        return documentLength <= ONE_SHOT_THRESHOLD;
-    }
-
-    /**
-     * Verifica se o documento requer processamento Map-Reduce.
-     */
-    public boolean requiresMapReduce(int documentLength) {
-        return documentLength > ONE_SHOT_THRESHOLD && documentLength <= MAP_REDUCE_THRESHOLD;
-    }
-
-    /**
-     * Verifica se o documento requer processamento RAG.
-     */
-    public boolean requiresRAG(int documentLength) {
-        return documentLength > MAP_REDUCE_THRESHOLD;
+        return strategy;
     }
 }
-
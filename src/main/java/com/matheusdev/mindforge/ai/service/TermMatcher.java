@@ -0,0 +1,219 @@
+package com.matheusdev.mindforge.ai.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Casador de múltiplos termos (autômato Aho-Corasick) compilado uma única vez
+ * a partir de um dicionário termo -> valor.
+ * <p>
+ * Uma passada linear sobre o texto encontra todas as ocorrências de todos os
+ * termos, independente do tamanho do dicionário. Só casam palavras inteiras e
+ * sobreposições são resolvidas por leftmost-longest ("HTTPS" vence "HTTP"), de
+ * modo que o resultado não depende da ordem de iteração do dicionário e
+ * expansões já inseridas nunca são reprocessadas.
+ * <p>
+ * Imutável após a construção; seguro para uso concorrente.
+ */
+public final class TermMatcher {
+
+    private static final TermMatcher EMPTY = new TermMatcher(Map.of(), false);
+
+    public record Match(int start, int end, String term, String value) {
+    }
+
+    /**
+     * Recebe cada caractere e cada ocorrência (inclusive sobrepostas e dentro
+     * de palavras) durante a varredura, permitindo combinar o autômato com
+     * outras máquinas de estado na mesma passada.
+     */
+    public interface ScanListener {
+        default void onChar(int index, char c) {
+        }
+
+        void onOccurrence(int start, int end, String term, String value);
+    }
+
+    private static final class Node {
+        private final Map<Character, Node> next = new HashMap<>();
+        private Node fail;
+        // Próximo nó na cadeia de falhas que encerra um termo
+        private Node output;
+        private int term = -1;
+    }
+
+    private final Node root = new Node();
+    private final List<String> terms = new ArrayList<>();
+    private final List<String> values = new ArrayList<>();
+    private final boolean ignoreCase;
+
+    private TermMatcher(Map<String, String> dictionary, boolean ignoreCase) {
+        this.ignoreCase = ignoreCase;
+        // Ordem fixa: em colisões (ex.: "NoSQL" e "nosql" sem distinção de caixa) vence sempre a mesma chave
+        for (Map.Entry<String, String> entry : new TreeMap<>(dictionary).entrySet()) {
+            if (entry.getKey() == null || entry.getKey().isEmpty() || entry.getValue() == null) {
+                continue;
+            }
+            insert(entry.getKey(), entry.getValue());
+        }
+        buildFailureLinks();
+    }
+
+    public static TermMatcher of(Map<String, String> dictionary, boolean ignoreCase) {
+        return dictionary.isEmpty() ? empty() : new TermMatcher(dictionary, ignoreCase);
+    }
+
+    public static TermMatcher empty() {
+        return EMPTY;
+    }
+
+    public boolean isEmpty() {
+        return terms.isEmpty();
+    }
+
+    public int size() {
+        return terms.size();
+    }
+
+    /**
+     * Ocorrências de palavras inteiras, sem sobreposição, na ordem do texto.
+     */
+    public List<Match> findAll(CharSequence text) {
+        if (isEmpty() || text == null || text.isEmpty()) {
+            return List.of();
+        }
+        List<Match> candidates = new ArrayList<>();
+        scan(text, (start, end, term, value) -> {
+            if (isWordBoundary(text, start - 1) && isWordBoundary(text, end)) {
+                candidates.add(new Match(start, end, term, value));
+            }
+        });
+        return resolveOverlaps(candidates);
+    }
+
+    /**
+     * Varredura bruta: notifica cada caractere e, logo após, as ocorrências
+     * que terminam nele, sem filtro de palavra inteira nem de sobreposição.
+     */
+    public void scan(CharSequence text, ScanListener listener) {
+        Node state = root;
+        for (int i = 0; i < text.length(); i++) {
+            char raw = text.charAt(i);
+            listener.onChar(i, raw);
+            char c = normalize(raw);
+            while (state != root && !state.next.containsKey(c)) {
+                state = state.fail;
+            }
+            state = state.next.getOrDefault(c, root);
+            for (Node hit = state.term >= 0 ? state : state.output; hit != null; hit = hit.output) {
+                String term = terms.get(hit.term);
+                listener.onOccurrence(i + 1 - term.length(), i + 1, term, values.get(hit.term));
+            }
+        }
+    }
+
+    /**
+     * Valores dos termos presentes no texto, sem repetição, na ordem da
+     * primeira ocorrência.
+     */
+    public List<String> findValues(CharSequence text) {
+        Set<String> found = new LinkedHashSet<>();
+        for (Match match : findAll(text)) {
+            found.add(match.value());
+        }
+        return new ArrayList<>(found);
+    }
+
+    /**
+     * Substitui cada ocorrência pelo valor do termo em uma única passada.
+     */
+    public String replaceAll(String text) {
+        List<Match> matches = findAll(text);
+        if (matches.isEmpty()) {
+            return text;
+        }
+        StringBuilder result = new StringBuilder(text.length() + matches.size() * 32);
+        int last = 0;
+        for (Match match : matches) {
+            result.append(text, last, match.start()).append(match.value());
+            last = match.end();
+        }
+        return result.append(text, last, text.length()).toString();
+    }
+
+    private void insert(String term, String value) {
+        Node node = root;
+        for (int i = 0; i < term.length(); i++) {
+            node = node.next.computeIfAbsent(normalize(term.charAt(i)), c -> new Node());
+        }
+        if (node.term >= 0) {
+            return;
+        }
+        node.term = terms.size();
+        terms.add(term);
+        values.add(value);
+    }
+
+    private void buildFailureLinks() {
+        Queue<Node> queue = new ArrayDeque<>();
+        for (Node child : root.next.values()) {
+            child.fail = root;
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            Node node = queue.poll();
+            for (Map.Entry<Character, Node> edge : node.next.entrySet()) {
+                Node child = edge.getValue();
+                Node fallback = node.fail;
+                while (fallback != root && !fallback.next.containsKey(edge.getKey())) {
+                    fallback = fallback.fail;
+                }
+                Node target = fallback.next.get(edge.getKey());
+                child.fail = target != null && target != child ? target : root;
+                child.output = child.fail.term >= 0 ? child.fail : child.fail.output;
+                queue.add(child);
+            }
+        }
+    }
+
+    /**
+     * Leftmost-longest: percorre por início crescente (e maior comprimento
+     * primeiro) descartando o que sobrepõe uma ocorrência já aceita.
+     */
+    private static List<Match> resolveOverlaps(List<Match> candidates) {
+        if (candidates.size() < 2) {
+            return candidates;
+        }
+        candidates.sort((a, b) -> a.start() != b.start()
+                ? Integer.compare(a.start(), b.start())
+                : Integer.compare(b.end(), a.end()));
+        List<Match> accepted = new ArrayList<>(candidates.size());
+        int coveredUntil = 0;
+        for (Match match : candidates) {
+            if (match.start() >= coveredUntil) {
+                accepted.add(match);
+                coveredUntil = match.end();
+            }
+        }
+        return accepted;
+    }
+
+    private char normalize(char c) {
+        return ignoreCase ? Character.toLowerCase(c) : c;
+    }
+
+    private static boolean isWordBoundary(CharSequence text, int index) {
+        if (index < 0 || index >= text.length()) {
+            return true;
+        }
+        char c = text.charAt(index);
+        return !Character.isLetterOrDigit(c) && c != '_';
+    }
+}
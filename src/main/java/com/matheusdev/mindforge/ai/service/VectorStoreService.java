@@ -1,5 +1,16 @@
 package com.matheusdev.mindforge.ai.service;
 
+import com.matheusdev.mindforge.ai.splitter.ChunkFeatureExtractor;
+import com.matheusdev.mindforge.ai.splitter.ContentDefinedSplitter;
+import com.matheusdev.mindforge.ai.splitter.SemanticDocumentSplitter;
+import com.matheusdev.mindforge.ai.vectorstore.ChunkAddressableStore;
+import com.matheusdev.mindforge.ai.vectorstore.HeapAccountedStore;
+import com.matheusdev.mindforge.ai.vectorstore.LexicalSearchStore;
+import com.matheusdev.mindforge.ai.vectorstore.ReciprocalRankFusion;
+import com.matheusdev.mindforge.ai.vectorstore.VectorMath;
+import com.matheusdev.mindforge.ai.vectorstore.VectorStoreBackend;
+import com.matheusdev.mindforge.ai.vectorstore.VectorStoreKey;
+import com.matheusdev.mindforge.ai.vectorstore.VectorStoreMemoryBudget;
 import dev.langchain4j.data.document.Document;
 import dev.langchain4j.data.document.DocumentSplitter;
 import dev.langchain4j.data.document.splitter.DocumentSplitters;
@@ -8,18 +19,20 @@ import dev.langchain4j.data.segment.TextSegment;
 import dev.langchain4j.model.embedding.EmbeddingModel;
 import dev.langchain4j.store.embedding.EmbeddingMatch;
 import dev.langchain4j.store.embedding.EmbeddingStore;
-import dev.langchain4j.store.embedding.inmemory.InMemoryEmbeddingStore;
 import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.function.Supplier;
 
 @Service
 @Slf4j
@@ -28,13 +41,47 @@ public class VectorStoreService {
 
     private final EmbeddingModel embeddingModel;
     private final DocumentAnalyzer documentAnalyzer;
+    private final VectorStoreBackend vectorStoreBackend;
+    private final VectorStoreMemoryBudget memoryBudget;
 
-    private final Map<String, EmbeddingStore<TextSegment>> vectorStores = new ConcurrentHashMap<>();
-    private final Map<String, DocumentAnalyzer.DocumentProfile> documentProfiles = new ConcurrentHashMap<>();
+    @Value("${mindforge.rag.semantic-chunking.reuse-block-embeddings:true}")
+    private boolean reuseBlockEmbeddings;
 
-    private final Map<String, String> commonTerms = new HashMap<>();
-    private final Map<String, String> academicTerms = new HashMap<>();
-    private final Map<String, String> technicalTerms = new HashMap<>();
+    @Value("${mindforge.rag.hybrid.enabled:true}")
+    private boolean hybridEnabled;
+
+    @Value("${mindforge.rag.hybrid.rrf-k:60}")
+    private int rrfK;
+
+    // Expansão de siglas no texto antes do embedding. Desligada por padrão: a
+    // busca lexical já casa siglas e identificadores sem inflar os chunks.
+    @Value("${mindforge.rag.term-expansion.enabled:false}")
+    private boolean termExpansionEnabled;
+
+    @Value("${mindforge.rag.incremental.max-chunk-size:1000}")
+    private int incrementalMaxChunkSize;
+
+    @Value("${mindforge.rag.incremental.min-chunk-size:200}")
+    private int incrementalMinChunkSize;
+
+    // Handles locais por (tenant, documento). Com backend persistente, são apenas
+    // um cache dos stores reabertos do banco.
+    private final Map<VectorStoreKey, EmbeddingStore<TextSegment>> vectorStores = new ConcurrentHashMap<>();
+    private final Map<VectorStoreKey, DocumentAnalyzer.DocumentProfile> documentProfiles = new ConcurrentHashMap<>();
+    // Serializa reindexações concorrentes do mesmo documento
+    private final Map<VectorStoreKey, Object> indexLocks = new ConcurrentHashMap<>();
+
+    /**
+     * Resultado de uma reindexação incremental: quantos chunks foram embedados,
+     * removidos e reaproveitados sem nova chamada ao modelo.
+     */
+    public record IndexUpdateResult(int added, int removed, int unchanged) {
+    }
+
+    // Autômatos de expansão compilados uma vez na carga dos termos
+    private TermMatcher commonTerms = TermMatcher.empty();
+    private TermMatcher academicTerms = TermMatcher.empty();
+    private TermMatcher technicalTerms = TermMatcher.empty();
 
     @PostConstruct
     public void init() {
@@ -49,15 +96,21 @@ public class VectorStoreService {
                 return;
             }
             props.load(input);
+            Map<String, String> common = new HashMap<>();
+            Map<String, String> academic = new HashMap<>();
+            Map<String, String> technical = new HashMap<>();
             for (String key : props.stringPropertyNames()) {
                 if (key.startsWith("common.")) {
-                    commonTerms.put(key.substring(7), props.getProperty(key));
+                    common.put(key.substring(7), props.getProperty(key));
                 } else if (key.startsWith("academic.")) {
-                    academicTerms.put(key.substring(9), props.getProperty(key));
+                    academic.put(key.substring(9), props.getProperty(key));
                 } else if (key.startsWith("technical.")) {
-                    technicalTerms.put(key.substring(10), props.getProperty(key));
+                    technical.put(key.substring(10), props.getProperty(key));
                 }
             }
+            commonTerms = TermMatcher.of(common, false);
+            academicTerms = TermMatcher.of(academic, false);
+            technicalTerms = TermMatcher.of(technical, false);
             log.info("Loaded {} common, {} academic, and {} technical terms.", commonTerms.size(), academicTerms.size(),
                     technicalTerms.size());
         } catch (IOException ex) {
@@ -68,19 +121,34 @@ public class VectorStoreService {
     /**
      * Cria ou retorna um embedding store para um documento específico.
      * ADAPTATIVO: Ajusta chunking e metadados baseado no tipo de documento.
+     * O store é isolado pelo tenant do contexto atual e, com backend
+     * persistente, reaproveitado entre restarts sem novo embedding.
      */
     public EmbeddingStore<TextSegment> getOrCreateVectorStore(String documentId, Document document) {
-        EmbeddingStore<TextSegment> existingStore = vectorStores.get(documentId);
+        VectorStoreKey key = VectorStoreKey.current(documentId);
+        EmbeddingStore<TextSegment> existingStore = resolveStore(key);
         if (existingStore != null) {
-            log.info("✅ Vector store já existe para '{}'. Reutilizando...", documentId);
+            log.info("✅ Vector store já existe para '{}'. Reutilizando...", key);
             return existingStore;
         }
 
-        log.info("🔧 Iniciando ingestão RAG ADAPTATIVA para '{}'...", documentId);
+        // Mesmo lock do indexOrUpdateText: duas primeiras requisições simultâneas não ingerem o documento duas vezes
+        synchronized (indexLocks.computeIfAbsent(key, k -> new Object())) {
+            existingStore = resolveStore(key);
+            if (existingStore != null) {
+                log.info("✅ Vector store criado por outra requisição para '{}'. Reutilizando...", key);
+                return existingStore;
+            }
+            return createVectorStore(key, documentId, document);
+        }
+    }
+
+    private EmbeddingStore<TextSegment> createVectorStore(VectorStoreKey key, String documentId, Document document) {
+        log.info("🔧 Iniciando ingestão RAG ADAPTATIVA para '{}'...", key);
 
         // 1. ANALISAR documento para determinar estratégia
         DocumentAnalyzer.DocumentProfile profile = documentAnalyzer.analyzeDocument(document.text());
-        documentProfiles.put(documentId, profile);
+        documentProfiles.put(key, profile);
 
         // 2. ENRIQUECER texto com expansões semânticas
         String enrichedText = enrichDocument(document.text(), profile);
@@ -90,7 +158,9 @@ public class VectorStoreService {
         DocumentAnalyzer.ChunkingConfig config = documentAnalyzer.recommendChunkingConfig(profile);
         log.info("📐 Configuração de chunking adaptativo: {}", config);
 
-        DocumentSplitter splitter;
+        List<TextSegment> rawSegments;
+        // Embeddings já calculados pelo splitter semântico (null = precisa embedar)
+        List<Embedding> precomputedEmbeddings = null;
         // Se o documento for complexo, técnico ou acadêmico, usamos o Semantic Splitter
         // para preservar tabelas e coerência
         if (profile.complexity == DocumentAnalyzer.ComplexityLevel.HIGH ||
@@ -98,66 +168,171 @@ public class VectorStoreService {
                 profile.type == DocumentAnalyzer.DocumentType.TECHNICAL) {
 
             log.info("🧠 Usando Semantic Chunking para preservação de contexto (Tabelas/Código) - Threshold: 0.82");
-            splitter = new com.matheusdev.mindforge.ai.splitter.SemanticDocumentSplitter(
+            SemanticDocumentSplitter splitter = new SemanticDocumentSplitter(
                     embeddingModel,
                     0.82, // Similaridade mínima para manter junto (Mais rigoroso: 0.82)
                     config.chunkSize,
                     100, // Tamanho mínimo
                     config.overlap // Overlap configurado
             );
+            List<SemanticDocumentSplitter.EmbeddedChunk> chunks = splitter.splitWithEmbeddings(enrichedDoc);
+            rawSegments = chunks.stream().map(SemanticDocumentSplitter.EmbeddedChunk::segment).toList();
+            if (reuseBlockEmbeddings && chunks.stream().allMatch(chunk -> chunk.embedding() != null)) {
+                precomputedEmbeddings = chunks.stream().map(SemanticDocumentSplitter.EmbeddedChunk::embedding)
+                        .toList();
+            }
         } else {
             // Fallback para documentos simples ou estruturados manualmente
-            splitter = DocumentSplitters.recursive(config.chunkSize, config.overlap);
+            DocumentSplitter splitter = DocumentSplitters.recursive(config.chunkSize, config.overlap);
+            rawSegments = splitter.split(enrichedDoc);
         }
 
-        List<TextSegment> rawSegments = splitter.split(enrichedDoc);
-
         // 4. ENRIQUECER chunks com metadados estruturais
         List<TextSegment> enrichedSegments = enrichSegments(rawSegments, documentId, profile);
         log.info("📦 Documento dividido em {} segmentos enriquecidos.", enrichedSegments.size());
 
-        // 5. GERAR embeddings
-        List<Embedding> embeddings = embeddingModel.embedAll(enrichedSegments).content();
+        // 5. GERAR embeddings (reaproveitando os do chunking semântico, se houver)
+        List<Embedding> embeddings = precomputedEmbeddings != null
+                ? precomputedEmbeddings
+                : embeddingModel.embedAll(enrichedSegments).content();
 
-        // 6. CRIAR vector store
-        EmbeddingStore<TextSegment> embeddingStore = new InMemoryEmbeddingStore<>();
+        // 6. CRIAR vector store (perfil gravado por último marca a ingestão como
+        // concluída no backend)
+        EmbeddingStore<TextSegment> embeddingStore = vectorStoreBackend.create(key);
         embeddingStore.addAll(embeddings, enrichedSegments);
+        vectorStoreBackend.saveProfile(key, profile);
 
-        vectorStores.put(documentId, embeddingStore);
-        log.info("✅ Vector store criado com sucesso para '{}'.", documentId);
+        vectorStores.put(key, embeddingStore);
+        memoryBudget.register(key, estimateHeapBytes(embeddingStore, enrichedSegments, embeddings));
+        enforceMemoryBudget(key);
+        log.info("✅ Vector store criado com sucesso para '{}'.", key);
 
         return embeddingStore;
     }
 
+    /**
+     * Indexa ou atualiza incrementalmente um texto editável (itens de
+     * conhecimento, notas de estudo).
+     * <p>
+     * Os chunks vêm do {@link ContentDefinedSplitter}, cujas fronteiras
+     * dependem só do conteúdo local, e o id de cada chunk é o hash do seu texto
+     * (mais o número da ocorrência, para chunks repetidos). Comparando os ids
+     * novos com os já presentes no store, só os chunks novos ou alterados são
+     * embedados e os que sumiram são removidos: uma edição pequena numa nota
+     * grande custa poucas chamadas de embedding em vez de reindexar tudo.
+     */
+    public IndexUpdateResult indexOrUpdateText(String documentId, String text) {
+        VectorStoreKey key = VectorStoreKey.current(documentId);
+        synchronized (indexLocks.computeIfAbsent(key, k -> new Object())) {
+            DocumentAnalyzer.DocumentProfile profile = documentAnalyzer.analyzeDocument(text);
+            String enrichedText = enrichDocument(text, profile);
+
+            List<TextSegment> rawSegments = new ContentDefinedSplitter(incrementalMaxChunkSize,
+                    incrementalMinChunkSize).split(Document.from(enrichedText));
+            List<TextSegment> segments = enrichSegments(rawSegments, documentId, profile);
+
+            // Ids estáveis: hash do conteúdo + ocorrência
+            Map<String, Integer> occurrences = new HashMap<>();
+            Map<String, TextSegment> desired = new LinkedHashMap<>();
+            for (TextSegment segment : segments) {
+                String hash = contentHash(segment.text());
+                String chunkId = hash + "-" + occurrences.merge(hash, 1, Integer::sum);
+                // Posição muda a cada edição; guardá-la invalidaria chunks inalterados
+                segment.metadata().remove("chunk_index");
+                segment.metadata().put("chunk_id", chunkId);
+                desired.put(chunkId, segment);
+            }
+
+            EmbeddingStore<TextSegment> store = resolveStore(key);
+            if (!(store instanceof ChunkAddressableStore)) {
+                store = vectorStoreBackend.create(key);
+            }
+            ChunkAddressableStore addressable = (ChunkAddressableStore) store;
+
+            Set<String> existing = addressable.ids();
+            List<String> stale = existing.stream().filter(id -> !desired.containsKey(id)).toList();
+            List<String> newIds = desired.keySet().stream().filter(id -> !existing.contains(id)).toList();
+
+            if (!stale.isEmpty()) {
+                store.removeAll(stale);
+            }
+            if (!newIds.isEmpty()) {
+                List<TextSegment> newSegments = newIds.stream().map(desired::get).toList();
+                List<Embedding> embeddings = embeddingModel.embedAll(newSegments).content();
+                addressable.addAll(newIds, embeddings, newSegments);
+            }
+            vectorStoreBackend.saveProfile(key, profile);
+            documentProfiles.put(key, profile);
+            vectorStores.put(key, store);
+            if (store instanceof HeapAccountedStore accounted) {
+                memoryBudget.register(key, accounted.estimatedHeapBytes());
+                enforceMemoryBudget(key);
+            }
+
+            IndexUpdateResult result = new IndexUpdateResult(newIds.size(), stale.size(),
+                    desired.size() - newIds.size());
+            log.info("🔁 Reindexação incremental de '{}': {} novos, {} removidos, {} reaproveitados.",
+                    key, result.added(), result.removed(), result.unchanged());
+            return result;
+        }
+    }
+
+    /**
+     * Alinha o índice do documento ao texto atual, lido por {@code currentText}
+     * já dentro do lock do documento: quem indexa por último lê a versão mais
+     * recente, independente da ordem em que as tarefas chegaram. Sem texto
+     * (entidade apagada ou vazia), o índice é removido.
+     */
+    public void syncText(String documentId, Supplier<Optional<String>> currentText) {
+        VectorStoreKey key = VectorStoreKey.current(documentId);
+        Object lock = indexLocks.computeIfAbsent(key, k -> new Object());
+        boolean removed = false;
+        synchronized (lock) {
+            Optional<String> text = currentText.get().filter(t -> !t.isBlank());
+            if (text.isPresent()) {
+                indexOrUpdateText(documentId, text.get());
+            } else {
+                deleteStore(key);
+                removed = true;
+            }
+        }
+        if (removed) {
+            // Quem pegar um lock novo depois disto também lê a entidade já apagada
+            indexLocks.remove(key, lock);
+        }
+    }
+
+    private static String contentHash(String text) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível", e);
+        }
+    }
+
     /**
      * Enriquece o documento com expansões semânticas (siglas, termos técnicos).
      */
     private String enrichDocument(String text, DocumentAnalyzer.DocumentProfile profile) {
+        if (!termExpansionEnabled) {
+            return text;
+        }
         String enriched = text;
 
-        enriched = expandTerms(enriched, commonTerms);
+        enriched = commonTerms.replaceAll(enriched);
 
         if (profile.type == DocumentAnalyzer.DocumentType.ACADEMIC) {
-            enriched = expandTerms(enriched, academicTerms);
+            enriched = academicTerms.replaceAll(enriched);
         }
 
         if (profile.type == DocumentAnalyzer.DocumentType.TECHNICAL) {
-            enriched = expandTerms(enriched, technicalTerms);
+            enriched = technicalTerms.replaceAll(enriched);
         }
 
         return enriched;
     }
 
-    private String expandTerms(String text, Map<String, String> terms) {
-        String expandedText = text;
-        for (Map.Entry<String, String> entry : terms.entrySet()) {
-            // Use word boundaries to avoid replacing parts of words
-            String regex = "\\b" + Pattern.quote(entry.getKey()) + "\\b";
-            expandedText = expandedText.replaceAll(regex, Matcher.quoteReplacement(entry.getValue()));
-        }
-        return expandedText;
-    }
-
     /**
      * Enriquece cada chunk com metadados estruturais inteligentes.
      */
@@ -179,42 +354,31 @@ public class VectorStoreService {
             metadata.put("document_id", documentId);
             metadata.put("document_type", profile.type.toString());
 
-            // Detectar tipo de conteúdo
-            String contentType = detectContentType(chunkText, profile);
-            metadata.put("content_type", contentType);
+            // Flags estruturais em uma única passada sobre o chunk
+            ChunkFeatureExtractor.ChunkFeatures features = ChunkFeatureExtractor.extract(chunkText);
+            metadata.put("content_type", features.contentType());
 
-            // Extrair seção (se houver)
-            String section = extractSection(chunkText);
-            if (section != null) {
-                metadata.put("section", section);
+            if (features.section() != null) {
+                metadata.put("section", features.section());
                 metadata.put("has_section", "true");
             }
-
-            // Detectar tabelas
-            if (containsTable(chunkText)) {
+            if (features.hasTable()) {
                 metadata.put("has_table", "true");
-                metadata.put("table_type", detectTableType(chunkText));
+                metadata.put("table_type", features.tableType());
             }
-
-            // Detectar código
-            if (containsCode(chunkText)) {
+            if (features.hasCode()) {
                 metadata.put("has_code", "true");
             }
-
-            // Detectar listas/enumerações
-            if (containsList(chunkText)) {
+            if (features.hasList()) {
                 metadata.put("has_list", "true");
             }
-
-            // Detectar definições/conceitos importantes
-            if (containsDefinition(chunkText)) {
+            if (features.hasDefinition()) {
                 metadata.put("has_definition", "true");
             }
-
             // Para chunks com números/percentuais (importantes!)
-            if (containsNumericData(chunkText)) {
+            if (features.hasNumericData()) {
                 metadata.put("has_numeric_data", "true");
-                metadata.put("numeric_values", extractNumericValues(chunkText));
+                metadata.put("numeric_values", features.numericValues());
             }
 
             // Criar novo TextSegment enriquecido
@@ -227,89 +391,11 @@ public class VectorStoreService {
         return enrichedSegments;
     }
 
-    // ============= MÉTODOS DE DETECÇÃO =============
-
-    private String detectContentType(String text, DocumentAnalyzer.DocumentProfile profile) {
-        // Prioridade de detecção
-        if (text.matches("(?s).*\\d+\\.\\d+\\.?\\d?.*[A-Z].*"))
-            return "section_header";
-        if (containsTable(text))
-            return "table";
-        if (containsCode(text))
-            return "code";
-        if (containsList(text))
-            return "list";
-        if (containsDefinition(text))
-            return "definition";
-        if (text.startsWith("Resumo") || text.startsWith("Abstract"))
-            return "summary";
-        if (text.contains("Exemplo") || text.contains("exemplo"))
-            return "example";
-        return "prose";
-    }
-
-    private String extractSection(String text) {
-        Pattern pattern = Pattern.compile("(\\d+\\.\\d+(?:\\.\\d+)?)");
-        Matcher matcher = pattern.matcher(text.substring(0, Math.min(150, text.length())));
-        if (matcher.find()) {
-            return matcher.group(1);
-        }
-        return null;
-    }
-
-    private boolean containsTable(String text) {
-        return text.matches("(?s).*\\|.*\\|.*") ||
-                (text.contains("%") && text.matches("(?s).*\\d{2,3}%.*\\d{2,3}%.*")) ||
-                (text.contains("Debt Score") || text.contains("Métrica") || text.contains("Classificação"));
-    }
-
-    private String detectTableType(String text) {
-        if (text.contains("Debt Score") || text.contains("Score"))
-            return "score_table";
-        if (text.contains("%") && text.contains("sprint"))
-            return "allocation_table";
-        if (text.contains("Métrica"))
-            return "metrics_table";
-        return "generic_table";
-    }
-
-    private boolean containsCode(String text) {
-        return text.matches("(?s).*(class|function|def|package|import|public|private|void|return).*");
-    }
-
-    private boolean containsList(String text) {
-        return text.matches("(?s).*[•●■].*") ||
-                text.matches("(?s).*\\n\\s*[-*]\\s+.*") ||
-                text.matches("(?s).*\\n\\s*\\d+\\.\\s+.*");
-    }
-
-    private boolean containsDefinition(String text) {
-        return text.matches("(?s).*(é definido como|consiste em|significa|refere-se a|é o processo de).*");
-    }
-
-    private boolean containsNumericData(String text) {
-        return text.matches("(?s).*\\d+%.*") ||
-                text.matches("(?s).*\\d+\\.\\d+.*") ||
-                text.matches("(?s).*\\$\\d+.*");
-    }
-
-    private String extractNumericValues(String text) {
-        Pattern pattern = Pattern.compile("\\d+(?:\\.\\d+)?%?");
-        Matcher matcher = pattern.matcher(text);
-        List<String> values = new ArrayList<>();
-        while (matcher.find() && values.size() < 5) { // Limita a 5 valores
-            values.add(matcher.group());
-        }
-        return String.join(", ", values);
-    }
-
     /**
-     * Gera embedding com cache para evitar chamadas redundantes ao modelo
-     * (Ollama/Python).
-     * O cache é configurado em CacheConfig.java com nome "embeddings".
+     * Gera embedding para a query. O EmbeddingModel primário já é o
+     * CachingEmbeddingModel (chave SHA-256 de modelo + texto, L1 em memória e
+     * L2 no banco), então queries repetidas não chamam o Ollama.
      */
-    @org.springframework.cache.annotation.Cacheable(value = "embeddings", key = "#text.hashCode()") // HashCode para
-                                                                                                    // chave curta
     public dev.langchain4j.data.embedding.Embedding generateEmbeddingWithCache(String text) {
         log.debug("🧮 Gerando embedding (ou buscando do cache) para: '{}'",
                 text.substring(0, Math.min(20, text.length())));
@@ -318,18 +404,26 @@ public class VectorStoreService {
 
     /**
      * Busca ADAPTATIVA com fallback automático.
+     * <p>
+     * Com a recuperação híbrida ligada, os candidatos vetoriais são fundidos
+     * (Reciprocal Rank Fusion) com os da busca lexical sobre os mesmos chunks.
+     * A ordem final vem da fusão; o score de cada match continua sendo a
+     * relevância vetorial (1 + cos) / 2, para que os thresholds a jusante
+     * sigam valendo. Matches lexicais entram mesmo abaixo do threshold
+     * vetorial: é justamente o caso de identificadores exatos.
      */
     public List<EmbeddingMatch<TextSegment>> findRelevantSegments(String documentId, String query, int maxResults,
             double minScore) {
-        EmbeddingStore<TextSegment> embeddingStore = vectorStores.get(documentId);
+        VectorStoreKey key = VectorStoreKey.current(documentId);
+        EmbeddingStore<TextSegment> embeddingStore = resolveStore(key);
 
         if (embeddingStore == null) {
-            log.warn("❌ Vector store não encontrado para '{}'. Retornando lista vazia.", documentId);
+            log.warn("❌ Vector store não encontrado para '{}'. Retornando lista vazia.", key);
             return List.of();
         }
 
         // Ajustar minScore baseado no perfil do documento
-        DocumentAnalyzer.DocumentProfile profile = documentProfiles.get(documentId);
+        DocumentAnalyzer.DocumentProfile profile = resolveProfile(key);
         double adaptiveMinScore = minScore;
 
         if (profile != null && profile.complexity == DocumentAnalyzer.ComplexityLevel.HIGH) {
@@ -343,13 +437,34 @@ public class VectorStoreService {
         // USANDO O MÉTODO COM CACHE AQUI:
         Embedding queryEmbedding = generateEmbeddingWithCache(query);
 
-        List<EmbeddingMatch<TextSegment>> relevantMatches = embeddingStore.findRelevant(
-                queryEmbedding, maxResults, adaptiveMinScore);
+        // Uma única busca já no piso do fallback (0.5): os resultados vêm ordenados
+        // por score, então o corte no minScore adaptativo é feito aqui, sem uma
+        // segunda varredura do índice quando nada passa no threshold.
+        double searchFloor = Math.min(adaptiveMinScore, 0.5);
+        List<EmbeddingMatch<TextSegment>> candidates = embeddingStore.findRelevant(
+                queryEmbedding, maxResults, searchFloor);
+
+        final double threshold = adaptiveMinScore;
+        List<EmbeddingMatch<TextSegment>> relevantMatches = candidates.stream()
+                .filter(match -> match.score() >= threshold)
+                .toList();
 
-        // FALLBACK: Se não encontrou nada, tenta com score mais baixo
+        // FALLBACK: Se não encontrou nada, usa os candidatos com score mais baixo
         if (relevantMatches.isEmpty() && adaptiveMinScore > 0.5) {
-            log.warn("⚠️ Nenhum resultado encontrado. Tentando fallback com score 0.5...");
-            relevantMatches = embeddingStore.findRelevant(queryEmbedding, maxResults, 0.5);
+            log.warn("⚠️ Nenhum resultado encontrado. Usando fallback com score 0.5...");
+            relevantMatches = candidates;
+        }
+
+        if (hybridEnabled && embeddingStore instanceof LexicalSearchStore lexicalStore) {
+            float[] queryVector = VectorMath.normalize(queryEmbedding.vector());
+            List<EmbeddingMatch<TextSegment>> lexicalMatches = lexicalStore.lexicalSearch(query, maxResults).stream()
+                    .map(match -> withVectorScore(match, queryVector, threshold))
+                    .toList();
+            relevantMatches = ReciprocalRankFusion.fuse(EmbeddingMatch::embeddingId, rrfK, relevantMatches,
+                    lexicalMatches).stream()
+                    .limit(maxResults)
+                    .toList();
+            log.info("🔀 Recuperação híbrida: {} lexicais fundidos por RRF.", lexicalMatches.size());
         }
 
         log.info("✅ Encontrados {} segmentos relevantes.", relevantMatches.size());
@@ -357,25 +472,125 @@ public class VectorStoreService {
         return relevantMatches;
     }
 
-    // Métodos de gerenciamento (mantidos iguais)
+    /**
+     * Troca o score lexical pela relevância vetorial do chunk, na mesma escala
+     * dos matches vetoriais. Os stores guardam embeddings normalizados.
+     */
+    private static EmbeddingMatch<TextSegment> withVectorScore(EmbeddingMatch<TextSegment> match,
+            float[] queryVector, double fallbackScore) {
+        Embedding embedding = match.embedding();
+        double score = embedding != null && embedding.dimension() == queryVector.length
+                ? (1.0 + VectorMath.dot(queryVector, embedding.vector())) / 2.0
+                : fallbackScore;
+        return new EmbeddingMatch<>(score, match.embeddingId(), embedding, match.embedded());
+    }
+
+    /**
+     * Retorna o handle local ou tenta reabrir o store no backend (ex.: após
+     * restart com pgvector). Null se o documento não está indexado.
+     */
+    private EmbeddingStore<TextSegment> resolveStore(VectorStoreKey key) {
+        EmbeddingStore<TextSegment> store = vectorStores.get(key);
+        if (store != null) {
+            memoryBudget.touch(key);
+            return store;
+        }
+        if (!vectorStoreBackend.isPersistent()) {
+            return null;
+        }
+        return vectorStoreBackend.open(key)
+                .map(reopened -> {
+                    log.info("♻️ Vector store '{}' reaberto do backend persistente.", key);
+                    vectorStores.put(key, reopened);
+                    if (reopened instanceof HeapAccountedStore accounted) {
+                        memoryBudget.register(key, accounted.estimatedHeapBytes());
+                        enforceMemoryBudget(key);
+                    }
+                    return reopened;
+                })
+                .orElse(null);
+    }
+
+    /**
+     * Estimativa de heap do store recém-criado. Stores persistentes só mantêm um
+     * handle; para o InMemoryEmbeddingStore estimamos a partir dos segmentos.
+     */
+    private long estimateHeapBytes(EmbeddingStore<TextSegment> store, List<TextSegment> segments,
+            List<Embedding> embeddings) {
+        if (store instanceof HeapAccountedStore accounted) {
+            return accounted.estimatedHeapBytes();
+        }
+        if (vectorStoreBackend.isPersistent()) {
+            return 0;
+        }
+        long bytes = 0;
+        for (int i = 0; i < segments.size(); i++) {
+            TextSegment segment = segments.get(i);
+            bytes += 2L * segment.text().length() + 96 + 64L * segment.metadata().toMap().size();
+            bytes += 16 + 4L * embeddings.get(i).dimension() + 48;
+        }
+        return bytes;
+    }
+
+    /**
+     * Descarta os stores menos usados quando o orçamento global de heap é
+     * excedido. No backend em memória o documento precisará ser reindexado.
+     */
+    private void enforceMemoryBudget(VectorStoreKey keep) {
+        for (VectorStoreKey evicted : memoryBudget.selectEvictions(keep)) {
+            vectorStores.remove(evicted);
+            documentProfiles.remove(evicted);
+            memoryBudget.release(evicted);
+            log.warn("♻️ Vector store '{}' removido da memória por orçamento de heap ({} KB usados de {} KB).",
+                    evicted, memoryBudget.getUsedBytes() / 1024, memoryBudget.getMaxBytes() / 1024);
+        }
+    }
+
+    private DocumentAnalyzer.DocumentProfile resolveProfile(VectorStoreKey key) {
+        DocumentAnalyzer.DocumentProfile profile = documentProfiles.get(key);
+        if (profile != null || !vectorStoreBackend.isPersistent()) {
+            return profile;
+        }
+        return vectorStoreBackend.loadProfile(key)
+                .map(loaded -> {
+                    documentProfiles.put(key, loaded);
+                    return loaded;
+                })
+                .orElse(null);
+    }
+
+    // Métodos de gerenciamento
     public boolean isDocumentIndexed(String documentId) {
-        return vectorStores.containsKey(documentId);
+        return resolveStore(VectorStoreKey.current(documentId)) != null;
     }
 
     public void removeVectorStore(String documentId) {
-        vectorStores.remove(documentId);
-        documentProfiles.remove(documentId);
-        log.info("🗑️ Vector store removido para '{}'.", documentId);
+        VectorStoreKey key = VectorStoreKey.current(documentId);
+        deleteStore(key);
+        indexLocks.remove(key);
+    }
+
+    private void deleteStore(VectorStoreKey key) {
+        vectorStores.remove(key);
+        documentProfiles.remove(key);
+        memoryBudget.release(key);
+        vectorStoreBackend.delete(key);
+        log.info("🗑️ Vector store removido para '{}'.", key);
     }
 
+    /**
+     * Descarta os handles locais. Com backend persistente os dados continuam no
+     * banco e são reabertos sob demanda.
+     */
     public void clearAllStores() {
         int count = vectorStores.size();
         vectorStores.clear();
         documentProfiles.clear();
-        log.info("🗑️ Todos os vector stores removidos (total: {}).", count);
+        memoryBudget.releaseAll();
+        log.info("🗑️ Todos os vector stores removidos da memória (total: {}).", count);
     }
 
     public DocumentAnalyzer.DocumentProfile getDocumentProfile(String documentId) {
-        return documentProfiles.get(documentId);
+        return resolveProfile(VectorStoreKey.current(documentId));
     }
 }
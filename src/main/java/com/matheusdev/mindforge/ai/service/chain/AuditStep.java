@@ -5,6 +5,7 @@ import com.matheusdev.mindforge.ai.memory.service.MemoryService;
 import com.matheusdev.mindforge.ai.provider.dto.AIProviderResponse;
 import com.matheusdev.mindforge.ai.service.ChatService;
 import com.matheusdev.mindforge.ai.service.model.InteractionType;
+import com.matheusdev.mindforge.config.ContextPropagatingExecutor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
@@ -20,53 +21,47 @@ public class AuditStep implements AIProcessingStep {
 
     private final ChatService chatService;
     private final MemoryService memoryService;
+    private final ContextPropagatingExecutor aiExecutor;
 
     @Override
     public CompletableFuture<AIContext> execute(AIContext context) {
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                // Manually propagate Tenant Context
-                com.matheusdev.mindforge.core.tenant.context.TenantContext.setTenantId(context.getTenantId());
+        return aiExecutor.supplyAsync(() -> {
+            log.info(">> [CHAIN] Step 5: Audit & Persistence");
 
-                log.info(">> [CHAIN] Step 5: Audit & Persistence");
-
-                AIProviderResponse response = context.getResponse();
-                if (response == null) {
-                    log.error("No response to audit!");
-                    return context;
-                }
+            AIProviderResponse response = context.getResponse();
+            if (response == null) {
+                log.error("No response to audit!");
+                return context;
+            }
 
-                String content = response.getContent();
+            String content = response.getContent();
 
-                // Persist Assistant Message
-                chatService.saveMessage(context.getSession(), "assistant", content);
+            // Persist Assistant Message
+            chatService.saveMessage(context.getSession(), "assistant", content);
 
-                // Update Memory
-                InteractionType type = context.isShouldAudit() ? InteractionType.RAG_ANALYSIS : InteractionType.CHAT;
+            // Update Memory
+            InteractionType type = context.isShouldAudit() ? InteractionType.RAG_ANALYSIS : InteractionType.CHAT;
 
-                List<Map<String, String>> chatHistory = List.of(
-                        Map.of("role", "user", "content", context.getUserMessage().getContent()),
-                        Map.of("role", "assistant", "content", content));
+            List<Map<String, String>> chatHistory = List.of(
+                    Map.of("role", "user", "content", context.getUserMessage().getContent()),
+                    Map.of("role", "assistant", "content", content));
 
-                memoryService.updateUserProfile(context.getUserId(), chatHistory);
+            memoryService.updateUserProfile(context.getUserId(), chatHistory);
 
-                // Trigger background tasks (like title generation)
-                if ("Nova Conversa".equals(context.getSession().getTitle())) {
-                    triggerBackgroudTitleGeneration(context.getSession().getId(), context.getRequest().prompt());
-                }
+            // Trigger background tasks (like title generation)
+            if ("Nova Conversa".equals(context.getSession().getTitle())) {
+                triggerBackgroudTitleGeneration(context.getSession().getId(), context.getRequest().prompt());
+            }
 
-                response.setSessionId(context.getSession().getId());
-                response.setType(type);
+            response.setSessionId(context.getSession().getId());
+            response.setType(type);
 
-                return context;
-            } finally {
-                com.matheusdev.mindforge.core.tenant.context.TenantContext.clear();
-            }
+            return context;
         });
     }
 
     private void triggerBackgroudTitleGeneration(Long sessionId, String firstMessage) {
-        CompletableFuture.runAsync(() -> {
+        aiExecutor.runAsync(() -> {
             log.info("Triggering title generation for sess {}", sessionId);
             // Logic would be here or delegated
         });
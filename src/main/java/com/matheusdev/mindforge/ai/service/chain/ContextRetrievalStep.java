@@ -5,6 +5,7 @@ import com.matheusdev.mindforge.ai.service.RAGService;
 import com.matheusdev.mindforge.ai.service.VectorStoreService;
 import com.matheusdev.mindforge.ai.service.model.Evidence;
 import com.matheusdev.mindforge.ai.service.orchestrator.RAGOrchestrator;
+import com.matheusdev.mindforge.config.ContextPropagatingExecutor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
@@ -22,10 +23,11 @@ public class ContextRetrievalStep implements AIProcessingStep {
     private final RAGService ragService;
     private final VectorStoreService vectorStoreService;
     private final RAGOrchestrator ragOrchestrator;
+    private final ContextPropagatingExecutor aiExecutor;
 
     @Override
     public CompletableFuture<AIContext> execute(AIContext context) {
-        return CompletableFuture.supplyAsync(() -> {
+        return aiExecutor.supplyAsync(() -> {
             log.info(">> [CHAIN] Step 2: Context Retrieval");
 
             if (!StringUtils.hasText(context.getSession().getDocumentId())) {
@@ -4,13 +4,16 @@ import com.matheusdev.mindforge.ai.provider.AIProvider;
 import com.matheusdev.mindforge.ai.provider.dto.AIProviderRequest;
 import com.matheusdev.mindforge.ai.provider.dto.AIProviderResponse;
 import com.matheusdev.mindforge.ai.service.PromptCacheService;
+import com.matheusdev.mindforge.ai.service.SemanticPromptCacheService;
 import com.matheusdev.mindforge.ai.service.orchestrator.RAGOrchestrator;
+import com.matheusdev.mindforge.config.ContextPropagatingExecutor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 @Component
 @RequiredArgsConstructor
@@ -20,6 +23,8 @@ public class ExecutionStep implements AIProcessingStep {
     private final Map<String, AIProvider> aiProviders;
     private final PromptCacheService promptCacheService;
     private final RAGOrchestrator ragOrchestrator;
+    private final SemanticPromptCacheService semanticCache;
+    private final ContextPropagatingExecutor aiExecutor;
 
     private static final String DEFAULT_PROVIDER = "ollamaProvider";
 
@@ -27,6 +32,21 @@ public class ExecutionStep implements AIProcessingStep {
     public CompletableFuture<AIContext> execute(AIContext context) {
         log.info(">> [CHAIN] Step 4: Execution");
 
+        SemanticPromptCacheService.Scope scope = semanticScope(context);
+        if (scope == null) {
+            return executeOnProvider(context);
+        }
+        String question = context.getRequest().prompt();
+        return aiExecutor.supplyAsync(() -> semanticCache.lookup(scope, question))
+                .thenCompose(cached -> cached
+                        .map(response -> CompletableFuture.completedFuture(context.withResponse(response)))
+                        .orElseGet(() -> executeOnProvider(context).thenApply(result -> {
+                            semanticCache.store(scope, question, result.getResponse());
+                            return result;
+                        })));
+    }
+
+    private CompletableFuture<AIContext> executeOnProvider(AIContext context) {
         // Special handling if using RAG (delegate to RAG Orchestrator for 2-step
         // process)
         if (context.isShouldAudit() && context.getEvidences() != null && !context.getEvidences().isEmpty()) {
@@ -50,13 +70,7 @@ public class ExecutionStep implements AIProcessingStep {
             // Standard Execution
             String providerName = getProviderName(context.getRequest().provider());
             AIProvider provider = getProvider(providerName);
-
-            AIProviderRequest request = AIProviderRequest.builder()
-                    .textPrompt(context.getRequest().prompt())
-                    .systemMessage(context.getFinalSystemPrompt())
-                    .model(context.getRequest().model())
-                    .preferredProvider(providerName)
-                    .build();
+            AIProviderRequest request = buildRequest(context, providerName);
 
             return promptCacheService.executeWithCache(provider, request).handle((response, ex) -> {
                 if (ex != null) {
@@ -68,6 +82,71 @@ public class ExecutionStep implements AIProcessingStep {
         }
     }
 
+    /**
+     * Execução em streaming: cada pedaço gerado vai para {@code onToken}.
+     * No fluxo RAG a resposta passa por extração e auditoria antes de existir,
+     * então é entregue inteira ao final.
+     */
+    public CompletableFuture<AIContext> executeStreaming(AIContext context, Consumer<String> onToken) {
+        if (context.isShouldAudit() && context.getEvidences() != null && !context.getEvidences().isEmpty()) {
+            return execute(context).thenApply(result -> {
+                AIProviderResponse response = result.getResponse();
+                if (response != null && response.getContent() != null) {
+                    onToken.accept(response.getContent());
+                }
+                return result;
+            });
+        }
+
+        log.info(">> [CHAIN] Step 4: Execution (streaming)");
+        SemanticPromptCacheService.Scope scope = semanticScope(context);
+        if (scope == null) {
+            return streamOnProvider(context, onToken);
+        }
+        String question = context.getRequest().prompt();
+        return aiExecutor.supplyAsync(() -> semanticCache.lookup(scope, question))
+                .thenCompose(cached -> cached
+                        .map(response -> {
+                            onToken.accept(response.getContent());
+                            return CompletableFuture.completedFuture(context.withResponse(response));
+                        })
+                        .orElseGet(() -> streamOnProvider(context, onToken).thenApply(result -> {
+                            semanticCache.store(scope, question, result.getResponse());
+                            return result;
+                        })));
+    }
+
+    private CompletableFuture<AIContext> streamOnProvider(AIContext context, Consumer<String> onToken) {
+        String providerName = getProviderName(context.getRequest().provider());
+        AIProvider provider = getProvider(providerName);
+        AIProviderRequest request = buildRequest(context, providerName);
+
+        return promptCacheService.executeStreamingWithCache(provider, request, onToken)
+                .thenApply(context::withResponse);
+    }
+
+    /**
+     * Escopo do cache semântico: só conversas sobre um documento, isoladas por
+     * tenant, system prompt e provedor/modelo. {@code null} quando desativado.
+     */
+    private SemanticPromptCacheService.Scope semanticScope(AIContext context) {
+        if (!semanticCache.isEnabled() || context.getSession() == null) {
+            return null;
+        }
+        String model = getProviderName(context.getRequest().provider()) + ":" + context.getRequest().model();
+        return semanticCache.scope(context.getTenantId(), context.getSession().getDocumentId(),
+                context.getFinalSystemPrompt(), model);
+    }
+
+    private AIProviderRequest buildRequest(AIContext context, String providerName) {
+        return AIProviderRequest.builder()
+                .textPrompt(context.getRequest().prompt())
+                .systemMessage(context.getFinalSystemPrompt())
+                .model(context.getRequest().model())
+                .preferredProvider(providerName)
+                .build();
+    }
+
     private String getProviderName(String provider) {
         return (provider == null || provider.isBlank()) ? DEFAULT_PROVIDER : provider;
     }
@@ -5,11 +5,11 @@ import com.matheusdev.mindforge.ai.memory.model.UserProfileAI;
 import com.matheusdev.mindforge.ai.memory.service.MemoryService;
 import com.matheusdev.mindforge.ai.service.DocumentAnalyzer;
 import com.matheusdev.mindforge.ai.service.PromptBuilderService;
+import com.matheusdev.mindforge.config.ContextPropagatingExecutor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
-import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 
@@ -21,10 +21,11 @@ public class PromptBuildingStep implements AIProcessingStep {
     private final PromptBuilderService promptBuilderService;
     private final MemoryService memoryService;
     private final DocumentAnalyzer documentAnalyzer;
+    private final ContextPropagatingExecutor aiExecutor;
 
     @Override
     public CompletableFuture<AIContext> execute(AIContext context) {
-        return CompletableFuture.supplyAsync(() -> {
+        return aiExecutor.supplyAsync(() -> {
             log.info(">> [CHAIN] Step 3: Prompt Building");
 
             UserProfileAI userProfile = memoryService.getProfile(context.getUserId());
@@ -45,12 +46,9 @@ public class PromptBuildingStep implements AIProcessingStep {
     }
 
     private String enrichSystemPromptWithGlossary(String base, String query) {
-        Map<String, String> staticDefinitions = documentAnalyzer.getTermDefinitions();
         StringBuilder glossary = new StringBuilder();
-        for (Map.Entry<String, String> entry : staticDefinitions.entrySet()) {
-            if (query.toLowerCase().contains(entry.getKey())) {
-                glossary.append("- ").append(entry.getValue()).append("\n");
-            }
+        for (String definition : documentAnalyzer.findGlossaryDefinitions(query)) {
+            glossary.append("- ").append(definition).append("\n");
         }
         if (glossary.length() > 0) {
             return base + "\n\n### GLOSSÁRIO:\n" + glossary.toString();
@@ -3,6 +3,9 @@ package com.matheusdev.mindforge.ai.service.generator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.matheusdev.mindforge.ai.provider.AIProvider;
 import com.matheusdev.mindforge.ai.provider.dto.AIProviderRequest;
+import com.matheusdev.mindforge.ai.routing.AdaptiveProviderRouter;
+import com.matheusdev.mindforge.ai.scheduler.AIWorkContext;
+import com.matheusdev.mindforge.ai.scheduler.AIWorkPriority;
 import com.matheusdev.mindforge.ai.service.PromptCacheService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -21,13 +24,12 @@ public class QuizGeneratorService {
     private final Map<String, AIProvider> aiProviders;
     private final PromptCacheService promptCacheService;
     private final ObjectMapper objectMapper;
+    private final AdaptiveProviderRouter providerRouter;
 
     // JSON Parser
     private final com.fasterxml.jackson.core.type.TypeReference<List<com.matheusdev.mindforge.study.quiz.dto.QuizQuestionRequest>> quizListTypeRef = new com.fasterxml.jackson.core.type.TypeReference<>() {
     };
 
-    private static final String FALLBACK_PROVIDER = "groqProvider";
-
     private AIProvider getProvider(String providerName) {
         AIProvider provider = aiProviders.get(providerName);
         if (provider == null) {
@@ -81,8 +83,8 @@ public class QuizGeneratorService {
                         """,
                 count, topic != null ? topic : "Geral", difficulty, context, jsonStructure);
 
-        // Forçar uso do modelo mais inteligente para garantir JSON correto
-        String providerName = FALLBACK_PROVIDER;
+        // Provedor com menor tempo esperado (latência, fila e budget do Groq)
+        String providerName = providerRouter.route(systemPrompt.length() + userPrompt.length()).provider();
         AIProvider provider = getProvider(providerName);
 
         AIProviderRequest request = AIProviderRequest.builder()
@@ -94,7 +96,9 @@ public class QuizGeneratorService {
                 .build();
 
         // REFACTORED: Fully Async Chain using executeWithCache directly
-        return promptCacheService.executeWithCache(provider, request)
+        // Prioridade BACKGROUND: a geração do quiz não pode atrasar o chat
+        return AIWorkContext.callAs(AIWorkPriority.BACKGROUND, "quiz",
+                () -> promptCacheService.executeWithCache(provider, request))
                 .handle((response, throwable) -> {
                     if (throwable != null) {
                         log.error("Erro no Quiz Generator: {}", throwable.getMessage());
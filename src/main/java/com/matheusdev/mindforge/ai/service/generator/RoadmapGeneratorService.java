@@ -4,10 +4,14 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.matheusdev.mindforge.ai.provider.AIProvider;
 import com.matheusdev.mindforge.ai.provider.dto.AIProviderRequest;
 import com.matheusdev.mindforge.ai.provider.dto.AIProviderResponse;
+import com.matheusdev.mindforge.ai.routing.AdaptiveProviderRouter;
+import com.matheusdev.mindforge.ai.scheduler.AIWorkContext;
+import com.matheusdev.mindforge.ai.scheduler.AIWorkPriority;
 import com.matheusdev.mindforge.ai.service.PromptCacheService;
 import com.matheusdev.mindforge.ai.service.WebSearchService;
 import com.matheusdev.mindforge.study.roadmap.dto.GeneratedRoadmapDTO;
 import com.matheusdev.mindforge.study.roadmap.dto.RoadmapDTOs;
+import com.matheusdev.mindforge.config.ContextPropagatingExecutor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -29,12 +33,12 @@ public class RoadmapGeneratorService {
     private final PromptCacheService promptCacheService;
     private final ObjectMapper objectMapper;
     private final WebSearchService webSearchService;
+    private final ContextPropagatingExecutor aiExecutor;
+    private final AdaptiveProviderRouter providerRouter;
 
     private final com.fasterxml.jackson.core.type.TypeReference<GeneratedRoadmapDTO> roadmapTypeRef = new com.fasterxml.jackson.core.type.TypeReference<>() {
     };
 
-    private static final String FALLBACK_PROVIDER = "groqProvider";
-
     private AIProvider getProvider(String providerName) {
         AIProvider provider = aiProviders.get(providerName);
         if (provider == null) {
@@ -58,7 +62,8 @@ public class RoadmapGeneratorService {
         log.info(">>> [ROADMAP GENERATOR] Gerando Roadmap: Tópico={}, Duração={}, Dificuldade={}", topic, duration,
                 difficulty);
 
-        return CompletableFuture.supplyAsync(() -> {
+        // Geração longa, sem resposta em tempo real: cede a vez ao trabalho interativo
+        return AIWorkContext.callAs(AIWorkPriority.BACKGROUND, "roadmap", () -> aiExecutor.supplyAsync(() -> {
             try {
                 // 1. Gerar Estrutura do Roadmap
                 String systemPrompt = "Você é um mentor especialista em planejamento de carreira e estudos.";
@@ -90,15 +95,16 @@ public class RoadmapGeneratorService {
                                 """,
                         duration, topic, difficulty, jsonStructure);
 
+                String providerName = providerRouter.route(systemPrompt.length() + userPrompt.length()).provider();
                 AIProviderRequest request = AIProviderRequest.builder()
                         .textPrompt(userPrompt)
                         .systemMessage(systemPrompt)
-                        .preferredProvider(FALLBACK_PROVIDER)
+                        .preferredProvider(providerName)
                         .temperature(0.7)
                         .maxTokens(4096)
                         .build();
 
-                AIProviderResponse initialResponse = executeAndLogTask(request, getProvider(FALLBACK_PROVIDER),
+                AIProviderResponse initialResponse = executeAndLogTask(request, getProvider(providerName),
                         "generate-roadmap-structure").get();
 
                 // --- NOTE: Quality Gate removed for brevity in extraction, simplified to
@@ -164,13 +170,14 @@ public class RoadmapGeneratorService {
                                             "Foco: %s",
                                     item.getTitle(), item.getDescription());
 
+                            String guideProviderName = providerRouter.route(guidePrompt.length()).provider();
                             AIProviderRequest guideRequest = AIProviderRequest.builder()
                                     .textPrompt(guidePrompt)
                                     .systemMessage("Você é um assistente educacional direto e útil.")
-                                    .preferredProvider(FALLBACK_PROVIDER)
+                                    .preferredProvider(guideProviderName)
                                     .build();
 
-                            AIProvider fallbackProvider = getProvider(FALLBACK_PROVIDER);
+                            AIProvider fallbackProvider = getProvider(guideProviderName);
                             if (fallbackProvider != null) {
                                 AIProviderResponse guideResponse = fallbackProvider.executeTask(guideRequest).get();
                                 String guideText = guideResponse.getContent();
@@ -203,7 +210,7 @@ public class RoadmapGeneratorService {
                 log.error("Erro fatal gerando roadmap: {}", e.getMessage(), e);
                 throw new RuntimeException("Falha ao gerar roadmap IA", e);
             }
-        });
+        }));
     }
 
     private String cleanJson(String content) {
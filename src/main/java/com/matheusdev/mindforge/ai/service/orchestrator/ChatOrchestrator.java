@@ -8,6 +8,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 @Service
 @RequiredArgsConstructor
@@ -24,33 +25,63 @@ public class ChatOrchestrator {
     public CompletableFuture<AIProviderResponse> handleChatInteraction(ChatRequest chatRequest) {
         log.info(">>> [CHAT ORCHESTRATOR] Starting Chain Execution");
 
-        // Initialize Context
+        // Execute Chain
+        return validationStep.execute(initialContext(chatRequest))
+                .thenCompose(contextRetrievalStep::execute)
+                .thenCompose(promptBuildingStep::execute)
+                .thenCompose(executionStep::execute)
+                .thenCompose(auditStep::execute)
+                .thenApply(AIProcessingStep.AIContext::getResponse)
+                .handle(this::toErrorResponse);
+    }
+
+    /**
+     * Mesma cadeia, com a geração transmitida para {@code onToken}. A
+     * persistência e a atualização de memória acontecem uma vez, quando o
+     * stream termina; um stream interrompido não grava resposta truncada.
+     */
+    public CompletableFuture<AIProviderResponse> streamChatInteraction(ChatRequest chatRequest,
+            Consumer<String> onToken) {
+        log.info(">>> [CHAT ORCHESTRATOR] Starting Streaming Chain Execution");
+
+        return validationStep.execute(initialContext(chatRequest))
+                .thenCompose(contextRetrievalStep::execute)
+                .thenCompose(promptBuildingStep::execute)
+                .thenCompose(context -> executionStep.executeStreaming(context, onToken))
+                .thenCompose(context -> {
+                    AIProviderResponse response = context.getResponse();
+                    if (response != null && response.getError() != null) {
+                        log.warn("Stream encerrado com erro, resposta não persistida: {}", response.getError());
+                        response.setSessionId(context.getSession().getId());
+                        return CompletableFuture.completedFuture(context);
+                    }
+                    return auditStep.execute(context);
+                })
+                .thenApply(AIProcessingStep.AIContext::getResponse)
+                .handle(this::toErrorResponse);
+    }
+
+    private AIProcessingStep.AIContext initialContext(ChatRequest chatRequest) {
+        // Lido na thread da requisição, antes de qualquer etapa assíncrona
         Long userId = com.matheusdev.mindforge.core.auth.util.SecurityUtils.getCurrentUserId();
         Long tenantId = com.matheusdev.mindforge.core.auth.util.SecurityUtils.getCurrentTenantId();
 
-        AIProcessingStep.AIContext initialContext = AIProcessingStep.AIContext.builder()
+        return AIProcessingStep.AIContext.builder()
                 .request(chatRequest)
                 .userId(userId)
                 .tenantId(tenantId)
                 .build();
+    }
 
-        // Execute Chain
-        return validationStep.execute(initialContext)
-                .thenCompose(contextRetrievalStep::execute)
-                .thenCompose(promptBuildingStep::execute)
-                .thenCompose(executionStep::execute)
-                .thenCompose(auditStep::execute)
-                .thenApply(AIProcessingStep.AIContext::getResponse)
-                .handle((response, ex) -> {
-                    if (ex != null) {
-                        log.error("Chain execution failed", ex);
-                        AIProviderResponse errResponse = new AIProviderResponse();
-                        errResponse.setContent(
-                                "Desculpe, ocorreu um erro interno ao processar sua solicitação: " + ex.getMessage());
-                        errResponse.setError(ex.getMessage());
-                        return errResponse;
-                    }
-                    return response;
-                });
+    private AIProviderResponse toErrorResponse(AIProviderResponse response, Throwable ex) {
+        if (ex != null) {
+            log.error("Chain execution failed", ex);
+            AIProviderResponse errResponse = new AIProviderResponse();
+            errResponse.setContent(
+                    "Desculpe, ocorreu um erro interno ao processar sua solicitação: " + ex.getMessage());
+            errResponse.setError(ex.getMessage());
+            return errResponse;
+        }
+        return response;
     }
 }
@@ -8,6 +8,9 @@ import com.matheusdev.mindforge.ai.memory.service.MemoryService;
 import com.matheusdev.mindforge.ai.provider.AIProvider;
 import com.matheusdev.mindforge.ai.provider.dto.AIProviderRequest;
 import com.matheusdev.mindforge.ai.provider.dto.AIProviderResponse;
+import com.matheusdev.mindforge.ai.routing.AdaptiveProviderRouter;
+import com.matheusdev.mindforge.ai.routing.HedgedRequestExecutor;
+import com.matheusdev.mindforge.ai.scheduler.AIWorkContext;
 import com.matheusdev.mindforge.ai.service.ChatService;
 import com.matheusdev.mindforge.ai.service.DocumentAnalyzer;
 import com.matheusdev.mindforge.ai.service.PromptBuilderService;
@@ -17,8 +20,11 @@ import com.matheusdev.mindforge.ai.service.SmartRouterService;
 import com.matheusdev.mindforge.ai.service.VectorStoreService;
 import com.matheusdev.mindforge.ai.service.model.Evidence;
 import com.matheusdev.mindforge.ai.service.model.InteractionType;
+import com.matheusdev.mindforge.config.ContextPropagatingExecutor;
 import dev.langchain4j.data.document.Document;
 import dev.langchain4j.data.document.Metadata;
+import dev.langchain4j.data.document.splitter.DocumentSplitters;
+import dev.langchain4j.data.segment.TextSegment;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.reader.tika.TikaDocumentReader;
@@ -34,7 +40,6 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.Semaphore;
 
 @Service
 @RequiredArgsConstructor
@@ -51,11 +56,24 @@ public class DocumentAnalysisOrchestrator {
     private final VectorStoreService vectorStoreService;
     private final DocumentAnalyzer documentAnalyzer;
     private final RAGOrchestrator ragOrchestrator;
+    private final ContextPropagatingExecutor aiExecutor;
+    private final MapReduceScheduler mapReduceScheduler;
+    private final AdaptiveProviderRouter providerRouter;
+    private final HedgedRequestExecutor hedgedRequestExecutor;
 
-    private final Semaphore semaphore = new Semaphore(1);
     private static final String DEFAULT_PROVIDER = "ollamaProvider";
-    private static final String FALLBACK_PROVIDER = "groqProvider";
-    private static final int OLLAMA_CHAR_LIMIT = 5000;
+
+    /**
+     * Recebe a etapa atual e o progresso (0-100) da análise. Usado pelos jobs
+     * de ingestão em background para expor o andamento.
+     */
+    @FunctionalInterface
+    public interface ProgressListener {
+        ProgressListener NONE = (stage, progress) -> {
+        };
+
+        void onProgress(String stage, int progress);
+    }
 
     private AIProvider getProvider(String providerName) {
         AIProvider provider = aiProviders.get(providerName);
@@ -82,7 +100,13 @@ public class DocumentAnalysisOrchestrator {
 
     public CompletableFuture<AIProviderResponse> handleFileAnalysis(String userPrompt, String providerName,
             MultipartFile file) throws IOException {
+        return handleFileAnalysis(userPrompt, providerName, file, ProgressListener.NONE);
+    }
+
+    public CompletableFuture<AIProviderResponse> handleFileAnalysis(String userPrompt, String providerName,
+            MultipartFile file, ProgressListener progress) throws IOException {
         log.info(">>> [DOC ORCHESTRATOR] Iniciando análise de arquivo: {}", file.getOriginalFilename());
+        progress.onProgress("PARSING", 5);
 
         final Long userId = 1L;
         UserProfileAI userProfile = memoryService.getProfile(userId);
@@ -98,6 +122,7 @@ public class DocumentAnalysisOrchestrator {
                     .collect(Collectors.toList());
         }
 
+        progress.onProgress("ROUTING", 15);
         String selectedProviderName = determineProvider(providerName, isImage, langchainDocuments);
         AIProvider selectedProvider = getProvider(selectedProviderName);
 
@@ -110,11 +135,12 @@ public class DocumentAnalysisOrchestrator {
         String finalSystemPrompt = enrichSystemPromptWithGlossary(basePrompts.systemPrompt(), userPrompt);
 
         if (isImage) {
+            progress.onProgress("GENERATING", 30);
             return processImageAnalysis(userPrompt, finalSystemPrompt, selectedProviderName, file, selectedProvider,
                     session, userMessage, userId);
         } else {
             return processTextAnalysis(userPrompt, finalSystemPrompt, basePrompts, langchainDocuments,
-                    selectedProviderName, selectedProvider, file, session, userMessage, userId);
+                    selectedProviderName, selectedProvider, file, session, userMessage, userId, progress);
         }
     }
 
@@ -123,9 +149,9 @@ public class DocumentAnalysisOrchestrator {
             return getProviderName(providerName);
         }
         if (isImage)
-            return "ollamaProvider";
+            return providerRouter.routeVision(0).provider();
         long totalChars = docs.stream().mapToLong(d -> d.text().length()).sum();
-        return totalChars > OLLAMA_CHAR_LIMIT ? FALLBACK_PROVIDER : DEFAULT_PROVIDER;
+        return providerRouter.route((int) Math.min(Integer.MAX_VALUE, totalChars)).provider();
     }
 
     private CompletableFuture<AIProviderResponse> processImageAnalysis(String userPrompt, String systemPrompt,
@@ -146,7 +172,7 @@ public class DocumentAnalysisOrchestrator {
 
     private CompletableFuture<AIProviderResponse> processTextAnalysis(String userPrompt, String systemPrompt,
             PromptPair basePrompts, List<Document> docs, String providerName, AIProvider provider, MultipartFile file,
-            ChatSession session, ChatMessage userMessage, Long userId) {
+            ChatSession session, ChatMessage userMessage, Long userId, ProgressListener progress) {
         String documentId = file.getOriginalFilename() != null ? file.getOriginalFilename()
                 : "document_" + System.currentTimeMillis();
         Document mainDocument = docs.get(0);
@@ -155,24 +181,23 @@ public class DocumentAnalysisOrchestrator {
                 .decideStrategy(mainDocument.text().length());
 
         return switch (strategy) {
-            case ONE_SHOT -> processOneShot(mainDocument.text(), new PromptPair(systemPrompt, basePrompts.userPrompt()),
-                    provider, providerName, userPrompt)
-                    .thenCompose(response -> saveResponseAndUpdateProfile(response, session, userMessage, userId,
-                            InteractionType.DOCUMENT_ANALYSIS));
+            case ONE_SHOT -> {
+                progress.onProgress("GENERATING", 30);
+                yield processOneShot(mainDocument.text(), new PromptPair(systemPrompt, basePrompts.userPrompt()),
+                        provider, providerName, userPrompt)
+                        .thenCompose(response -> saveResponseAndUpdateProfile(response, session, userMessage, userId,
+                                InteractionType.DOCUMENT_ANALYSIS));
+            }
             case MAP_REDUCE -> {
-                boolean isLocal = providerName.equalsIgnoreCase("ollamaProvider");
-                CompletableFuture<AIProviderResponse> res;
-                if (isLocal)
-                    res = processChunksSequentially(docs, new PromptPair(systemPrompt, basePrompts.userPrompt()),
-                            provider, providerName, userPrompt);
-                else
-                    res = processChunksWithRateLimit(docs, new PromptPair(systemPrompt, basePrompts.userPrompt()),
-                            provider, providerName, userPrompt);
-                yield res.thenCompose(response -> saveResponseAndUpdateProfile(response, session, userMessage, userId,
-                        InteractionType.DOCUMENT_ANALYSIS));
+                yield processMapReduce(docs, new PromptPair(systemPrompt, basePrompts.userPrompt()), provider,
+                        providerName, userPrompt, progress)
+                        .thenCompose(response -> saveResponseAndUpdateProfile(response, session, userMessage, userId,
+                                InteractionType.DOCUMENT_ANALYSIS));
             }
             case RAG -> {
+                progress.onProgress("INDEXING", 25);
                 List<Evidence> evidences = ragService.processQueryWithRAG(documentId, mainDocument, userPrompt, 8);
+                progress.onProgress("GENERATING", 70);
                 yield ragOrchestrator
                         .processWithRAG(documentId, mainDocument, userPrompt, provider, providerName, evidences, null)
                         .thenCompose(response -> saveResponseAndUpdateProfile(response, session, userMessage, userId,
@@ -187,63 +212,64 @@ public class DocumentAnalysisOrchestrator {
                 userPrompt);
         AIProviderRequest request = AIProviderRequest.builder().textPrompt(fullPrompt)
                 .systemMessage(prompts.systemPrompt()).preferredProvider(providerName).build();
-        return executeAndLogTask(request, provider, "one-shot");
+        // Análise só de leitura: pode ganhar um backup em outro provedor se demorar (hedge)
+        return executeAndLogTask(request, hedgedRequestExecutor.hedged(providerName), "one-shot");
     }
 
-    private CompletableFuture<AIProviderResponse> processChunksSequentially(List<Document> chunks, PromptPair prompts,
-            AIProvider provider, String providerName, String userPrompt) {
-        return CompletableFuture.supplyAsync(() -> {
-            List<String> partials = new ArrayList<>();
-            for (Document chunk : chunks) {
-                String mapPrompt = "Analise este trecho:\n" + chunk.text();
-                AIProviderRequest req = AIProviderRequest.builder().textPrompt(mapPrompt)
-                        .systemMessage(prompts.systemPrompt()).preferredProvider(providerName).build();
-                try {
-                    AIProviderResponse res = provider.executeTask(req).get();
-                    partials.add(res.getContent());
-                } catch (Exception e) {
-                    log.error("Erro chunk", e);
-                }
-            }
-            return reduceResults(partials, prompts, provider, providerName, userPrompt);
-        });
+    /**
+     * MAP em paralelo pelo {@link MapReduceScheduler} (trechos distribuídos
+     * entre os provedores, respeitando concorrência e orçamento de tokens) e
+     * REDUCE sobre os parciais na ordem original do documento. O leitor
+     * entrega o arquivo inteiro num único Document: aqui ele é dividido em
+     * trechos de até {@link MapReduceScheduler#shardMaxChars} caracteres.
+     */
+    CompletableFuture<AIProviderResponse> processMapReduce(List<Document> docs, PromptPair prompts,
+            AIProvider provider, String providerName, String userPrompt, ProgressListener progress) {
+        progress.onProgress("MAP", 20);
+        int shardMaxChars = mapReduceScheduler.shardMaxChars(prompts.systemPrompt());
+        List<String> mapPrompts = docs.stream()
+                .flatMap(doc -> DocumentSplitters.recursive(shardMaxChars, 0).split(doc).stream())
+                .map(TextSegment::text)
+                .map(text -> "Analise este trecho:\n" + text)
+                .toList();
+        log.info("🗺️ Documento dividido em {} trechos de até {} caracteres", mapPrompts.size(), shardMaxChars);
+        // Uma análise, uma requisição na cota (cada trecho ainda confere os tokens do dia)
+        return AIWorkContext.callAsOneCall(() -> mapReduceScheduler
+                .map(mapPrompts, prompts.systemPrompt(), providerName,
+                        (done, total) -> progress.onProgress("MAP", 20 + 60 * done / total))
+                .thenCompose(partials -> {
+                    progress.onProgress("REDUCE", 85);
+                    return reduceResults(partials, prompts, provider, providerName, userPrompt);
+                }));
     }
 
-    private CompletableFuture<AIProviderResponse> processChunksWithRateLimit(List<Document> chunks, PromptPair prompts,
+    /**
+     * Consolida os parciais. Quando não cabem numa única chamada, o
+     * {@link MapReduceScheduler#reduceToFit} os reduz antes em árvore.
+     */
+    private CompletableFuture<AIProviderResponse> reduceResults(List<String> partials, PromptPair prompts,
             AIProvider provider, String providerName, String userPrompt) {
-        // Simplified rate limit logic
-        return processChunksSequentially(chunks, prompts, provider, providerName, userPrompt);
-    }
-
-    private AIProviderResponse reduceResults(List<String> partials, PromptPair prompts, AIProvider provider,
-            String providerName, String userPrompt) {
-        String combined = String.join("\n---\n", partials);
-        String reducePrompt = "Consolide:\n" + combined + "\n\nSolicitação Original: " + userPrompt;
-        AIProviderRequest req = AIProviderRequest.builder().textPrompt(reducePrompt)
-                .systemMessage(prompts.systemPrompt()).preferredProvider(providerName).build();
-        try {
-            return executeAndLogTask(req, provider, "reduce").get();
-        } catch (Exception e) {
-            throw new RuntimeException(e);
-        }
+        return mapReduceScheduler.reduceToFit(partials, prompts.systemPrompt(), providerName, userPrompt)
+                .thenCompose(fitting -> {
+                    String combined = String.join(MapReduceScheduler.PARTIAL_SEPARATOR, fitting);
+                    String reducePrompt = "Consolide:\n" + combined + "\n\nSolicitação Original: " + userPrompt;
+                    AIProviderRequest req = AIProviderRequest.builder().textPrompt(reducePrompt)
+                            .systemMessage(prompts.systemPrompt()).preferredProvider(providerName).build();
+                    return executeAndLogTask(req, provider, "reduce");
+                });
     }
 
     private String enrichSystemPromptWithGlossary(String base, String query) {
-        // Duplicated logic from ChatOrchestrator - ideally shared in DocumentAnalyzer
-        // or PromptBuilder
-        Map<String, String> staticDefinitions = documentAnalyzer.getTermDefinitions();
         StringBuilder glossary = new StringBuilder();
-        for (Map.Entry<String, String> entry : staticDefinitions.entrySet()) {
-            if (query.toLowerCase().contains(entry.getKey())) {
-                glossary.append("- ").append(entry.getValue()).append("\n");
-            }
+        for (String definition : documentAnalyzer.findGlossaryDefinitions(query)) {
+            glossary.append("- ").append(definition).append("\n");
         }
         return glossary.length() > 0 ? base + "\n\n### GLOSSÁRIO:\n" + glossary.toString() : base;
     }
 
     private CompletableFuture<AIProviderResponse> saveResponseAndUpdateProfile(AIProviderResponse response,
             ChatSession session, ChatMessage userMessage, Long userId, InteractionType type) {
-        return CompletableFuture.supplyAsync(() -> {
+        return aiExecutor.supplyAsync(() -> {
             String content = response.getContent();
             chatService.saveMessage(session, "assistant", content);
             List<Map<String, String>> chatHistory = List.of(
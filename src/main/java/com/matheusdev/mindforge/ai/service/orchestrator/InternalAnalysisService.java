@@ -3,6 +3,7 @@ package com.matheusdev.mindforge.ai.service.orchestrator;
 import com.matheusdev.mindforge.ai.provider.AIProvider;
 import com.matheusdev.mindforge.ai.provider.dto.AIProviderRequest;
 import com.matheusdev.mindforge.ai.provider.dto.AIProviderResponse;
+import com.matheusdev.mindforge.ai.routing.HedgedRequestExecutor;
 import com.matheusdev.mindforge.ai.service.PromptCacheService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -18,6 +19,7 @@ public class InternalAnalysisService {
 
     private final Map<String, AIProvider> aiProviders;
     private final PromptCacheService promptCacheService;
+    private final HedgedRequestExecutor hedgedRequestExecutor;
 
     private static final String DEFAULT_PROVIDER = "ollamaProvider";
 
@@ -38,42 +40,39 @@ public class InternalAnalysisService {
 
     /**
      * Executa task com log e fallback (Similar ao método privado original do
-     * AIOrchestrationService).
-     * Pode ser movido para um BaseService ou utilitário se reutilizado.
+     * AIOrchestrationService). A chamada usa hedge entre provedores (a análise
+     * interna é idempotente) e o fallback para o Ollama é encadeado sem
+     * bloquear a thread.
      */
-    private CompletableFuture<AIProviderResponse> executeAndLogTask(AIProviderRequest request, AIProvider provider,
+    private CompletableFuture<AIProviderResponse> executeAndLogTask(AIProviderRequest request, String providerName,
             String taskName) {
-        log.debug("Enviando requisição '{}' para o provedor '{}'", taskName, provider.getClass().getSimpleName());
-
-        return promptCacheService.executeWithCache(provider, request)
-                .handle((response, throwable) -> {
-                    if (throwable != null) {
-                        Throwable cause = throwable;
-                        while (cause.getCause() != null && cause != cause.getCause()) {
-                            cause = cause.getCause();
-                        }
-
-                        boolean isOllama = provider.getClass().getSimpleName().toLowerCase().contains("ollama");
-
-                        if (!isOllama) {
-                            log.warn("⚠️ Falha no provedor principal '{}'. Erro: {}. Iniciando FALLBACK para Ollama...",
-                                    taskName, cause.getMessage());
-                            AIProvider ollama = getProvider("ollamaProvider");
-                            try {
-                                return promptCacheService.executeWithCache(ollama, request).join();
-                            } catch (Exception e) {
-                                log.error("❌ Falha crítica no Fallback (Ollama) para '{}': {}", taskName,
-                                        e.getMessage());
-                                throw new RuntimeException("Falha no provedor principal e no fallback", e);
-                            }
-                        }
-
-                        log.error("!!! ERRO na execução da tarefa '{}': {}", taskName, cause.getMessage(), cause);
-                        throw new RuntimeException(cause);
-                    } else {
-                        log.info("<<< SUCESSO na tarefa '{}'. Resposta recebida.", taskName);
-                        return response;
+        log.debug("Enviando requisição '{}' para o provedor '{}'", taskName, providerName);
+
+        return promptCacheService.executeWithCache(hedgedRequestExecutor.hedged(providerName), request)
+                .thenApply(response -> {
+                    log.info("<<< SUCESSO na tarefa '{}'. Resposta recebida.", taskName);
+                    return response;
+                })
+                .exceptionallyCompose(throwable -> {
+                    Throwable cause = throwable;
+                    while (cause.getCause() != null && cause != cause.getCause()) {
+                        cause = cause.getCause();
                     }
+
+                    if (!DEFAULT_PROVIDER.equals(providerName)) {
+                        log.warn("⚠️ Falha no provedor principal '{}'. Erro: {}. Iniciando FALLBACK para Ollama...",
+                                taskName, cause.getMessage());
+                        return promptCacheService.executeWithCache(getProvider(DEFAULT_PROVIDER), request)
+                                .exceptionallyCompose(e -> {
+                                    log.error("❌ Falha crítica no Fallback (Ollama) para '{}': {}", taskName,
+                                            e.getMessage());
+                                    return CompletableFuture.failedFuture(
+                                            new RuntimeException("Falha no provedor principal e no fallback", e));
+                                });
+                    }
+
+                    log.error("!!! ERRO na execução da tarefa '{}': {}", taskName, cause.getMessage(), cause);
+                    return CompletableFuture.failedFuture(new RuntimeException(cause));
                 });
     }
 
@@ -83,7 +82,6 @@ public class InternalAnalysisService {
     public CompletableFuture<AIProviderResponse> executeInternalAnalysis(String prompt, String systemMessage) {
         log.info(">>> [INTERNAL] Executando análise interna (headless)...");
         String providerName = DEFAULT_PROVIDER;
-        AIProvider selectedProvider = getProvider(providerName);
 
         AIProviderRequest request = AIProviderRequest.builder()
                 .textPrompt(prompt)
@@ -91,7 +89,7 @@ public class InternalAnalysisService {
                 .preferredProvider(providerName)
                 .build();
 
-        return executeAndLogTask(request, selectedProvider, "internal-analysis");
+        return executeAndLogTask(request, providerName, "internal-analysis");
     }
 
     /**
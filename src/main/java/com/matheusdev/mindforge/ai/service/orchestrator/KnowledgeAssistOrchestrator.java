@@ -5,7 +5,9 @@ import com.matheusdev.mindforge.ai.chat.repository.ChatSessionRepository;
 import com.matheusdev.mindforge.ai.provider.AIProvider;
 import com.matheusdev.mindforge.ai.provider.dto.AIProviderRequest;
 import com.matheusdev.mindforge.ai.provider.dto.AIProviderResponse;
+import com.matheusdev.mindforge.ai.routing.AdaptiveProviderRouter;
 import com.matheusdev.mindforge.ai.service.ChatService;
+import com.matheusdev.mindforge.ai.service.ContentIndexingService;
 import com.matheusdev.mindforge.ai.service.PromptCacheService;
 import com.matheusdev.mindforge.ai.service.RAGService;
 import com.matheusdev.mindforge.ai.service.model.Evidence;
@@ -14,6 +16,7 @@ import com.matheusdev.mindforge.knowledgeltem.dto.KnowledgeAIResponse;
 import com.matheusdev.mindforge.knowledgeltem.dto.KnowledgeAgentProposal;
 import com.matheusdev.mindforge.knowledgeltem.repository.KnowledgeItemRepository;
 import com.matheusdev.mindforge.knowledgeltem.service.ProposalCacheService;
+import com.matheusdev.mindforge.config.ContextPropagatingExecutor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -37,8 +40,9 @@ public class KnowledgeAssistOrchestrator {
     private final ChatService chatService;
     private final RAGService ragService;
     private final ProposalCacheService proposalCacheService;
+    private final ContextPropagatingExecutor aiExecutor;
+    private final AdaptiveProviderRouter providerRouter;
 
-    private static final String FALLBACK_PROVIDER = "groqProvider";
     private static final String DEFAULT_PROVIDER = "ollamaProvider";
 
     private AIProvider getProvider(String providerName) {
@@ -49,6 +53,10 @@ public class KnowledgeAssistOrchestrator {
         return provider;
     }
 
+    private static int lengthOf(String text) {
+        return text != null ? text.length() : 0;
+    }
+
     private CompletableFuture<AIProviderResponse> executeAndLogTask(AIProviderRequest request, AIProvider provider,
             String taskName) {
         return promptCacheService.executeWithCache(provider, request).handle((response, ex) -> {
@@ -63,10 +71,12 @@ public class KnowledgeAssistOrchestrator {
     public CompletableFuture<KnowledgeAIResponse> processKnowledgeAssist(KnowledgeAIRequest request) {
         log.info(">>> [KNOWLEDGE ORCHESTRATOR] Processando Knowledge Assist: {}", request.getCommand());
 
-        String providerName = FALLBACK_PROVIDER;
+        // Provedor com menor tempo esperado para o tamanho da nota
+        String providerName = providerRouter.route(lengthOf(request.getContext()) + lengthOf(request.getInstruction()))
+                .provider();
         AIProvider provider = getProvider(providerName);
 
-        return CompletableFuture.supplyAsync(() -> {
+        return aiExecutor.supplyAsync(() -> {
             try {
                 if (request.isAgentMode() && request.getKnowledgeId() != null) {
                     log.info("🤖 AGENT MODE ATIVADO para Knowledge Item {}", request.getKnowledgeId());
@@ -170,7 +180,7 @@ public class KnowledgeAssistOrchestrator {
             for (var item : allItems) {
                 if (currentNoteId != null && item.getId().equals(currentNoteId))
                     continue;
-                String docId = "knowledge_" + item.getId();
+                String docId = ContentIndexingService.knowledgeDocumentId(item.getId());
                 try {
                     List<Evidence> evidences = ragService.queryIndexedDocument(docId, query, 3);
                     for (Evidence ev : evidences) {
@@ -187,7 +197,7 @@ public class KnowledgeAssistOrchestrator {
                 ragEvidence.append("\n\n### EVIDÊNCIAS DE OUTRAS NOTAS:\n");
                 for (Evidence ev : topEvidences) {
                     ragEvidence.append(String.format("\n**Fonte: %s** (Relevância: %.2f)\n%s\n",
-                            ev.documentId().replace("knowledge_", "Nota #"), ev.score(), ev.excerpt()));
+                            ev.documentId().replace(ContentIndexingService.KNOWLEDGE_PREFIX, "Nota #"), ev.score(), ev.excerpt()));
                 }
             }
         } catch (Exception e) {
@@ -0,0 +1,497 @@
+package com.matheusdev.mindforge.ai.service.orchestrator;
+
+import com.matheusdev.mindforge.ai.provider.AIProvider;
+import com.matheusdev.mindforge.ai.provider.dto.AIProviderRequest;
+import com.matheusdev.mindforge.ai.provider.dto.AIProviderResponse;
+import com.matheusdev.mindforge.ai.provider.groq.GroqTokenBudgetManager;
+import com.matheusdev.mindforge.ai.scheduler.AIWorkContext;
+import com.matheusdev.mindforge.ai.scheduler.AIWorkPriority;
+import com.matheusdev.mindforge.ai.service.PromptCacheService;
+import com.matheusdev.mindforge.config.ContextPropagatingExecutor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+/**
+ * Agendador da fase MAP das análises de documentos grandes.
+ * <p>
+ * Cada trecho vira um shard numa fila global (compartilhada por todas as
+ * análises em andamento). O despacho é não bloqueante: cada provedor tem uma
+ * "raia" com limite de chamadas simultâneas, e um shard sai da fila assim que
+ * alguma raia tem vaga — primeiro a do provedor escolhido para a análise,
+ * depois as demais. A raia do Groq só recebe shards que cabem no orçamento de
+ * tokens do minuto, descontando os despachados na mesma rodada (que ainda não
+ * reservaram no {@link GroqTokenBudgetManager}).
+ * <p>
+ * Os resultados são guardados pelo índice do trecho, de modo que o REDUCE
+ * recebe os parciais na ordem do documento. Um shard que falha volta para a
+ * fila sozinho (preferindo outro provedor) até {@code max-attempts}; se ainda
+ * assim falhar é descartado, e a análise só falha se nenhum shard der certo.
+ * <p>
+ * O tamanho de cada trecho vem de {@link #shardMaxChars}: o limite
+ * configurado, reduzido se preciso para que um trecho caiba numa janela de
+ * tokens do Groq. O REDUCE de documentos muito grandes usa as mesmas raias,
+ * em árvore ({@link #reduceToFit}).
+ */
+@Component
+@Slf4j
+public class MapReduceScheduler {
+
+    private static final String OLLAMA_PROVIDER = "ollamaProvider";
+    private static final String GROQ_PROVIDER = "groqProvider";
+    private static final int DEFAULT_LANE_CONCURRENCY = 2;
+    // max_tokens do modelo padrão do Groq (1024) + 10%, como na estimativa do GroqProvider
+    private static final int GROQ_RESPONSE_RESERVE_TOKENS = 1127;
+    private static final long STALLED_QUEUE_RETRY_MS = 1000;
+    static final String PARTIAL_SEPARATOR = "\n---\n";
+    private static final String INTERMEDIATE_REDUCE_PROMPT = "Consolide os resumos parciais a seguir em um único "
+            + "resumo, preservando fatos, números e nomes relevantes:\n%s\n\nSolicitação Original: %s";
+    // Texto fixo do prompt de consolidação, descontado do limite de cada chamada
+    private static final int REDUCE_PROMPT_OVERHEAD = 200;
+    private static final int MIN_REDUCE_CHARS = 1000;
+    // Texto fixo do prompt de MAP ("Analise este trecho:") e folga da estimativa
+    private static final int MAP_PROMPT_OVERHEAD = 100;
+    private static final int MIN_SHARD_CHARS = 1000;
+    // Parciais que não encolhem a cada nível (respostas longas do LLM) não podem reduzir para sempre
+    private static final int MAX_REDUCE_LEVELS = 8;
+
+    private final Map<String, AIProvider> aiProviders;
+    private final PromptCacheService promptCacheService;
+    private final GroqTokenBudgetManager groqBudgetManager;
+    private final ContextPropagatingExecutor aiExecutor;
+    private final int maxAttempts;
+    private final long retryBackoffMs;
+    private final int reduceMaxChars;
+    private final int shardMaxChars;
+    private final Map<String, Lane> lanes = new LinkedHashMap<>();
+
+    private final ConcurrentLinkedQueue<Shard> queue = new ConcurrentLinkedQueue<>();
+    // Estimativa dos shards do Groq despachados no pump atual; só é lida sob o lock do pump
+    private int groqTokensDispatchedInPump;
+    private final AtomicBoolean stallRetryScheduled = new AtomicBoolean();
+
+    public MapReduceScheduler(Map<String, AIProvider> aiProviders, PromptCacheService promptCacheService,
+            GroqTokenBudgetManager groqBudgetManager, ContextPropagatingExecutor aiExecutor,
+            @Value("${mindforge.analysis.map-reduce.ollama-concurrency:2}") int ollamaConcurrency,
+            @Value("${mindforge.analysis.map-reduce.groq-concurrency:4}") int groqConcurrency,
+            @Value("${mindforge.analysis.map-reduce.max-attempts:3}") int maxAttempts,
+            @Value("${mindforge.analysis.map-reduce.retry-backoff-ms:500}") long retryBackoffMs,
+            @Value("${mindforge.analysis.map-reduce.reduce-max-chars:12000}") int reduceMaxChars,
+            @Value("${mindforge.analysis.map-reduce.shard-max-chars:8000}") int shardMaxChars) {
+        this.aiProviders = aiProviders;
+        this.promptCacheService = promptCacheService;
+        this.groqBudgetManager = groqBudgetManager;
+        this.aiExecutor = aiExecutor;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.retryBackoffMs = Math.max(0, retryBackoffMs);
+        this.reduceMaxChars = reduceMaxChars;
+        this.shardMaxChars = Math.max(MIN_SHARD_CHARS, shardMaxChars);
+        registerLane(OLLAMA_PROVIDER, ollamaConcurrency);
+        registerLane(GROQ_PROVIDER, groqConcurrency);
+        log.info("🗺️ MAP paralelo: raias {}, até {} tentativas por trecho", lanes.values().stream()
+                .map(lane -> lane.name + "=" + lane.capacity).toList(), this.maxAttempts);
+    }
+
+    /**
+     * Executa o MAP de todos os trechos e devolve os parciais na ordem dos
+     * trechos (sem os que falharam em todas as tentativas).
+     *
+     * @param preferredProvider provedor escolhido para a análise; é a primeira
+     *                          raia tentada para cada trecho.
+     * @param onShardDone       recebe (concluídos, total) a cada trecho finalizado.
+     */
+    public CompletableFuture<List<String>> map(List<String> prompts, String systemPrompt, String preferredProvider,
+            ShardProgress onShardDone) {
+        log.info("🗺️ MAP agendado: {} trechos, provedor preferido {}", prompts.size(), preferredProvider);
+        return submit(prompts, systemPrompt, preferredProvider, onShardDone,
+                ContextPropagatingExecutor.Snapshot.capture())
+                .thenApply(partials -> partials.stream().filter(Objects::nonNull).toList());
+    }
+
+    /**
+     * Trechos que o MAP processa ao mesmo tempo (soma das raias).
+     */
+    public synchronized int parallelism() {
+        return lanes.values().stream().mapToInt(lane -> lane.capacity).sum();
+    }
+
+    /**
+     * Tamanho máximo (caracteres) de um trecho do MAP: {@code shard-max-chars},
+     * limitado para que o trecho, o system prompt e a reserva de resposta
+     * caibam numa janela de tokens do Groq. Se nem um trecho mínimo cabe no
+     * Groq, os trechos vão para as outras raias e o Groq não limita o tamanho.
+     */
+    public int shardMaxChars(String systemPrompt) {
+        int limit = shardMaxChars;
+        if (lanes.containsKey(GROQ_PROVIDER)) {
+            long groqChars = ((long) groqBudgetManager.getWindowLimit() - GROQ_RESPONSE_RESERVE_TOKENS) * 4
+                    - MAP_PROMPT_OVERHEAD - (systemPrompt != null ? systemPrompt.length() : 0);
+            if (groqChars >= MIN_SHARD_CHARS) {
+                limit = (int) Math.min(limit, groqChars);
+            }
+        }
+        return limit;
+    }
+
+    /**
+     * Limite de caracteres de uma chamada de REDUCE.
+     */
+    public int reduceMaxChars() {
+        return reduceMaxChars;
+    }
+
+    /**
+     * REDUCE em árvore: enquanto os parciais não cabem juntos em
+     * {@code reduce-max-chars}, consolida-os em grupos limitados (em paralelo,
+     * pelas mesmas raias do MAP) e repete sobre o resultado. Cada nível ao
+     * menos divide pela metade o número de parciais, então a profundidade é
+     * logarítmica no tamanho do documento, e nenhuma chamada passa do limite.
+     * Nenhum parcial é truncado: um parcial maior que o limite é dividido em
+     * pedaços consecutivos consolidados juntos.
+     * <p>
+     * Devolve, em ordem, os parciais do último nível — que juntos cabem numa
+     * única chamada de consolidação final, feita por quem chamou. Um grupo
+     * sozinho no nível segue adiante sem chamar o LLM; um grupo que falha em
+     * todas as tentativas segue adiante sem consolidar, e seus parciais são
+     * reagrupados no nível seguinte.
+     */
+    public CompletableFuture<List<String>> reduceToFit(List<String> partials, String systemPrompt,
+            String preferredProvider, String userPrompt) {
+        return reduceLevel(partials, systemPrompt, preferredProvider, userPrompt, 1,
+                ContextPropagatingExecutor.Snapshot.capture());
+    }
+
+    private CompletableFuture<List<String>> reduceLevel(List<String> partials, String systemPrompt,
+            String preferredProvider, String userPrompt, int level, ContextPropagatingExecutor.Snapshot context) {
+        int budget = Math.max(MIN_REDUCE_CHARS, reduceMaxChars - REDUCE_PROMPT_OVERHEAD
+                - (userPrompt != null ? userPrompt.length() : 0) - (systemPrompt != null ? systemPrompt.length() : 0));
+        List<List<String>> groups = groupForReduce(partials, budget);
+        if (groups.size() <= 1) {
+            return CompletableFuture.completedFuture(groups.isEmpty() ? List.of() : groups.get(0));
+        }
+        if (level > MAX_REDUCE_LEVELS) {
+            log.warn("🌳 REDUCE parou no nível {} com {} parciais acima do limite de {} caracteres", level,
+                    partials.size(), budget);
+            return CompletableFuture.completedFuture(partials);
+        }
+
+        List<Integer> merging = IntStream.range(0, groups.size()).filter(i -> groups.get(i).size() > 1).boxed()
+                .toList();
+        log.info("🌳 REDUCE nível {}: {} parciais → {} grupos ({} consolidados pelo LLM)", level, partials.size(),
+                groups.size(), merging.size());
+        List<String> prompts = merging.stream()
+                .map(i -> String.format(INTERMEDIATE_REDUCE_PROMPT, String.join(PARTIAL_SEPARATOR, groups.get(i)),
+                        userPrompt))
+                .toList();
+        return submit(prompts, systemPrompt, preferredProvider, ShardProgress.NONE, context).thenCompose(merged -> {
+            List<String> next = new ArrayList<>(groups.size());
+            int m = 0;
+            for (int i = 0; i < groups.size(); i++) {
+                if (m < merging.size() && merging.get(m) == i) {
+                    String partial = merged.get(m++);
+                    if (partial != null) {
+                        next.add(partial);
+                    } else {
+                        // Grupo que falhou em todas as tentativas: os parciais seguem sem consolidar
+                        log.warn("🌳 REDUCE nível {}: grupo {}/{} não consolidado, {} parciais seguem adiante",
+                                level, i + 1, groups.size(), groups.get(i).size());
+                        next.addAll(groups.get(i));
+                    }
+                } else {
+                    next.add(groups.get(i).get(0));
+                }
+            }
+            return reduceLevel(next, systemPrompt, preferredProvider, userPrompt, level + 1, context);
+        });
+    }
+
+    /**
+     * Agrupa os parciais em ordem, sem que a soma de um grupo passe de
+     * {@code budget} caracteres. Parciais maiores que metade do budget são
+     * divididos em pedaços consecutivos (nada é descartado), o que garante ao
+     * menos dois itens por grupo e a redução a cada nível.
+     */
+    static List<List<String>> groupForReduce(List<String> partials, int budget) {
+        int maxPartial = budget / 2 - PARTIAL_SEPARATOR.length();
+        List<List<String>> groups = new ArrayList<>();
+        List<String> current = new ArrayList<>();
+        int size = 0;
+        for (String bounded : splitOversized(partials, maxPartial)) {
+            int added = bounded.length() + (current.isEmpty() ? 0 : PARTIAL_SEPARATOR.length());
+            if (!current.isEmpty() && size + added > budget) {
+                groups.add(current);
+                current = new ArrayList<>();
+                size = 0;
+                added = bounded.length();
+            }
+            current.add(bounded);
+            size += added;
+        }
+        if (!current.isEmpty()) {
+            groups.add(current);
+        }
+        return groups;
+    }
+
+    /**
+     * Divide cada parcial maior que {@code maxChars} em pedaços consecutivos,
+     * cortando de preferência num espaço ou quebra de linha.
+     */
+    private static List<String> splitOversized(List<String> partials, int maxChars) {
+        List<String> pieces = new ArrayList<>(partials.size());
+        for (String partial : partials) {
+            int start = 0;
+            while (partial.length() - start > maxChars) {
+                int end = start + maxChars;
+                int cut = end;
+                for (int i = end; i > start + maxChars * 4 / 5; i--) {
+                    if (Character.isWhitespace(partial.charAt(i))) {
+                        cut = i;
+                        break;
+                    }
+                }
+                pieces.add(partial.substring(start, cut));
+                start = cut;
+            }
+            pieces.add(partial.substring(start));
+        }
+        return pieces;
+    }
+
+    /**
+     * Enfileira os prompts e devolve as respostas alinhadas pelo índice
+     * ({@code null} onde o shard falhou em todas as tentativas).
+     */
+    private CompletableFuture<List<String>> submit(List<String> prompts, String systemPrompt,
+            String preferredProvider, ShardProgress onShardDone, ContextPropagatingExecutor.Snapshot context) {
+        if (prompts.isEmpty()) {
+            return CompletableFuture.completedFuture(List.of());
+        }
+        Job job = new Job(prompts.size(), systemPrompt, laneFor(preferredProvider), onShardDone, context);
+        for (int i = 0; i < prompts.size(); i++) {
+            queue.add(new Shard(job, i, prompts.get(i)));
+        }
+        pump();
+        return job.result;
+    }
+
+    @FunctionalInterface
+    public interface ShardProgress {
+        ShardProgress NONE = (done, total) -> {
+        };
+
+        void onShardDone(int done, int total);
+    }
+
+    private void registerLane(String providerName, int concurrency) {
+        if (concurrency > 0 && aiProviders.containsKey(providerName)) {
+            lanes.put(providerName, new Lane(providerName, concurrency));
+        }
+    }
+
+    private synchronized Lane laneFor(String providerName) {
+        // Provedor sem raia configurada (ex.: desativado via concurrency=0) ganha uma raia própria
+        return lanes.computeIfAbsent(providerName, name -> new Lane(name, DEFAULT_LANE_CONCURRENCY));
+    }
+
+    /**
+     * Despacha tudo o que couber nas raias livres. Chamado na submissão e a
+     * cada shard finalizado; {@code synchronized} para que dois pumps não
+     * disputem o mesmo shard.
+     */
+    private synchronized void pump() {
+        List<Shard> waiting = new ArrayList<>();
+        groqTokensDispatchedInPump = 0;
+        Shard shard;
+        while ((shard = queue.poll()) != null) {
+            Lane lane = acquireLane(shard);
+            if (lane != null) {
+                dispatch(shard, lane);
+            } else {
+                waiting.add(shard);
+            }
+        }
+        queue.addAll(waiting);
+
+        // Fila parada sem nada em voo (ex.: só o Groq disponível e sem orçamento): tenta de novo depois
+        if (!waiting.isEmpty() && lanes.values().stream().allMatch(lane -> lane.inFlight.get() == 0)
+                && stallRetryScheduled.compareAndSet(false, true)) {
+            CompletableFuture.delayedExecutor(STALLED_QUEUE_RETRY_MS, TimeUnit.MILLISECONDS, aiExecutor)
+                    .execute(() -> {
+                        stallRetryScheduled.set(false);
+                        pump();
+                    });
+        }
+    }
+
+    private Lane acquireLane(Shard shard) {
+        Lane preferred = shard.attempt > 1 && shard.lastLane != null
+                ? otherLaneThan(shard.lastLane)
+                : shard.job.preferredLane;
+        if (tryAcquire(preferred, shard)) {
+            return preferred;
+        }
+        for (Lane lane : lanes.values()) {
+            if (lane != preferred && tryAcquire(lane, shard)) {
+                return lane;
+            }
+        }
+        return null;
+    }
+
+    private Lane otherLaneThan(Lane last) {
+        return lanes.values().stream().filter(lane -> lane != last).findFirst().orElse(last);
+    }
+
+    private boolean tryAcquire(Lane lane, Shard shard) {
+        if (lane.inFlight.get() >= lane.capacity) {
+            return false;
+        }
+        if (GROQ_PROVIDER.equals(lane.name)) {
+            int estimated = estimateGroqTokens(shard);
+            if (groqBudgetManager.getAvailableBudget() - groqTokensDispatchedInPump < estimated) {
+                return false;
+            }
+            groqTokensDispatchedInPump += estimated;
+        }
+        lane.inFlight.incrementAndGet();
+        return true;
+    }
+
+    private void release(Lane lane) {
+        lane.inFlight.decrementAndGet();
+    }
+
+    private int estimateGroqTokens(Shard shard) {
+        int chars = shard.prompt.length() + (shard.job.systemPrompt != null ? shard.job.systemPrompt.length() : 0);
+        return chars / 4 + GROQ_RESPONSE_RESERVE_TOKENS;
+    }
+
+    private void dispatch(Shard shard, Lane lane) {
+        shard.lastLane = lane;
+        AIProviderRequest request = AIProviderRequest.builder().textPrompt(shard.prompt)
+                .systemMessage(shard.job.systemPrompt).preferredProvider(lane.name).build();
+        log.debug("🗺️ Trecho {}/{} → {} (tentativa {})", shard.index + 1, shard.job.total, lane.name,
+                shard.attempt);
+
+        CompletableFuture<AIProviderResponse> call;
+        try {
+            // O pump roda na thread de quem concluiu o último shard (às vezes de outro tenant):
+            // a chamada sai com o contexto de quem agendou a análise, como trabalho BULK
+            call = shard.job.context.call(() -> AIWorkContext.callAs(AIWorkPriority.BULK, "document-map-reduce",
+                    () -> promptCacheService.executeWithCache(aiProviders.get(lane.name), request)));
+        } catch (RuntimeException e) {
+            call = CompletableFuture.failedFuture(e);
+        }
+        call.whenCompleteAsync((response, ex) -> {
+            release(lane);
+            String failure = ex != null ? ex.getMessage()
+                    : response == null ? "resposta nula"
+                            : response.getError() != null ? response.getError()
+                                    : !StringUtils.hasText(response.getContent()) ? "resposta vazia" : null;
+            if (failure == null) {
+                shard.job.complete(shard.index, response.getContent());
+            } else {
+                retryOrGiveUp(shard, failure);
+            }
+            pump();
+        }, aiExecutor);
+    }
+
+    private void retryOrGiveUp(Shard shard, String failure) {
+        if (shard.attempt >= maxAttempts) {
+            log.error("❌ Trecho {}/{} descartado após {} tentativas: {}", shard.index + 1, shard.job.total,
+                    shard.attempt, failure);
+            shard.job.complete(shard.index, null);
+            return;
+        }
+        log.warn("🔁 Trecho {}/{} falhou em {} (tentativa {}): {}. Reagendando.", shard.index + 1,
+                shard.job.total, shard.lastLane.name, shard.attempt, failure);
+        shard.attempt++;
+        long backoff = retryBackoffMs * (shard.attempt - 1);
+        CompletableFuture.delayedExecutor(backoff, TimeUnit.MILLISECONDS, aiExecutor).execute(() -> {
+            queue.add(shard);
+            pump();
+        });
+    }
+
+    private static final class Lane {
+        final String name;
+        final int capacity;
+        final AtomicInteger inFlight = new AtomicInteger();
+
+        Lane(String name, int capacity) {
+            this.name = name;
+            this.capacity = capacity;
+        }
+    }
+
+    private static final class Shard {
+        final Job job;
+        final int index;
+        final String prompt;
+        int attempt = 1;
+        Lane lastLane;
+
+        Shard(Job job, int index, String prompt) {
+            this.job = job;
+            this.index = index;
+            this.prompt = prompt;
+        }
+    }
+
+    /**
+     * Uma análise: guarda os parciais pelo índice e completa quando todos os
+     * trechos terminaram (com sucesso ou descartados).
+     */
+    private static final class Job {
+        final int total;
+        final String systemPrompt;
+        final Lane preferredLane;
+        final ShardProgress progress;
+        final ContextPropagatingExecutor.Snapshot context;
+        final String[] partials;
+        final AtomicInteger done = new AtomicInteger();
+        final CompletableFuture<List<String>> result = new CompletableFuture<>();
+
+        Job(int total, String systemPrompt, Lane preferredLane, ShardProgress progress,
+                ContextPropagatingExecutor.Snapshot context) {
+            this.total = total;
+            this.systemPrompt = systemPrompt;
+            this.preferredLane = preferredLane;
+            this.progress = progress;
+            this.context = context;
+            this.partials = new String[total];
+        }
+
+        void complete(int index, String partial) {
+            partials[index] = partial;
+            int finished = done.incrementAndGet();
+            progress.onShardDone(finished, total);
+            if (finished < total) {
+                return;
+            }
+            // O incremento atômico publica as escritas anteriores no array para quem chega ao total
+            if (Arrays.stream(partials).allMatch(Objects::isNull)) {
+                result.completeExceptionally(
+                        new IllegalStateException("Nenhum trecho do documento pôde ser analisado"));
+            } else {
+                result.complete(Arrays.asList(partials));
+            }
+        }
+    }
+}
@@ -13,15 +13,20 @@ import com.matheusdev.mindforge.ai.provider.dto.AIProviderResponse;
 import com.matheusdev.mindforge.ai.service.DocumentAnalyzer;
 import com.matheusdev.mindforge.ai.service.PromptBuilderService;
 import com.matheusdev.mindforge.ai.service.PromptCacheService;
+import com.matheusdev.mindforge.ai.service.TermMatcher;
+import com.matheusdev.mindforge.config.ContextPropagatingExecutor;
 import dev.langchain4j.data.document.Document;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.stream.Collectors;
@@ -37,6 +42,12 @@ public class RAGOrchestrator {
     private final PromptCacheService promptCacheService;
     private final DocumentAnalyzer documentAnalyzer;
     private final ObjectMapper objectMapper;
+    private final ContextPropagatingExecutor aiExecutor;
+
+    // Inflar a query com as definições das siglas só ajuda a busca puramente
+    // vetorial; com a recuperação híbrida a sigla casa direto no índice lexical
+    @Value("${mindforge.rag.query-expansion.enabled:false}")
+    private boolean queryExpansionEnabled;
 
     private static final String DEFAULT_PROVIDER = "ollamaProvider";
     private static final int MAX_EVIDENCE_CHARS = 12000;
@@ -77,7 +88,7 @@ public class RAGOrchestrator {
         String targetProviderName = (providerName != null) ? providerName : DEFAULT_PROVIDER;
         AIProvider targetProvider = (provider != null) ? provider : getProvider(targetProviderName);
 
-        return CompletableFuture.supplyAsync(() -> {
+        return aiExecutor.supplyAsync(() -> {
             try {
                 if (evidences == null || evidences.isEmpty()) {
                     log.warn("Nenhum segmento relevante encontrado. Retornando resposta padrão.");
@@ -145,42 +156,39 @@ public class RAGOrchestrator {
     }
 
     public String expandQueryWithDynamicTerms(String query, DocumentAnalyzer.DocumentProfile profile) {
-        if (profile == null || profile.dynamicGlossary.isEmpty()) {
+        if (!queryExpansionEnabled || profile == null || profile.dynamicGlossary.isEmpty()) {
             return query;
         }
 
-        String expanded = query;
-        for (Map.Entry<String, String> entry : profile.dynamicGlossary.entrySet()) {
-            String acronym = entry.getKey();
-            String definition = entry.getValue();
-
-            if (query.contains(acronym) && !query.toLowerCase().contains(definition.toLowerCase())) {
-                expanded = expanded.replaceFirst(
-                        "\\b" + java.util.regex.Pattern.quote(acronym) + "\\b",
-                        acronym + " (" + definition + ")");
+        // Uma passada: expande só a primeira ocorrência de cada acrônimo ainda não definido na query
+        String lowerQuery = query.toLowerCase();
+        Set<String> expandedTerms = new HashSet<>();
+        StringBuilder expanded = new StringBuilder(query.length() + 64);
+        int last = 0;
+        for (TermMatcher.Match match : profile.dynamicGlossaryMatcher().findAll(query)) {
+            if (!expandedTerms.add(match.term()) || lowerQuery.contains(match.value().toLowerCase())) {
+                continue;
             }
+            expanded.append(query, last, match.end()).append(" (").append(match.value()).append(")");
+            last = match.end();
         }
-        return expanded;
+        return expanded.append(query, last, query.length()).toString();
     }
 
     // --- Private Helpers ---
 
     private String enrichSystemPromptWithGlossary(String baseSystemPrompt, String userQuery,
             DocumentAnalyzer.DocumentProfile profile) {
-        Map<String, String> staticDefinitions = documentAnalyzer.getTermDefinitions();
         StringBuilder glossary = new StringBuilder();
-        String lowerQuery = userQuery.toLowerCase();
-
-        for (Map.Entry<String, String> entry : staticDefinitions.entrySet()) {
-            if (lowerQuery.contains(entry.getKey())) {
-                glossary.append("- ").append(entry.getValue()).append("\n");
-            }
+        for (String definition : documentAnalyzer.findGlossaryDefinitions(userQuery)) {
+            glossary.append("- ").append(definition).append("\n");
         }
 
         if (profile != null && !profile.dynamicGlossary.isEmpty()) {
-            for (Map.Entry<String, String> entry : profile.dynamicGlossary.entrySet()) {
-                if (userQuery.contains(entry.getKey())) {
-                    glossary.append("- ").append(entry.getKey()).append(": ").append(entry.getValue()).append("\n");
+            Set<String> seen = new HashSet<>();
+            for (TermMatcher.Match match : profile.dynamicGlossaryMatcher().findAll(userQuery)) {
+                if (seen.add(match.term())) {
+                    glossary.append("- ").append(match.term()).append(": ").append(match.value()).append("\n");
                 }
             }
         }
@@ -5,8 +5,11 @@ import com.matheusdev.mindforge.ai.chat.repository.ChatSessionRepository;
 import com.matheusdev.mindforge.ai.provider.AIProvider;
 import com.matheusdev.mindforge.ai.provider.dto.AIProviderRequest;
 import com.matheusdev.mindforge.ai.provider.dto.AIProviderResponse;
+import com.matheusdev.mindforge.ai.routing.AdaptiveProviderRouter;
 import com.matheusdev.mindforge.ai.service.ChatService;
+import com.matheusdev.mindforge.ai.service.ContentIndexingService;
 import com.matheusdev.mindforge.ai.service.PromptCacheService;
+import com.matheusdev.mindforge.ai.service.RAGService;
 import com.matheusdev.mindforge.ai.service.model.Evidence;
 import com.matheusdev.mindforge.study.note.dto.StudyNoteAIRequest;
 import com.matheusdev.mindforge.study.note.dto.StudyNoteAIResponse;
@@ -14,8 +17,13 @@ import com.matheusdev.mindforge.study.note.model.Note;
 import com.matheusdev.mindforge.study.note.repository.StudyNoteRepository;
 import com.matheusdev.mindforge.knowledgeltem.dto.KnowledgeAgentProposal;
 import com.matheusdev.mindforge.knowledgeltem.service.ProposalCacheService;
+import com.matheusdev.mindforge.config.ContextPropagatingExecutor;
+import com.matheusdev.mindforge.core.tenant.context.TenantContext;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
@@ -34,9 +42,16 @@ public class StudyNoteAssistOrchestrator {
     private final ChatSessionRepository chatSessionRepository;
     private final StudyNoteRepository studyNoteRepository;
     private final ChatService chatService;
+    private final RAGService ragService;
     private final ProposalCacheService proposalCacheService;
+    private final ContextPropagatingExecutor aiExecutor;
+    private final AdaptiveProviderRouter providerRouter;
 
-    private static final String FALLBACK_PROVIDER = "groqProvider";
+    @Value("${mindforge.ai.study-note-assist.max-notes:20}")
+    private int ragMaxNotes;
+
+    @Value("${mindforge.ai.study-note-assist.min-score:0.75}")
+    private double ragMinScore;
 
     private AIProvider getProvider(String providerName) {
         AIProvider provider = aiProviders.get(providerName);
@@ -46,6 +61,10 @@ public class StudyNoteAssistOrchestrator {
         return provider;
     }
 
+    private static int lengthOf(String text) {
+        return text != null ? text.length() : 0;
+    }
+
     private CompletableFuture<AIProviderResponse> executeAndLogTask(AIProviderRequest request, AIProvider provider,
             String taskName) {
         return promptCacheService.executeWithCache(provider, request).handle((response, ex) -> {
@@ -60,10 +79,12 @@ public class StudyNoteAssistOrchestrator {
     public CompletableFuture<StudyNoteAIResponse> processStudyNoteAssist(StudyNoteAIRequest request) {
         log.info(">>> [STUDY NOTE ORCHESTRATOR] Processando Assist: {}", request.getCommand());
 
-        String providerName = FALLBACK_PROVIDER;
+        // Provedor com menor tempo esperado para o tamanho da nota
+        String providerName = providerRouter.route(lengthOf(request.getContext()) + lengthOf(request.getInstruction()))
+                .provider();
         AIProvider provider = getProvider(providerName);
 
-        return CompletableFuture.supplyAsync(() -> {
+        return aiExecutor.supplyAsync(() -> {
             try {
                 if (request.isAgentMode() && request.getNoteId() != null) {
                     log.info("🤖 AGENT MODE ATIVADO para Study Note {}", request.getNoteId());
@@ -107,8 +128,25 @@ public class StudyNoteAssistOrchestrator {
                         prompt = "Melhore a clareza, fluxo e vocabulário do seguinte texto:\n\n" + request.getContext();
                     case CUSTOM -> prompt = String.format("Instrução: %s\n\nTexto: %s", request.getInstruction(),
                             request.getContext());
-                    case ASK_AGENT -> prompt = String.format("Pergunta: %s\n\nContexto (Nota atual): %s",
-                            request.getInstruction(), request.getContext());
+                    case ASK_AGENT -> {
+                        if (request.isUseContext()) {
+                            // Evidências das outras notas de estudo indexadas (study_note_*)
+                            String ragEvidence = executeStudyNoteRAG(request.getInstruction(), request.getNoteId());
+
+                            prompt = String.format(
+                                    "Você é um agente especialista que tem acesso às notas de estudo do usuário.\n\n" +
+                                            "**CONTEXTO DA NOTA ATUAL:**\n%s\n\n" +
+                                            "%s\n\n" +
+                                            "**PERGUNTA/COMANDO DO USUÁRIO:**\n%s\n\n" +
+                                            "Responda de forma precisa, citando as fontes quando usar informações das evidências.",
+                                    request.getContext(),
+                                    ragEvidence,
+                                    request.getInstruction());
+                        } else {
+                            prompt = String.format("Pergunta: %s\n\nContexto (Nota atual): %s",
+                                    request.getInstruction(), request.getContext());
+                        }
+                    }
                     case AGENT_UPDATE -> prompt = String.format("Instrução: %s\n\nTexto: %s", request.getInstruction(),
                             request.getContext());
                     default -> throw new IllegalArgumentException("Comando desconhecido");
@@ -133,6 +171,57 @@ public class StudyNoteAssistOrchestrator {
         });
     }
 
+    /**
+     * Evidências das outras notas de estudo do tenant para o ASK_AGENT. Consulta
+     * só as {@code max-notes} notas editadas mais recentemente (uma busca por
+     * nota) e, sem tenant no contexto, não devolve evidência nenhuma.
+     */
+    private String executeStudyNoteRAG(String query, Long currentNoteId) {
+        StringBuilder ragEvidence = new StringBuilder();
+        Long tenantId = TenantContext.getTenantId();
+        if (tenantId == null) {
+            log.warn("⚠️ RAG de notas de estudo sem tenant no contexto; seguindo sem evidências.");
+            return "";
+        }
+        try {
+            // Uma a mais: a nota atual pode estar entre as recentes
+            List<Note> notes = studyNoteRepository.findByTenantId(tenantId,
+                    PageRequest.of(0, Math.max(1, ragMaxNotes) + 1, Sort.by(Sort.Direction.DESC, "updatedAt")))
+                    .getContent().stream()
+                    .filter(note -> currentNoteId == null || !note.getId().equals(currentNoteId))
+                    .limit(Math.max(1, ragMaxNotes))
+                    .toList();
+            List<Evidence> allEvidences = new ArrayList<>();
+
+            for (Note note : notes) {
+                String docId = ContentIndexingService.studyNoteDocumentId(note.getId());
+                try {
+                    List<Evidence> evidences = ragService.queryIndexedDocument(docId, query, 3);
+                    for (Evidence ev : evidences) {
+                        if (ev.score() >= ragMinScore)
+                            allEvidences.add(ev);
+                    }
+                } catch (Exception e) {
+                    log.warn("⚠️ Falha ao consultar '{}' no RAG de notas de estudo: {}", docId, e.getMessage());
+                }
+            }
+            allEvidences.sort((a, b) -> Double.compare(b.score(), a.score()));
+            List<Evidence> topEvidences = allEvidences.stream().limit(5).toList();
+
+            if (!topEvidences.isEmpty()) {
+                ragEvidence.append("\n\n### EVIDÊNCIAS DE OUTRAS NOTAS DE ESTUDO:\n");
+                for (Evidence ev : topEvidences) {
+                    ragEvidence.append(String.format("\n**Fonte: %s** (Relevância: %.2f)\n%s\n",
+                            ev.documentId().replace(ContentIndexingService.STUDY_NOTE_PREFIX, "Nota #"), ev.score(),
+                            ev.excerpt()));
+                }
+            }
+        } catch (Exception e) {
+            log.error("RAG Error", e);
+        }
+        return ragEvidence.toString();
+    }
+
     private StudyNoteAIResponse processAgentMode(StudyNoteAIRequest request, AIProvider provider, String providerName) {
         try {
             Note note = studyNoteRepository.findById(request.getNoteId()).orElseThrow();
@@ -0,0 +1,392 @@
+package com.matheusdev.mindforge.ai.splitter;
+
+import com.matheusdev.mindforge.ai.service.TermMatcher;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Classificador de chunks em uma única passada.
+ * <p>
+ * Palavras-chave (código, definições, tabelas, conceitos centrais) são
+ * encontradas por um autômato compilado uma vez; padrões estruturais (listas,
+ * pipes, percentuais, números, siglas definidas) por máquinas de estado
+ * alimentadas caractere a caractere na mesma varredura. Produz as mesmas flags
+ * que as antigas regex {@code String.matches("(?s).*...")} por chunk, sem
+ * reescanear o texto para cada uma. Fronteiras de palavra consideram letras
+ * acentuadas (o {@code \b} ASCII das regex tratava o "é" de "Métrica" como
+ * palavra isolada).
+ */
+public final class ChunkFeatureExtractor {
+
+    private static final int MAX_NUMERIC_VALUES = 5;
+    private static final int SECTION_PREFIX = 150;
+    private static final Pattern SECTION_PATTERN = Pattern.compile("(\\d+\\.\\d+(?:\\.\\d+)?)");
+
+    // Bits de palavras-chave
+    private static final int TABLE_HINT = 1;
+    private static final int SCORE = 1 << 1;
+    private static final int METRIC = 1 << 2;
+    private static final int SPRINT = 1 << 3;
+    private static final int CODE = 1 << 4;
+    private static final int DEFINITION = 1 << 5;
+    private static final int EXAMPLE = 1 << 6;
+    private static final int CONCEPT = 1 << 7;
+
+    private record Keyword(String literal, int features, boolean caseSensitive, boolean wholeWord,
+            boolean lineStart) {
+    }
+
+    private static final Map<String, List<Keyword>> KEYWORDS = new HashMap<>();
+    private static final TermMatcher MATCHER;
+
+    static {
+        exact(TABLE_HINT, "Debt Score", "Métrica", "Classificação");
+        exact(SCORE, "Score");
+        exact(METRIC, "Métrica");
+        exact(SPRINT, "sprint");
+        exact(CODE, "class", "function", "def", "package", "import", "public", "private", "void", "return");
+        exact(DEFINITION, "é definido como", "consiste em", "significa", "refere-se a", "é o processo de");
+        exact(EXAMPLE, "Exemplo", "exemplo");
+        // Indícios de conteúdo central: definições, enumerações de componentes
+        words(CONCEPT, "é", "são", "refere-se a", "define-se como", "significa",
+                "consiste em", "composto por", "inclui", "fatores", "elementos", "pilares");
+        register(new Keyword("o que é", CONCEPT, false, false, true));
+
+        Map<String, String> dictionary = new HashMap<>();
+        KEYWORDS.keySet().forEach(key -> dictionary.put(key, key));
+        MATCHER = TermMatcher.of(dictionary, true);
+    }
+
+    private ChunkFeatureExtractor() {
+    }
+
+    /**
+     * Flags estruturais de um chunk. {@code tableType} e {@code section} são
+     * nulos quando não se aplicam; {@code numericValues} traz até 5 valores.
+     */
+    public record ChunkFeatures(String contentType, String section, boolean hasTable, String tableType,
+            boolean hasCode, boolean hasList, boolean hasDefinition, boolean hasNumericData, String numericValues,
+            boolean centralConcept) {
+    }
+
+    public static ChunkFeatures extract(String text) {
+        Scan scan = new Scan(text);
+        MATCHER.scan(text, scan);
+        return scan.finish();
+    }
+
+    private static void exact(int feature, String... literals) {
+        for (String literal : literals) {
+            register(new Keyword(literal, feature, true, false, false));
+        }
+    }
+
+    private static void words(int feature, String... literals) {
+        for (String literal : literals) {
+            register(new Keyword(literal, feature, false, true, false));
+        }
+    }
+
+    private static void register(Keyword keyword) {
+        KEYWORDS.computeIfAbsent(keyword.literal().toLowerCase(), k -> new ArrayList<>()).add(keyword);
+    }
+
+    /**
+     * Estado de uma varredura. Cada grupo de campos corresponde a uma das
+     * regex originais.
+     */
+    private static final class Scan implements TermMatcher.ScanListener {
+
+        private static final int NONE = 0;
+        // Listas "\n\s*[-*]\s+" e "\n\s*\d+\.\s+"
+        private static final int LINE_START = 1;
+        private static final int BULLET = 2;
+        private static final int ITEM_NUMBER = 3;
+        private static final int ITEM_DOT = 4;
+        // Números "\d+(?:\.\d+)?%?"
+        private static final int INTEGER = 1;
+        private static final int DOT = 2;
+        private static final int FRACTION = 3;
+
+        private final String text;
+        private int features;
+
+        private int pipes;
+        private int digitRun;
+        private boolean digitPercent;
+        private int wideDigitPercents;
+        private boolean dollarAmount;
+        private int firstDecimalEnd = -1;
+        private int lastUppercase = -1;
+
+        private boolean list;
+        private int lineState = NONE;
+
+        private boolean afterColon;
+        private boolean colonNewline;
+        private boolean colonEndsLine;
+        private boolean colonOpensList;
+        private int firstNonBlankOfLine = -1;
+
+        // Sigla definida "Nome Por Extenso (NPE)"
+        private int acronymLead = -1;
+        private int acronymCaps = -1;
+        private boolean acronymDefinition;
+
+        private int numberState = NONE;
+        private int numberStart;
+        private int numberDot;
+        private final List<String> numericValues = new ArrayList<>(MAX_NUMERIC_VALUES);
+
+        private Scan(String text) {
+            this.text = text;
+        }
+
+        @Override
+        public void onChar(int i, char c) {
+            boolean digit = c >= '0' && c <= '9';
+            boolean space = isSpace(c);
+
+            if (c == '|') {
+                pipes++;
+            } else if (c == '%') {
+                digitPercent |= digitRun >= 1;
+                if (digitRun >= 2) {
+                    wideDigitPercents++;
+                }
+            } else if (c >= 'A' && c <= 'Z') {
+                lastUppercase = i;
+            } else if (c == '•' || c == '●' || c == '■') {
+                list = true;
+            }
+            if (digit && i > 0 && text.charAt(i - 1) == '$') {
+                dollarAmount = true;
+            }
+            digitRun = digit ? digitRun + 1 : 0;
+
+            number(i, c, digit);
+            listItem(c, digit, space);
+            colon(c, space);
+            acronym(i, c, space);
+
+            if (c == '\n' || c == '\r') {
+                firstNonBlankOfLine = -1;
+            } else if (!space && firstNonBlankOfLine < 0) {
+                firstNonBlankOfLine = i;
+            }
+        }
+
+        @Override
+        public void onOccurrence(int start, int end, String term, String value) {
+            for (Keyword keyword : KEYWORDS.get(value)) {
+                if ((features & keyword.features()) == keyword.features()) {
+                    continue;
+                }
+                if (keyword.caseSensitive() && !text.regionMatches(start, keyword.literal(), 0, end - start)) {
+                    continue;
+                }
+                if (keyword.wholeWord() && !(isBoundary(start - 1) && isBoundary(end))) {
+                    continue;
+                }
+                if (keyword.lineStart() && firstNonBlankOfLine != start) {
+                    continue;
+                }
+                features |= keyword.features();
+            }
+        }
+
+        private void number(int i, char c, boolean digit) {
+            switch (numberState) {
+                case NONE -> {
+                    if (digit) {
+                        numberState = INTEGER;
+                        numberStart = i;
+                    }
+                }
+                case INTEGER -> {
+                    if (c == '.') {
+                        numberState = DOT;
+                        numberDot = i;
+                    } else if (c == '%') {
+                        emitNumber(i + 1);
+                    } else if (!digit) {
+                        emitNumber(i);
+                    }
+                }
+                case DOT -> {
+                    if (digit) {
+                        numberState = FRACTION;
+                        if (firstDecimalEnd < 0) {
+                            firstDecimalEnd = i + 1;
+                        }
+                    } else {
+                        emitNumber(numberDot);
+                    }
+                }
+                case FRACTION -> {
+                    if (c == '%') {
+                        emitNumber(i + 1);
+                    } else if (!digit) {
+                        emitNumber(i);
+                    }
+                }
+                default -> {
+                }
+            }
+        }
+
+        private void emitNumber(int end) {
+            if (numericValues.size() < MAX_NUMERIC_VALUES) {
+                numericValues.add(text.substring(numberStart, end));
+            }
+            numberState = NONE;
+        }
+
+        private void listItem(char c, boolean digit, boolean space) {
+            if (list) {
+                return;
+            }
+            switch (lineState) {
+                case LINE_START -> lineState = space ? LINE_START
+                        : (c == '-' || c == '*') ? BULLET
+                                : digit ? ITEM_NUMBER : NONE;
+                case BULLET, ITEM_DOT -> {
+                    list = space;
+                    lineState = NONE;
+                }
+                case ITEM_NUMBER -> lineState = digit ? ITEM_NUMBER : c == '.' ? ITEM_DOT : NONE;
+                default -> {
+                }
+            }
+            if (c == '\n' && lineState == NONE) {
+                lineState = LINE_START;
+            }
+        }
+
+        // ":\s*$" e ":\s*\n\s*-" (modo MULTILINE)
+        private void colon(char c, boolean space) {
+            if (c == ':') {
+                afterColon = true;
+                colonNewline = false;
+            } else if (afterColon) {
+                if (c == '\n' || c == '\r') {
+                    colonEndsLine = true;
+                    colonNewline |= c == '\n';
+                } else if (c == '-' && colonNewline) {
+                    colonOpensList = true;
+                    afterColon = false;
+                } else if (!space) {
+                    afterColon = false;
+                }
+            }
+        }
+
+        // "\b[A-Z][a-zA-Z\s]+\s+\(([A-Z]{2,})\)"
+        private void acronym(int i, char c, boolean space) {
+            if (acronymCaps >= 0) {
+                if (c >= 'A' && c <= 'Z') {
+                    acronymCaps++;
+                } else {
+                    acronymDefinition |= c == ')' && acronymCaps >= 2;
+                    acronymCaps = -1;
+                }
+            }
+            if (c == '(') {
+                if (acronymLead >= 0 && i - 1 >= acronymLead + 2 && isSpace(text.charAt(i - 1))) {
+                    acronymCaps = 0;
+                }
+                acronymLead = -1;
+            } else if ((c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || space) {
+                if (c >= 'A' && c <= 'Z' && acronymLead < 0 && isBoundary(i - 1)) {
+                    acronymLead = i;
+                }
+            } else {
+                acronymLead = -1;
+            }
+        }
+
+        private ChunkFeatures finish() {
+            if (numberState == DOT) {
+                emitNumber(numberDot);
+            } else if (numberState != NONE) {
+                emitNumber(text.length());
+            }
+            if (afterColon) {
+                colonEndsLine = true;
+            }
+
+            boolean sectionHeader = firstDecimalEnd >= 0 && lastUppercase >= firstDecimalEnd;
+            boolean hasTable = pipes >= 2 || wideDigitPercents >= 2 || has(TABLE_HINT);
+            boolean hasCode = has(CODE);
+            boolean hasDefinition = has(DEFINITION);
+            boolean hasNumericData = digitPercent || firstDecimalEnd >= 0 || dollarAmount;
+            boolean centralConcept = has(CONCEPT) || colonEndsLine || colonOpensList || acronymDefinition;
+
+            String contentType;
+            if (sectionHeader) {
+                contentType = "section_header";
+            } else if (hasTable) {
+                contentType = "table";
+            } else if (hasCode) {
+                contentType = "code";
+            } else if (list) {
+                contentType = "list";
+            } else if (hasDefinition) {
+                contentType = "definition";
+            } else if (text.startsWith("Resumo") || text.startsWith("Abstract")) {
+                contentType = "summary";
+            } else if (has(EXAMPLE)) {
+                contentType = "example";
+            } else {
+                contentType = "prose";
+            }
+
+            return new ChunkFeatures(contentType, section(), hasTable, hasTable ? tableType() : null, hasCode, list,
+                    hasDefinition, hasNumericData, hasNumericData ? String.join(", ", numericValues) : null,
+                    centralConcept);
+        }
+
+        private String section() {
+            if (firstDecimalEnd < 0 || firstDecimalEnd > SECTION_PREFIX) {
+                return null;
+            }
+            Matcher matcher = SECTION_PATTERN.matcher(text).region(0, Math.min(SECTION_PREFIX, text.length()));
+            return matcher.find() ? matcher.group(1) : null;
+        }
+
+        private String tableType() {
+            if (has(SCORE)) {
+                return "score_table";
+            }
+            if (text.indexOf('%') >= 0 && has(SPRINT)) {
+                return "allocation_table";
+            }
+            if (has(METRIC)) {
+                return "metrics_table";
+            }
+            return "generic_table";
+        }
+
+        private boolean has(int feature) {
+            return (features & feature) != 0;
+        }
+
+        private boolean isBoundary(int index) {
+            if (index < 0 || index >= text.length()) {
+                return true;
+            }
+            char c = text.charAt(index);
+            return !Character.isLetterOrDigit(c) && c != '_';
+        }
+
+        // Mesmo conjunto do \s das regex Java
+        private static boolean isSpace(char c) {
+            return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+        }
+    }
+}
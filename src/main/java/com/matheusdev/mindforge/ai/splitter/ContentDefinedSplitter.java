@@ -0,0 +1,91 @@
+package com.matheusdev.mindforge.ai.splitter;
+
+import dev.langchain4j.data.document.Document;
+import dev.langchain4j.data.document.DocumentSplitter;
+import dev.langchain4j.data.document.splitter.DocumentSplitters;
+import dev.langchain4j.data.segment.TextSegment;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splitter com fronteiras definidas pelo conteúdo, pensado para reindexação
+ * incremental de notas editadas.
+ * <p>
+ * O texto é dividido em parágrafos e os parágrafos são agrupados em chunks.
+ * Um chunk termina antes de um título markdown, depois de um parágrafo cujo
+ * hash cai no divisor (a partir do tamanho mínimo) ou quando o próximo
+ * parágrafo estouraria o tamanho máximo. Como as fronteiras dependem do texto
+ * local e não da posição, editar um parágrafo altera só o chunk que o contém
+ * (e, no pior caso, o vizinho): os demais chunks continuam idênticos e não
+ * precisam de novo embedding. Chunks sem overlap pelo mesmo motivo.
+ */
+public class ContentDefinedSplitter implements DocumentSplitter {
+
+    // Em média um corte a cada N parágrafos elegíveis
+    private static final int CUT_DIVISOR = 4;
+
+    private final int maxChunkSize;
+    private final int minChunkSize;
+
+    public ContentDefinedSplitter(int maxChunkSize, int minChunkSize) {
+        this.maxChunkSize = maxChunkSize;
+        this.minChunkSize = Math.min(minChunkSize, maxChunkSize);
+    }
+
+    @Override
+    public List<TextSegment> split(Document document) {
+        List<TextSegment> segments = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+
+        for (String paragraph : splitIntoParagraphs(document.text())) {
+            if (current.length() > 0
+                    && (isHeading(paragraph) || current.length() + 2 + paragraph.length() > maxChunkSize)) {
+                flush(current, segments);
+            }
+            if (paragraph.length() > maxChunkSize) {
+                // Parágrafo gigante vira chunks próprios; não contamina os vizinhos
+                for (TextSegment piece : DocumentSplitters.recursive(maxChunkSize, 0)
+                        .split(Document.from(paragraph))) {
+                    segments.add(TextSegment.from(piece.text()));
+                }
+                continue;
+            }
+            if (current.length() > 0) {
+                current.append("\n\n");
+            }
+            current.append(paragraph);
+            if (current.length() >= minChunkSize && isCutPoint(paragraph)) {
+                flush(current, segments);
+            }
+        }
+        flush(current, segments);
+        return segments;
+    }
+
+    private static List<String> splitIntoParagraphs(String text) {
+        List<String> paragraphs = new ArrayList<>();
+        for (String paragraph : text.split("\\n\\s*\\n")) {
+            String trimmed = paragraph.strip();
+            if (!trimmed.isEmpty()) {
+                paragraphs.add(trimmed);
+            }
+        }
+        return paragraphs;
+    }
+
+    private static boolean isHeading(String paragraph) {
+        return paragraph.startsWith("#");
+    }
+
+    private static boolean isCutPoint(String paragraph) {
+        return Math.floorMod(paragraph.hashCode(), CUT_DIVISOR) == 0;
+    }
+
+    private static void flush(StringBuilder current, List<TextSegment> segments) {
+        if (current.length() > 0) {
+            segments.add(TextSegment.from(current.toString()));
+            current.setLength(0);
+        }
+    }
+}
@@ -1,7 +1,10 @@
 package com.matheusdev.mindforge.ai.splitter;
 
+import com.matheusdev.mindforge.ai.vectorstore.VectorMath;
 import dev.langchain4j.data.document.Document;
 import dev.langchain4j.data.document.DocumentSplitter;
+import dev.langchain4j.data.document.splitter.DocumentSplitters;
+import dev.langchain4j.data.embedding.Embedding;
 import dev.langchain4j.data.segment.TextSegment;
 import dev.langchain4j.model.embedding.EmbeddingModel;
 import org.slf4j.Logger;
@@ -29,75 +32,62 @@ public class SemanticDocumentSplitter implements DocumentSplitter {
         this.overlap = overlap;
     }
 
+    /**
+     * Chunk final junto do embedding reaproveitado dos seus blocos (média
+     * ponderada pelo tamanho, normalizada). Null quando os embeddings dos blocos
+     * não estão disponíveis.
+     */
+    public record EmbeddedChunk(TextSegment segment, Embedding embedding) {
+    }
+
     @Override
     public List<TextSegment> split(Document document) {
-        log.info("✂️ Iniciando Semantic Chunking...");
-        String text = document.text();
+        return splitWithEmbeddings(document).stream()
+                .map(EmbeddedChunk::segment)
+                .toList();
+    }
 
-        // 1. Quebra inicial simples por parágrafos ou quebras de linha duplas para
-        // preservar tabelas/estrutura
-        // Regex lookbehind para manter o delimitador se necessário, mas split simples
-        // costuma funcionar bem para separar blocos lógicos
-        String[] rawBlocks = text.split("(?<=\\n\\n)");
+    /**
+     * Faz o chunking semântico calculando os embeddings de todos os blocos numa
+     * única chamada em lote ao modelo (que paraleliza e usa cache). Blocos maiores
+     * que o máximo são subdivididos antes, para nunca gerar chunks gigantes.
+     * O embedding de cada chunk é a média dos embeddings dos seus blocos: como
+     * todos os blocos de um chunk passaram pelo threshold de similaridade com o
+     * bloco âncora, a média representa bem o chunk e evita embedar o texto de
+     * novo (o texto de overlap não entra na média).
+     */
+    public List<EmbeddedChunk> splitWithEmbeddings(Document document) {
+        log.info("✂️ Iniciando Semantic Chunking...");
+        List<String> blocks = splitIntoBlocks(document.text());
+        float[][] blockEmbeddings = embedBlocks(blocks);
 
-        List<TextSegment> segments = new ArrayList<>();
+        List<EmbeddedChunk> chunks = new ArrayList<>();
         StringBuilder currentChunk = new StringBuilder();
         int currentChunkSize = 0;
-        float[] currentChunkEmbedding = null;
+        // Bloco âncora do chunk atual (o primeiro) e blocos que compõem o chunk
+        int anchorBlock = -1;
+        List<Integer> chunkBlocks = new ArrayList<>();
 
-        for (String block : rawBlocks) {
-            String cleanBlock = block.trim();
-            if (cleanBlock.isEmpty())
-                continue;
-
-            // Se o bloco sozinho já é maior que o max, temos que forçar split (fallback
-            // para caractere)
-            if (cleanBlock.length() > maxChunkSize) {
-                if (currentChunk.length() > 0) {
-                    TextSegment segment = TextSegment.from(currentChunk.toString());
-                    enrichSegmentWithMetadata(segment);
-                    segments.add(segment);
-                    currentChunk = new StringBuilder();
-                    currentChunkSize = 0;
-                    currentChunkEmbedding = null;
-                }
-                TextSegment largeBlockSegment = TextSegment.from(cleanBlock);
-                enrichSegmentWithMetadata(largeBlockSegment);
-                segments.add(largeBlockSegment); // Idealmente quebraria recursivamente aqui, por enquanto
-                                                 // aceitamos
-                continue;
-            }
+        for (int i = 0; i < blocks.size(); i++) {
+            String cleanBlock = blocks.get(i);
 
             // Se é o primeiro bloco do chunk
             if (currentChunk.length() == 0) {
                 currentChunk.append(cleanBlock).append("\n\n");
                 currentChunkSize += cleanBlock.length();
-                // Opcional: Gerar embedding do bloco atual para comparar com o próximo
-                // Para simplificar e economizar tokens, podemos usar heurística ou embedding
-                // real
-                // Vamos usar embedding real pois foi o pedido do user ("usar a msm ia do rag")
-                try {
-                    currentChunkEmbedding = embeddingModel.embed(cleanBlock).content().vector();
-                } catch (Exception e) {
-                    log.warn("Falha ao gerar embedding para chunking. Ignorando semântica neste bloco.");
-                }
+                anchorBlock = i;
+                chunkBlocks.add(i);
                 continue;
             }
 
-            // Comparar com o chunk atual
+            // Comparar com o bloco âncora do chunk atual (tópico estável)
             boolean shouldMerge = true;
-            if (currentChunkEmbedding != null) {
-                try {
-                    float[] nextBlockEmbedding = embeddingModel.embed(cleanBlock).content().vector();
-                    double similarity = cosineSimilarity(currentChunkEmbedding, nextBlockEmbedding);
-
-                    if (similarity < similarityThreshold) {
-                        log.debug("📉 Quebra Semântica: Similaridade {} < {}", String.format("%.2f", similarity),
-                                similarityThreshold);
-                        shouldMerge = false;
-                    }
-                } catch (Exception e) {
-                    // ignorar erro e mergear por default se couber
+            if (blockEmbeddings != null) {
+                double similarity = VectorMath.dot(blockEmbeddings[anchorBlock], blockEmbeddings[i]);
+                if (similarity < similarityThreshold) {
+                    log.debug("📉 Quebra Semântica: Similaridade {} < {}", String.format("%.2f", similarity),
+                            similarityThreshold);
+                    shouldMerge = false;
                 }
             }
 
@@ -109,17 +99,15 @@ public class SemanticDocumentSplitter implements DocumentSplitter {
             if (shouldMerge) {
                 currentChunk.append(cleanBlock).append("\n\n");
                 currentChunkSize += cleanBlock.length();
-                // Opcional: Atualizar embedding do chunk (média) ou manter o do início?
-                // Manter o do início (tópico âncora) costuma funcionar bem para estabilidade.
+                chunkBlocks.add(i);
             } else {
                 // Finaliza chunk atual
                 String chunkText = currentChunk.toString().trim();
-                TextSegment newSegment = TextSegment.from(chunkText);
-                enrichSegmentWithMetadata(newSegment);
-                segments.add(newSegment);
+                chunks.add(finishChunk(chunkText, chunkBlocks, blocks, blockEmbeddings));
 
                 // Prepara próximo chunk com overlap
                 currentChunk = new StringBuilder();
+                chunkBlocks = new ArrayList<>();
 
                 // Overlap: pega o final do chunk anterior
                 if (overlap > 0 && chunkText.length() > overlap) {
@@ -143,70 +131,105 @@ public class SemanticDocumentSplitter implements DocumentSplitter {
 
                 currentChunk.append(cleanBlock).append("\n\n");
                 currentChunkSize += cleanBlock.length();
-                try {
-                    currentChunkEmbedding = embeddingModel.embed(cleanBlock).content().vector();
-                } catch (Exception e) {
-                    // log.warn("Embedding error for new chunk block", e);
-                    currentChunkEmbedding = null;
-                }
+                anchorBlock = i;
+                chunkBlocks.add(i);
             }
         }
 
         if (currentChunk.length() > 0) {
-            TextSegment finalSegment = TextSegment.from(currentChunk.toString().trim());
-            enrichSegmentWithMetadata(finalSegment);
-            segments.add(finalSegment);
+            chunks.add(finishChunk(currentChunk.toString().trim(), chunkBlocks, blocks, blockEmbeddings));
         }
 
-        log.info("✅ Semantic Chunking concluído. Gerados {} segmentos.", segments.size());
-        return segments;
+        log.info("✅ Semantic Chunking concluído. {} blocos -> {} segmentos.", blocks.size(), chunks.size());
+        return chunks;
     }
 
-    // --- Heuristic Analyzer Logic ---
+    /**
+     * Quebra inicial por parágrafos (linhas em branco) para preservar
+     * tabelas/estrutura. Blocos acima do tamanho máximo são subdivididos pelo
+     * splitter recursivo (parágrafo > frase > palavra).
+     */
+    private List<String> splitIntoBlocks(String text) {
+        String[] rawBlocks = text.split("(?<=\\n\\n)");
+        DocumentSplitter oversizedSplitter = DocumentSplitters.recursive(maxChunkSize, 0);
 
-    private void enrichSegmentWithMetadata(TextSegment segment) {
-        if (HeuristicConceptExtractor.isCentralConcept(segment.text())) {
-            segment.metadata().put("concept_centrality", "true");
+        List<String> blocks = new ArrayList<>(rawBlocks.length);
+        for (String block : rawBlocks) {
+            String cleanBlock = block.trim();
+            if (cleanBlock.isEmpty())
+                continue;
+
+            if (cleanBlock.length() > maxChunkSize) {
+                for (TextSegment part : oversizedSplitter.split(Document.from(cleanBlock))) {
+                    String cleanPart = part.text().trim();
+                    if (!cleanPart.isEmpty()) {
+                        blocks.add(cleanPart);
+                    }
+                }
+            } else {
+                blocks.add(cleanBlock);
+            }
         }
+        return blocks;
     }
 
-    private static class HeuristicConceptExtractor {
-        // Padrões de Definição (Forte Indício de Conteúdo Central)
-        private static final java.util.regex.Pattern DEFINITION_PATTERN = java.util.regex.Pattern.compile(
-                "(?i)(\\b(é|são|refere-se a|define-se como|significa)\\b|:\\s*$|^\\s*O que é)",
-                java.util.regex.Pattern.MULTILINE);
-
-        // Padrões de Listas Enumeradas (Componentes, Fatores)
-        private static final java.util.regex.Pattern LIST_PATTERN = java.util.regex.Pattern.compile(
-                "(?i)(\\b(consiste em|composto por|inclui|fatores|elementos|pilares)\\b|:\\s*\\n\\s*-)",
-                java.util.regex.Pattern.MULTILINE);
-
-        // Padrões de Siglas com Definição explícita "Exemplo (EX)"
-        private static final java.util.regex.Pattern ACRONYM_DEF_PATTERN = java.util.regex.Pattern.compile(
-                "\\b[A-Z][a-zA-Z\\s]+\\s+\\(([A-Z]{2,})\\)",
-                java.util.regex.Pattern.MULTILINE);
-
-        public static boolean isCentralConcept(String text) {
-            // Se encontrar definição explicita OU lista de componentes OU definição de
-            // sigla
-            return DEFINITION_PATTERN.matcher(text).find() ||
-                    LIST_PATTERN.matcher(text).find() ||
-                    ACRONYM_DEF_PATTERN.matcher(text).find();
+    /**
+     * Embeddings de todos os blocos em uma chamada. Em caso de falha o chunking
+     * segue apenas por tamanho.
+     */
+    private float[][] embedBlocks(List<String> blocks) {
+        if (blocks.isEmpty()) {
+            return null;
+        }
+        try {
+            List<TextSegment> blockSegments = blocks.stream().map(TextSegment::from).toList();
+            List<Embedding> embeddings = embeddingModel.embedAll(blockSegments).content();
+            float[][] vectors = new float[embeddings.size()][];
+            for (int i = 0; i < vectors.length; i++) {
+                // Normalizados uma vez: o cosseno entre blocos vira produto escalar
+                vectors[i] = VectorMath.normalize(embeddings.get(i).vector());
+            }
+            return vectors;
+        } catch (Exception e) {
+            log.warn("Falha ao gerar embeddings para chunking. Usando apenas o tamanho dos blocos: {}",
+                    e.getMessage());
+            return null;
         }
     }
 
-    // Utilitário simples de Cosseno
-    private double cosineSimilarity(float[] vectorA, float[] vectorB) {
-        if (vectorA.length != vectorB.length)
-            return 0.0;
-        double dotProduct = 0.0;
-        double normA = 0.0;
-        double normB = 0.0;
-        for (int i = 0; i < vectorA.length; i++) {
-            dotProduct += vectorA[i] * vectorB[i];
-            normA += Math.pow(vectorA[i], 2);
-            normB += Math.pow(vectorB[i], 2);
+    private EmbeddedChunk finishChunk(String chunkText, List<Integer> chunkBlocks, List<String> blocks,
+            float[][] blockEmbeddings) {
+        TextSegment segment = TextSegment.from(chunkText);
+        enrichSegmentWithMetadata(segment);
+        if (blockEmbeddings == null) {
+            return new EmbeddedChunk(segment, null);
+        }
+        if (chunkBlocks.size() == 1 && chunkText.equals(blocks.get(chunkBlocks.get(0)))) {
+            // Chunk idêntico ao bloco: embedding exato
+            return new EmbeddedChunk(segment, new Embedding(blockEmbeddings[chunkBlocks.get(0)].clone()));
+        }
+        return new EmbeddedChunk(segment, new Embedding(weightedMean(chunkBlocks, blocks, blockEmbeddings)));
+    }
+
+    private float[] weightedMean(List<Integer> chunkBlocks, List<String> blocks, float[][] blockEmbeddings) {
+        float[] mean = new float[blockEmbeddings[chunkBlocks.get(0)].length];
+        for (int block : chunkBlocks) {
+            // Vetores dos blocos já normalizados: o peso é só o tamanho do texto
+            float[] vector = blockEmbeddings[block];
+            float weight = blocks.get(block).length();
+            for (int d = 0; d < mean.length; d++) {
+                mean[d] += vector[d] * weight;
+            }
+        }
+        VectorMath.normalizeInPlace(mean);
+        return mean;
+    }
+
+    // --- Heuristic Analyzer Logic ---
+
+    private void enrichSegmentWithMetadata(TextSegment segment) {
+        if (ChunkFeatureExtractor.extract(segment.text()).centralConcept()) {
+            segment.metadata().put("concept_centrality", "true");
         }
-        return dotProduct / (Math.sqrt(normA) * Math.sqrt(normB));
     }
 }
@@ -0,0 +1,182 @@
+package com.matheusdev.mindforge.ai.vectorstore;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * Índice invertido com ranking BM25 sobre os textos dos chunks.
+ * <p>
+ * Complementa a busca vetorial: identificadores exatos, siglas e símbolos de
+ * código (ex.: {@code getOrCreateVectorStore}, {@code ISO-27001}) casam por
+ * termo, sem depender de expansão de texto. Tokens são palavras
+ * alfanuméricas (incluindo {@code _}) em minúsculas e sem acento;
+ * identificadores camelCase também são indexados pelas partes.
+ * <p>
+ * Documentos são endereçados pela mesma posição usada no índice vetorial.
+ * Remoções são tombstones (df é aproximado até o próximo rebuild). Não é
+ * thread-safe: o store dono sincroniza o acesso.
+ */
+public class Bm25Index {
+
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}_]+");
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern CAMEL_CASE = Pattern.compile("(?<=\\p{Ll})(?=\\p{Lu})");
+
+    private final double k1;
+    private final double b;
+
+    private final Map<String, Postings> postings = new HashMap<>();
+    private final List<Integer> lengths = new ArrayList<>();
+    private final BitSet removed = new BitSet();
+    private long totalLength;
+    private int liveDocuments;
+
+    public record Hit(int doc, double score) {
+    }
+
+    // Pares [doc, tf] intercalados num array crescente
+    private static final class Postings {
+        int[] data = new int[4];
+        int size;
+
+        void add(int doc, int tf) {
+            if (size + 2 > data.length) {
+                data = Arrays.copyOf(data, data.length * 2);
+            }
+            data[size++] = doc;
+            data[size++] = tf;
+        }
+    }
+
+    public Bm25Index() {
+        this(1.2, 0.75);
+    }
+
+    public Bm25Index(double k1, double b) {
+        this.k1 = k1;
+        this.b = b;
+    }
+
+    /**
+     * Indexa o texto e retorna a posição do documento (sequencial).
+     */
+    public int add(String text) {
+        int doc = lengths.size();
+        Map<String, Integer> frequencies = new HashMap<>();
+        List<String> terms = tokenize(text);
+        for (String term : terms) {
+            frequencies.merge(term, 1, Integer::sum);
+        }
+        for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+            postings.computeIfAbsent(entry.getKey(), key -> new Postings()).add(doc, entry.getValue());
+        }
+        lengths.add(terms.size());
+        totalLength += terms.size();
+        liveDocuments++;
+        return doc;
+    }
+
+    public void remove(int doc) {
+        if (doc < lengths.size() && !removed.get(doc)) {
+            removed.set(doc);
+            totalLength -= lengths.get(doc);
+            liveDocuments--;
+        }
+    }
+
+    public List<Hit> search(String query, int maxResults) {
+        if (liveDocuments == 0 || maxResults <= 0) {
+            return List.of();
+        }
+        double averageLength = Math.max(1.0, (double) totalLength / liveDocuments);
+        double[] scores = new double[lengths.size()];
+        boolean matched = false;
+
+        for (String term : new LinkedHashSet<>(tokenize(query))) {
+            Postings list = postings.get(term);
+            if (list == null) {
+                continue;
+            }
+            // df inclui tombstones até o rebuild; limitado aos vivos para o idf não ficar negativo
+            int documentFrequency = Math.min(list.size / 2, liveDocuments);
+            double idf = Math.log(1.0 + (liveDocuments - documentFrequency + 0.5) / (documentFrequency + 0.5));
+            for (int i = 0; i < list.size; i += 2) {
+                int doc = list.data[i];
+                if (removed.get(doc)) {
+                    continue;
+                }
+                int tf = list.data[i + 1];
+                double norm = k1 * (1 - b + b * lengths.get(doc) / averageLength);
+                scores[doc] += idf * tf * (k1 + 1) / (tf + norm);
+                matched = true;
+            }
+        }
+        if (!matched) {
+            return List.of();
+        }
+
+        PriorityQueue<Hit> top = new PriorityQueue<>(Comparator.comparingDouble(Hit::score));
+        for (int doc = 0; doc < scores.length; doc++) {
+            if (scores[doc] <= 0) {
+                continue;
+            }
+            if (top.size() < maxResults) {
+                top.add(new Hit(doc, scores[doc]));
+            } else if (scores[doc] > top.peek().score()) {
+                top.poll();
+                top.add(new Hit(doc, scores[doc]));
+            }
+        }
+        List<Hit> hits = new ArrayList<>(top);
+        hits.sort(Comparator.comparingDouble(Hit::score).reversed());
+        return hits;
+    }
+
+    public int size() {
+        return lengths.size();
+    }
+
+    public long estimatedHeapBytes() {
+        long bytes = 48L * lengths.size();
+        for (Map.Entry<String, Postings> entry : postings.entrySet()) {
+            bytes += 2L * entry.getKey().length() + 112 + 16 + 4L * entry.getValue().data.length;
+        }
+        return bytes;
+    }
+
+    /**
+     * Tokens em minúsculas e sem acento. Identificadores camelCase geram o
+     * token inteiro e as partes.
+     */
+    public static List<String> tokenize(String text) {
+        if (text == null || text.isEmpty()) {
+            return List.of();
+        }
+        List<String> tokens = new ArrayList<>();
+        for (String raw : TOKEN_SEPARATOR.split(text)) {
+            if (raw.isEmpty()) {
+                continue;
+            }
+            tokens.add(fold(raw));
+            String[] parts = CAMEL_CASE.split(raw);
+            if (parts.length > 1) {
+                for (String part : parts) {
+                    tokens.add(fold(part));
+                }
+            }
+        }
+        return tokens;
+    }
+
+    private static String fold(String token) {
+        String lower = token.toLowerCase(Locale.ROOT);
+        // Só normaliza quando há caracteres fora do ASCII
+        for (int i = 0; i < lower.length(); i++) {
+            if (lower.charAt(i) > 127) {
+                return DIACRITICS.matcher(Normalizer.normalize(lower, Normalizer.Form.NFD)).replaceAll("");
+            }
+        }
+        return lower;
+    }
+}
@@ -0,0 +1,20 @@
+package com.matheusdev.mindforge.ai.vectorstore;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Store que aceita ids definidos pelo chamador, permitindo reindexação
+ * incremental: o id de cada chunk é derivado do seu conteúdo, então só chunks
+ * novos precisam ser embedados e chunks que sumiram são removidos por id.
+ */
+public interface ChunkAddressableStore {
+
+    /** Ids de todos os segmentos atualmente no store. */
+    Set<String> ids();
+
+    void addAll(List<String> ids, List<Embedding> embeddings, List<TextSegment> segments);
+}
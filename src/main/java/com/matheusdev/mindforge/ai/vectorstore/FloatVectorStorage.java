@@ -0,0 +1,57 @@
+package com.matheusdev.mindforge.ai.vectorstore;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Vetores float32 no heap. Representação exata, 4 bytes por dimensão.
+ */
+public class FloatVectorStorage implements VectorStorage {
+
+    private final List<float[]> vectors = new ArrayList<>();
+
+    @Override
+    public int add(float[] normalized) {
+        vectors.add(normalized);
+        return vectors.size() - 1;
+    }
+
+    @Override
+    public int size() {
+        return vectors.size();
+    }
+
+    @Override
+    public float dot(float[] query, int node) {
+        return VectorMath.dot(query, vectors.get(node));
+    }
+
+    @Override
+    public float dot(int a, int b) {
+        return VectorMath.dot(vectors.get(a), vectors.get(b));
+    }
+
+    @Override
+    public float exactDot(float[] query, int node) {
+        return dot(query, node);
+    }
+
+    @Override
+    public float[] vector(int node) {
+        return vectors.get(node).clone();
+    }
+
+    @Override
+    public boolean supportsRescoring() {
+        return false;
+    }
+
+    @Override
+    public long estimatedHeapBytes() {
+        if (vectors.isEmpty()) {
+            return 0;
+        }
+        // float[] header (16) + 4 bytes por dimensão + referência na lista
+        return (long) vectors.size() * (16 + 4L * vectors.get(0).length + 8);
+    }
+}
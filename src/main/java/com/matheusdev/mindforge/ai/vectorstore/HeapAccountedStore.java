@@ -0,0 +1,10 @@
+package com.matheusdev.mindforge.ai.vectorstore;
+
+/**
+ * Store que sabe estimar quanto ocupa no heap, usado pelo
+ * {@link VectorStoreMemoryBudget} para decidir evicções.
+ */
+public interface HeapAccountedStore {
+
+    long estimatedHeapBytes();
+}
@@ -0,0 +1,278 @@
+package com.matheusdev.mindforge.ai.vectorstore;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.store.embedding.EmbeddingMatch;
+import dev.langchain4j.store.embedding.EmbeddingSearchRequest;
+import dev.langchain4j.store.embedding.EmbeddingSearchResult;
+import dev.langchain4j.store.embedding.EmbeddingStore;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * EmbeddingStore em memória com busca sub-linear via {@link HnswIndex}.
+ * <p>
+ * Abaixo de {@code exactSearchThreshold} segmentos o scan linear é mais barato
+ * que navegar o grafo e garante recall total, então a busca é exata; acima
+ * disso usa o grafo com {@code efSearch}. Os scores seguem a mesma escala do
+ * InMemoryEmbeddingStore do langchain4j: (1 + cos) / 2.
+ * <p>
+ * Os vetores ficam só no {@link VectorStorage} do índice (normalizados); o
+ * embedding devolvido em cada match é reconstruído a partir dele.
+ * <p>
+ * Um {@link Bm25Index} nas mesmas posições atende a busca lexical da
+ * recuperação híbrida.
+ * <p>
+ * HNSW não suporta remoção barata: remoções viram tombstones filtrados na
+ * busca. Quando os tombstones passam dos segmentos vivos, o índice é
+ * reconstruído a partir dos vetores já armazenados, sem novo embedding.
+ */
+public class HnswEmbeddingStore
+        implements EmbeddingStore<TextSegment>, HeapAccountedStore, ChunkAddressableStore, LexicalSearchStore {
+
+    private final Supplier<HnswIndex> indexFactory;
+    private final int efSearch;
+    private final int exactSearchThreshold;
+
+    private HnswIndex index;
+    // Mesmas posições do índice vetorial
+    private Bm25Index lexical = new Bm25Index();
+    // Posições alinhadas com os ids internos do índice
+    private List<String> ids = new ArrayList<>();
+    private List<TextSegment> segments = new ArrayList<>();
+    private final Map<String, Integer> positions = new HashMap<>();
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public HnswEmbeddingStore(int m, int efConstruction, int efSearch, int exactSearchThreshold) {
+        this(() -> new HnswIndex(m, efConstruction), efSearch, exactSearchThreshold);
+    }
+
+    public HnswEmbeddingStore(Supplier<HnswIndex> indexFactory, int efSearch, int exactSearchThreshold) {
+        this.indexFactory = indexFactory;
+        this.index = indexFactory.get();
+        this.efSearch = efSearch;
+        this.exactSearchThreshold = exactSearchThreshold;
+    }
+
+    @Override
+    public String add(Embedding embedding) {
+        String id = UUID.randomUUID().toString();
+        add(id, embedding);
+        return id;
+    }
+
+    @Override
+    public void add(String id, Embedding embedding) {
+        addAll(List.of(id), List.of(embedding), Collections.singletonList(null));
+    }
+
+    @Override
+    public String add(Embedding embedding, TextSegment segment) {
+        String id = UUID.randomUUID().toString();
+        addAll(List.of(id), List.of(embedding), List.of(segment));
+        return id;
+    }
+
+    @Override
+    public List<String> addAll(List<Embedding> embeddings) {
+        List<String> added = generateIds(embeddings.size());
+        addAll(added, embeddings, Collections.nCopies(embeddings.size(), null));
+        return added;
+    }
+
+    @Override
+    public List<String> addAll(List<Embedding> embeddings, List<TextSegment> segments) {
+        List<String> added = generateIds(embeddings.size());
+        addAll(added, embeddings, segments);
+        return added;
+    }
+
+    @Override
+    public void addAll(List<String> idsToAdd, List<Embedding> embeddings, List<TextSegment> segmentsToAdd) {
+        if (idsToAdd.size() != embeddings.size()
+                || (segmentsToAdd != null && segmentsToAdd.size() != embeddings.size())) {
+            throw new IllegalArgumentException("Quantidade de ids, embeddings e segmentos deve ser igual");
+        }
+        lock.writeLock().lock();
+        try {
+            for (int i = 0; i < idsToAdd.size(); i++) {
+                String id = idsToAdd.get(i);
+                Integer previous = positions.get(id);
+                if (previous != null) {
+                    // Reescrita do mesmo id: a versão antiga vira tombstone posicional
+                    ids.set(previous, null);
+                    lexical.remove(previous);
+                }
+                // O índice devolve ids sequenciais; as listas paralelas seguem a mesma ordem
+                TextSegment segment = segmentsToAdd != null ? segmentsToAdd.get(i) : null;
+                index.add(embeddings.get(i).vector());
+                lexical.add(segment != null ? segment.text() : null);
+                ids.add(id);
+                segments.add(segment);
+                positions.put(id, ids.size() - 1);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Set<String> ids() {
+        lock.readLock().lock();
+        try {
+            return new HashSet<>(positions.keySet());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void removeAll(Collection<String> idsToRemove) {
+        lock.writeLock().lock();
+        try {
+            for (String id : idsToRemove) {
+                Integer position = positions.remove(id);
+                if (position != null) {
+                    ids.set(position, null);
+                    lexical.remove(position);
+                }
+            }
+            if (index.size() - positions.size() > positions.size()) {
+                compact();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void removeAll() {
+        lock.writeLock().lock();
+        try {
+            index = indexFactory.get();
+            lexical = new Bm25Index();
+            ids = new ArrayList<>();
+            segments = new ArrayList<>();
+            positions.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Reconstrói o índice só com os nós vivos, reaproveitando os vetores
+     * armazenados. Chamado com o write lock adquirido.
+     */
+    private void compact() {
+        HnswIndex compacted = indexFactory.get();
+        Bm25Index compactedLexical = new Bm25Index();
+        List<String> liveIds = new ArrayList<>(positions.size());
+        List<TextSegment> liveSegments = new ArrayList<>(positions.size());
+        positions.clear();
+        for (int node = 0; node < ids.size(); node++) {
+            String id = ids.get(node);
+            if (id == null) {
+                continue;
+            }
+            TextSegment segment = segments.get(node);
+            compacted.add(index.vector(node));
+            compactedLexical.add(segment != null ? segment.text() : null);
+            liveIds.add(id);
+            liveSegments.add(segment);
+            positions.put(id, liveIds.size() - 1);
+        }
+        index = compacted;
+        lexical = compactedLexical;
+        ids = liveIds;
+        segments = liveSegments;
+    }
+
+    @Override
+    public EmbeddingSearchResult<TextSegment> search(EmbeddingSearchRequest request) {
+        if (request.filter() != null) {
+            throw new UnsupportedOperationException("Filtros de metadados não são suportados pelo store HNSW");
+        }
+        lock.readLock().lock();
+        try {
+            int size = index.size();
+            int dead = size - positions.size();
+            // Tombstones ocupam posições no top-K: busca com folga para compensar
+            int k = Math.min(size, request.maxResults() + dead);
+            List<HnswIndex.Candidate> candidates = positions.size() < exactSearchThreshold
+                    ? index.exactSearch(request.queryEmbedding().vector(), k)
+                    : index.search(request.queryEmbedding().vector(), k, efSearch);
+
+            List<EmbeddingMatch<TextSegment>> matches = new ArrayList<>(Math.min(k, request.maxResults()));
+            for (HnswIndex.Candidate candidate : candidates) {
+                if (matches.size() >= request.maxResults()) {
+                    break;
+                }
+                double score = (candidate.similarity() + 1.0) / 2.0;
+                if (score < request.minScore()) {
+                    break; // candidatos vêm em ordem decrescente
+                }
+                String id = ids.get(candidate.node());
+                if (id == null) {
+                    continue;
+                }
+                matches.add(new EmbeddingMatch<>(score, id, new Embedding(index.vector(candidate.node())),
+                        segments.get(candidate.node())));
+            }
+            return new EmbeddingSearchResult<>(matches);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<EmbeddingMatch<TextSegment>> lexicalSearch(String query, int maxResults) {
+        lock.readLock().lock();
+        try {
+            List<EmbeddingMatch<TextSegment>> matches = new ArrayList<>();
+            for (Bm25Index.Hit hit : lexical.search(query, maxResults)) {
+                matches.add(new EmbeddingMatch<>(hit.score(), ids.get(hit.doc()),
+                        new Embedding(index.vector(hit.doc())), segments.get(hit.doc())));
+            }
+            return matches;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return positions.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public long estimatedHeapBytes() {
+        lock.readLock().lock();
+        try {
+            long bytes = index.estimatedHeapBytes() + lexical.estimatedHeapBytes();
+            for (TextSegment segment : segments) {
+                if (segment != null) {
+                    // Texto (até 2 bytes/char) + objetos do segmento e do mapa de metadados
+                    bytes += 2L * segment.text().length() + 96 + 64L * segment.metadata().toMap().size();
+                }
+            }
+            return bytes + 48L * ids.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static List<String> generateIds(int count) {
+        List<String> generated = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            generated.add(UUID.randomUUID().toString());
+        }
+        return generated;
+    }
+}
@@ -0,0 +1,350 @@
+package com.matheusdev.mindforge.ai.vectorstore;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.SplittableRandom;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice HNSW (Hierarchical Navigable Small World) para busca aproximada de
+ * vizinhos por similaridade de cosseno.
+ * <p>
+ * Os vetores são normalizados na inserção, então a similaridade vira um
+ * produto escalar. {@code m} controla o grau do grafo (memória/recall),
+ * {@code efConstruction} a qualidade da construção e o {@code ef} passado em
+ * {@link #search} o trade-off recall x latência de cada consulta.
+ * Inserções são serializadas; buscas rodam em paralelo.
+ * <p>
+ * Com {@link VectorStorage} que suporta rescoring, a busca coleta
+ * {@code k * rescoreFactor} candidatos pelos códigos aproximados e reordena
+ * esses candidatos com os vetores full-precision.
+ */
+public class HnswIndex {
+
+    private final int m;
+    private final int maxConnectionsLayer0;
+    private final int efConstruction;
+    private final double levelMultiplier;
+    private final SplittableRandom random;
+    private final VectorStorage vectors;
+    private final boolean buildGraph;
+    private final int rescoreFactor;
+    // links.get(node)[layer] = vizinhos do nó na camada
+    private final List<int[][]> links = new ArrayList<>();
+    private int entryPoint = -1;
+    private int maxLevel = -1;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public record Candidate(int node, float similarity) {
+    }
+
+    public HnswIndex(int m, int efConstruction) {
+        this(m, efConstruction, new FloatVectorStorage(), true, 1, 42L);
+    }
+
+    /**
+     * @param buildGraph    false para índices usados apenas em busca exata
+     *                      (economiza a construção e a memória do grafo)
+     * @param rescoreFactor multiplicador de candidatos reordenados em
+     *                      full-precision quando o storage é quantizado
+     */
+    public HnswIndex(int m, int efConstruction, VectorStorage storage, boolean buildGraph, int rescoreFactor) {
+        this(m, efConstruction, storage, buildGraph, rescoreFactor, 42L);
+    }
+
+    HnswIndex(int m, int efConstruction, VectorStorage storage, boolean buildGraph, int rescoreFactor, long seed) {
+        if (m < 2) {
+            throw new IllegalArgumentException("HNSW m deve ser >= 2");
+        }
+        this.m = m;
+        this.maxConnectionsLayer0 = m * 2;
+        this.efConstruction = Math.max(efConstruction, m);
+        this.levelMultiplier = 1.0 / Math.log(m);
+        this.random = new SplittableRandom(seed);
+        this.vectors = storage;
+        this.buildGraph = buildGraph;
+        this.rescoreFactor = Math.max(1, rescoreFactor);
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return vectors.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Insere um vetor e retorna o id interno do nó (sequencial, a partir de 0).
+     */
+    public int add(float[] vector) {
+        float[] normalized = VectorMath.normalize(vector);
+        lock.writeLock().lock();
+        try {
+            int node = vectors.add(normalized);
+            if (!buildGraph) {
+                return node;
+            }
+            int level = (int) (-Math.log(1.0 - random.nextDouble()) * levelMultiplier);
+            int[][] nodeLinks = new int[level + 1][];
+            for (int l = 0; l <= level; l++) {
+                nodeLinks[l] = new int[0];
+            }
+            links.add(nodeLinks);
+
+            if (entryPoint < 0) {
+                entryPoint = node;
+                maxLevel = level;
+                return node;
+            }
+
+            int current = entryPoint;
+            for (int l = maxLevel; l > level; l--) {
+                current = greedyClosest(normalized, current, l);
+            }
+
+            for (int l = Math.min(level, maxLevel); l >= 0; l--) {
+                List<Candidate> candidates = searchLayer(normalized, current, efConstruction, l);
+                int maxConnections = l == 0 ? maxConnectionsLayer0 : m;
+                int[] neighbours = selectNeighbours(candidates, m);
+                nodeLinks[l] = neighbours;
+                for (int neighbour : neighbours) {
+                    connect(neighbour, node, l, maxConnections);
+                }
+                current = candidates.get(0).node();
+            }
+
+            if (level > maxLevel) {
+                maxLevel = level;
+                entryPoint = node;
+            }
+            return node;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Busca os {@code k} vizinhos mais similares, explorando {@code ef}
+     * candidatos na camada base (ef maior = mais recall, mais latência).
+     * Resultado ordenado por similaridade decrescente.
+     */
+    public List<Candidate> search(float[] query, int k, int ef) {
+        float[] normalized = VectorMath.normalize(query);
+        lock.readLock().lock();
+        try {
+            if (!buildGraph) {
+                return exactSearchLocked(normalized, k);
+            }
+            if (entryPoint < 0 || k <= 0) {
+                return List.of();
+            }
+            int current = entryPoint;
+            for (int l = maxLevel; l > 0; l--) {
+                current = greedyClosest(normalized, current, l);
+            }
+            int pool = vectors.supportsRescoring() ? k * rescoreFactor : k;
+            List<Candidate> candidates = searchLayer(normalized, current, Math.max(ef, pool), 0);
+            return topK(normalized, candidates, k);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Busca exata (força bruta) sobre os mesmos vetores do grafo. Usada quando o
+     * índice é pequeno o bastante para que o scan linear seja mais barato.
+     */
+    public List<Candidate> exactSearch(float[] query, int k) {
+        float[] normalized = VectorMath.normalize(query);
+        lock.readLock().lock();
+        try {
+            return exactSearchLocked(normalized, k);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Cópia full-precision do vetor normalizado de um nó.
+     */
+    public float[] vector(int node) {
+        lock.readLock().lock();
+        try {
+            return vectors.vector(node);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long estimatedHeapBytes() {
+        lock.readLock().lock();
+        try {
+            long graphBytes = 0;
+            for (int[][] nodeLinks : links) {
+                for (int[] layer : nodeLinks) {
+                    graphBytes += 16 + 4L * layer.length;
+                }
+            }
+            return vectors.estimatedHeapBytes() + graphBytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<Candidate> exactSearchLocked(float[] normalized, int k) {
+        if (k <= 0) {
+            return List.of();
+        }
+        int pool = vectors.supportsRescoring() ? k * rescoreFactor : k;
+        PriorityQueue<Candidate> results = new PriorityQueue<>(Comparator.comparingDouble(Candidate::similarity));
+        for (int node = 0; node < vectors.size(); node++) {
+            float sim = vectors.dot(normalized, node);
+            if (results.size() < pool) {
+                results.add(new Candidate(node, sim));
+            } else if (sim > results.peek().similarity()) {
+                results.poll();
+                results.add(new Candidate(node, sim));
+            }
+        }
+        List<Candidate> ordered = new ArrayList<>(results);
+        ordered.sort(Comparator.comparingDouble(Candidate::similarity).reversed());
+        return topK(normalized, ordered, k);
+    }
+
+    /**
+     * Recorta os k melhores. Com storage que suporta rescoring, reordena antes pelo score
+     * exato para corrigir o erro de quantização.
+     */
+    private List<Candidate> topK(float[] query, List<Candidate> candidates, int k) {
+        if (vectors.supportsRescoring()) {
+            List<Candidate> rescored = new ArrayList<>(candidates.size());
+            for (Candidate candidate : candidates) {
+                rescored.add(new Candidate(candidate.node(), vectors.exactDot(query, candidate.node())));
+            }
+            rescored.sort(Comparator.comparingDouble(Candidate::similarity).reversed());
+            candidates = rescored;
+        }
+        return candidates.size() > k ? new ArrayList<>(candidates.subList(0, k)) : candidates;
+    }
+
+    private int greedyClosest(float[] query, int start, int layer) {
+        int current = start;
+        float best = vectors.dot(query, current);
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            for (int neighbour : links.get(current)[layer]) {
+                float sim = vectors.dot(query, neighbour);
+                if (sim > best) {
+                    best = sim;
+                    current = neighbour;
+                    improved = true;
+                }
+            }
+        }
+        return current;
+    }
+
+    private List<Candidate> searchLayer(float[] query, int entry, int ef, int layer) {
+        BitSet visited = new BitSet(vectors.size());
+        visited.set(entry);
+
+        Candidate start = new Candidate(entry, vectors.dot(query, entry));
+        // Fronteira: melhor primeiro. Resultados: pior no topo para descarte.
+        PriorityQueue<Candidate> frontier = new PriorityQueue<>(
+                Comparator.comparingDouble(Candidate::similarity).reversed());
+        PriorityQueue<Candidate> results = new PriorityQueue<>(Comparator.comparingDouble(Candidate::similarity));
+        frontier.add(start);
+        results.add(start);
+
+        while (!frontier.isEmpty()) {
+            Candidate candidate = frontier.poll();
+            if (results.size() >= ef && candidate.similarity() < results.peek().similarity()) {
+                break;
+            }
+            int[][] nodeLinks = links.get(candidate.node());
+            if (layer >= nodeLinks.length) {
+                continue;
+            }
+            for (int neighbour : nodeLinks[layer]) {
+                if (visited.get(neighbour)) {
+                    continue;
+                }
+                visited.set(neighbour);
+                float sim = vectors.dot(query, neighbour);
+                if (results.size() < ef || sim > results.peek().similarity()) {
+                    Candidate next = new Candidate(neighbour, sim);
+                    frontier.add(next);
+                    results.add(next);
+                    if (results.size() > ef) {
+                        results.poll();
+                    }
+                }
+            }
+        }
+
+        List<Candidate> ordered = new ArrayList<>(results);
+        ordered.sort(Comparator.comparingDouble(Candidate::similarity).reversed());
+        return ordered;
+    }
+
+    /**
+     * Heurística de seleção do paper: prefere vizinhos em direções diferentes
+     * (mais próximos da consulta do que de qualquer vizinho já escolhido), o que
+     * mantém o grafo navegável em dados agrupados.
+     */
+    private int[] selectNeighbours(List<Candidate> candidates, int max) {
+        List<Candidate> selected = new ArrayList<>(max);
+        List<Candidate> discarded = new ArrayList<>();
+        for (Candidate candidate : candidates) {
+            if (selected.size() >= max) {
+                break;
+            }
+            boolean diverse = true;
+            for (Candidate chosen : selected) {
+                if (vectors.dot(candidate.node(), chosen.node()) > candidate.similarity()) {
+                    diverse = false;
+                    break;
+                }
+            }
+            if (diverse) {
+                selected.add(candidate);
+            } else {
+                discarded.add(candidate);
+            }
+        }
+        for (int i = 0; i < discarded.size() && selected.size() < max; i++) {
+            selected.add(discarded.get(i));
+        }
+        int[] ids = new int[selected.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = selected.get(i).node();
+        }
+        return ids;
+    }
+
+    private void connect(int from, int to, int layer, int maxConnections) {
+        int[][] fromLinks = links.get(from);
+        int[] current = fromLinks[layer];
+        int[] extended = Arrays.copyOf(current, current.length + 1);
+        extended[current.length] = to;
+        if (extended.length <= maxConnections) {
+            fromLinks[layer] = extended;
+            return;
+        }
+        // Excedeu o grau máximo: reaplica a heurística sobre os vizinhos do nó
+        List<Candidate> candidates = new ArrayList<>(extended.length);
+        for (int neighbour : extended) {
+            candidates.add(new Candidate(neighbour, vectors.dot(from, neighbour)));
+        }
+        candidates.sort(Comparator.comparingDouble(Candidate::similarity).reversed());
+        fromLinks[layer] = selectNeighbours(candidates, maxConnections);
+    }
+}
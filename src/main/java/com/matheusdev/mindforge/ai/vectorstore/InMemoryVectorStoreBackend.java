@@ -0,0 +1,107 @@
+package com.matheusdev.mindforge.ai.vectorstore;
+
+import com.matheusdev.mindforge.ai.service.DocumentAnalyzer;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.store.embedding.EmbeddingStore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * Backend volátil (padrão). Os stores vivem apenas nos handles mantidos pelo
+ * VectorStoreService e são perdidos a cada restart.
+ * <p>
+ * O índice de busca é plugável via {@code mindforge.rag.ann.mode}:
+ * <ul>
+ * <li>{@code exact}: scan linear, sem construir o grafo;</li>
+ * <li>{@code auto}: HNSW, com busca exata enquanto o documento tem menos de
+ * {@code exact-search-threshold} segmentos;</li>
+ * <li>{@code approximate}: HNSW sempre, priorizando latência.</li>
+ * </ul>
+ * Com {@code mindforge.rag.vector-store.quantization=int8} os vetores ficam
+ * quantizados no heap. Com {@code int8-rescore=true}, os vetores float32 vão
+ * para um arquivo mapeado em {@code int8-rescore-dir}, lido só para reordenar
+ * os melhores candidatos ({@code rescore-factor} x top-K): 4 bytes por dimensão
+ * em disco e no page cache, não no heap nem no orçamento de memória.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "mindforge.rag.vector-store.type", havingValue = "memory", matchIfMissing = true)
+public class InMemoryVectorStoreBackend implements VectorStoreBackend {
+
+    @Value("${mindforge.rag.ann.mode:auto}")
+    private String annMode;
+
+    @Value("${mindforge.rag.ann.m:16}")
+    private int m;
+
+    @Value("${mindforge.rag.ann.ef-construction:100}")
+    private int efConstruction;
+
+    @Value("${mindforge.rag.ann.ef-search:80}")
+    private int efSearch;
+
+    @Value("${mindforge.rag.ann.exact-search-threshold:1000}")
+    private int exactSearchThreshold;
+
+    @Value("${mindforge.rag.vector-store.quantization:none}")
+    private String quantization;
+
+    @Value("${mindforge.rag.vector-store.rescore-factor:4}")
+    private int rescoreFactor;
+
+    @Value("${mindforge.rag.vector-store.int8-rescore:true}")
+    private boolean int8Rescore;
+
+    @Value("${mindforge.rag.vector-store.int8-rescore-dir:${java.io.tmpdir}}")
+    private String int8RescoreDir;
+
+    @Override
+    public EmbeddingStore<TextSegment> create(VectorStoreKey key) {
+        return switch (annMode.toLowerCase()) {
+            case "exact" -> new HnswEmbeddingStore(() -> newIndex(false), efSearch, Integer.MAX_VALUE);
+            case "approximate" -> new HnswEmbeddingStore(() -> newIndex(true), efSearch, 0);
+            case "auto" -> new HnswEmbeddingStore(() -> newIndex(true), efSearch, exactSearchThreshold);
+            default -> {
+                log.warn("⚠️ mindforge.rag.ann.mode '{}' desconhecido. Usando 'auto'.", annMode);
+                yield new HnswEmbeddingStore(() -> newIndex(true), efSearch, exactSearchThreshold);
+            }
+        };
+    }
+
+    private HnswIndex newIndex(boolean buildGraph) {
+        VectorStorage storage = "int8".equalsIgnoreCase(quantization)
+                ? new Int8VectorStorage(int8Rescore ? Path.of(int8RescoreDir) : null)
+                : new FloatVectorStorage();
+        return new HnswIndex(m, efConstruction, storage, buildGraph, rescoreFactor);
+    }
+
+    @Override
+    public Optional<EmbeddingStore<TextSegment>> open(VectorStoreKey key) {
+        return Optional.empty();
+    }
+
+    @Override
+    public void saveProfile(VectorStoreKey key, DocumentAnalyzer.DocumentProfile profile) {
+        // Perfil já fica no cache local do VectorStoreService
+    }
+
+    @Override
+    public Optional<DocumentAnalyzer.DocumentProfile> loadProfile(VectorStoreKey key) {
+        return Optional.empty();
+    }
+
+    @Override
+    public void delete(VectorStoreKey key) {
+        // Nada persistido
+    }
+
+    @Override
+    public boolean isPersistent() {
+        return false;
+    }
+}
@@ -0,0 +1,185 @@
+package com.matheusdev.mindforge.ai.vectorstore;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Quantização escalar int8 simétrica por vetor: cada componente vira um byte
+ * ({@code round(x / scale)}, com {@code scale = max|x| / 127}), reduzindo o
+ * custo no heap de 4 para ~1 byte por dimensão.
+ * <p>
+ * A navegação do grafo e a triagem usam os códigos int8 (consulta em float,
+ * distância assimétrica). Com um diretório de rescoring, os vetores float32
+ * também são gravados num arquivo mapeado em memória, lido só para reordenar
+ * os melhores candidatos e devolver o embedding exato dos matches. As páginas
+ * do arquivo ficam no page cache do sistema operacional, que as descarta sob
+ * pressão e as relê do disco quando preciso: não são memória residente do
+ * processo e não entram em {@link #estimatedHeapBytes()}. Sem o diretório, o
+ * rescoring e os embeddings devolvidos usam os códigos dequantizados.
+ */
+public class Int8VectorStorage implements VectorStorage {
+
+    // Vetores por região mapeada; o arquivo é esparso, então só o que foi escrito ocupa disco
+    static final int VECTORS_PER_REGION = 1024;
+
+    private final Path rescoreDirectory;
+    private final List<byte[]> codes = new ArrayList<>();
+    private float[] scales = new float[16];
+    private final List<FloatBuffer> regions = new ArrayList<>();
+    private FileChannel rescoreFile;
+    private int dimension = -1;
+
+    /**
+     * Só os códigos int8, sem rescoring.
+     */
+    public Int8VectorStorage() {
+        this(null);
+    }
+
+    /**
+     * @param rescoreDirectory diretório do arquivo float32 mapeado usado no
+     *                         rescoring; {@code null} desliga o rescoring.
+     */
+    public Int8VectorStorage(Path rescoreDirectory) {
+        this.rescoreDirectory = rescoreDirectory;
+    }
+
+    @Override
+    public int add(float[] normalized) {
+        if (dimension < 0) {
+            dimension = normalized.length;
+        } else if (normalized.length != dimension) {
+            throw new IllegalArgumentException(
+                    "Dimensão inconsistente: esperado " + dimension + ", recebido " + normalized.length);
+        }
+        int node = codes.size();
+
+        float max = 0f;
+        for (float value : normalized) {
+            max = Math.max(max, Math.abs(value));
+        }
+        float scale = max == 0f ? 1f : max / 127f;
+        byte[] code = new byte[dimension];
+        for (int i = 0; i < dimension; i++) {
+            code[i] = (byte) Math.round(normalized[i] / scale);
+        }
+        if (rescoreDirectory != null) {
+            // Grava antes de publicar o código: uma falha de I/O não deixa o nó pela metade
+            region(node / VECTORS_PER_REGION).put((node % VECTORS_PER_REGION) * dimension, normalized);
+        }
+        codes.add(code);
+        if (node == scales.length) {
+            scales = Arrays.copyOf(scales, scales.length * 2);
+        }
+        scales[node] = scale;
+        return node;
+    }
+
+    /**
+     * Região mapeada do arquivo de rescoring, criando o arquivo e as regiões
+     * que faltarem.
+     */
+    private FloatBuffer region(int index) {
+        try {
+            if (rescoreFile == null) {
+                Path path = Files.createTempFile(rescoreDirectory, "int8-rescore-", ".f32");
+                // No Unix o DELETE_ON_CLOSE remove o nome já na abertura: o espaço volta quando o store é descartado
+                rescoreFile = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                        StandardOpenOption.DELETE_ON_CLOSE);
+            }
+            long regionBytes = (long) VECTORS_PER_REGION * dimension * Float.BYTES;
+            while (regions.size() <= index) {
+                regions.add(rescoreFile.map(FileChannel.MapMode.READ_WRITE, regions.size() * regionBytes, regionBytes)
+                        .order(ByteOrder.nativeOrder())
+                        .asFloatBuffer());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao mapear o arquivo de rescoring int8", e);
+        }
+        return regions.get(index);
+    }
+
+    @Override
+    public int size() {
+        return codes.size();
+    }
+
+    @Override
+    public float dot(float[] query, int node) {
+        byte[] code = codes.get(node);
+        float sum = 0f;
+        for (int i = 0; i < code.length; i++) {
+            sum += query[i] * code[i];
+        }
+        return sum * scales[node];
+    }
+
+    @Override
+    public float dot(int a, int b) {
+        byte[] codeA = codes.get(a);
+        byte[] codeB = codes.get(b);
+        int sum = 0;
+        for (int i = 0; i < codeA.length; i++) {
+            sum += codeA[i] * codeB[i];
+        }
+        return sum * scales[a] * scales[b];
+    }
+
+    @Override
+    public float exactDot(float[] query, int node) {
+        if (rescoreDirectory == null) {
+            return dot(query, node);
+        }
+        FloatBuffer region = regions.get(node / VECTORS_PER_REGION);
+        int offset = (node % VECTORS_PER_REGION) * dimension;
+        float sum = 0f;
+        for (int i = 0; i < dimension; i++) {
+            sum += query[i] * region.get(offset + i);
+        }
+        return sum;
+    }
+
+    @Override
+    public float[] vector(int node) {
+        float[] vector = new float[dimension];
+        if (rescoreDirectory == null) {
+            byte[] code = codes.get(node);
+            for (int i = 0; i < dimension; i++) {
+                vector[i] = code[i] * scales[node];
+            }
+            return vector;
+        }
+        regions.get(node / VECTORS_PER_REGION).get((node % VECTORS_PER_REGION) * dimension, vector);
+        return vector;
+    }
+
+    /**
+     * Só há o que reordenar quando os vetores float32 estão no arquivo mapeado.
+     */
+    @Override
+    public boolean supportsRescoring() {
+        return rescoreDirectory != null;
+    }
+
+    /**
+     * Só o heap dos códigos: o arquivo mapeado fica no page cache, fora do
+     * {@link VectorStoreMemoryBudget}.
+     */
+    @Override
+    public long estimatedHeapBytes() {
+        if (codes.isEmpty()) {
+            return 0;
+        }
+        // byte[] header (16) + 1 byte por dimensão + referência + escala
+        return (long) codes.size() * (16 + dimension + 8 + 4);
+    }
+}
@@ -0,0 +1,19 @@
+package com.matheusdev.mindforge.ai.vectorstore;
+
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.store.embedding.EmbeddingMatch;
+
+import java.util.List;
+
+/**
+ * Store que também oferece busca lexical (por termos) sobre os mesmos
+ * segmentos da busca vetorial, para recuperação híbrida.
+ * <p>
+ * O score de cada match é o score lexical do backend (BM25, ts_rank...) e
+ * só é comparável dentro da mesma lista; o embedding armazenado vem junto
+ * quando disponível.
+ */
+public interface LexicalSearchStore {
+
+    List<EmbeddingMatch<TextSegment>> lexicalSearch(String query, int maxResults);
+}
@@ -0,0 +1,251 @@
+package com.matheusdev.mindforge.ai.vectorstore;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.langchain4j.data.document.Metadata;
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.store.embedding.EmbeddingMatch;
+import dev.langchain4j.store.embedding.EmbeddingSearchRequest;
+import dev.langchain4j.store.embedding.EmbeddingSearchResult;
+import dev.langchain4j.store.embedding.EmbeddingStore;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * EmbeddingStore apoiado em uma tabela pgvector, restrito a um único
+ * documento de um único tenant. Toda leitura e escrita carrega
+ * {@code tenant_id} e {@code document_id} no WHERE, então um store nunca
+ * enxerga segmentos de outro escopo.
+ */
+public class PgVectorEmbeddingStore
+        implements EmbeddingStore<TextSegment>, ChunkAddressableStore, LexicalSearchStore {
+
+    static final String SEGMENT_TABLE = "ai_vector_segment";
+
+    private static final TypeReference<Map<String, Object>> METADATA_TYPE = new TypeReference<>() {
+    };
+
+    // Só letras, dígitos e _ chegam ao to_tsquery: nenhum operador da sintaxe escapa
+    private static final Pattern LEXICAL_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}_]+");
+    private static final int MAX_LEXICAL_TERMS = 32;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final VectorStoreKey key;
+
+    public PgVectorEmbeddingStore(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper, VectorStoreKey key) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.key = key;
+    }
+
+    @Override
+    public String add(Embedding embedding) {
+        String id = UUID.randomUUID().toString();
+        add(id, embedding);
+        return id;
+    }
+
+    @Override
+    public void add(String id, Embedding embedding) {
+        insert(List.of(id), List.of(embedding), null);
+    }
+
+    @Override
+    public String add(Embedding embedding, TextSegment segment) {
+        String id = UUID.randomUUID().toString();
+        insert(List.of(id), List.of(embedding), List.of(segment));
+        return id;
+    }
+
+    @Override
+    public List<String> addAll(List<Embedding> embeddings) {
+        List<String> ids = generateIds(embeddings.size());
+        insert(ids, embeddings, null);
+        return ids;
+    }
+
+    @Override
+    public List<String> addAll(List<Embedding> embeddings, List<TextSegment> segments) {
+        if (segments != null && segments.size() != embeddings.size()) {
+            throw new IllegalArgumentException("Quantidade de embeddings e segmentos deve ser igual");
+        }
+        List<String> ids = generateIds(embeddings.size());
+        insert(ids, embeddings, segments);
+        return ids;
+    }
+
+    @Override
+    public void addAll(List<String> ids, List<Embedding> embeddings, List<TextSegment> segments) {
+        if (ids.size() != embeddings.size() || (segments != null && segments.size() != embeddings.size())) {
+            throw new IllegalArgumentException("Quantidade de ids, embeddings e segmentos deve ser igual");
+        }
+        // Reescrita do mesmo id substitui a linha anterior
+        removeAll(ids);
+        insert(ids, embeddings, segments);
+    }
+
+    @Override
+    public Set<String> ids() {
+        return new HashSet<>(jdbcTemplate.queryForList("SELECT id FROM " + SEGMENT_TABLE
+                + " WHERE tenant_id = ? AND document_id = ?", String.class, key.tenantId(), key.documentId()));
+    }
+
+    @Override
+    public void removeAll(Collection<String> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return;
+        }
+        List<Object[]> args = ids.stream()
+                .map(id -> new Object[] { key.tenantId(), key.documentId(), id })
+                .toList();
+        jdbcTemplate.batchUpdate("DELETE FROM " + SEGMENT_TABLE
+                + " WHERE tenant_id = ? AND document_id = ? AND id = ?", args);
+    }
+
+    @Override
+    public void removeAll() {
+        jdbcTemplate.update("DELETE FROM " + SEGMENT_TABLE + " WHERE tenant_id = ? AND document_id = ?",
+                key.tenantId(), key.documentId());
+    }
+
+    @Override
+    public EmbeddingSearchResult<TextSegment> search(EmbeddingSearchRequest request) {
+        if (request.filter() != null) {
+            throw new UnsupportedOperationException("Filtros de metadados não são suportados pelo store pgvector");
+        }
+        String queryVector = toVectorLiteral(request.queryEmbedding().vector());
+        double minScore = request.minScore();
+
+        // <=> é a distância de cosseno do pgvector (1 - cos). O score segue a mesma
+        // escala do InMemoryEmbeddingStore: (1 + cos) / 2 = 1 - distância / 2.
+        List<EmbeddingMatch<TextSegment>> matches = jdbcTemplate.query(
+                "SELECT id, text, metadata, embedding::text AS embedding_text, embedding <=> ?::vector AS distance "
+                        + "FROM " + SEGMENT_TABLE + " WHERE tenant_id = ? AND document_id = ? "
+                        + "ORDER BY distance LIMIT ?",
+                (rs, rowNum) -> {
+                    double score = 1.0 - rs.getDouble("distance") / 2.0;
+                    String text = rs.getString("text");
+                    TextSegment segment = text == null ? null
+                            : TextSegment.from(text, readMetadata(rs.getString("metadata")));
+                    return new EmbeddingMatch<>(score, rs.getString("id"),
+                            new Embedding(parseVector(rs.getString("embedding_text"))), segment);
+                },
+                queryVector, key.tenantId(), key.documentId(), request.maxResults());
+
+        List<EmbeddingMatch<TextSegment>> relevant = new ArrayList<>(matches.size());
+        for (EmbeddingMatch<TextSegment> match : matches) {
+            if (match.score() >= minScore) {
+                relevant.add(match);
+            }
+        }
+        return new EmbeddingSearchResult<>(relevant);
+    }
+
+    /**
+     * Busca lexical pelo full-text search do Postgres (configuração 'simple',
+     * que não aplica stemming e preserva identificadores). Os termos da query
+     * são combinados com OR; ts_rank_cd ordena pela densidade de ocorrências.
+     */
+    @Override
+    public List<EmbeddingMatch<TextSegment>> lexicalSearch(String query, int maxResults) {
+        Set<String> terms = new LinkedHashSet<>();
+        for (String token : LEXICAL_SEPARATOR.split(query == null ? "" : query.toLowerCase(Locale.ROOT))) {
+            if (!token.isEmpty() && terms.size() < MAX_LEXICAL_TERMS) {
+                terms.add(token);
+            }
+        }
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.query(
+                "SELECT id, text, metadata, embedding::text AS embedding_text, "
+                        + "ts_rank_cd(to_tsvector('simple', coalesce(text, '')), q) AS rank "
+                        + "FROM " + SEGMENT_TABLE + ", to_tsquery('simple', ?) q "
+                        + "WHERE tenant_id = ? AND document_id = ? "
+                        + "AND to_tsvector('simple', coalesce(text, '')) @@ q "
+                        + "ORDER BY rank DESC LIMIT ?",
+                (rs, rowNum) -> {
+                    String text = rs.getString("text");
+                    TextSegment segment = text == null ? null
+                            : TextSegment.from(text, readMetadata(rs.getString("metadata")));
+                    return new EmbeddingMatch<>(rs.getDouble("rank"), rs.getString("id"),
+                            new Embedding(parseVector(rs.getString("embedding_text"))), segment);
+                },
+                String.join(" | ", terms), key.tenantId(), key.documentId(), maxResults);
+    }
+
+    private void insert(List<String> ids, List<Embedding> embeddings, List<TextSegment> segments) {
+        List<Object[]> batch = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            TextSegment segment = segments != null ? segments.get(i) : null;
+            batch.add(new Object[] {
+                    ids.get(i),
+                    key.tenantId(),
+                    key.documentId(),
+                    segment != null ? segment.text() : null,
+                    segment != null ? writeMetadata(segment.metadata()) : null,
+                    // Gravado normalizado, como nos stores em memória
+                    toVectorLiteral(VectorMath.normalize(embeddings.get(i).vector()))
+            });
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO " + SEGMENT_TABLE
+                + " (id, tenant_id, document_id, text, metadata, embedding) VALUES (?, ?, ?, ?, ?::jsonb, ?::vector)",
+                batch);
+    }
+
+    private String writeMetadata(Metadata metadata) {
+        try {
+            return objectMapper.writeValueAsString(metadata.toMap());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Falha ao serializar metadados do segmento", e);
+        }
+    }
+
+    private Metadata readMetadata(String json) {
+        if (json == null || json.isBlank()) {
+            return new Metadata();
+        }
+        try {
+            return new Metadata(objectMapper.readValue(json, METADATA_TYPE));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Falha ao ler metadados do segmento", e);
+        }
+    }
+
+    private static List<String> generateIds(int count) {
+        List<String> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ids.add(UUID.randomUUID().toString());
+        }
+        return ids;
+    }
+
+    static String toVectorLiteral(float[] vector) {
+        StringBuilder sb = new StringBuilder(vector.length * 10 + 2).append('[');
+        for (int i = 0; i < vector.length; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append(vector[i]);
+        }
+        return sb.append(']').toString();
+    }
+
+    static float[] parseVector(String literal) {
+        String body = literal.substring(1, literal.length() - 1);
+        if (body.isEmpty()) {
+            return new float[0];
+        }
+        String[] parts = body.split(",");
+        float[] vector = new float[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            vector[i] = Float.parseFloat(parts[i]);
+        }
+        return vector;
+    }
+}
@@ -0,0 +1,131 @@
+package com.matheusdev.mindforge.ai.vectorstore;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.matheusdev.mindforge.ai.service.DocumentAnalyzer;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.store.embedding.EmbeddingStore;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Backend durável usando a extensão pgvector do Postgres.
+ * Os embeddings ficam na tabela {@code ai_vector_segment}; a tabela
+ * {@code ai_vector_document} guarda o perfil do documento e só recebe a linha
+ * quando a ingestão termina, funcionando como marcador de "indexado".
+ * Assim, após um restart, documentos já indexados são reabertos sem
+ * re-embedding, e ingestões interrompidas são refeitas do zero.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "mindforge.rag.vector-store.type", havingValue = "pgvector")
+public class PgVectorStoreBackend implements VectorStoreBackend {
+
+    static final String DOCUMENT_TABLE = "ai_vector_document";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Value("${mindforge.rag.vector-store.pgvector.initialize-schema:true}")
+    private boolean initializeSchema;
+
+    @PostConstruct
+    public void initSchema() {
+        if (!initializeSchema) {
+            return;
+        }
+        // Mesmo DDL de setup/init.sql; idempotente para bancos criados antes dele
+        jdbcTemplate.execute("CREATE EXTENSION IF NOT EXISTS vector");
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + DOCUMENT_TABLE + " ("
+                + "tenant_id BIGINT NOT NULL, "
+                + "document_id VARCHAR(512) NOT NULL, "
+                + "profile JSONB, "
+                + "indexed_at TIMESTAMP NOT NULL DEFAULT now(), "
+                + "PRIMARY KEY (tenant_id, document_id))");
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + PgVectorEmbeddingStore.SEGMENT_TABLE + " ("
+                + "id VARCHAR(64) NOT NULL, "
+                + "tenant_id BIGINT NOT NULL, "
+                + "document_id VARCHAR(512) NOT NULL, "
+                + "text TEXT, "
+                + "metadata JSONB, "
+                + "embedding vector NOT NULL, "
+                // ids de chunk derivam do conteúdo e só são únicos dentro do documento
+                + "PRIMARY KEY (tenant_id, document_id, id))");
+        // Full-text da busca lexical (recuperação híbrida)
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_ai_vector_segment_fts ON "
+                + PgVectorEmbeddingStore.SEGMENT_TABLE + " USING GIN (to_tsvector('simple', coalesce(text, '')))");
+        log.info("🐘 Schema pgvector verificado ({} / {}).", DOCUMENT_TABLE, PgVectorEmbeddingStore.SEGMENT_TABLE);
+    }
+
+    @Override
+    @Transactional
+    public EmbeddingStore<TextSegment> create(VectorStoreKey key) {
+        delete(key);
+        return new PgVectorEmbeddingStore(jdbcTemplate, objectMapper, key);
+    }
+
+    @Override
+    public Optional<EmbeddingStore<TextSegment>> open(VectorStoreKey key) {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM " + DOCUMENT_TABLE + " WHERE tenant_id = ? AND document_id = ?",
+                Integer.class, key.tenantId(), key.documentId());
+        if (count == null || count == 0) {
+            return Optional.empty();
+        }
+        return Optional.of(new PgVectorEmbeddingStore(jdbcTemplate, objectMapper, key));
+    }
+
+    @Override
+    public void saveProfile(VectorStoreKey key, DocumentAnalyzer.DocumentProfile profile) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(profile);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Falha ao serializar perfil do documento " + key, e);
+        }
+        jdbcTemplate.update("INSERT INTO " + DOCUMENT_TABLE + " (tenant_id, document_id, profile, indexed_at) "
+                + "VALUES (?, ?, ?::jsonb, now()) "
+                + "ON CONFLICT (tenant_id, document_id) DO UPDATE SET profile = EXCLUDED.profile, indexed_at = now()",
+                key.tenantId(), key.documentId(), json);
+    }
+
+    @Override
+    public Optional<DocumentAnalyzer.DocumentProfile> loadProfile(VectorStoreKey key) {
+        List<String> rows = jdbcTemplate.queryForList(
+                "SELECT profile::text FROM " + DOCUMENT_TABLE + " WHERE tenant_id = ? AND document_id = ?",
+                String.class, key.tenantId(), key.documentId());
+        if (rows.isEmpty() || rows.get(0) == null) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(objectMapper.readValue(rows.get(0), DocumentAnalyzer.DocumentProfile.class));
+        } catch (JsonProcessingException e) {
+            log.warn("⚠️ Perfil persistido inválido para '{}': {}", key, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    @Transactional
+    public void delete(VectorStoreKey key) {
+        jdbcTemplate.update("DELETE FROM " + DOCUMENT_TABLE + " WHERE tenant_id = ? AND document_id = ?",
+                key.tenantId(), key.documentId());
+        jdbcTemplate.update("DELETE FROM " + PgVectorEmbeddingStore.SEGMENT_TABLE
+                + " WHERE tenant_id = ? AND document_id = ?", key.tenantId(), key.documentId());
+    }
+
+    @Override
+    public boolean isPersistent() {
+        return true;
+    }
+}
@@ -0,0 +1,44 @@
+package com.matheusdev.mindforge.ai.vectorstore;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Reciprocal Rank Fusion: combina listas ranqueadas por sistemas com escalas
+ * de score incompatíveis (cosseno x BM25) usando só as posições:
+ * {@code score(d) = Σ 1 / (k + rank(d))}. Itens bem ranqueados em mais de uma
+ * lista sobem; {@code k} (60 por padrão) suaviza o peso do topo.
+ */
+public final class ReciprocalRankFusion {
+
+    public static final int DEFAULT_K = 60;
+
+    private ReciprocalRankFusion() {
+    }
+
+    /**
+     * Funde as listas mantendo, para cada chave, o primeiro item encontrado.
+     * Empates preservam a ordem da primeira lista.
+     */
+    @SafeVarargs
+    public static <T> List<T> fuse(Function<T, String> key, int k, List<T>... rankings) {
+        Map<String, Double> scores = new HashMap<>();
+        Map<String, T> items = new LinkedHashMap<>();
+        for (List<T> ranking : rankings) {
+            for (int rank = 0; rank < ranking.size(); rank++) {
+                T item = ranking.get(rank);
+                String id = key.apply(item);
+                scores.merge(id, 1.0 / (k + rank + 1), Double::sum);
+                items.putIfAbsent(id, item);
+            }
+        }
+        List<String> ordered = new ArrayList<>(items.keySet());
+        // Sort estável: empates mantêm a ordem de inserção
+        ordered.sort(Comparator.comparingDouble((String id) -> scores.get(id)).reversed());
+        List<T> fused = new ArrayList<>(ordered.size());
+        for (String id : ordered) {
+            fused.add(items.get(id));
+        }
+        return fused;
+    }
+}
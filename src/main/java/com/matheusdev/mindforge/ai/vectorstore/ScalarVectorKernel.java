@@ -0,0 +1,17 @@
+package com.matheusdev.mindforge.ai.vectorstore;
+
+/**
+ * Implementação escalar, usada quando o módulo jdk.incubator.vector não está
+ * disponível na JVM.
+ */
+final class ScalarVectorKernel implements VectorKernel {
+
+    @Override
+    public float dot(float[] a, float[] b) {
+        float sum = 0f;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+}
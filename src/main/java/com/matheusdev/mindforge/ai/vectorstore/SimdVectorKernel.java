@@ -0,0 +1,37 @@
+package com.matheusdev.mindforge.ai.vectorstore;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Implementação SIMD sobre a Vector API do JDK. Usa a maior largura de
+ * registrador disponível na CPU (AVX2/AVX-512/NEON) com FMA; a cauda que não
+ * preenche um registrador inteiro é somada de forma escalar.
+ * <p>
+ * Só é carregada por reflexão quando o módulo está presente
+ * ({@code --add-modules jdk.incubator.vector}).
+ */
+final class SimdVectorKernel implements VectorKernel {
+
+    private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_PREFERRED;
+
+    @Override
+    public float dot(float[] a, float[] b) {
+        int i = 0;
+        int bound = SPECIES.loopBound(a.length);
+        FloatVector acc = FloatVector.zero(SPECIES);
+        for (; i < bound; i += SPECIES.length()) {
+            acc = FloatVector.fromArray(SPECIES, a, i).fma(FloatVector.fromArray(SPECIES, b, i), acc);
+        }
+        float sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < a.length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+
+    static int lanes() {
+        return SPECIES.length();
+    }
+}
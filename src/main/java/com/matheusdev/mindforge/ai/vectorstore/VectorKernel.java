@@ -0,0 +1,9 @@
+package com.matheusdev.mindforge.ai.vectorstore;
+
+/**
+ * Operações vetoriais de baixo nível usadas por {@link VectorMath}.
+ */
+interface VectorKernel {
+
+    float dot(float[] a, float[] b);
+}
@@ -0,0 +1,91 @@
+package com.matheusdev.mindforge.ai.vectorstore;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Kernel compartilhado de matemática vetorial para o RAG (índice HNSW,
+ * chunking semântico, filtro de diversidade).
+ * <p>
+ * Usa a Vector API do JDK (SIMD) quando a JVM sobe com
+ * {@code --add-modules jdk.incubator.vector}; caso contrário cai para a
+ * implementação escalar, com o mesmo resultado a menos de arredondamento.
+ * <p>
+ * Os stores vetoriais guardam embeddings já normalizados (norma L2 = 1), então
+ * o cosseno entre vetores vindos deles é só {@link #dot}; {@link #cosine}
+ * fica para vetores de origem desconhecida.
+ */
+public final class VectorMath {
+
+    private static final Logger log = LoggerFactory.getLogger(VectorMath.class);
+
+    private static final VectorKernel KERNEL = selectKernel();
+
+    private VectorMath() {
+    }
+
+    public static float dot(float[] a, float[] b) {
+        if (a.length != b.length) {
+            throw new IllegalArgumentException(
+                    "Dimensões diferentes: " + a.length + " != " + b.length);
+        }
+        return KERNEL.dot(a, b);
+    }
+
+    public static float norm(float[] vector) {
+        return (float) Math.sqrt(KERNEL.dot(vector, vector));
+    }
+
+    /**
+     * Cópia normalizada (norma L2 = 1). Vetor nulo continua nulo.
+     */
+    public static float[] normalize(float[] vector) {
+        float[] normalized = vector.clone();
+        normalizeInPlace(normalized);
+        return normalized;
+    }
+
+    public static void normalizeInPlace(float[] vector) {
+        float norm = norm(vector);
+        if (norm == 0f) {
+            return;
+        }
+        float inverse = 1f / norm;
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] *= inverse;
+        }
+    }
+
+    /**
+     * Cosseno para vetores não necessariamente normalizados.
+     */
+    public static double cosine(float[] a, float[] b) {
+        if (a.length != b.length) {
+            return 0.0;
+        }
+        double denominator = Math.sqrt((double) KERNEL.dot(a, a) * KERNEL.dot(b, b));
+        return denominator == 0 ? 0.0 : KERNEL.dot(a, b) / denominator;
+    }
+
+    public static boolean isSimdEnabled() {
+        return !(KERNEL instanceof ScalarVectorKernel);
+    }
+
+    private static VectorKernel selectKernel() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()
+                || !Boolean.parseBoolean(System.getProperty("mindforge.vector.simd", "true"))) {
+            log.info("🧮 VectorMath: kernel escalar (adicione --add-modules jdk.incubator.vector para SIMD).");
+            return new ScalarVectorKernel();
+        }
+        try {
+            // Reflexão: não linka classes do módulo incubator quando ele está ausente
+            VectorKernel kernel = (VectorKernel) Class.forName(VectorMath.class.getPackageName() + ".SimdVectorKernel")
+                    .getDeclaredConstructor().newInstance();
+            log.info("🧮 VectorMath: kernel SIMD ativo ({} lanes float).", SimdVectorKernel.lanes());
+            return kernel;
+        } catch (ReflectiveOperationException | LinkageError e) {
+            log.warn("⚠️ VectorMath: falha ao carregar kernel SIMD ({}). Usando escalar.", e.toString());
+            return new ScalarVectorKernel();
+        }
+    }
+}
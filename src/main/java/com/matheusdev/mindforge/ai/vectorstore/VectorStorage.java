@@ -0,0 +1,36 @@
+package com.matheusdev.mindforge.ai.vectorstore;
+
+/**
+ * Armazenamento dos vetores (já normalizados) usados pelo {@link HnswIndex}.
+ * A implementação decide a representação em memória: float32 completo ou
+ * int8 quantizado, opcionalmente com os vetores float32 num arquivo mapeado
+ * para rescoring.
+ */
+public interface VectorStorage {
+
+    /** Adiciona um vetor normalizado e retorna sua posição. */
+    int add(float[] normalized);
+
+    int size();
+
+    /** Similaridade (produto escalar) entre a consulta e um vetor armazenado. */
+    float dot(float[] query, int node);
+
+    /** Similaridade entre dois vetores armazenados (construção do grafo). */
+    float dot(int a, int b);
+
+    /** Similaridade exata, usada para reordenar candidatos quantizados. */
+    float exactDot(float[] query, int node);
+
+    /** Cópia full-precision do vetor normalizado. */
+    float[] vector(int node);
+
+    /**
+     * Indica se {@link #exactDot} é mais preciso que {@link #dot(float[], int)},
+     * ou seja, se vale reordenar os candidatos.
+     */
+    boolean supportsRescoring();
+
+    /** Estimativa de bytes residentes ocupados pelos vetores (heap e direct buffers). */
+    long estimatedHeapBytes();
+}
@@ -0,0 +1,40 @@
+package com.matheusdev.mindforge.ai.vectorstore;
+
+import com.matheusdev.mindforge.ai.service.DocumentAnalyzer;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.store.embedding.EmbeddingStore;
+
+import java.util.Optional;
+
+/**
+ * Backend de armazenamento dos embeddings por documento.
+ * O {@link com.matheusdev.mindforge.ai.service.VectorStoreService} mantém os
+ * handles em memória e delega a persistência para a implementação ativa
+ * (propriedade {@code mindforge.rag.vector-store.type}).
+ */
+public interface VectorStoreBackend {
+
+    /**
+     * Cria um store vazio para o documento, descartando qualquer ingestão
+     * anterior (completa ou interrompida) com a mesma chave.
+     */
+    EmbeddingStore<TextSegment> create(VectorStoreKey key);
+
+    /**
+     * Reabre um store previamente indexado. Vazio se o documento nunca foi
+     * indexado por completo neste backend.
+     */
+    Optional<EmbeddingStore<TextSegment>> open(VectorStoreKey key);
+
+    /**
+     * Registra o perfil do documento e marca a ingestão como concluída.
+     */
+    void saveProfile(VectorStoreKey key, DocumentAnalyzer.DocumentProfile profile);
+
+    Optional<DocumentAnalyzer.DocumentProfile> loadProfile(VectorStoreKey key);
+
+    void delete(VectorStoreKey key);
+
+    /** Indica se os dados sobrevivem a um restart da aplicação. */
+    boolean isPersistent();
+}
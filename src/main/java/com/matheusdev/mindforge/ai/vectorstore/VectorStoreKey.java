@@ -0,0 +1,29 @@
+package com.matheusdev.mindforge.ai.vectorstore;
+
+import com.matheusdev.mindforge.core.tenant.context.TenantContext;
+
+/**
+ * Identifica um vector store de forma isolada por tenant.
+ * Documentos com o mesmo id em tenants diferentes nunca compartilham embeddings.
+ */
+public record VectorStoreKey(long tenantId, String documentId) {
+
+    /** Escopo usado quando não há tenant no contexto (jobs internos, dados legados). */
+    public static final long SHARED_TENANT = 0L;
+
+    public static VectorStoreKey of(Long tenantId, String documentId) {
+        return new VectorStoreKey(tenantId != null ? tenantId : SHARED_TENANT, documentId);
+    }
+
+    /**
+     * Resolve a chave usando o tenant da thread atual ({@link TenantContext}).
+     */
+    public static VectorStoreKey current(String documentId) {
+        return of(TenantContext.getTenantId(), documentId);
+    }
+
+    @Override
+    public String toString() {
+        return tenantId + ":" + documentId;
+    }
+}
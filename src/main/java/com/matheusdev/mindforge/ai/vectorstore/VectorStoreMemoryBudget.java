@@ -0,0 +1,101 @@
+package com.matheusdev.mindforge.ai.vectorstore;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Orçamento global de memória residente para todos os vector stores do nó.
+ * O arquivo mapeado de rescoring do int8 fica de fora: é page cache.
+ * Cada store registra uma estimativa do seu tamanho; quando o total passa de
+ * {@code mindforge.rag.vector-store.max-heap-mb}, os stores menos usados
+ * recentemente são indicados para evicção (0 desativa o limite).
+ */
+@Component
+@Slf4j
+public class VectorStoreMemoryBudget {
+
+    @Value("${mindforge.rag.vector-store.max-heap-mb:0}")
+    private long maxHeapMb;
+
+    private final Map<VectorStoreKey, Usage> usages = new ConcurrentHashMap<>();
+    private final AtomicLong usedBytes = new AtomicLong();
+
+    private static final class Usage {
+        final long bytes;
+        volatile long lastAccess;
+
+        Usage(long bytes) {
+            this.bytes = bytes;
+            this.lastAccess = System.nanoTime();
+        }
+    }
+
+    public void register(VectorStoreKey key, long bytes) {
+        Usage previous = usages.put(key, new Usage(bytes));
+        usedBytes.addAndGet(bytes - (previous != null ? previous.bytes : 0));
+        log.debug("📏 Vector store '{}' ocupa ~{} KB (total: {} KB).", key, bytes / 1024, usedBytes.get() / 1024);
+    }
+
+    public void touch(VectorStoreKey key) {
+        Usage usage = usages.get(key);
+        if (usage != null) {
+            usage.lastAccess = System.nanoTime();
+        }
+    }
+
+    public void release(VectorStoreKey key) {
+        Usage usage = usages.remove(key);
+        if (usage != null) {
+            usedBytes.addAndGet(-usage.bytes);
+        }
+    }
+
+    public void releaseAll() {
+        usages.clear();
+        usedBytes.set(0);
+    }
+
+    /**
+     * Seleciona, do menos para o mais recentemente usado, os stores que precisam
+     * sair para o total voltar ao orçamento. O store {@code keep} (recém
+     * criado/acessado) nunca é selecionado.
+     */
+    public List<VectorStoreKey> selectEvictions(VectorStoreKey keep) {
+        long maxBytes = getMaxBytes();
+        if (maxBytes <= 0 || usedBytes.get() <= maxBytes) {
+            return List.of();
+        }
+        List<Map.Entry<VectorStoreKey, Usage>> candidates = new ArrayList<>(usages.entrySet());
+        candidates.sort(Comparator.comparingLong(entry -> entry.getValue().lastAccess));
+
+        List<VectorStoreKey> evictions = new ArrayList<>();
+        long projected = usedBytes.get();
+        for (Map.Entry<VectorStoreKey, Usage> entry : candidates) {
+            if (projected <= maxBytes) {
+                break;
+            }
+            if (entry.getKey().equals(keep)) {
+                continue;
+            }
+            evictions.add(entry.getKey());
+            projected -= entry.getValue().bytes;
+        }
+        return evictions;
+    }
+
+    public long getUsedBytes() {
+        return usedBytes.get();
+    }
+
+    public long getMaxBytes() {
+        return maxHeapMb * 1024 * 1024;
+    }
+}
@@ -1,16 +1,31 @@
 package com.matheusdev.mindforge.config;
 
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 
 @Configuration
 @EnableAsync
+@EnableScheduling
+@Slf4j
 public class AsyncConfiguration {
 
+    @Value("${mindforge.ai.executor.virtual-threads:true}")
+    private boolean aiVirtualThreads;
+
+    // Só usado sem virtual threads: I/O bloqueante dos provedores não deve ficar limitado ao número de CPUs
+    @Value("${mindforge.ai.executor.platform-threads:64}")
+    private int aiPlatformThreads;
+
     @Bean(name = "taskExecutor")
     public Executor taskExecutor() {
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
@@ -18,7 +33,28 @@ public class AsyncConfiguration {
         executor.setMaxPoolSize(50);
         executor.setQueueCapacity(100);
         executor.setThreadNamePrefix("MindForge-Async-");
+        executor.setTaskDecorator(ContextPropagatingExecutor.contextPropagatingDecorator());
         executor.initialize();
         return executor;
     }
+
+    /**
+     * Executor de todo o pipeline de IA (providers, etapas da chain e
+     * orquestradores), fora do ForkJoinPool comum e com propagação de
+     * tenant, segurança e MDC.
+     */
+    @Bean(name = "aiExecutor")
+    public ContextPropagatingExecutor aiExecutor() {
+        ExecutorService delegate;
+        if (aiVirtualThreads) {
+            ThreadFactory factory = Thread.ofVirtual().name("MindForge-AI-", 0).factory();
+            delegate = Executors.newThreadPerTaskExecutor(factory);
+        } else {
+            ThreadFactory factory = Thread.ofPlatform().name("MindForge-AI-", 0).daemon(true).factory();
+            delegate = Executors.newFixedThreadPool(Math.max(1, aiPlatformThreads), factory);
+        }
+        log.info("Executor de IA configurado: virtualThreads={}, platformThreads={}", aiVirtualThreads,
+                aiVirtualThreads ? "-" : aiPlatformThreads);
+        return new ContextPropagatingExecutor("ai", delegate, aiVirtualThreads);
+    }
 }
@@ -0,0 +1,221 @@
+package com.matheusdev.mindforge.config;
+
+import com.matheusdev.mindforge.ai.scheduler.AIWorkCall;
+import com.matheusdev.mindforge.ai.scheduler.AIWorkCancellation;
+import com.matheusdev.mindforge.ai.provider.StreamAbortedByClientException;
+import com.matheusdev.mindforge.ai.scheduler.AIWorkCancelledException;
+import com.matheusdev.mindforge.ai.scheduler.AIWorkContext;
+import com.matheusdev.mindforge.ai.scheduler.AIWorkPriority;
+import com.matheusdev.mindforge.core.tenant.context.TenantContext;
+import org.slf4j.MDC;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Executor dedicado ao trabalho assíncrono da camada de IA.
+ * <p>
+ * Captura no momento da submissão o tenant ({@link TenantContext}), o
+ * {@link SecurityContext}, o MDC e a prioridade, o rótulo, o sinal de
+ * cancelamento e a chamada lógica de IA ({@link AIWorkContext}) da thread
+ * chamadora, restaura-os na thread que executa a tarefa e devolve a thread
+ * ao estado anterior ao final. Assim
+ * as etapas encadeadas com {@code thenCompose} enxergam o mesmo tenant sem
+ * propagação manual, e nada vaza para a próxima tarefa da mesma thread.
+ * <p>
+ * Mantém contadores simples (submetidas, ativas, pico, concluídas, falhas e
+ * tempos médios de fila/execução) expostos por {@link #stats()}.
+ */
+public class ContextPropagatingExecutor implements Executor, AutoCloseable {
+
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 10;
+
+    public record Stats(String name, boolean virtualThreads, long submitted, int active, int peakActive,
+            long completed, long failed, double avgQueueWaitMs, double avgRunMs) {
+    }
+
+    private final String name;
+    private final ExecutorService delegate;
+    private final boolean virtualThreads;
+
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder queueWaitNanos = new LongAdder();
+    private final LongAdder runNanos = new LongAdder();
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger peakActive = new AtomicInteger();
+
+    public ContextPropagatingExecutor(String name, ExecutorService delegate, boolean virtualThreads) {
+        this.name = name;
+        this.delegate = delegate;
+        this.virtualThreads = virtualThreads;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        Snapshot snapshot = Snapshot.capture();
+        long enqueuedAt = System.nanoTime();
+        submitted.increment();
+        delegate.execute(() -> {
+            long startedAt = System.nanoTime();
+            queueWaitNanos.add(startedAt - enqueuedAt);
+            peakActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+            try {
+                snapshot.run(task);
+            } catch (RuntimeException | Error e) {
+                failed.increment();
+                throw e;
+            } finally {
+                active.decrementAndGet();
+                runNanos.add(System.nanoTime() - startedAt);
+                completed.increment();
+            }
+        });
+    }
+
+    /**
+     * Equivalente a {@link CompletableFuture#supplyAsync(Supplier, Executor)},
+     * contabilizando como falha a tarefa que termina com exceção (o
+     * CompletableFuture engole a exceção antes que ela chegue ao executor).
+     * Uma tarefa cujo {@link AIWorkCancellation} foi cancelado termina com
+     * {@link AIWorkCancelledException}, qualquer que seja o erro que a
+     * interrupção provocou.
+     */
+    public <T> CompletableFuture<T> supplyAsync(Supplier<T> supplier) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                if (AIWorkContext.isCancelled()) {
+                    throw new AIWorkCancelledException(null);
+                }
+                return supplier.get();
+            } catch (RuntimeException | Error e) {
+                if (AIWorkContext.isCancelled() && !(e instanceof AIWorkCancelledException)) {
+                    throw new AIWorkCancelledException(e);
+                }
+                if (!(e instanceof AIWorkCancelledException) && !(e instanceof StreamAbortedByClientException)) {
+                    failed.increment();
+                }
+                throw e;
+            }
+        }, this);
+    }
+
+    public CompletableFuture<Void> runAsync(Runnable runnable) {
+        return supplyAsync(() -> {
+            runnable.run();
+            return null;
+        });
+    }
+
+    public Stats stats() {
+        long done = Math.max(1, completed.sum());
+        long started = Math.max(1, submitted.sum());
+        return new Stats(name, virtualThreads, submitted.sum(), active.get(), peakActive.get(), completed.sum(),
+                failed.sum(), queueWaitNanos.sum() / 1_000_000.0 / started, runNanos.sum() / 1_000_000.0 / done);
+    }
+
+    /**
+     * Chamado pelo Spring no desligamento: aguarda as tarefas em andamento por
+     * alguns segundos antes de interrompê-las.
+     */
+    @Override
+    public void close() {
+        delegate.shutdown();
+        try {
+            if (!delegate.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                delegate.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            delegate.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Mesma propagação para executores do Spring (ex.: o pool do {@code @Async}).
+     */
+    public static TaskDecorator contextPropagatingDecorator() {
+        return task -> {
+            Snapshot snapshot = Snapshot.capture();
+            return () -> snapshot.run(task);
+        };
+    }
+
+    /**
+     * Contexto capturado na thread chamadora. Público para quem despacha
+     * trabalho a partir de threads de outros requests (ex.: filas próprias)
+     * e precisa reaplicar o contexto de quem enfileirou.
+     */
+    public record Snapshot(Long tenantId, SecurityContext securityContext, Map<String, String> mdc,
+            AIWorkPriority priority, String taskLabel, AIWorkCancellation cancellation, AIWorkCall call) {
+
+        public static Snapshot capture() {
+            SecurityContext current = SecurityContextHolder.getContext();
+            // Cópia: o SecurityContext é mutável e a thread de origem pode limpá-lo ao fim do request
+            SecurityContext copy = SecurityContextHolder.createEmptyContext();
+            copy.setAuthentication(current.getAuthentication());
+            return new Snapshot(TenantContext.getTenantId(), copy, MDC.getCopyOfContextMap(),
+                    AIWorkContext.getExplicitPriority(), AIWorkContext.getExplicitTask(),
+                    AIWorkContext.getCancellation(), AIWorkContext.getCall());
+        }
+
+        public void run(Runnable task) {
+            call(() -> {
+                task.run();
+                return null;
+            });
+        }
+
+        public <T> T call(Supplier<T> task) {
+            Long previousTenant = TenantContext.getTenantId();
+            SecurityContext previousSecurity = SecurityContextHolder.getContext();
+            Map<String, String> previousMdc = MDC.getCopyOfContextMap();
+            AIWorkPriority previousPriority = AIWorkContext.getExplicitPriority();
+            String previousTask = AIWorkContext.getExplicitTask();
+            AIWorkCancellation previousCancellation = AIWorkContext.getCancellation();
+            AIWorkCall previousCall = AIWorkContext.getCall();
+            apply(tenantId, securityContext, mdc);
+            AIWorkContext.setPriority(priority);
+            AIWorkContext.setTask(taskLabel);
+            AIWorkContext.setCancellation(cancellation);
+            AIWorkContext.setCall(call);
+            try {
+                return cancellation != null ? cancellation.run(task) : task.get();
+            } finally {
+                apply(previousTenant, previousSecurity, previousMdc);
+                AIWorkContext.setPriority(previousPriority);
+                AIWorkContext.setTask(previousTask);
+                AIWorkContext.setCancellation(previousCancellation);
+                AIWorkContext.setCall(previousCall);
+            }
+        }
+
+        private static void apply(Long tenantId, SecurityContext securityContext, Map<String, String> mdc) {
+            if (tenantId != null) {
+                TenantContext.setTenantId(tenantId);
+            } else {
+                TenantContext.clear();
+            }
+            if (securityContext.getAuthentication() != null) {
+                SecurityContextHolder.setContext(securityContext);
+            } else {
+                SecurityContextHolder.clearContext();
+            }
+            if (mdc != null) {
+                MDC.setContextMap(mdc);
+            } else {
+                MDC.clear();
+            }
+        }
+    }
+}
@@ -1,32 +1,69 @@
 package com.matheusdev.mindforge.core.config;
 
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.CaffeineSpec;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
-import java.util.concurrent.TimeUnit;
+import java.util.List;
 
+/**
+ * Caches em memória (Caffeine), cada um com a sua política no formato
+ * {@link CaffeineSpec} (o mesmo de {@code spring.cache.caffeine.spec}):
+ * {@code maximumSize}, {@code maximumWeight} (bytes estimados por
+ * {@link CacheWeigher}), {@code expireAfterWrite}, {@code expireAfterAccess}.
+ * Estatísticas são sempre registradas e expostas em GET /v1/ai/runtime/caches.
+ */
 @Configuration
+@Slf4j
 public class CacheConfig {
 
     public static final String AI_PROMPTS_CACHE = "ai-prompts";
     public static final String EMBEDDINGS_CACHE = "embeddings";
     public static final String RAG_RETRIEVAL_CACHE = "rag-retrieval";
 
+    // Respostas de LLM variam de poucos bytes a dezenas de KB: limite por memória (64 MB), não por quantidade
+    @Value("${mindforge.cache.ai-prompts.spec:maximumWeight=67108864,expireAfterAccess=24h}")
+    private String aiPromptsSpec;
+
+    // Vetores pequenos e muito reusados (~3 KB cada): 32 MB, vida longa
+    @Value("${mindforge.cache.embeddings.spec:maximumWeight=33554432,expireAfterAccess=24h}")
+    private String embeddingsSpec;
+
+    // Resultados ficam obsoletos quando o documento é reindexado: TTL curto contado da escrita
+    @Value("${mindforge.cache.rag-retrieval.spec:maximumSize=500,expireAfterWrite=10m}")
+    private String ragRetrievalSpec;
+
     @Bean
     public CacheManager cacheManager() {
-        CaffeineCacheManager cacheManager = new CaffeineCacheManager(AI_PROMPTS_CACHE, EMBEDDINGS_CACHE,
-                RAG_RETRIEVAL_CACHE);
-        cacheManager.setCaffeine(caffeineCacheBuilder());
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        // Modo estático: nomes desconhecidos retornam null em vez de criar caches sem política
+        cacheManager.setCacheNames(List.of());
+        cacheManager.registerCustomCache(AI_PROMPTS_CACHE, caffeineCacheBuilder(AI_PROMPTS_CACHE, aiPromptsSpec).build());
+        cacheManager.registerCustomCache(EMBEDDINGS_CACHE, caffeineCacheBuilder(EMBEDDINGS_CACHE, embeddingsSpec).build());
+        cacheManager.registerCustomCache(RAG_RETRIEVAL_CACHE,
+                caffeineCacheBuilder(RAG_RETRIEVAL_CACHE, ragRetrievalSpec).build());
         return cacheManager;
     }
 
-    Caffeine<Object, Object> caffeineCacheBuilder() {
-        return Caffeine.newBuilder()
-                .expireAfterAccess(24, TimeUnit.HOURS) // Aumentado para 24h (embeddings mudam pouco)
-                .maximumSize(2000) // Aumentado para 2000 itens
-                .recordStats();
+    Caffeine<Object, Object> caffeineCacheBuilder(String name, String spec) {
+        if (spec.contains("refreshAfterWrite")) {
+            // refresh exige um CacheLoader; estes caches são preenchidos por put/@Cacheable e não sabem recarregar
+            throw new IllegalArgumentException("Cache '" + name
+                    + "': refreshAfterWrite não é suportado (sem CacheLoader); use expireAfterWrite");
+        }
+        Caffeine<Object, Object> builder = Caffeine.from(spec);
+        if (spec.contains("maximumWeight")) {
+            builder.weigher(CacheWeigher::weigh);
+        }
+        if (!spec.contains("recordStats")) {
+            builder.recordStats();
+        }
+        log.info("Cache '{}' configurado: {}", name, spec);
+        return builder;
     }
 }
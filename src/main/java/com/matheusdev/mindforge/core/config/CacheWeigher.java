@@ -0,0 +1,59 @@
+package com.matheusdev.mindforge.core.config;
+
+import com.matheusdev.mindforge.ai.provider.dto.AIProviderResponse;
+import com.matheusdev.mindforge.ai.service.model.Evidence;
+
+import java.util.Collection;
+
+/**
+ * Estimativa (aproximada, em bytes) do heap ocupado por uma entrada de cache,
+ * usada como weigher do Caffeine para limitar os caches por memória e não
+ * por quantidade de itens.
+ */
+public final class CacheWeigher {
+
+    // Cabeçalho de objeto + referências; basta a ordem de grandeza
+    private static final int OBJECT_OVERHEAD = 16;
+    private static final int ENTRY_OVERHEAD = 64;
+
+    private CacheWeigher() {
+    }
+
+    public static int weigh(Object key, Object value) {
+        long bytes = ENTRY_OVERHEAD + sizeOf(key) + sizeOf(value);
+        return (int) Math.min(Integer.MAX_VALUE, bytes);
+    }
+
+    static long sizeOf(Object value) {
+        if (value == null) {
+            return 0;
+        }
+        if (value instanceof String text) {
+            // Strings Latin-1 usam 1 byte/char; as demais (acentos fora do Latin-1, emojis) usam 2
+            return OBJECT_OVERHEAD + 24 + text.length() * 2L;
+        }
+        if (value instanceof float[] vector) {
+            return OBJECT_OVERHEAD + vector.length * (long) Float.BYTES;
+        }
+        if (value instanceof byte[] bytes) {
+            return OBJECT_OVERHEAD + bytes.length;
+        }
+        if (value instanceof AIProviderResponse response) {
+            return OBJECT_OVERHEAD + sizeOf(response.getContent()) + sizeOf(response.getError())
+                    + sizeOf(response.getEvidences());
+        }
+        if (value instanceof Evidence evidence) {
+            return OBJECT_OVERHEAD + sizeOf(evidence.documentId()) + sizeOf(evidence.section())
+                    + sizeOf(evidence.contentType()) + sizeOf(evidence.excerpt())
+                    + (evidence.metadata() != null ? evidence.metadata().size() * 96L : 0);
+        }
+        if (value instanceof Collection<?> collection) {
+            long total = OBJECT_OVERHEAD + collection.size() * 8L;
+            for (Object element : collection) {
+                total += sizeOf(element);
+            }
+            return total;
+        }
+        return OBJECT_OVERHEAD + 32;
+    }
+}
@@ -1,5 +1,7 @@
 package com.matheusdev.mindforge.core.config;
 
+import com.matheusdev.mindforge.ai.provider.StreamAbortedByClientException;
+import com.matheusdev.mindforge.ai.scheduler.AIWorkCancelledException;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
 import io.github.resilience4j.core.IntervalFunction;
@@ -24,9 +26,11 @@ public class ResilienceConfig {
         @Bean
         public RetryRegistry retryRegistry() {
                 // Configuração padrão para o Ollama e outros.
+                // Chamada cancelada (ex.: perdeu um hedge) não é repetida
                 RetryConfig defaultConfig = RetryConfig.custom()
                                 .maxAttempts(3)
                                 .waitDuration(Duration.ofMillis(500))
+                                .ignoreExceptions(AIWorkCancelledException.class)
                                 .build();
 
                 RetryRegistry registry = RetryRegistry.of(defaultConfig);
@@ -54,6 +58,8 @@ public class ResilienceConfig {
                                 .failureRateThreshold(50)
                                 .waitDurationInOpenState(Duration.ofMillis(10000))
                                 .slidingWindowSize(10)
+                                // Cancelamento e cliente que fechou o stream não dizem nada sobre a saúde do provedor
+                                .ignoreExceptions(AIWorkCancelledException.class, StreamAbortedByClientException.class)
                                 .build();
                 return CircuitBreakerRegistry.of(config);
         }
@@ -0,0 +1,43 @@
+package com.matheusdev.mindforge.core.tenant.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.matheusdev.mindforge.core.tenant.model.Tenant;
+import com.matheusdev.mindforge.core.tenant.model.TenantPlan;
+import com.matheusdev.mindforge.core.tenant.repository.TenantRepository;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+
+/**
+ * Resolves the plan of a tenant on hot paths (AI scheduling and quotas)
+ * without hitting the database on every call. Plans are cached for a few
+ * minutes, so a plan change takes effect shortly after it is saved.
+ */
+@Service
+public class TenantPlanResolver {
+
+    private static final Duration TTL = Duration.ofMinutes(5);
+
+    private final TenantRepository tenantRepository;
+    private final Cache<Long, TenantPlan> plans = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfterWrite(TTL)
+            .build();
+
+    public TenantPlanResolver(TenantRepository tenantRepository) {
+        this.tenantRepository = tenantRepository;
+    }
+
+    /**
+     * Plan of the given tenant; FREE when there is no tenant or it is unknown.
+     */
+    public TenantPlan planOf(Long tenantId) {
+        if (tenantId == null) {
+            return TenantPlan.FREE;
+        }
+        return plans.get(tenantId, id -> tenantRepository.findById(id)
+                .map(Tenant::getPlan)
+                .orElse(TenantPlan.FREE));
+    }
+}
@@ -1,5 +1,6 @@
 package com.matheusdev.mindforge.knowledgeltem.service;
 
+import com.matheusdev.mindforge.ai.service.ContentIndexingService;
 import com.matheusdev.mindforge.exception.ResourceNotFoundException;
 import com.matheusdev.mindforge.knowledgeltem.model.KnowledgeItem;
 import com.matheusdev.mindforge.knowledgeltem.model.KnowledgeVersion;
@@ -21,6 +22,7 @@ public class KnowledgeBaseService {
     private final WorkspaceRepository workspaceRepository;
     private final com.matheusdev.mindforge.knowledgeltem.mapper.KnowledgeItemMapper mapper;
     private final com.matheusdev.mindforge.knowledgeltem.repository.KnowledgeVersionRepository versionRepository;
+    private final ContentIndexingService contentIndexingService;
 
     public List<KnowledgeItem> getAllKnowledgeItems() {
         Long tenantId = TenantContext.getTenantId();
@@ -41,7 +43,9 @@ public class KnowledgeBaseService {
         Workspace workspace = resolveWorkspace(workspaceId);
         item.setWorkspace(workspace);
         // Tenant listener will set tenant from context on save
-        return repository.save(item);
+        KnowledgeItem saved = repository.save(item);
+        reindex(saved);
+        return saved;
     }
 
     private Workspace resolveWorkspace(String identifier) {
@@ -89,13 +93,23 @@ public class KnowledgeBaseService {
         existingItem.setTitle(item.getTitle());
         existingItem.setContent(item.getContent());
         existingItem.setTags(item.getTags());
-        return repository.save(existingItem);
+        KnowledgeItem saved = repository.save(existingItem);
+        reindex(saved);
+        return saved;
     }
 
     public void deleteItem(Long id) {
         // getItemById already checks tenant
         KnowledgeItem item = getItemById(id);
         repository.delete(item);
+        contentIndexingService.removeKnowledgeItem(TenantContext.getTenantId(), id);
+    }
+
+    /**
+     * Reindexa o item em background, após o commit; só os chunks alterados são re-embedados.
+     */
+    private void reindex(KnowledgeItem item) {
+        contentIndexingService.reindexKnowledgeItem(TenantContext.getTenantId(), item.getId());
     }
 
     public List<KnowledgeItem> searchByTag(String tag) {
@@ -195,6 +209,7 @@ public class KnowledgeBaseService {
         // 5. Update the knowledge item
         item.setContent(newContent);
         KnowledgeItem updated = repository.save(item);
+        reindex(updated);
 
         // 6. Return response
         return mapper.toResponse(updated);
@@ -369,6 +384,7 @@ public class KnowledgeBaseService {
         item.setTitle(version.getTitle());
         item.setContent(version.getContent());
         KnowledgeItem updated = repository.save(item);
+        reindex(updated);
 
         return mapper.toResponse(updated);
     }
@@ -1,5 +1,7 @@
 package com.matheusdev.mindforge.study.note.service;
 
+import com.matheusdev.mindforge.ai.service.ContentIndexingService;
+import com.matheusdev.mindforge.core.tenant.context.TenantContext;
 import com.matheusdev.mindforge.exception.ResourceNotFoundException;
 import com.matheusdev.mindforge.study.note.dto.NoteRequest;
 import com.matheusdev.mindforge.study.note.dto.NoteResponse;
@@ -28,6 +30,7 @@ public class StudyNoteService {
     private final StudyNoteMapper mapper;
     private final com.matheusdev.mindforge.ai.service.AIOrchestrationService aiOrchestrationService;
     private final StudyNoteVersionRepository versionRepository;
+    private final ContentIndexingService contentIndexingService;
 
     @Transactional(readOnly = true)
     public List<NoteResponse> getNotesBySubject(Long subjectId) {
@@ -66,6 +69,7 @@ public class StudyNoteService {
                 com.matheusdev.mindforge.study.note.model.StudyNoteVersion.ChangeType.INITIAL_VERSION,
                 "Initial version");
 
+        reindex(savedNote);
         return mapper.toResponse(savedNote);
     }
 
@@ -80,6 +84,7 @@ public class StudyNoteService {
 
         mapper.updateNoteFromRequest(request, note);
         Note updatedNote = noteRepository.save(note);
+        reindex(updatedNote);
         return mapper.toResponse(updatedNote);
     }
 
@@ -92,6 +97,14 @@ public class StudyNoteService {
         // Implementing manual delete for safety if cascade not configured
         versionRepository.deleteByStudyNoteId(noteId);
         noteRepository.deleteById(noteId);
+        contentIndexingService.removeStudyNote(TenantContext.getTenantId(), noteId);
+    }
+
+    /**
+     * Reindexa a nota em background, após o commit; só os chunks alterados são re-embedados.
+     */
+    private void reindex(Note note) {
+        contentIndexingService.reindexStudyNote(TenantContext.getTenantId(), note.getId());
     }
 
     /**
@@ -183,6 +196,7 @@ public class StudyNoteService {
         // 5. Update the note
         note.setContent(newContent);
         Note updatedNote = noteRepository.save(note);
+        reindex(updatedNote);
 
         return mapper.toResponse(updatedNote);
     }
@@ -269,6 +283,7 @@ public class StudyNoteService {
         note.setContent(version.getContent());
 
         Note updated = noteRepository.save(note);
+        reindex(updated);
         return mapper.toResponse(updated);
     }
 
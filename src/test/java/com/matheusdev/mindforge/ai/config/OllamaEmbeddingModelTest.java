@@ -0,0 +1,22 @@
+package com.matheusdev.mindforge.ai.config;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OllamaEmbeddingModelTest {
+
+    @Test
+    @DisplayName("404 com erro JSON do Ollama (modelo ausente) não é confundido com rota inexistente")
+    void shouldDistinguishOllamaErrorFromMissingRoute() {
+        assertTrue(OllamaEmbeddingModel.isOllamaErrorPayload(
+                "{\"error\":\"model \\\"nomic-embed-text\\\" not found, try pulling it first\"}"));
+
+        assertFalse(OllamaEmbeddingModel.isOllamaErrorPayload("404 page not found"));
+        assertFalse(OllamaEmbeddingModel.isOllamaErrorPayload(""));
+        assertFalse(OllamaEmbeddingModel.isOllamaErrorPayload(null));
+        assertFalse(OllamaEmbeddingModel.isOllamaErrorPayload("{\"message\":\"not found\"}"));
+    }
+}
@@ -0,0 +1,88 @@
+package com.matheusdev.mindforge.ai.embedding.service;
+
+import com.matheusdev.mindforge.ai.embedding.model.EmbeddingCacheEntry;
+import com.matheusdev.mindforge.ai.embedding.repository.EmbeddingCacheEntryRepository;
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.output.Response;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CachingEmbeddingModelTest {
+
+    @Mock
+    private EmbeddingModel delegate;
+
+    @Mock
+    private EmbeddingCacheEntryRepository repository;
+
+    private CachingEmbeddingModel cachingModel;
+
+    @BeforeEach
+    void setUp() {
+        cachingModel = new CachingEmbeddingModel(delegate, "ollama/test-model", new ConcurrentMapCache("embeddings"),
+                repository, true);
+    }
+
+    @Test
+    @DisplayName("Deve chamar o modelo uma única vez por texto distinto e reutilizar o cache em memória")
+    void embedAllShouldDeduplicateAndCache() {
+        when(repository.findAllById(any())).thenReturn(List.of());
+        when(delegate.embedAll(anyList())).thenAnswer(invocation -> {
+            List<TextSegment> segments = invocation.getArgument(0);
+            return Response.from(segments.stream()
+                    .map(segment -> new Embedding(new float[] { segment.text().length(), 1f }))
+                    .toList());
+        });
+
+        List<Embedding> first = cachingModel.embedAll(List.of(
+                TextSegment.from("abc"), TextSegment.from("abcd"), TextSegment.from("abc"))).content();
+        Embedding second = cachingModel.embed("abcd").content();
+
+        assertEquals(3, first.size());
+        assertArrayEquals(new float[] { 3f, 1f }, first.get(0).vector());
+        assertArrayEquals(first.get(0).vector(), first.get(2).vector());
+        assertArrayEquals(new float[] { 4f, 1f }, second.vector());
+        verify(delegate, times(1)).embedAll(argThat(segments -> segments.size() == 2));
+        verify(repository, times(1)).saveAll(anyList());
+    }
+
+    @Test
+    @DisplayName("Deve usar o cache persistente antes de chamar o modelo")
+    void embedShouldUsePersistentTier() {
+        float[] stored = { 0.5f, -0.25f };
+        String hash = cachingModel.contentHash("query");
+        when(repository.findAllById(any())).thenReturn(List.of(
+                new EmbeddingCacheEntry(hash, "ollama/test-model", 2, CachingEmbeddingModel.toBytes(stored))));
+
+        Embedding embedding = cachingModel.embed("query").content();
+
+        assertArrayEquals(stored, embedding.vector());
+        verifyNoInteractions(delegate);
+    }
+
+    @Test
+    @DisplayName("Hash deve depender do texto e da identidade do modelo")
+    void contentHashShouldIncludeModelIdentity() {
+        CachingEmbeddingModel otherModel = new CachingEmbeddingModel(delegate, "ollama/other-model",
+                new ConcurrentMapCache("embeddings"), repository, true);
+
+        assertEquals(cachingModel.contentHash("texto"), cachingModel.contentHash("texto"));
+        assertNotEquals(cachingModel.contentHash("texto"), cachingModel.contentHash("texto2"));
+        assertNotEquals(cachingModel.contentHash("texto"), otherModel.contentHash("texto"));
+    }
+}
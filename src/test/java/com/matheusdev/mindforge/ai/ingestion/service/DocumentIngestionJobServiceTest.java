@@ -0,0 +1,140 @@
+package com.matheusdev.mindforge.ai.ingestion.service;
+
+import com.matheusdev.mindforge.ai.ingestion.dto.IngestionJobResponse;
+import com.matheusdev.mindforge.ai.ingestion.model.IngestionJob;
+import com.matheusdev.mindforge.ai.ingestion.model.IngestionJobStatus;
+import com.matheusdev.mindforge.ai.ingestion.repository.IngestionJobRepository;
+import com.matheusdev.mindforge.ai.provider.dto.AIProviderResponse;
+import com.matheusdev.mindforge.ai.scheduler.AIWorkContext;
+import com.matheusdev.mindforge.ai.service.orchestrator.DocumentAnalysisOrchestrator;
+import com.matheusdev.mindforge.core.tenant.context.TenantContext;
+import com.matheusdev.mindforge.document.service.FileStorageService;
+import com.matheusdev.mindforge.exception.ResourceNotFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DocumentIngestionJobServiceTest {
+
+    @Mock
+    private IngestionJobRepository repository;
+
+    @Mock
+    private FileStorageService fileStorageService;
+
+    @Mock
+    private DocumentAnalysisOrchestrator documentAnalysisOrchestrator;
+
+    private DocumentIngestionJobService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new DocumentIngestionJobService(repository, fileStorageService, documentAnalysisOrchestrator, 2, 3,
+                120);
+        TenantContext.setTenantId(7L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+        TenantContext.clear();
+    }
+
+    @Test
+    @DisplayName("Deve gravar o arquivo e enfileirar o job retornando o id imediatamente")
+    void shouldPersistQueuedJobOnSubmit() throws Exception {
+        MockMultipartFile file = new MockMultipartFile("file", "relatorio.pdf", "application/pdf", new byte[] { 1 });
+        when(fileStorageService.storeFile(file)).thenReturn("stored.pdf");
+        when(repository.findByStatusOrderByCreatedAtAsc(eq(IngestionJobStatus.QUEUED), any())).thenReturn(List.of());
+
+        IngestionJobResponse response = service.submit(file, "Resuma", null);
+
+        ArgumentCaptor<IngestionJob> captor = ArgumentCaptor.forClass(IngestionJob.class);
+        verify(repository).save(captor.capture());
+        IngestionJob saved = captor.getValue();
+        assertEquals(IngestionJobStatus.QUEUED, response.status());
+        assertEquals(saved.getId(), response.jobId());
+        assertEquals(7L, saved.getTenantId());
+        assertEquals("stored.pdf", saved.getStoredFileName());
+        verifyNoInteractions(documentAnalysisOrchestrator);
+    }
+
+    @Test
+    @DisplayName("O worker deve executar a análise com prioridade de background, no tenant do job")
+    void workerShouldRunAnalysisAsBackgroundWork() throws Exception {
+        IngestionJob job = staleJob("c", 1);
+        job.setTenantId(9L);
+        job.setStatus(IngestionJobStatus.QUEUED);
+        when(repository.findByStatusOrderByCreatedAtAsc(eq(IngestionJobStatus.QUEUED), any()))
+                .thenReturn(List.of(job)).thenReturn(List.of());
+        when(repository.claim(eq("c"), any())).thenReturn(1);
+        when(repository.findById("c")).thenReturn(Optional.of(job));
+        when(fileStorageService.loadFileAsBytes("c.pdf")).thenReturn(new byte[] { 1 });
+        AtomicReference<String> seen = new AtomicReference<>();
+        when(documentAnalysisOrchestrator.handleFileAnalysis(any(), any(), any(), any())).thenAnswer(inv -> {
+            seen.set(AIWorkContext.getPriority() + "/" + AIWorkContext.getTask() + "/" + TenantContext.getTenantId());
+            return CompletableFuture.completedFuture(new AIProviderResponse("ok", null, null, null, null));
+        });
+
+        service.poll();
+
+        verify(fileStorageService, timeout(5000)).deleteFile("c.pdf");
+        assertEquals("BACKGROUND/document-ingestion/9", seen.get());
+    }
+
+    @Test
+    @DisplayName("Deve devolver à fila jobs sem heartbeat e falhar os que excederam as tentativas")
+    void shouldRecoverStaleJobs() {
+        IngestionJob retriable = staleJob("a", 1);
+        IngestionJob exhausted = staleJob("b", 3);
+        when(repository.findByStatusAndHeartbeatAtBefore(eq(IngestionJobStatus.RUNNING), any()))
+                .thenReturn(List.of(retriable, exhausted));
+        when(repository.findById("b")).thenReturn(Optional.of(exhausted));
+        when(repository.findByStatusOrderByCreatedAtAsc(eq(IngestionJobStatus.QUEUED), any())).thenReturn(List.of());
+
+        service.poll();
+
+        verify(repository).requeueIfStale(eq("a"), any());
+        verify(repository, never()).requeueIfStale(eq("b"), any());
+        assertEquals(IngestionJobStatus.FAILED, exhausted.getStatus());
+        // O arquivo temporário do job abandonado não fica órfão no storage
+        verify(fileStorageService).deleteFile("b.pdf");
+        verify(fileStorageService, never()).deleteFile("a.pdf");
+    }
+
+    @Test
+    @DisplayName("Deve lançar exceção ao consultar job de outro tenant")
+    void shouldNotExposeJobsFromOtherTenants() {
+        when(repository.findByIdAndTenantId("x", 7L)).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class, () -> service.getJob("x"));
+    }
+
+    private static IngestionJob staleJob(String id, int attempts) {
+        IngestionJob job = new IngestionJob();
+        job.setId(id);
+        job.setStatus(IngestionJobStatus.RUNNING);
+        job.setAttempts(attempts);
+        job.setStoredFileName(id + ".pdf");
+        job.setHeartbeatAt(LocalDateTime.now().minusHours(1));
+        return job;
+    }
+}
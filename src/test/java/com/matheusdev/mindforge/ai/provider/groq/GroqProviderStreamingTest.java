@@ -0,0 +1,125 @@
+package com.matheusdev.mindforge.ai.provider.groq;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.matheusdev.mindforge.ai.provider.StreamAbortedByClientException;
+import com.matheusdev.mindforge.ai.provider.dto.AIProviderRequest;
+import com.matheusdev.mindforge.ai.provider.dto.AIProviderResponse;
+import com.matheusdev.mindforge.ai.quota.AIQuotaService;
+import com.matheusdev.mindforge.ai.routing.ProviderTelemetry;
+import com.matheusdev.mindforge.ai.scheduler.AIWorkScheduler;
+import com.matheusdev.mindforge.config.ContextPropagatingExecutor;
+import com.matheusdev.mindforge.core.config.ResilienceConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class GroqProviderStreamingTest {
+
+    private static final String API_URL = "http://groq.test/openai/v1/chat/completions";
+
+    private final RestTemplate restTemplate = new RestTemplate();
+    private final MockRestServiceServer server = MockRestServiceServer.bindTo(restTemplate).build();
+    private final GroqTokenBudgetManager budgetManager = mock(GroqTokenBudgetManager.class);
+    private final AIWorkScheduler workScheduler = mock(AIWorkScheduler.class);
+    private final AIQuotaService quotaService = mock(AIQuotaService.class);
+    private final ProviderTelemetry telemetry = mock(ProviderTelemetry.class);
+    private final ContextPropagatingExecutor executor = new ContextPropagatingExecutor("groq-test",
+            Executors.newVirtualThreadPerTaskExecutor(), true);
+    private final AIProviderRequest request = AIProviderRequest.builder().textPrompt("Oi").build();
+    private GroqProvider provider;
+
+    @BeforeEach
+    void setUp() {
+        when(workScheduler.gated(any(), any())).thenAnswer(invocation -> invocation.getArgument(1));
+        when(budgetManager.reserve(anyInt())).thenReturn(1L);
+        provider = new GroqProvider(restTemplate, new ObjectMapper(), budgetManager, executor, workScheduler,
+                quotaService, telemetry);
+        ReflectionTestUtils.setField(provider, "apiUrl", API_URL);
+        ReflectionTestUtils.setField(provider, "apiKey", "chave");
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.close();
+    }
+
+    private void respondWith(String sse) {
+        server.expect(requestTo(API_URL)).andExpect(header("Authorization", "Bearer chave"))
+                .andRespond(withSuccess(sse, MediaType.TEXT_EVENT_STREAM));
+    }
+
+    @Test
+    @DisplayName("SSE: repassa cada delta, ignora comentários e usa o uso de tokens do último evento")
+    void shouldParseSseStream() throws Exception {
+        respondWith("""
+                : keep-alive
+
+                data: {"choices":[{"delta":{"role":"assistant"}}]}
+
+                data: {"choices":[{"delta":{"content":"Olá"}}]}
+
+                data: {"choices":[{"delta":{"content":", mundo"}}]}
+
+                data: {"choices":[{"delta":{},"finish_reason":"stop"}],"x_groq":{"usage":{"total_tokens":42}}}
+
+                data: [DONE]
+
+                data: {"choices":[{"delta":{"content":"ignorado"}}]}
+                """);
+        List<String> tokens = new ArrayList<>();
+
+        AIProviderResponse response = provider.executeTaskStreaming(request, tokens::add).get(5, TimeUnit.SECONDS);
+
+        assertEquals(List.of("Olá", ", mundo"), tokens);
+        assertEquals("Olá, mundo", response.getContent());
+        verify(budgetManager).reconcile(1L, 42);
+        verify(quotaService).record(ResilienceConfig.GROQ_INSTANCE, 42);
+        verify(telemetry).observe(eq(ResilienceConfig.GROQ_INSTANCE), any(), anyInt(), anyLong(), eq(true));
+        server.verify();
+    }
+
+    @Test
+    @DisplayName("Cliente que fecha o stream: budget acertado, sem falha na telemetria nem resposta de erro")
+    void clientAbortShouldNotBeProviderFailure() {
+        respondWith("""
+                data: {"choices":[{"delta":{"content":"Olá"}}]}
+
+                data: {"choices":[{"delta":{"content":", mundo"}}]}
+
+                data: [DONE]
+                """);
+
+        CompletableFuture<AIProviderResponse> call = provider.executeTaskStreaming(request, token -> {
+            throw new StreamAbortedByClientException(null);
+        });
+
+        ExecutionException error = assertThrows(ExecutionException.class, () -> call.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(StreamAbortedByClientException.class, error.getCause());
+        verify(budgetManager).reconcile(eq(1L), anyInt());
+        verify(telemetry, never()).observe(any(), any(), anyInt(), anyLong(), anyBoolean());
+        assertTrue(new ResilienceConfig().circuitBreakerRegistry().getDefaultConfig()
+                .getIgnoreExceptionPredicate().test(error.getCause()));
+        assertTrue(provider.streamingFallback(request, token -> {
+        }, error.getCause()).isCompletedExceptionally());
+    }
+}
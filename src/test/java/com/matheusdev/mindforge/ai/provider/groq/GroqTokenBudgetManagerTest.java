@@ -0,0 +1,121 @@
+package com.matheusdev.mindforge.ai.provider.groq;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GroqTokenBudgetManagerTest {
+
+    private static final long BASE = 1_700_000_000_000L;
+
+    private final AtomicLong clock = new AtomicLong(BASE);
+
+    private GroqTokenBudgetManager manager(long maxWaitMillis, int maxWaiters) {
+        // Limite efetivo: 6000 - 500 = 5500 tokens por minuto
+        return new GroqTokenBudgetManager(6000, 500, true, maxWaitMillis, maxWaiters, clock::get);
+    }
+
+    @Test
+    @DisplayName("Reservas concorrentes nunca devem ultrapassar o limite da janela")
+    void concurrentReservationsShouldNeverExceedLimit() throws Exception {
+        GroqTokenBudgetManager budget = manager(0, 0);
+        AtomicInteger admitted = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<CompletableFuture<Void>> calls = new ArrayList<>();
+        try (ExecutorService pool = Executors.newFixedThreadPool(16)) {
+            for (int i = 0; i < 50; i++) {
+                calls.add(CompletableFuture.runAsync(() -> {
+                    try {
+                        start.await();
+                        budget.reserve(1000);
+                        admitted.incrementAndGet();
+                    } catch (GroqBudgetExceededException | InterruptedException ignored) {
+                        // fora do orçamento
+                    }
+                }, pool));
+            }
+            start.countDown();
+            CompletableFuture.allOf(calls.toArray(CompletableFuture[]::new)).get(10, TimeUnit.SECONDS);
+        }
+
+        assertEquals(5, admitted.get());
+        assertEquals(5000, budget.getCurrentUsage());
+    }
+
+    @Test
+    @DisplayName("Deve devolver à janela a diferença entre a reserva e o uso real")
+    void reconcileShouldRefundUnusedTokens() {
+        GroqTokenBudgetManager budget = manager(0, 0);
+
+        long ticket = budget.reserve(3000);
+        assertEquals(2500, budget.getAvailableBudget());
+
+        budget.reconcile(ticket, 1200);
+        assertEquals(4300, budget.getAvailableBudget());
+
+        // Uso acima da estimativa é cobrado
+        budget.reconcile(budget.reserve(1000), 1500);
+        assertEquals(2800, budget.getAvailableBudget());
+    }
+
+    @Test
+    @DisplayName("Deve informar quando o espaço libera e liberar após a janela de um minuto")
+    void shouldReportRetryAfterAndExpireWindow() {
+        GroqTokenBudgetManager budget = manager(0, 0);
+        budget.reserve(5000);
+
+        clock.set(BASE + 30_000);
+        GroqBudgetExceededException e = assertThrows(GroqBudgetExceededException.class,
+                () -> budget.reserve(1000));
+        assertEquals(Duration.ofSeconds(30), e.getRetryAfter());
+
+        clock.set(BASE + 60_000);
+        assertEquals(5500, budget.getAvailableBudget());
+        assertDoesNotThrow(() -> budget.reserve(5500));
+    }
+
+    @Test
+    @DisplayName("Deve aguardar na fila até a janela liberar espaço")
+    void shouldWaitForCapacity() throws Exception {
+        GroqTokenBudgetManager budget = manager(5_000, 4);
+        budget.reserve(5500);
+        clock.set(BASE + 59_800);
+
+        CompletableFuture<Long> waiter = CompletableFuture.supplyAsync(() -> budget.reserve(2000));
+        Thread.sleep(50);
+        assertFalse(waiter.isDone());
+
+        clock.set(BASE + 60_100);
+        assertNotEquals(0L, waiter.get(5, TimeUnit.SECONDS));
+        assertEquals(2000, budget.getCurrentUsage());
+    }
+
+    @Test
+    @DisplayName("Deve recusar de imediato quando a fila de espera está cheia ou a espera passa do limite")
+    void shouldRejectWhenQueueFullOrWaitTooLong() {
+        GroqTokenBudgetManager noQueue = manager(5_000, 0);
+        noQueue.reserve(5500);
+        clock.set(BASE + 59_000);
+        assertThrows(GroqBudgetExceededException.class, () -> noQueue.reserve(100));
+
+        clock.set(BASE);
+        GroqTokenBudgetManager shortWait = manager(500, 4);
+        shortWait.reserve(5500);
+        clock.set(BASE + 59_000);
+        GroqBudgetExceededException e = assertThrows(GroqBudgetExceededException.class,
+                () -> shortWait.reserve(100));
+        assertEquals(Duration.ofSeconds(1), e.getRetryAfter());
+    }
+}
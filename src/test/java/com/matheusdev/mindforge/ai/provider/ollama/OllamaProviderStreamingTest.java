@@ -0,0 +1,137 @@
+package com.matheusdev.mindforge.ai.provider.ollama;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.matheusdev.mindforge.ai.provider.StreamAbortedByClientException;
+import com.matheusdev.mindforge.ai.provider.dto.AIProviderRequest;
+import com.matheusdev.mindforge.ai.provider.dto.AIProviderResponse;
+import com.matheusdev.mindforge.ai.provider.groq.GroqProvider;
+import com.matheusdev.mindforge.ai.quota.AIQuotaService;
+import com.matheusdev.mindforge.ai.routing.ProviderTelemetry;
+import com.matheusdev.mindforge.ai.scheduler.AIWorkScheduler;
+import com.matheusdev.mindforge.config.ContextPropagatingExecutor;
+import com.matheusdev.mindforge.core.config.ResilienceConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class OllamaProviderStreamingTest {
+
+    private static final String API_URL = "http://ollama.test/api/chat";
+
+    private final RestTemplate restTemplate = new RestTemplate();
+    private final MockRestServiceServer server = MockRestServiceServer.bindTo(restTemplate).build();
+    private final GroqProvider groqProvider = mock(GroqProvider.class);
+    private final AIWorkScheduler workScheduler = mock(AIWorkScheduler.class);
+    private final AIQuotaService quotaService = mock(AIQuotaService.class);
+    private final ProviderTelemetry telemetry = mock(ProviderTelemetry.class);
+    private final ContextPropagatingExecutor executor = new ContextPropagatingExecutor("ollama-test",
+            Executors.newVirtualThreadPerTaskExecutor(), true);
+    private final AIProviderRequest request = AIProviderRequest.builder().textPrompt("Oi").build();
+    private OllamaProvider provider;
+
+    @BeforeEach
+    void setUp() {
+        when(workScheduler.gated(any(), any())).thenAnswer(invocation -> invocation.getArgument(1));
+        when(telemetry.timed(any(), any(), anyInt(), any())).thenAnswer(invocation -> invocation.getArgument(3));
+        provider = new OllamaProvider(restTemplate, groqProvider, executor, workScheduler, quotaService, telemetry,
+                new ObjectMapper());
+        ReflectionTestUtils.setField(provider, "apiUrl", API_URL);
+        ReflectionTestUtils.setField(provider, "model", "qwen3:4b");
+        ReflectionTestUtils.setField(provider, "visionModel", "qwen3-vl:4b");
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.close();
+    }
+
+    private void respondWith(String ndjson) {
+        server.expect(requestTo(API_URL)).andExpect(method(HttpMethod.POST))
+                .andRespond(withSuccess(ndjson, MediaType.APPLICATION_NDJSON));
+    }
+
+    @Test
+    @DisplayName("NDJSON: repassa cada pedaço, ignora linhas vazias e para no done")
+    void shouldParseNdjsonStream() throws Exception {
+        respondWith("""
+                {"model":"qwen3:4b","message":{"role":"assistant","content":"Olá"},"done":false}
+
+                {"model":"qwen3:4b","message":{"role":"assistant","content":""},"done":false}
+                {"model":"qwen3:4b","message":{"role":"assistant","content":", mundo"},"done":false}
+                {"model":"qwen3:4b","message":{"role":"assistant","content":""},"done":true}
+                {"model":"qwen3:4b","message":{"role":"assistant","content":"ignorado"},"done":false}
+                """);
+        List<String> tokens = new ArrayList<>();
+
+        AIProviderResponse response = provider.executeTaskStreaming(request, tokens::add).get(5, TimeUnit.SECONDS);
+
+        assertEquals(List.of("Olá", ", mundo"), tokens);
+        assertEquals("Olá, mundo", response.getContent());
+        verify(quotaService).record(eq(ResilienceConfig.OLLAMA_INSTANCE), anyLong());
+        server.verify();
+    }
+
+    @Test
+    @DisplayName("NDJSON: erro do Ollama antes do primeiro token falha sem conteúdo parcial")
+    void shouldFailOnErrorChunkBeforeFirstToken() {
+        respondWith("""
+                {"error":"model not found"}
+                """);
+
+        ExecutionException error = assertThrows(ExecutionException.class,
+                () -> provider.executeTaskStreaming(request, token -> {
+                }).get(5, TimeUnit.SECONDS));
+
+        assertInstanceOf(IllegalStateException.class, error.getCause());
+        assertTrue(error.getCause().getMessage().contains("model not found"));
+    }
+
+    @Test
+    @DisplayName("Cliente que fecha o stream aborta a leitura sem contar como falha nem redirecionar ao Groq")
+    void clientAbortShouldNotBeProviderFailure() {
+        respondWith("""
+                {"message":{"role":"assistant","content":"Olá"},"done":false}
+                {"message":{"role":"assistant","content":", mundo"},"done":false}
+                {"message":{"role":"assistant","content":"!"},"done":true}
+                """);
+        List<String> delivered = new ArrayList<>();
+
+        CompletableFuture<AIProviderResponse> call = provider.executeTaskStreaming(request, token -> {
+            if (!delivered.isEmpty()) {
+                throw new StreamAbortedByClientException(null);
+            }
+            delivered.add(token);
+        });
+
+        ExecutionException error = assertThrows(ExecutionException.class, () -> call.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(StreamAbortedByClientException.class, error.getCause());
+        assertEquals(List.of("Olá"), delivered);
+
+        // O circuit breaker ignora o abort, e o fallback não troca de provedor
+        assertTrue(new ResilienceConfig().circuitBreakerRegistry().getDefaultConfig()
+                .getIgnoreExceptionPredicate().test(error.getCause()));
+        assertTrue(provider.streamingFallback(request, token -> {
+        }, error.getCause()).isCompletedExceptionally());
+        verifyNoInteractions(groqProvider);
+    }
+}
@@ -0,0 +1,156 @@
+package com.matheusdev.mindforge.ai.quota;
+
+import com.matheusdev.mindforge.ai.provider.AIProvider;
+import com.matheusdev.mindforge.ai.provider.dto.AIProviderRequest;
+import com.matheusdev.mindforge.ai.provider.dto.AIProviderResponse;
+import com.matheusdev.mindforge.ai.quota.repository.AIUsageRecordRepository;
+import com.matheusdev.mindforge.ai.scheduler.AIWorkContext;
+import com.matheusdev.mindforge.config.ContextPropagatingExecutor;
+import com.matheusdev.mindforge.core.tenant.context.TenantContext;
+import com.matheusdev.mindforge.core.tenant.model.TenantPlan;
+import com.matheusdev.mindforge.core.tenant.service.TenantPlanResolver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+class AIQuotaAspectTest {
+
+    private final AIQuotaService quotaService = mock(AIQuotaService.class);
+    private final AIQuotaAspect aspect = new AIQuotaAspect(quotaService);
+    private final ContextPropagatingExecutor executor = new ContextPropagatingExecutor("quota-test",
+            Executors.newVirtualThreadPerTaskExecutor(), true);
+    private final AIProviderRequest request = AIProviderRequest.builder().textPrompt("Resuma o texto").build();
+
+    @AfterEach
+    void tearDown() {
+        TenantContext.clear();
+        AIWorkContext.clear();
+        executor.close();
+    }
+
+    /**
+     * Provedor com o aspecto aplicado, como o bean do Spring. Responde de
+     * forma assíncrona pelo executor de IA, como os provedores reais.
+     */
+    private AIProvider provider(Function<AIProviderRequest, CompletableFuture<AIProviderResponse>> behavior) {
+        AspectJProxyFactory factory = new AspectJProxyFactory(new FakeProvider(behavior));
+        factory.addAspect(aspect);
+        return factory.getProxy();
+    }
+
+    private AIProvider answering(String content) {
+        return provider(req -> executor.supplyAsync(() -> new AIProviderResponse(content, null, null, null, null)));
+    }
+
+    @Test
+    @DisplayName("Fallback para outro provedor é cobrado junto com a chamada original, não de novo")
+    void shouldAdmitFallbackOnceWithOriginalCall() throws Exception {
+        AIProvider backup = answering("backup");
+        // O primário falha e cai no fallback (assíncrono, como o do Resilience4j), que chama o outro provedor
+        AIProvider primary = provider(req -> executor.<AIProviderResponse>supplyAsync(() -> {
+            throw new IllegalStateException("indisponível");
+        }).exceptionallyCompose(error -> backup.executeTask(req)));
+
+        assertEquals("backup", primary.executeTask(request).get(5, TimeUnit.SECONDS).getContent());
+        verify(quotaService, times(1)).admit(anyInt());
+
+        // Terminada a chamada lógica, a próxima (mesmo encadeada no resultado) é cobrada de novo
+        primary.executeTask(request).thenCompose(response -> backup.executeTask(request)).get(5, TimeUnit.SECONDS);
+        verify(quotaService, times(3)).admit(anyInt());
+    }
+
+    @Test
+    @DisplayName("Chamadas compostas (trechos, retentativas, backup do hedge) são cobradas uma vez por chamada lógica")
+    void shouldAdmitComposedCallOnce() throws Exception {
+        AIProvider provider = answering("ok");
+
+        List<String> results = AIWorkContext.callAsOneCall(() -> {
+            List<CompletableFuture<AIProviderResponse>> shards = IntStream.range(0, 8)
+                    .mapToObj(i -> executor.supplyAsync(() -> provider.executeTask(request)).thenCompose(f -> f))
+                    .toList();
+            return CompletableFuture.allOf(shards.toArray(CompletableFuture[]::new))
+                    .thenApply(done -> shards.stream().map(shard -> shard.join().getContent()).toList());
+        }).get(5, TimeUnit.SECONDS);
+
+        assertEquals(8, results.size());
+        verify(quotaService, times(1)).admit(anyInt());
+        // As demais chamadas internas não contam requisição, mas conferem os tokens do dia
+        verify(quotaService, times(7)).checkDailyTokens(anyInt());
+    }
+
+    @Test
+    @DisplayName("Chamadas internas de uma chamada lógica param quando os tokens do dia se esgotam")
+    void shouldEnforceDailyTokensOnNestedCalls() throws Exception {
+        TenantPlanResolver planResolver = mock(TenantPlanResolver.class);
+        when(planResolver.planOf(1L)).thenReturn(TenantPlan.FREE);
+        AIQuotaService realQuota = new AIQuotaService(planResolver, mock(AIUsageRecordRepository.class), true,
+                Map.of(TenantPlan.FREE, new AIQuotaService.Limits(1000, 3)), () -> 1_700_000_000_000L);
+        AIQuotaAspect realAspect = new AIQuotaAspect(realQuota);
+        AspectJProxyFactory factory = new AspectJProxyFactory(new FakeProvider(req -> executor.supplyAsync(() -> {
+            // Cada trecho consome 300 tokens, como o registro de uso dos provedores reais
+            realQuota.record("fake", 300);
+            return new AIProviderResponse("ok", null, null, null, null);
+        })));
+        factory.addAspect(realAspect);
+        AIProvider provider = factory.getProxy();
+        TenantContext.setTenantId(1L);
+
+        List<AIProviderResponse> responses = AIWorkContext.callAsOneCall(() -> {
+            CompletableFuture<List<AIProviderResponse>> chain = CompletableFuture.completedFuture(List.of());
+            for (int i = 0; i < 6; i++) {
+                chain = chain.thenCompose(done -> provider.executeTask(request).thenApply(response -> {
+                    List<AIProviderResponse> all = new ArrayList<>(done);
+                    all.add(response);
+                    return all;
+                }));
+            }
+            return chain;
+        }).get(5, TimeUnit.SECONDS);
+
+        // Uma única requisição no minuto, mas só os trechos que cabem nos 1000 tokens do dia
+        assertEquals(4, responses.stream().filter(response -> response.getError() == null).count());
+        assertEquals(2, responses.stream().filter(response -> response.getError() != null).count());
+        assertEquals(2, realQuota.status(1L).requestsRemainingThisMinute());
+    }
+
+    @Test
+    @DisplayName("Chamada recusada pela cota não conta como admitida: a próxima tentativa é cobrada de novo")
+    void shouldChargeAgainAfterRefusal() throws Exception {
+        doThrow(new AIQuotaExceededException(1L, TenantPlan.FREE, "requisições por minuto", Duration.ofSeconds(30)))
+                .doNothing()
+                .when(quotaService).admit(anyInt());
+        AIProvider provider = answering("ok");
+
+        List<AIProviderResponse> responses = AIWorkContext.callAsOneCall(() -> provider.executeTask(request)
+                .thenCompose(refused -> provider.executeTask(request).thenApply(ok -> List.of(refused, ok))))
+                .get(5, TimeUnit.SECONDS);
+
+        assertNotNull(responses.get(0).getError());
+        assertEquals("ok", responses.get(1).getContent());
+        verify(quotaService, times(2)).admit(anyInt());
+    }
+
+    private record FakeProvider(Function<AIProviderRequest, CompletableFuture<AIProviderResponse>> behavior)
+            implements AIProvider {
+
+        @Override
+        public CompletableFuture<AIProviderResponse> executeTask(AIProviderRequest request) {
+            return behavior.apply(request);
+        }
+    }
+}
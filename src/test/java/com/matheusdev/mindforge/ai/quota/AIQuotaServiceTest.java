@@ -0,0 +1,132 @@
+package com.matheusdev.mindforge.ai.quota;
+
+import com.matheusdev.mindforge.ai.quota.model.AIUsageRecord;
+import com.matheusdev.mindforge.ai.quota.repository.AIUsageRecordRepository;
+import com.matheusdev.mindforge.ai.scheduler.AIWorkContext;
+import com.matheusdev.mindforge.ai.scheduler.AIWorkPriority;
+import com.matheusdev.mindforge.core.tenant.context.TenantContext;
+import com.matheusdev.mindforge.core.tenant.model.TenantPlan;
+import com.matheusdev.mindforge.core.tenant.service.TenantPlanResolver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class AIQuotaServiceTest {
+
+    // 2023-11-14T22:13:20Z
+    private static final long BASE = 1_700_000_000_000L;
+    private static final LocalDate TODAY = LocalDate.of(2023, 11, 14);
+
+    private final AtomicLong clock = new AtomicLong(BASE);
+    private final TenantPlanResolver planResolver = mock(TenantPlanResolver.class);
+    private final AIUsageRecordRepository repository = mock(AIUsageRecordRepository.class);
+    private AIQuotaService quotaService;
+
+    @BeforeEach
+    void setUp() {
+        when(planResolver.planOf(1L)).thenReturn(TenantPlan.FREE);
+        when(planResolver.planOf(2L)).thenReturn(TenantPlan.FREE);
+        when(planResolver.planOf(3L)).thenReturn(TenantPlan.ENTERPRISE);
+        quotaService = new AIQuotaService(planResolver, repository, true, Map.of(
+                TenantPlan.FREE, new AIQuotaService.Limits(1000, 3),
+                TenantPlan.PRO, new AIQuotaService.Limits(10_000, 30),
+                TenantPlan.ENTERPRISE, new AIQuotaService.Limits(-1, -1)), clock::get);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TenantContext.clear();
+        AIWorkContext.clear();
+    }
+
+    @Test
+    @DisplayName("Deve recusar só o tenant que esgotou os tokens do dia, até a virada do dia")
+    void shouldRejectOnlyTenantOverDailyTokens() {
+        TenantContext.setTenantId(1L);
+        quotaService.admit(100);
+        quotaService.record("groqProvider", 950);
+
+        AIQuotaExceededException e = assertThrows(AIQuotaExceededException.class, () -> quotaService.admit(100));
+        assertEquals(TenantPlan.FREE, e.getPlan());
+        assertEquals(Duration.ofMillis(86_400_000L - BASE % 86_400_000L), e.getRetryAfter());
+
+        // O vizinho no mesmo plano não é afetado
+        TenantContext.setTenantId(2L);
+        assertDoesNotThrow(() -> quotaService.admit(100));
+
+        // Novo dia, cota renovada
+        TenantContext.setTenantId(1L);
+        clock.set(BASE + Duration.ofHours(2).toMillis());
+        assertDoesNotThrow(() -> quotaService.admit(100));
+    }
+
+    @Test
+    @DisplayName("Deve limitar requisições por minuto conforme o plano e ignorar tarefas sem tenant")
+    void shouldLimitRequestsPerMinute() {
+        TenantContext.setTenantId(1L);
+        for (int i = 0; i < 3; i++) {
+            quotaService.admit(1);
+        }
+        assertThrows(AIQuotaExceededException.class, () -> quotaService.admit(1));
+        assertEquals(0, quotaService.status(1L).requestsRemainingThisMinute());
+
+        clock.addAndGet(60_000);
+        assertDoesNotThrow(() -> quotaService.admit(1));
+
+        TenantContext.setTenantId(3L);
+        for (int i = 0; i < 100; i++) {
+            quotaService.admit(1_000_000);
+        }
+
+        TenantContext.clear();
+        assertDoesNotThrow(() -> quotaService.admit(Integer.MAX_VALUE));
+    }
+
+    @Test
+    @DisplayName("Deve agregar o uso por provedor e tarefa e somar os deltas no banco")
+    void shouldAggregateUsageAndFlushDeltas() {
+        when(repository.sumTokens(1L, TODAY)).thenReturn(200L);
+        TenantContext.setTenantId(1L);
+        quotaService.record("groqProvider", 100);
+        quotaService.record("groqProvider", 50);
+        AIWorkContext.callAs(AIWorkPriority.BACKGROUND, "quiz", () -> {
+            quotaService.record("ollamaProvider", 30);
+            return null;
+        });
+
+        AIQuotaService.QuotaStatus status = quotaService.status(1L);
+        assertEquals(380, status.tokensUsedToday());
+        assertEquals(620, status.tokensRemaining());
+        assertEquals(3, status.requestsRemainingThisMinute());
+
+        assertEquals(List.of(new AIQuotaService.UsageLine("groqProvider", "interactive", 2, 150)),
+                quotaService.usageToday(1L).stream().filter(line -> line.provider().equals("groqProvider")).toList());
+
+        // Linha do Groq já existe; a do Ollama é criada
+        when(repository.addUsage(eq(1L), eq(TODAY), eq("groqProvider"), eq("interactive"), anyLong(), anyLong()))
+                .thenReturn(1);
+        quotaService.flush();
+
+        verify(repository).addUsage(1L, TODAY, "groqProvider", "interactive", 2, 150);
+        ArgumentCaptor<AIUsageRecord> created = ArgumentCaptor.forClass(AIUsageRecord.class);
+        verify(repository).save(created.capture());
+        assertEquals("quiz", created.getValue().getTaskType());
+        assertEquals(30, created.getValue().getTokens());
+
+        // Nada pendente: o flush seguinte não grava de novo
+        quotaService.flush();
+        verify(repository, times(1)).save(any());
+    }
+}
@@ -0,0 +1,126 @@
+package com.matheusdev.mindforge.ai.routing;
+
+import com.matheusdev.mindforge.ai.provider.groq.GroqTokenBudgetManager;
+import com.matheusdev.mindforge.ai.scheduler.AIWorkPriority;
+import com.matheusdev.mindforge.ai.scheduler.AIWorkScheduler;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+class AdaptiveProviderRouterTest {
+
+    private static final String OLLAMA = AdaptiveProviderRouter.OLLAMA_PROVIDER;
+    private static final String GROQ = AdaptiveProviderRouter.GROQ_PROVIDER;
+    private static final String OLLAMA_MODEL = "qwen3:4b";
+
+    private final AtomicLong clock = new AtomicLong(1_000_000L);
+    private final AIWorkScheduler workScheduler = mock(AIWorkScheduler.class);
+    private final GroqTokenBudgetManager budgetManager = mock(GroqTokenBudgetManager.class);
+    private final CircuitBreakerRegistry circuitBreakerRegistry = CircuitBreakerRegistry.ofDefaults();
+    private ProviderTelemetry telemetry;
+    private AdaptiveProviderRouter router;
+
+    @BeforeEach
+    void setUp() {
+        // Ollama: 800 ms + 400 ms/1k chars; Groq: 2300 ms + 100 ms/1k chars (empate em 5000 chars)
+        telemetry = new ProviderTelemetry(0.2, 60_000, Map.of(
+                OLLAMA, new ProviderTelemetry.CostShape(800, 400),
+                GROQ, new ProviderTelemetry.CostShape(2300, 100)), clock::get);
+        when(budgetManager.timeUntilAvailable(anyInt())).thenReturn(Duration.ZERO);
+        when(budgetManager.getWindowLimit()).thenReturn(30_000);
+        when(workScheduler.stats()).thenReturn(List.of());
+        router = new AdaptiveProviderRouter(telemetry, workScheduler, budgetManager, circuitBreakerRegistry, true,
+                OLLAMA_MODEL, "qwen3-vl:4b");
+    }
+
+    @Test
+    @DisplayName("Sem observações, prompts curtos vão para o Ollama e longos para o Groq")
+    void shouldUsePriorsOnColdStart() {
+        AdaptiveProviderRouter.Route small = router.route(2_000);
+        assertEquals(OLLAMA, small.provider());
+        assertEquals(OLLAMA_MODEL, small.model());
+        assertEquals(1_600, small.expectedMs());
+
+        AdaptiveProviderRouter.Route large = router.route(20_000);
+        assertEquals(GROQ, large.provider());
+        assertEquals(4_300, large.expectedMs());
+    }
+
+    @Test
+    @DisplayName("Ollama lento ou com fila cheia desvia o tráfego para o Groq, e volta quando a observação envelhece")
+    void shouldShiftToGroqWhenOllamaIsSlowOrSaturated() {
+        for (int i = 0; i < 5; i++) {
+            telemetry.observe(OLLAMA, OLLAMA_MODEL, 2_000, 6_000, true);
+        }
+        assertEquals(GROQ, router.route(2_000).provider());
+
+        // Sem amostras recentes, o fator de velocidade volta ao neutro
+        clock.addAndGet(Duration.ofMinutes(10).toMillis());
+        assertEquals(OLLAMA, router.route(2_000).provider());
+
+        // Duas chamadas rodando e três na fila, com capacidade 2: quatro à frente
+        when(workScheduler.stats()).thenReturn(List.of(new AIWorkScheduler.GateStats(OLLAMA, 2, 2,
+                Map.of(AIWorkPriority.INTERACTIVE, 3), Map.of(), Map.of())));
+        AdaptiveProviderRouter.Route saturated = router.route(2_000);
+        assertEquals(GROQ, saturated.provider());
+        assertEquals(List.of(GROQ, OLLAMA), router.rank(2_000, null).stream()
+                .map(AdaptiveProviderRouter.Route::provider).toList());
+    }
+
+    @Test
+    @DisplayName("Espera por budget, erros ou circuit breaker aberto no Groq devolvem o tráfego ao Ollama")
+    void shouldShiftToOllamaWhenGroqIsConstrained() {
+        assertEquals(GROQ, router.route(20_000).provider());
+
+        when(budgetManager.timeUntilAvailable(anyInt())).thenReturn(Duration.ofSeconds(10));
+        assertEquals(OLLAMA, router.route(20_000).provider());
+
+        when(budgetManager.timeUntilAvailable(anyInt())).thenReturn(Duration.ZERO);
+        String groqModel = router.route(20_000).model();
+        for (int i = 0; i < 10; i++) {
+            telemetry.observe(GROQ, groqModel, 20_000, 100, false);
+        }
+        assertTrue(telemetry.errorRate(GROQ, groqModel) > 0.8);
+        assertEquals(OLLAMA, router.route(20_000).provider());
+
+        clock.addAndGet(Duration.ofMinutes(10).toMillis());
+        assertEquals(GROQ, router.route(20_000).provider());
+        circuitBreakerRegistry.circuitBreaker(GROQ).transitionToOpenState();
+        AdaptiveProviderRouter.Route route = router.route(20_000);
+        assertEquals(OLLAMA, route.provider());
+        assertEquals(1, router.rank(20_000, null).size());
+    }
+
+    @Test
+    @DisplayName("Prompt que nunca cabe numa janela de tokens do Groq não é roteado para ele")
+    void shouldDropGroqWhenPromptNeverFitsWindow() {
+        // 20k chars ≈ 5k tokens + reserva de resposta: acima de uma janela de 6k
+        when(budgetManager.getWindowLimit()).thenReturn(6_000);
+
+        assertEquals(OLLAMA, router.route(20_000).provider());
+        assertEquals(List.of(OLLAMA), router.rank(20_000, null).stream()
+                .map(AdaptiveProviderRouter.Route::provider).toList());
+        assertEquals(GROQ, router.route(16_000).provider());
+    }
+
+    @Test
+    @DisplayName("Com o roteamento desligado, vale o Ollama sem estimativa de tempo")
+    void shouldFallBackToOllamaWhenDisabled() {
+        router = new AdaptiveProviderRouter(telemetry, workScheduler, budgetManager, circuitBreakerRegistry, false,
+                OLLAMA_MODEL, "qwen3-vl:4b");
+
+        AdaptiveProviderRouter.Route route = router.route(50_000);
+        assertEquals(OLLAMA, route.provider());
+        assertEquals(-1, route.expectedMs());
+    }
+}
@@ -0,0 +1,139 @@
+package com.matheusdev.mindforge.ai.routing;
+
+import com.matheusdev.mindforge.ai.provider.AIProvider;
+import com.matheusdev.mindforge.ai.provider.dto.AIProviderRequest;
+import com.matheusdev.mindforge.ai.provider.dto.AIProviderResponse;
+import com.matheusdev.mindforge.ai.scheduler.AIWorkCancelledException;
+import com.matheusdev.mindforge.ai.scheduler.AIWorkContext;
+import com.matheusdev.mindforge.config.ContextPropagatingExecutor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class HedgedRequestExecutorTest {
+
+    private static final String OLLAMA = AdaptiveProviderRouter.OLLAMA_PROVIDER;
+    private static final String GROQ = AdaptiveProviderRouter.GROQ_PROVIDER;
+
+    private final AIProvider ollama = mock(AIProvider.class);
+    private final AIProvider groq = mock(AIProvider.class);
+    private final AdaptiveProviderRouter router = mock(AdaptiveProviderRouter.class);
+    private final ContextPropagatingExecutor executor = new ContextPropagatingExecutor("hedge-test",
+            Executors.newVirtualThreadPerTaskExecutor(), true);
+    // Duração prevista = 1 ms por caractere, nos dois provedores
+    private final ProviderTelemetry telemetry = new ProviderTelemetry(0.2, 60_000, Map.of(
+            OLLAMA, new ProviderTelemetry.CostShape(0, 1000),
+            GROQ, new ProviderTelemetry.CostShape(0, 1000)), () -> 1_000_000L);
+    private final AIProviderRequest request = AIProviderRequest.builder().textPrompt("Resuma o texto")
+            .preferredProvider(OLLAMA).build();
+
+    @BeforeEach
+    void setUp() {
+        when(router.rank(anyInt(), any())).thenReturn(List.of(
+                new AdaptiveProviderRouter.Route(OLLAMA, "qwen3:4b", 100),
+                new AdaptiveProviderRouter.Route(GROQ, "INSTANT", 200)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        AIWorkContext.clear();
+        executor.close();
+    }
+
+    private HedgedRequestExecutor hedger(boolean enabled, long minDelayMs, long maxDelayMs) {
+        return new HedgedRequestExecutor(Map.of(OLLAMA, ollama, GROQ, groq), telemetry, router, executor, enabled,
+                0.95, 5, minDelayMs, maxDelayMs, 1.0);
+    }
+
+    private static AIProviderResponse response(String content) {
+        return new AIProviderResponse(content, null, null, null, null);
+    }
+
+    @Test
+    @DisplayName("Primário lento: o backup responde primeiro e a chamada primária é interrompida")
+    void shouldReturnBackupAndCancelSlowPrimary() throws Exception {
+        AtomicReference<CompletableFuture<AIProviderResponse>> primaryCall = new AtomicReference<>();
+        when(ollama.executeTask(any())).thenAnswer(invocation -> {
+            CompletableFuture<AIProviderResponse> call = executor.supplyAsync(() -> {
+                try {
+                    Thread.sleep(10_000);
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException("interrompida", e);
+                }
+                return response("lento");
+            });
+            primaryCall.set(call);
+            return call;
+        });
+        when(groq.executeTask(any())).thenReturn(CompletableFuture.completedFuture(response("rápido")));
+        HedgedRequestExecutor hedger = hedger(true, 50, 200);
+
+        AIProviderResponse result = hedger.execute(OLLAMA, request).get(5, TimeUnit.SECONDS);
+
+        assertEquals("rápido", result.getContent());
+        ExecutionException primaryError = assertThrows(ExecutionException.class,
+                () -> primaryCall.get().get(5, TimeUnit.SECONDS));
+        assertInstanceOf(AIWorkCancelledException.class, primaryError.getCause());
+        // O backup vai sem o modelo do primário
+        verify(groq).executeTask(argThat(backup -> backup.model() == null && GROQ.equals(backup.preferredProvider())));
+        assertEquals(new HedgedRequestExecutor.HedgeStats(true, 1, 1, 1, 1), hedger.stats());
+    }
+
+    @Test
+    @DisplayName("Primário dentro do prazo não dispara backup, e backup com erro não vence o primário")
+    void shouldKeepPrimaryWhenFastOrBackupFails() throws Exception {
+        HedgedRequestExecutor hedger = hedger(true, 50, 200);
+        when(ollama.executeTask(any())).thenReturn(CompletableFuture.completedFuture(response("direto")));
+
+        assertEquals("direto", hedger.execute(OLLAMA, request).get(5, TimeUnit.SECONDS).getContent());
+        Thread.sleep(300);
+        verifyNoInteractions(groq);
+
+        when(ollama.executeTask(any())).thenReturn(CompletableFuture.supplyAsync(() -> response("primário"),
+                CompletableFuture.delayedExecutor(400, TimeUnit.MILLISECONDS)));
+        when(groq.executeTask(any())).thenReturn(CompletableFuture.completedFuture(
+                new AIProviderResponse("falhou", null, "Groq indisponível", null, null)));
+
+        assertEquals("primário", hedger.execute(OLLAMA, request).get(5, TimeUnit.SECONDS).getContent());
+        verify(groq).executeTask(any());
+        assertEquals(0, hedger.stats().backupWins());
+    }
+
+    @Test
+    @DisplayName("O atraso do backup segue o percentil da duração observada, escalado pelo tamanho do prompt")
+    void shouldDeriveDelayFromObservedPercentile() {
+        HedgedRequestExecutor hedger = hedger(true, 0, 100_000);
+
+        // Sem amostras suficientes: o dobro da duração prevista
+        assertEquals(2_000, hedger.hedgeDelayMs(OLLAMA, "qwen3:4b", 1_000));
+
+        // Fatores 0.1 .. 2.0: o p95 (19ª de 20 amostras) é 1.9
+        for (int i = 1; i <= 20; i++) {
+            telemetry.observe(OLLAMA, "qwen3:4b", 1_000, i * 100L, true);
+        }
+        assertEquals(1_900, hedger.hedgeDelayMs(OLLAMA, "qwen3:4b", 1_000));
+        assertEquals(3_800, hedger.hedgeDelayMs(OLLAMA, "qwen3:4b", 2_000));
+    }
+
+    @Test
+    @DisplayName("Desligado, a chamada vai direto ao provedor sem consultar o roteador")
+    void shouldCallPrimaryDirectlyWhenDisabled() throws Exception {
+        when(ollama.executeTask(any())).thenReturn(CompletableFuture.completedFuture(response("direto")));
+
+        assertEquals("direto", hedger(false, 50, 200).execute(OLLAMA, request).get().getContent());
+        verifyNoInteractions(router, groq);
+    }
+}
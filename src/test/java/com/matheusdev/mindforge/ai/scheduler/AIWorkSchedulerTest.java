@@ -0,0 +1,119 @@
+package com.matheusdev.mindforge.ai.scheduler;
+
+import com.matheusdev.mindforge.core.tenant.context.TenantContext;
+import com.matheusdev.mindforge.core.tenant.model.TenantPlan;
+import com.matheusdev.mindforge.core.tenant.service.TenantPlanResolver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AIWorkSchedulerTest {
+
+    private static final String PROVIDER = "ollamaProvider";
+
+    private final TenantPlanResolver planResolver = mock(TenantPlanResolver.class);
+
+    private AIWorkScheduler scheduler(int capacity, int interactiveReserved, long maxQueueWaitMs) {
+        when(planResolver.planOf(any())).thenReturn(TenantPlan.FREE);
+        return new AIWorkScheduler(planResolver, true, capacity, 8, 4, interactiveReserved, maxQueueWaitMs, 1, 2, 4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        AIWorkContext.clear();
+        TenantContext.clear();
+    }
+
+    @Test
+    @DisplayName("Trabalho interativo deve passar na frente do background e usar a vaga reservada")
+    void interactiveShouldBypassBackgroundQueue() throws Exception {
+        AIWorkScheduler scheduler = scheduler(2, 1, 5_000);
+        AIWorkScheduler.Permit background = AIWorkContext.callAs(AIWorkPriority.BACKGROUND,
+                () -> scheduler.acquire(PROVIDER));
+
+        // Segundo background não cabe: a outra vaga é reservada ao interativo
+        CompletableFuture<AIWorkScheduler.Permit> queuedBackground = acquireAsync(scheduler,
+                AIWorkPriority.BACKGROUND, 1L);
+        awaitQueued(scheduler, AIWorkPriority.BACKGROUND, 1);
+
+        AIWorkScheduler.Permit interactive = scheduler.acquire(PROVIDER);
+        assertFalse(queuedBackground.isDone());
+
+        interactive.close();
+        assertFalse(queuedBackground.isDone(), "a vaga reservada não deve ir para o background");
+        background.close();
+        queuedBackground.get(5, TimeUnit.SECONDS).close();
+
+        AIWorkScheduler.GateStats stats = scheduler.stats().get(0);
+        assertEquals(0, stats.running());
+        assertEquals(2L, stats.granted().get(AIWorkPriority.BACKGROUND));
+        assertEquals(1L, stats.granted().get(AIWorkPriority.INTERACTIVE));
+    }
+
+    @Test
+    @DisplayName("Deve alternar entre tenants na mesma prioridade em vez de atender por ordem de chegada")
+    void shouldShareCapacityFairlyAcrossTenants() throws Exception {
+        AIWorkScheduler scheduler = scheduler(1, 0, 5_000);
+        AIWorkScheduler.Permit holder = scheduler.acquire(PROVIDER);
+        List<String> order = new CopyOnWriteArrayList<>();
+
+        // Tenant 1 enfileira três chamadas antes de o tenant 2 enfileirar a sua
+        List<CompletableFuture<Void>> calls = new java.util.ArrayList<>();
+        String[] labels = { "A1", "A2", "A3", "B1" };
+        long[] tenants = { 1L, 1L, 1L, 2L };
+        for (int i = 0; i < labels.length; i++) {
+            String label = labels[i];
+            calls.add(acquireAsync(scheduler, AIWorkPriority.INTERACTIVE, tenants[i]).thenAccept(permit -> {
+                order.add(label);
+                permit.close();
+            }));
+            awaitQueued(scheduler, AIWorkPriority.INTERACTIVE, i + 1);
+        }
+
+        holder.close();
+        CompletableFuture.allOf(calls.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+
+        assertEquals(List.of("A1", "B1", "A2", "A3"), order);
+    }
+
+    @Test
+    @DisplayName("Deve recusar a chamada que passa do tempo máximo de fila")
+    void shouldRejectAfterMaxQueueWait() {
+        AIWorkScheduler scheduler = scheduler(1, 0, 100);
+        AIWorkScheduler.Permit holder = scheduler.acquire(PROVIDER);
+
+        assertThrows(AIWorkRejectedException.class, () -> scheduler.acquire(PROVIDER));
+        assertEquals(0, scheduler.stats().get(0).queued().get(AIWorkPriority.INTERACTIVE));
+
+        holder.close();
+        scheduler.acquire(PROVIDER).close();
+    }
+
+    private CompletableFuture<AIWorkScheduler.Permit> acquireAsync(AIWorkScheduler scheduler,
+            AIWorkPriority priority, Long tenantId) {
+        return CompletableFuture.supplyAsync(() -> {
+            TenantContext.setTenantId(tenantId);
+            return AIWorkContext.callAs(priority, () -> scheduler.acquire(PROVIDER));
+        }, Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    private void awaitQueued(AIWorkScheduler scheduler, AIWorkPriority priority, int expected)
+            throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (scheduler.stats().get(0).queued().get(priority) < expected) {
+            assertTrue(System.currentTimeMillis() < deadline, "chamada não entrou na fila");
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.matheusdev.mindforge.ai.service;
+
+import com.matheusdev.mindforge.ai.dto.CacheStatsDTO;
+import com.matheusdev.mindforge.core.config.CacheConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CacheStatsServiceTest {
+
+    private CacheConfig cacheConfig;
+
+    @BeforeEach
+    void setUp() {
+        cacheConfig = new CacheConfig();
+        ReflectionTestUtils.setField(cacheConfig, "aiPromptsSpec", "maximumWeight=1048576,expireAfterAccess=24h");
+        ReflectionTestUtils.setField(cacheConfig, "embeddingsSpec", "maximumSize=100,expireAfterAccess=1h");
+        ReflectionTestUtils.setField(cacheConfig, "ragRetrievalSpec", "maximumSize=10,expireAfterWrite=10m");
+    }
+
+    @Test
+    @DisplayName("Deve aplicar a política de cada cache e expor hits, misses e tamanho em bytes")
+    void shouldExposePerCachePolicyAndStats() {
+        CacheManager cacheManager = cacheConfig.cacheManager();
+        Cache prompts = cacheManager.getCache(CacheConfig.AI_PROMPTS_CACHE);
+        prompts.put("chave", "x".repeat(1000));
+        prompts.get("chave");
+        prompts.get("ausente");
+
+        Map<String, CacheStatsDTO> stats = new CacheStatsService(cacheManager).getCacheStats().stream()
+                .collect(Collectors.toMap(CacheStatsDTO::name, Function.identity()));
+
+        CacheStatsDTO promptStats = stats.get(CacheConfig.AI_PROMPTS_CACHE);
+        assertTrue(promptStats.weighted());
+        assertEquals(1048576L, promptStats.maximum());
+        assertTrue(promptStats.weightedSize() >= 2000);
+        assertEquals(1, promptStats.hitCount());
+        assertEquals(1, promptStats.missCount());
+        assertEquals(86400L, promptStats.expireAfterAccessSeconds());
+
+        CacheStatsDTO ragStats = stats.get(CacheConfig.RAG_RETRIEVAL_CACHE);
+        assertFalse(ragStats.weighted());
+        assertEquals(10L, ragStats.maximum());
+        assertEquals(600L, ragStats.expireAfterWriteSeconds());
+        assertNull(ragStats.expireAfterAccessSeconds());
+
+        assertEquals(List.of("ai-prompts", "embeddings", "rag-retrieval"), stats.keySet().stream().sorted().toList());
+        assertNull(cacheManager.getCache("desconhecido"));
+    }
+
+    @Test
+    @DisplayName("Deve rejeitar refreshAfterWrite, que exige um loader que estes caches não têm")
+    void shouldRejectRefreshWithoutLoader() {
+        ReflectionTestUtils.setField(cacheConfig, "ragRetrievalSpec", "maximumSize=10,refreshAfterWrite=1m");
+
+        assertThrows(IllegalArgumentException.class, cacheConfig::cacheManager);
+    }
+}
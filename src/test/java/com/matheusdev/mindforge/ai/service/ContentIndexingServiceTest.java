@@ -0,0 +1,144 @@
+package com.matheusdev.mindforge.ai.service;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.matheusdev.mindforge.core.config.CacheConfig;
+import com.matheusdev.mindforge.knowledgeltem.model.KnowledgeItem;
+import com.matheusdev.mindforge.knowledgeltem.repository.KnowledgeItemRepository;
+import com.matheusdev.mindforge.study.note.repository.StudyNoteRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ContentIndexingServiceTest {
+
+    private final VectorStoreService vectorStoreService = mock(VectorStoreService.class);
+    private final KnowledgeItemRepository knowledgeItemRepository = mock(KnowledgeItemRepository.class);
+    private final CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+    private final SemanticPromptCacheService semanticCache = mock(SemanticPromptCacheService.class);
+    // Tarefas agendadas no executor, executadas quando o teste quiser
+    private final List<Runnable> tasks = new ArrayList<>();
+    // Texto que cada sincronização leu dentro do lock do documento
+    private final List<Optional<String>> synced = new ArrayList<>();
+    private ContentIndexingService service;
+    private Cache retrievals;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.registerCustomCache(CacheConfig.RAG_RETRIEVAL_CACHE, Caffeine.newBuilder().build());
+        retrievals = cacheManager.getCache(CacheConfig.RAG_RETRIEVAL_CACHE);
+        service = new ContentIndexingService(vectorStoreService, cacheManager, semanticCache, knowledgeItemRepository,
+                mock(StudyNoteRepository.class), tasks::add);
+        doAnswer(inv -> synced.add(inv.<Supplier<Optional<String>>>getArgument(1).get()))
+                .when(vectorStoreService).syncText(any(), any());
+    }
+
+    private void stored(Long id, String content) {
+        KnowledgeItem item = new KnowledgeItem();
+        item.setId(id);
+        item.setTitle("RAG");
+        item.setContent(content);
+        when(knowledgeItemRepository.findByIdAndTenantId(id, 7L)).thenReturn(Optional.of(item));
+    }
+
+    private void runTasks() {
+        List<Runnable> pending = new ArrayList<>(tasks);
+        tasks.clear();
+        pending.forEach(Runnable::run);
+    }
+
+    @Test
+    @DisplayName("Reindexar ou remover descarta só as buscas e respostas em cache daquele documento e tenant")
+    void shouldEvictCachedRetrievalsOfDocument() {
+        String note = ContentIndexingService.knowledgeDocumentId(1L);
+        String otherNote = ContentIndexingService.knowledgeDocumentId(2L);
+        retrievals.put(List.of(7L, note, "o que é rag", 5), List.of());
+        retrievals.put(List.of(7L, note, "hnsw", 3), List.of());
+        retrievals.put(List.of(7L, otherNote, "o que é rag", 5), List.of());
+        retrievals.put(List.of(8L, note, "o que é rag", 5), List.of());
+        stored(1L, "Busca + geração");
+
+        service.reindexKnowledgeItem(7L, 1L);
+        runTasks();
+
+        verify(vectorStoreService).syncText(eq(note), any());
+        assertTrue(synced.get(0).orElseThrow().contains("Busca + geração"));
+        assertNull(retrievals.get(List.of(7L, note, "o que é rag", 5)));
+        assertNull(retrievals.get(List.of(7L, note, "hnsw", 3)));
+        assertNotNull(retrievals.get(List.of(7L, otherNote, "o que é rag", 5)));
+        assertNotNull(retrievals.get(List.of(8L, note, "o que é rag", 5)));
+        verify(semanticCache).evict(7L, note);
+
+        service.removeKnowledgeItem(8L, 1L);
+        runTasks();
+
+        // O item não existe no tenant 8: o índice é removido
+        assertEquals(Optional.empty(), synced.get(1));
+        assertNull(retrievals.get(List.of(8L, note, "o que é rag", 5)));
+        assertNotNull(retrievals.get(List.of(7L, otherNote, "o que é rag", 5)));
+        verify(semanticCache).evict(8L, note);
+        verifyNoMoreInteractions(semanticCache);
+    }
+
+    @Test
+    @DisplayName("Edições enfileiradas do mesmo documento viram uma sincronização com o conteúdo mais recente")
+    void shouldCoalesceQueuedEditsIntoLatestContent() {
+        stored(1L, "versão 1");
+        service.reindexKnowledgeItem(7L, 1L);
+        stored(1L, "versão 2");
+        service.reindexKnowledgeItem(7L, 1L);
+
+        assertEquals(1, tasks.size());
+        runTasks();
+
+        assertEquals(1, synced.size());
+        assertTrue(synced.get(0).orElseThrow().contains("versão 2"));
+
+        // Depois que a tarefa começou, uma nova edição agenda outra sincronização
+        service.reindexKnowledgeItem(7L, 1L);
+        assertEquals(1, tasks.size());
+    }
+
+    @Test
+    @DisplayName("Tarefa de edição que roda depois da remoção não reindexa o conteúdo antigo")
+    void shouldNotReindexDeletedItem() {
+        stored(1L, "conteúdo antigo");
+        service.reindexKnowledgeItem(7L, 1L);
+        when(knowledgeItemRepository.findByIdAndTenantId(1L, 7L)).thenReturn(Optional.empty());
+        service.removeKnowledgeItem(7L, 1L);
+
+        runTasks();
+
+        assertEquals(List.of(Optional.empty()), synced);
+    }
+
+    @Test
+    @DisplayName("Dentro de uma transação, a sincronização só é agendada depois do commit")
+    void shouldScheduleAfterCommit() {
+        stored(1L, "Busca + geração");
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            service.reindexKnowledgeItem(7L, 1L);
+            assertTrue(tasks.isEmpty());
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(1, tasks.size());
+    }
+}
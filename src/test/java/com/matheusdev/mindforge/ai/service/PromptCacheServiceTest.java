@@ -0,0 +1,159 @@
+package com.matheusdev.mindforge.ai.service;
+
+import com.matheusdev.mindforge.ai.cache.model.AIResponseCacheEntry;
+import com.matheusdev.mindforge.ai.cache.repository.AIResponseCacheEntryRepository;
+import com.matheusdev.mindforge.ai.provider.AIProvider;
+import com.matheusdev.mindforge.ai.provider.dto.AIProviderRequest;
+import com.matheusdev.mindforge.ai.provider.dto.AIProviderResponse;
+import com.matheusdev.mindforge.ai.service.model.InteractionType;
+import com.matheusdev.mindforge.core.config.CacheConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class PromptCacheServiceTest {
+
+    private final AIProvider provider = mock(AIProvider.class);
+    private final AIResponseCacheEntryRepository repository = mock(AIResponseCacheEntryRepository.class);
+    private PromptCacheService promptCacheService;
+
+    @BeforeEach
+    void setUp() {
+        promptCacheService = new PromptCacheService(new ConcurrentMapCacheManager(CacheConfig.AI_PROMPTS_CACHE),
+                repository);
+    }
+
+    @Test
+    @DisplayName("Deve coalescer requisições idênticas concorrentes em uma única chamada ao provedor")
+    void shouldCoalesceConcurrentIdenticalRequests() {
+        CompletableFuture<AIProviderResponse> providerCall = new CompletableFuture<>();
+        when(provider.executeTask(any())).thenReturn(providerCall);
+
+        CompletableFuture<AIProviderResponse> first = promptCacheService.executeWithCache(provider, request("Explique  RAG"));
+        CompletableFuture<AIProviderResponse> second = promptCacheService.executeWithCache(provider, request("Explique RAG"));
+        // Cancelar a cópia de um chamador não derruba a chamada compartilhada
+        second.cancel(true);
+        CompletableFuture<AIProviderResponse> third = promptCacheService.executeWithCache(provider, request("Explique RAG"));
+
+        providerCall.complete(new AIProviderResponse("RAG combina busca e geração", null, null, null, null));
+
+        assertEquals("RAG combina busca e geração", first.join().getContent());
+        assertEquals("RAG combina busca e geração", third.join().getContent());
+        verify(provider, times(1)).executeTask(any());
+
+        // Depois de concluída a chamada, a mesma chave vem do cache
+        assertEquals("RAG combina busca e geração",
+                promptCacheService.executeWithCache(provider, request("Explique RAG")).join().getContent());
+        verify(provider, times(1)).executeTask(any());
+    }
+
+    @Test
+    @DisplayName("Deve propagar a falha a todos que aguardam e não guardar erro no cache")
+    void shouldPropagateFailureWithoutCaching() {
+        CompletableFuture<AIProviderResponse> failing = new CompletableFuture<>();
+        when(provider.executeTask(any()))
+                .thenReturn(failing)
+                .thenReturn(CompletableFuture.completedFuture(
+                        new AIProviderResponse("Serviço indisponível", null, "Serviço indisponível", null, null)))
+                .thenReturn(CompletableFuture.completedFuture(
+                        new AIProviderResponse("ok", null, null, null, null)));
+
+        CompletableFuture<AIProviderResponse> first = promptCacheService.executeWithCache(provider, request("Oi"));
+        CompletableFuture<AIProviderResponse> second = promptCacheService.executeWithCache(provider, request("Oi"));
+        failing.completeExceptionally(new IllegalStateException("timeout"));
+
+        assertThrows(CompletionException.class, first::join);
+        assertThrows(CompletionException.class, second::join);
+
+        // Resposta de fallback (com erro) também não entra no cache
+        assertEquals("Serviço indisponível",
+                promptCacheService.executeWithCache(provider, request("Oi")).join().getError());
+        assertEquals("ok", promptCacheService.executeWithCache(provider, request("Oi")).join().getContent());
+        verify(provider, times(3)).executeTask(any());
+    }
+
+    @Test
+    @DisplayName("Chamada bloqueante não espera por um stream idêntico, que não tem limite de duração")
+    void blockingCallShouldNotWaitOnStreamingFlight() {
+        CompletableFuture<AIProviderResponse> stream = new CompletableFuture<>();
+        when(provider.executeTaskStreaming(any(), any())).thenReturn(stream);
+        when(provider.executeTask(any())).thenReturn(CompletableFuture.completedFuture(
+                new AIProviderResponse("resposta direta", null, null, null, null)));
+
+        CompletableFuture<AIProviderResponse> streaming = promptCacheService.executeStreamingWithCache(provider,
+                request("Explique RAG"), token -> {
+                });
+        CompletableFuture<AIProviderResponse> blocking = promptCacheService.executeWithCache(provider,
+                request("Explique RAG"));
+
+        // Responde sem depender do stream, que continua em andamento
+        assertEquals("resposta direta", blocking.join().getContent());
+        assertFalse(streaming.isDone());
+        verify(provider, times(1)).executeTask(any());
+
+        stream.complete(new AIProviderResponse("resposta do stream", null, null, null, null));
+        assertEquals("resposta do stream", streaming.join().getContent());
+    }
+
+    @Test
+    @DisplayName("Stream que encontra a resposta no cache na segunda verificação ainda recebe o conteúdo")
+    void streamShouldReceiveContentOnLateCacheHit() {
+        ReflectionTestUtils.setField(promptCacheService, "persistent", true);
+        // Outra requisição (ou outro nó) grava a resposta entre a primeira consulta e o putIfAbsent
+        when(repository.findByCacheKeyAndExpiresAtAfter(any(), any()))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(new AIResponseCacheEntry("key", "Resposta pronta", InteractionType.CHAT,
+                        LocalDateTime.now().plusHours(1))));
+        StringBuilder streamed = new StringBuilder();
+
+        AIProviderResponse response = promptCacheService.executeStreamingWithCache(provider, request("Explique RAG"),
+                streamed::append).join();
+
+        assertEquals("Resposta pronta", response.getContent());
+        assertEquals("Resposta pronta", streamed.toString());
+        verifyNoInteractions(provider);
+    }
+
+    @Test
+    @DisplayName("Deve servir do cache persistente após restart e gravar novas respostas com TTL")
+    void shouldUsePersistentTierWhenEnabled() {
+        ReflectionTestUtils.setField(promptCacheService, "persistent", true);
+        ReflectionTestUtils.setField(promptCacheService, "persistentTtlHours", 24L);
+        String warmKey = promptCacheService.generateCacheKey(request("Resuma o capítulo 1"));
+        when(repository.findByCacheKeyAndExpiresAtAfter(any(), any())).thenReturn(Optional.empty());
+        when(repository.findByCacheKeyAndExpiresAtAfter(eq(warmKey), any())).thenReturn(Optional.of(
+                new AIResponseCacheEntry(warmKey, "Resumo salvo", InteractionType.CHAT,
+                        LocalDateTime.now().plusHours(1))));
+        when(provider.executeTask(any()))
+                .thenReturn(CompletableFuture.completedFuture(new AIProviderResponse("novo", null, null, null, null)));
+
+        assertEquals("Resumo salvo",
+                promptCacheService.executeWithCache(provider, request("Resuma o capítulo 1")).join().getContent());
+        assertEquals("novo",
+                promptCacheService.executeWithCache(provider, request("Resuma o capítulo 2")).join().getContent());
+
+        verify(provider, times(1)).executeTask(any());
+        ArgumentCaptor<AIResponseCacheEntry> saved = ArgumentCaptor.forClass(AIResponseCacheEntry.class);
+        verify(repository).save(saved.capture());
+        assertEquals("novo", saved.getValue().getContent());
+        assertEquals(64, saved.getValue().getCacheKey().length());
+        assertTrue(saved.getValue().getExpiresAt().isAfter(LocalDateTime.now().plusHours(23)));
+    }
+
+    private static AIProviderRequest request(String prompt) {
+        return new AIProviderRequest(prompt, "system", "llama3");
+    }
+}
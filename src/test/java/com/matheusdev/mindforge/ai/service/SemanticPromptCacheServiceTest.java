@@ -0,0 +1,109 @@
+package com.matheusdev.mindforge.ai.service;
+
+import com.matheusdev.mindforge.ai.provider.dto.AIProviderResponse;
+import com.matheusdev.mindforge.ai.provider.dto.CacheInfo;
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.output.Response;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class SemanticPromptCacheServiceTest {
+
+    private static final Map<String, float[]> VECTORS = Map.of(
+            "O que é RAG?", new float[] { 1f, 0f, 0f },
+            "Explique o que é RAG", new float[] { 0.98f, 0.2f, 0f },
+            "Quem escreveu o documento?", new float[] { 0f, 0f, 1f });
+
+    private final EmbeddingModel embeddingModel = mock(EmbeddingModel.class);
+    private SemanticPromptCacheService semanticCache;
+
+    @BeforeEach
+    void setUp() {
+        when(embeddingModel.embed(anyString()))
+                .thenAnswer(inv -> Response.from(new Embedding(VECTORS.get(inv.<String>getArgument(0)))));
+        semanticCache = new SemanticPromptCacheService(embeddingModel, true, 0.9, 64, 100, 60);
+    }
+
+    @Test
+    @DisplayName("Deve reaproveitar a resposta de uma pergunta parecida no mesmo escopo, com metadados do acerto")
+    void shouldReuseAnswerForSimilarQuestion() {
+        SemanticPromptCacheService.Scope scope = semanticCache.scope(1L, "doc-1", "system", "groq:llama");
+        semanticCache.store(scope, "O que é RAG?",
+                new AIProviderResponse("RAG combina busca e geração", 42L, null, null, null));
+
+        Optional<AIProviderResponse> hit = semanticCache.lookup(scope, "Explique o que é RAG");
+
+        assertTrue(hit.isPresent());
+        assertEquals("RAG combina busca e geração", hit.get().getContent());
+        // A sessão da pergunta original não vaza para quem reaproveita a resposta
+        assertNull(hit.get().getSessionId());
+        CacheInfo info = hit.get().getCacheInfo();
+        assertEquals(CacheInfo.SEMANTIC, info.layer());
+        assertEquals("O que é RAG?", info.matchedQuestion());
+        assertTrue(info.similarity() >= 0.9);
+
+        assertTrue(semanticCache.lookup(scope, "Quem escreveu o documento?").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Não deve cruzar tenants, documentos ou system prompts, nem guardar respostas com erro")
+    void shouldIsolateScopesAndSkipErrors() {
+        SemanticPromptCacheService.Scope scope = semanticCache.scope(1L, "doc-1", "system", "groq:llama");
+        semanticCache.store(scope, "O que é RAG?", new AIProviderResponse("resposta", null, null, null, null));
+
+        assertTrue(semanticCache.lookup(semanticCache.scope(2L, "doc-1", "system", "groq:llama"), "O que é RAG?")
+                .isEmpty());
+        assertTrue(semanticCache.lookup(semanticCache.scope(1L, "doc-2", "system", "groq:llama"), "O que é RAG?")
+                .isEmpty());
+        assertTrue(semanticCache.lookup(semanticCache.scope(1L, "doc-1", "outro", "groq:llama"), "O que é RAG?")
+                .isEmpty());
+        assertNull(semanticCache.scope(null, "doc-1", "system", "groq:llama"));
+
+        SemanticPromptCacheService.Scope other = semanticCache.scope(1L, "doc-3", "system", "groq:llama");
+        semanticCache.store(other, "O que é RAG?", new AIProviderResponse("falhou", null, "timeout", null, null));
+        assertTrue(semanticCache.lookup(other, "O que é RAG?").isEmpty());
+    }
+
+    @Test
+    @DisplayName("System prompts diferentes com o mesmo hashCode não compartilham escopo")
+    void shouldNotShareScopeOnSystemPromptHashCollision() {
+        // "Aa" e "BB" têm o mesmo String.hashCode()
+        assertEquals("Aa".hashCode(), "BB".hashCode());
+        SemanticPromptCacheService.Scope scope = semanticCache.scope(1L, "doc-1", "Aa", "groq:llama");
+        semanticCache.store(scope, "O que é RAG?", new AIProviderResponse("resposta", null, null, null, null));
+
+        assertNotEquals(scope, semanticCache.scope(1L, "doc-1", "BB", "groq:llama"));
+        assertTrue(semanticCache.lookup(semanticCache.scope(1L, "doc-1", "BB", "groq:llama"), "O que é RAG?")
+                .isEmpty());
+    }
+
+    @Test
+    @DisplayName("Evict descarta as perguntas do documento no tenant, em todos os system prompts e modelos")
+    void shouldEvictDocumentOfTenant() {
+        AIProviderResponse answer = new AIProviderResponse("resposta", null, null, null, null);
+        SemanticPromptCacheService.Scope groq = semanticCache.scope(1L, "doc-1", "system", "groq:llama");
+        SemanticPromptCacheService.Scope ollama = semanticCache.scope(1L, "doc-1", "outro", "ollama:qwen");
+        SemanticPromptCacheService.Scope otherTenant = semanticCache.scope(2L, "doc-1", "system", "groq:llama");
+        SemanticPromptCacheService.Scope otherDocument = semanticCache.scope(1L, "doc-2", "system", "groq:llama");
+        for (SemanticPromptCacheService.Scope scope : new SemanticPromptCacheService.Scope[] { groq, ollama,
+                otherTenant, otherDocument }) {
+            semanticCache.store(scope, "O que é RAG?", answer);
+        }
+
+        semanticCache.evict(1L, "doc-1");
+
+        assertTrue(semanticCache.lookup(groq, "O que é RAG?").isEmpty());
+        assertTrue(semanticCache.lookup(ollama, "O que é RAG?").isEmpty());
+        assertTrue(semanticCache.lookup(otherTenant, "O que é RAG?").isPresent());
+        assertTrue(semanticCache.lookup(otherDocument, "O que é RAG?").isPresent());
+    }
+}
@@ -0,0 +1,43 @@
+package com.matheusdev.mindforge.ai.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TermMatcherTest {
+
+    @Test
+    @DisplayName("Deve expandir termos em uma passada, preferindo o mais longo e sem reprocessar expansões")
+    void shouldExpandLongestTermsWithoutReexpanding() {
+        Map<String, String> terms = new LinkedHashMap<>();
+        terms.put("HTTP", "HTTP (HyperText Transfer Protocol)");
+        terms.put("HTTPS", "HTTPS (HTTP Secure)");
+        terms.put("API", "API (Application Programming Interface)");
+        TermMatcher matcher = TermMatcher.of(terms, false);
+
+        String expanded = matcher.replaceAll("Use HTTPS na API REST, não HTTP. RAPID não é API_KEY.");
+
+        assertEquals("Use HTTPS (HTTP Secure) na API (Application Programming Interface) REST, "
+                + "não HTTP (HyperText Transfer Protocol). RAPID não é API_KEY.", expanded);
+    }
+
+    @Test
+    @DisplayName("Deve retornar definições sem distinção de caixa, na ordem do texto e sem repetição")
+    void shouldFindValuesInTextOrder() {
+        Map<String, String> terms = Map.of(
+                "sql", "SQL (Structured Query Language)",
+                "orm", "ORM (Object-Relational Mapping)",
+                "rag", "RAG (Retrieval-Augmented Generation)");
+        TermMatcher matcher = TermMatcher.of(terms, true);
+
+        List<String> values = matcher.findValues("Como um ORM gera SQL? E o sql nativo? Storage não conta.");
+
+        assertEquals(List.of("ORM (Object-Relational Mapping)", "SQL (Structured Query Language)"), values);
+        assertTrue(TermMatcher.empty().findAll("qualquer texto").isEmpty());
+    }
+}
@@ -0,0 +1,115 @@
+package com.matheusdev.mindforge.ai.service.orchestrator;
+
+import com.matheusdev.mindforge.ai.chat.model.ChatSession;
+import com.matheusdev.mindforge.ai.dto.ChatRequest;
+import com.matheusdev.mindforge.ai.provider.dto.AIProviderResponse;
+import com.matheusdev.mindforge.ai.service.chain.AIProcessingStep.AIContext;
+import com.matheusdev.mindforge.ai.service.chain.AuditStep;
+import com.matheusdev.mindforge.ai.service.chain.ContextRetrievalStep;
+import com.matheusdev.mindforge.ai.service.chain.ExecutionStep;
+import com.matheusdev.mindforge.ai.service.chain.PromptBuildingStep;
+import com.matheusdev.mindforge.ai.service.chain.ValidationStep;
+import com.matheusdev.mindforge.core.auth.model.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ChatOrchestratorTest {
+
+    @Mock
+    private ValidationStep validationStep;
+    @Mock
+    private ContextRetrievalStep contextRetrievalStep;
+    @Mock
+    private PromptBuildingStep promptBuildingStep;
+    @Mock
+    private ExecutionStep executionStep;
+    @Mock
+    private AuditStep auditStep;
+
+    @InjectMocks
+    private ChatOrchestrator chatOrchestrator;
+
+    private final ChatSession session = new ChatSession();
+
+    @BeforeEach
+    void setUp() {
+        User user = User.builder().id(1L).tenantId(10L).build();
+        SecurityContextHolder.getContext()
+                .setAuthentication(new UsernamePasswordAuthenticationToken(user, null, List.of()));
+        session.setId(42L);
+
+        when(validationStep.execute(any())).thenAnswer(inv -> CompletableFuture
+                .completedFuture(inv.<AIContext>getArgument(0).withSession(session)));
+        when(contextRetrievalStep.execute(any()))
+                .thenAnswer(inv -> CompletableFuture.completedFuture(inv.getArgument(0)));
+        when(promptBuildingStep.execute(any()))
+                .thenAnswer(inv -> CompletableFuture.completedFuture(inv.getArgument(0)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("Deve repassar os tokens e persistir a resposta uma única vez ao fim do stream")
+    void shouldForwardTokensAndAuditOnCompletion() {
+        when(executionStep.executeStreaming(any(), any())).thenAnswer(inv -> {
+            Consumer<String> onToken = inv.getArgument(1);
+            onToken.accept("Olá");
+            onToken.accept(", mundo");
+            return CompletableFuture.completedFuture(inv.<AIContext>getArgument(0)
+                    .withResponse(new AIProviderResponse("Olá, mundo", null, null, null, null)));
+        });
+        when(auditStep.execute(any())).thenAnswer(inv -> {
+            AIContext context = inv.getArgument(0);
+            context.getResponse().setSessionId(context.getSession().getId());
+            return CompletableFuture.completedFuture(context);
+        });
+
+        List<String> tokens = new ArrayList<>();
+        AIProviderResponse response = chatOrchestrator
+                .streamChatInteraction(new ChatRequest(42L, null, "Oi", null, null, null), tokens::add)
+                .join();
+
+        assertEquals(List.of("Olá", ", mundo"), tokens);
+        assertEquals("Olá, mundo", response.getContent());
+        assertEquals(42L, response.getSessionId());
+        verify(auditStep, times(1)).execute(any());
+    }
+
+    @Test
+    @DisplayName("Não deve persistir resposta truncada quando o stream termina com erro")
+    void shouldSkipAuditWhenStreamFails() {
+        when(executionStep.executeStreaming(any(), any())).thenAnswer(inv -> CompletableFuture.completedFuture(
+                inv.<AIContext>getArgument(0)
+                        .withResponse(new AIProviderResponse("parcial", null, "Stream interrompido", null, null))));
+
+        AIProviderResponse response = chatOrchestrator
+                .streamChatInteraction(new ChatRequest(42L, null, "Oi", null, null, null), token -> {
+                })
+                .join();
+
+        assertEquals("Stream interrompido", response.getError());
+        assertEquals(42L, response.getSessionId());
+        verify(auditStep, never()).execute(any());
+    }
+}
@@ -0,0 +1,172 @@
+package com.matheusdev.mindforge.ai.service.orchestrator;
+
+import com.matheusdev.mindforge.ai.dto.PromptPair;
+import com.matheusdev.mindforge.ai.memory.service.MemoryService;
+import com.matheusdev.mindforge.ai.provider.AIProvider;
+import com.matheusdev.mindforge.ai.provider.dto.AIProviderRequest;
+import com.matheusdev.mindforge.ai.provider.dto.AIProviderResponse;
+import com.matheusdev.mindforge.ai.provider.groq.GroqTokenBudgetManager;
+import com.matheusdev.mindforge.ai.routing.AdaptiveProviderRouter;
+import com.matheusdev.mindforge.ai.routing.HedgedRequestExecutor;
+import com.matheusdev.mindforge.ai.service.ChatService;
+import com.matheusdev.mindforge.ai.service.DocumentAnalyzer;
+import com.matheusdev.mindforge.ai.service.PromptBuilderService;
+import com.matheusdev.mindforge.ai.service.PromptCacheService;
+import com.matheusdev.mindforge.ai.service.RAGService;
+import com.matheusdev.mindforge.ai.service.SmartRouterService;
+import com.matheusdev.mindforge.ai.service.VectorStoreService;
+import com.matheusdev.mindforge.config.ContextPropagatingExecutor;
+import dev.langchain4j.data.document.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.MatchResult;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class DocumentAnalysisOrchestratorTest {
+
+    private static final Pattern MARKERS = Pattern.compile("sec-\\d\\d");
+    private static final String SYSTEM = "sys";
+    private static final String QUESTION = "Resuma";
+
+    private final PromptCacheService promptCacheService = mock(PromptCacheService.class);
+    private final GroqTokenBudgetManager budgetManager = mock(GroqTokenBudgetManager.class);
+    private final ContextPropagatingExecutor executor = new ContextPropagatingExecutor("test",
+            Executors.newVirtualThreadPerTaskExecutor(), true);
+    private final RecordingProvider ollama = new RecordingProvider();
+    private final RecordingProvider groq = new RecordingProvider();
+
+    @BeforeEach
+    void setUp() {
+        when(promptCacheService.executeWithCache(any(), any()))
+                .thenAnswer(inv -> inv.<AIProvider>getArgument(0).executeTask(inv.getArgument(1)));
+        when(budgetManager.getAvailableBudget()).thenReturn(Integer.MAX_VALUE);
+        when(budgetManager.getWindowLimit()).thenReturn(Integer.MAX_VALUE);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.close();
+    }
+
+    private DocumentAnalysisOrchestrator orchestrator(int reduceMaxChars, int shardMaxChars) {
+        Map<String, AIProvider> providers = Map.of("ollamaProvider", ollama, "groqProvider", groq);
+        MapReduceScheduler scheduler = new MapReduceScheduler(providers, promptCacheService, budgetManager,
+                executor, 2, 2, 3, 0, reduceMaxChars, shardMaxChars);
+        return new DocumentAnalysisOrchestrator(providers, mock(MemoryService.class), mock(ChatService.class),
+                mock(PromptBuilderService.class), promptCacheService, mock(SmartRouterService.class),
+                mock(RAGService.class), mock(VectorStoreService.class), mock(DocumentAnalyzer.class),
+                mock(RAGOrchestrator.class), executor, scheduler, mock(AdaptiveProviderRouter.class),
+                mock(HedgedRequestExecutor.class));
+    }
+
+    /**
+     * Documento com {@code sections} parágrafos de ~900 caracteres, cada um
+     * identificado por um marcador {@code sec-NN}.
+     */
+    private static Document document(int sections) {
+        return Document.from(IntStream.range(0, sections)
+                .mapToObj(i -> String.format("sec-%02d %s", i, "y ".repeat(445)))
+                .collect(Collectors.joining("\n\n")));
+    }
+
+    private static String markers(String text) {
+        return MARKERS.matcher(text).results().map(MatchResult::group).collect(Collectors.joining(" "));
+    }
+
+    private static String expectedMarkers(int sections) {
+        return IntStream.range(0, sections).mapToObj(i -> String.format("sec-%02d", i))
+                .collect(Collectors.joining(" "));
+    }
+
+    private AIProviderResponse analyze(DocumentAnalysisOrchestrator orchestrator, Document document)
+            throws Exception {
+        return orchestrator.processMapReduce(List.of(document), new PromptPair(SYSTEM, QUESTION), ollama,
+                "ollamaProvider", QUESTION, DocumentAnalysisOrchestrator.ProgressListener.NONE)
+                .get(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    @DisplayName("Documento grande deve ser dividido em vários trechos do MAP, consolidados na ordem original")
+    void shouldSplitLargeDocumentIntoOrderedShards() throws Exception {
+        AIProviderResponse response = analyze(orchestrator(12000, 2000), document(10));
+
+        // Dois parágrafos (~1800 caracteres) por trecho de até 2000
+        List<String> mapPrompts = prompts().stream().filter(p -> p.startsWith("Analise este trecho:")).toList();
+        assertEquals(5, mapPrompts.size());
+        mapPrompts.forEach(prompt -> {
+            assertTrue(prompt.length() <= "Analise este trecho:\n".length() + 2000, "trecho: " + prompt.length());
+            assertEquals(2, MARKERS.matcher(prompt).results().count());
+        });
+        // A consolidação final recebe todos os trechos, na ordem do documento
+        assertEquals("Consolide:", response.getContent().lines().findFirst().orElseThrow());
+        assertEquals(expectedMarkers(10), markers(response.getContent()));
+    }
+
+    @Test
+    @DisplayName("Parciais que não cabem na consolidação devem ser reduzidos em vários níveis, sem perder conteúdo")
+    void shouldReduceOversizedPartialsInSeveralLevelsWithoutTruncation() throws Exception {
+        // Cada parcial do MAP (~1000 caracteres) passa da metade do limite de uma consolidação
+        ollama.mapSummaryChars = 1000;
+        groq.mapSummaryChars = 1000;
+
+        AIProviderResponse response = analyze(orchestrator(1500, 2000), document(10));
+
+        List<String> intermediate = prompts().stream().filter(p -> p.startsWith("Consolide os resumos")).toList();
+        // Nível 1 consolida os 5 parciais (divididos em pedaços), o nível 2 junta os resultados
+        assertTrue(intermediate.size() > 5, "consolidações intermediárias: " + intermediate.size());
+        intermediate.forEach(prompt -> assertTrue(prompt.length() + SYSTEM.length() <= 1500,
+                "consolidação acima do limite: " + prompt.length()));
+        // Os marcadores ficam no fim de cada parcial: truncar os perderia
+        assertEquals(expectedMarkers(10), markers(response.getContent()));
+        assertTrue(response.getContent().length() <= 1500);
+    }
+
+    private List<String> prompts() {
+        return Stream.concat(ollama.prompts.stream(), groq.prompts.stream()).toList();
+    }
+
+    /**
+     * Provedor que registra os prompts. No MAP responde com um resumo de
+     * {@code mapSummaryChars} caracteres seguido dos marcadores do trecho (no
+     * fim, onde um corte os perderia); nas consolidações intermediárias, com
+     * os marcadores e um resumo curto; na final devolve o próprio prompt, para
+     * que o teste veja o que chegou até ela.
+     */
+    private static final class RecordingProvider implements AIProvider {
+        final Queue<String> prompts = new ConcurrentLinkedQueue<>();
+        volatile int mapSummaryChars = 300;
+
+        @Override
+        public CompletableFuture<AIProviderResponse> executeTask(AIProviderRequest request) {
+            String prompt = request.textPrompt();
+            prompts.add(prompt);
+            String content;
+            if (prompt.startsWith("Consolide:\n")) {
+                content = prompt;
+            } else if (prompt.startsWith("Analise este trecho:")) {
+                content = "x".repeat(mapSummaryChars) + " " + markers(prompt);
+            } else {
+                content = markers(prompt) + " " + "x".repeat(300);
+            }
+            return CompletableFuture.supplyAsync(() -> new AIProviderResponse(content, null, null, null, null),
+                    CompletableFuture.delayedExecutor(prompt.hashCode() & 15, TimeUnit.MILLISECONDS));
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package com.matheusdev.mindforge.ai.service.orchestrator;
+
+import com.matheusdev.mindforge.ai.provider.AIProvider;
+import com.matheusdev.mindforge.ai.provider.dto.AIProviderRequest;
+import com.matheusdev.mindforge.ai.provider.dto.AIProviderResponse;
+import com.matheusdev.mindforge.ai.provider.groq.GroqTokenBudgetManager;
+import com.matheusdev.mindforge.ai.service.PromptCacheService;
+import com.matheusdev.mindforge.config.ContextPropagatingExecutor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.regex.MatchResult;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class MapReduceSchedulerTest {
+
+    private final PromptCacheService promptCacheService = mock(PromptCacheService.class);
+    private final GroqTokenBudgetManager budgetManager = mock(GroqTokenBudgetManager.class);
+    private final ContextPropagatingExecutor executor = new ContextPropagatingExecutor("test",
+            Executors.newVirtualThreadPerTaskExecutor(), true);
+    private final FakeProvider ollama = new FakeProvider("ollama");
+    private final FakeProvider groq = new FakeProvider("groq");
+    private MapReduceScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        when(promptCacheService.executeWithCache(any(), any()))
+                .thenAnswer(inv -> inv.<AIProvider>getArgument(0).executeTask(inv.getArgument(1)));
+        when(budgetManager.getAvailableBudget()).thenReturn(Integer.MAX_VALUE);
+        scheduler = new MapReduceScheduler(Map.of("ollamaProvider", ollama, "groqProvider", groq),
+                promptCacheService, budgetManager, executor, 2, 3, 3, 0, 1500, 8000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.close();
+    }
+
+    @Test
+    @DisplayName("Deve distribuir os trechos entre os provedores respeitando a concorrência e manter a ordem")
+    void shouldSpreadShardsAcrossProvidersAndKeepOrder() throws Exception {
+        List<String> prompts = IntStream.range(0, 20).mapToObj(i -> "trecho-" + i).toList();
+
+        List<String> partials = scheduler.map(prompts, "sys", "ollamaProvider", MapReduceScheduler.ShardProgress.NONE)
+                .get(10, TimeUnit.SECONDS);
+
+        assertEquals(prompts.stream().map(p -> "ok:" + p).toList(), partials);
+        assertTrue(ollama.calls.get() > 0 && groq.calls.get() > 0, "os dois provedores devem receber trechos");
+        assertTrue(ollama.peak.get() <= 2, "Ollama acima da concorrência: " + ollama.peak.get());
+        assertTrue(groq.peak.get() <= 3, "Groq acima da concorrência: " + groq.peak.get());
+        assertTrue(ollama.peak.get() + groq.peak.get() > 1, "o MAP deveria rodar em paralelo");
+    }
+
+    @Test
+    @DisplayName("Deve retentar apenas o trecho que falhou, preferindo outro provedor")
+    void shouldRetryFailedShardOnAnotherProvider() throws Exception {
+        ollama.failing.add("trecho-1");
+        AtomicInteger lastDone = new AtomicInteger();
+
+        List<String> partials = scheduler
+                .map(List.of("trecho-0", "trecho-1", "trecho-2"), "sys", "ollamaProvider",
+                        (done, total) -> lastDone.set(done))
+                .get(10, TimeUnit.SECONDS);
+
+        assertEquals(List.of("ok:trecho-0", "ok:trecho-1", "ok:trecho-2"), partials);
+        assertEquals(1, groq.prompts.getOrDefault("trecho-1", 0));
+        assertEquals(1, ollama.prompts.get("trecho-1"));
+        assertEquals(3, lastDone.get());
+    }
+
+    @Test
+    @DisplayName("Não deve enviar trechos ao Groq quando o orçamento de tokens não comporta")
+    void shouldKeepShardsOffGroqWithoutBudget() throws Exception {
+        when(budgetManager.getAvailableBudget()).thenReturn(100);
+        List<String> prompts = IntStream.range(0, 6).mapToObj(i -> "trecho-" + i).toList();
+
+        List<String> partials = scheduler.map(prompts, "sys", "groqProvider", MapReduceScheduler.ShardProgress.NONE)
+                .get(10, TimeUnit.SECONDS);
+
+        assertEquals(6, partials.size());
+        assertEquals(0, groq.calls.get());
+        assertEquals(6, ollama.calls.get());
+    }
+
+    @Test
+    @DisplayName("Deve falhar a análise quando nenhum trecho pôde ser processado")
+    void shouldFailWhenEveryShardFails() {
+        ollama.failing.add("trecho-0");
+        groq.failing.add("trecho-0");
+
+        CompletableFuture<List<String>> result = scheduler.map(List.of("trecho-0"), "sys", "ollamaProvider",
+                MapReduceScheduler.ShardProgress.NONE);
+
+        Exception e = assertThrows(Exception.class, () -> result.get(10, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, e.getCause());
+        assertEquals(3, ollama.calls.get() + groq.calls.get());
+    }
+
+    @Test
+    @DisplayName("Deve agrupar parciais sem passar do limite e garantindo ao menos dois por grupo")
+    void shouldGroupPartialsWithinBudget() {
+        String oversized = IntStream.range(0, 1000).mapToObj(i -> "d" + i).collect(Collectors.joining(" "));
+        List<List<String>> groups = MapReduceScheduler.groupForReduce(
+                List.of("a".repeat(300), "b".repeat(300), "c".repeat(300), oversized), 1000);
+
+        assertEquals(3, groups.get(0).size());
+        groups.forEach(group -> assertTrue(
+                String.join(MapReduceScheduler.PARTIAL_SEPARATOR, group).length() <= 1000));
+        groups.forEach(group -> assertTrue(group.size() >= 2, "grupo com um item só: " + group.size()));
+        // Parcial maior que o limite é dividido em pedaços consecutivos, sem perder nada
+        String pieces = groups.stream().skip(1).flatMap(List::stream).collect(Collectors.joining());
+        assertEquals(oversized, pieces);
+        assertTrue(groups.get(1).get(0).endsWith(" ") || groups.get(1).get(1).startsWith(" "),
+                "o corte deveria cair num espaço");
+    }
+
+    @Test
+    @DisplayName("Deve reduzir em árvore até caber numa chamada, mantendo a ordem e o limite por chamada")
+    void shouldReduceInTreeUntilPartialsFit() throws Exception {
+        Pattern ids = Pattern.compile("p\\d\\d");
+        // O "LLM" devolve os identificadores consolidados, com um resumo de tamanho fixo
+        Function<String, String> summarize = prompt -> ids.matcher(prompt).results().map(MatchResult::group)
+                .collect(Collectors.joining("+")) + " " + "x".repeat(400);
+        ollama.answer = summarize;
+        groq.answer = summarize;
+        List<String> partials = IntStream.range(0, 27).mapToObj(i -> String.format("p%02d %s", i, "x".repeat(400)))
+                .toList();
+
+        List<String> fitting = scheduler.reduceToFit(partials, "sys", "ollamaProvider", "q")
+                .get(10, TimeUnit.SECONDS);
+
+        // Todos os trechos sobrevivem, na ordem, e o que sobra cabe numa única chamada
+        String expected = IntStream.range(0, 27).mapToObj(i -> String.format("p%02d", i))
+                .collect(Collectors.joining("+"));
+        String joined = String.join(MapReduceScheduler.PARTIAL_SEPARATOR, fitting);
+        assertEquals(expected, ids.matcher(joined).results().map(MatchResult::group)
+                .collect(Collectors.joining("+")));
+        assertTrue(fitting.size() < 4 && joined.length() <= 1500 - 200, "sobrou: " + fitting.size());
+        // Vários níveis: mais chamadas que um único grupo, bem menos que os 27 parciais
+        int calls = ollama.calls.get() + groq.calls.get();
+        assertTrue(calls > 9 && calls < 27, "chamadas: " + calls);
+        assertTrue(ollama.longestPrompt.get() + "sys".length() <= 1500);
+        assertTrue(groq.longestPrompt.get() + "sys".length() <= 1500);
+    }
+
+    @Test
+    @DisplayName("Grupo que falha em todas as tentativas segue adiante sem consolidar, sem perder parciais")
+    void shouldCarryFailedReduceGroupForward() throws Exception {
+        Pattern ids = Pattern.compile("p\\d\\d");
+        Function<String, String> summarize = prompt -> ids.matcher(prompt).results().map(MatchResult::group)
+                .collect(Collectors.joining("+")) + " " + "x".repeat(400);
+        ollama.answer = summarize;
+        groq.answer = summarize;
+        // O grupo com o parcial original p04 falha nas 3 tentativas do primeiro nível
+        AtomicInteger failures = new AtomicInteger();
+        java.util.function.Predicate<String> failFirstLevel = prompt -> prompt.contains("p04 ")
+                && failures.getAndIncrement() < 3;
+        ollama.failWhen = failFirstLevel;
+        groq.failWhen = failFirstLevel;
+        List<String> partials = IntStream.range(0, 9).mapToObj(i -> String.format("p%02d %s", i, "x".repeat(400)))
+                .toList();
+
+        List<String> fitting = scheduler.reduceToFit(partials, "sys", "ollamaProvider", "q")
+                .get(10, TimeUnit.SECONDS);
+
+        String expected = IntStream.range(0, 9).mapToObj(i -> String.format("p%02d", i))
+                .collect(Collectors.joining("+"));
+        assertEquals(expected, ids.matcher(String.join(MapReduceScheduler.PARTIAL_SEPARATOR, fitting)).results()
+                .map(MatchResult::group).collect(Collectors.joining("+")));
+        assertTrue(failures.get() >= 3, "o grupo deveria ter esgotado as tentativas");
+    }
+
+    /**
+     * Provedor que responde de forma assíncrona com atraso variável (para que
+     * os trechos terminem fora de ordem) e mede a concorrência máxima.
+     */
+    private static final class FakeProvider implements AIProvider {
+        final String name;
+        final AtomicInteger calls = new AtomicInteger();
+        final AtomicInteger active = new AtomicInteger();
+        final AtomicInteger peak = new AtomicInteger();
+        final Map<String, Integer> prompts = new ConcurrentHashMap<>();
+        final java.util.Set<String> failing = ConcurrentHashMap.newKeySet();
+        volatile java.util.function.Predicate<String> failWhen = prompt -> false;
+        final AtomicInteger longestPrompt = new AtomicInteger();
+        volatile Function<String, String> answer = prompt -> "ok:" + prompt;
+
+        FakeProvider(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public CompletableFuture<AIProviderResponse> executeTask(AIProviderRequest request) {
+            calls.incrementAndGet();
+            prompts.merge(request.textPrompt(), 1, Integer::sum);
+            peak.accumulateAndGet(active.incrementAndGet(), Math::max);
+            longestPrompt.accumulateAndGet(request.textPrompt().length(), Math::max);
+            long delay = 5 + (request.textPrompt().hashCode() & 15);
+            return CompletableFuture.supplyAsync(() -> {
+                active.decrementAndGet();
+                if (failing.contains(request.textPrompt()) || failWhen.test(request.textPrompt())) {
+                    return new AIProviderResponse(null, null, name + " indisponível", null, null);
+                }
+                return new AIProviderResponse(answer.apply(request.textPrompt()), null, null, null, null);
+            }, CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS));
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.matheusdev.mindforge.ai.service.orchestrator;
+
+import com.matheusdev.mindforge.ai.chat.repository.ChatSessionRepository;
+import com.matheusdev.mindforge.ai.provider.AIProvider;
+import com.matheusdev.mindforge.ai.provider.dto.AIProviderRequest;
+import com.matheusdev.mindforge.ai.provider.dto.AIProviderResponse;
+import com.matheusdev.mindforge.ai.routing.AdaptiveProviderRouter;
+import com.matheusdev.mindforge.ai.service.ChatService;
+import com.matheusdev.mindforge.ai.service.ContentIndexingService;
+import com.matheusdev.mindforge.ai.service.PromptCacheService;
+import com.matheusdev.mindforge.ai.service.RAGService;
+import com.matheusdev.mindforge.ai.service.model.Evidence;
+import com.matheusdev.mindforge.config.ContextPropagatingExecutor;
+import com.matheusdev.mindforge.core.tenant.context.TenantContext;
+import com.matheusdev.mindforge.knowledgeltem.service.ProposalCacheService;
+import com.matheusdev.mindforge.study.note.dto.StudyNoteAIRequest;
+import com.matheusdev.mindforge.study.note.model.Note;
+import com.matheusdev.mindforge.study.note.repository.StudyNoteRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class StudyNoteAssistOrchestratorTest {
+
+    private final PromptCacheService promptCacheService = mock(PromptCacheService.class);
+    private final StudyNoteRepository studyNoteRepository = mock(StudyNoteRepository.class);
+    private final RAGService ragService = mock(RAGService.class);
+    private final AdaptiveProviderRouter providerRouter = mock(AdaptiveProviderRouter.class);
+    private final ContextPropagatingExecutor executor = new ContextPropagatingExecutor("test",
+            Executors.newVirtualThreadPerTaskExecutor(), true);
+    private StudyNoteAssistOrchestrator orchestrator;
+
+    @BeforeEach
+    void setUp() {
+        orchestrator = new StudyNoteAssistOrchestrator(Map.of("ollamaProvider", mock(AIProvider.class)),
+                promptCacheService, mock(ChatSessionRepository.class), studyNoteRepository, mock(ChatService.class),
+                ragService, mock(ProposalCacheService.class), executor, providerRouter);
+        ReflectionTestUtils.setField(orchestrator, "ragMaxNotes", 3);
+        ReflectionTestUtils.setField(orchestrator, "ragMinScore", 0.8);
+        when(studyNoteRepository.findById(1L)).thenReturn(Optional.of(note(1L)));
+        when(providerRouter.route(anyInt())).thenReturn(new AdaptiveProviderRouter.Route("ollamaProvider", null, 0));
+        when(promptCacheService.executeWithCache(any(), any())).thenReturn(
+                CompletableFuture.completedFuture(new AIProviderResponse("resposta", null, null, null, null)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        TenantContext.clear();
+        executor.close();
+    }
+
+    private static Note note(long id) {
+        Note note = new Note();
+        note.setId(id);
+        return note;
+    }
+
+    private static Evidence evidence(String documentId, String excerpt, double score) {
+        return new Evidence(documentId, null, null, "text", excerpt, score, Map.of());
+    }
+
+    private String askAgent() throws Exception {
+        StudyNoteAIRequest request = new StudyNoteAIRequest();
+        request.setCommand(StudyNoteAIRequest.Command.ASK_AGENT);
+        request.setUseContext(true);
+        request.setNoteId(1L);
+        request.setContext("nota atual");
+        request.setInstruction("o que é HNSW?");
+        assertTrue(orchestrator.processStudyNoteAssist(request).get(5, TimeUnit.SECONDS).isSuccess());
+
+        ArgumentCaptor<AIProviderRequest> sent = ArgumentCaptor.forClass(AIProviderRequest.class);
+        verify(promptCacheService).executeWithCache(any(), sent.capture());
+        return sent.getValue().textPrompt();
+    }
+
+    @Test
+    @DisplayName("ASK_AGENT consulta só as notas recentes do tenant, sem a atual e acima do score mínimo")
+    void shouldQueryBoundedRecentNotesOfTenant() throws Exception {
+        TenantContext.setTenantId(7L);
+        when(studyNoteRepository.findByTenantId(eq(7L), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(LongStream.rangeClosed(1, 4).mapToObj(StudyNoteAssistOrchestratorTest::note)
+                        .toList()));
+        String relevant = ContentIndexingService.studyNoteDocumentId(2L);
+        when(ragService.queryIndexedDocument(eq(relevant), any(), anyInt()))
+                .thenReturn(List.of(evidence(relevant, "grafo em camadas", 0.9), evidence(relevant, "ruído", 0.7)));
+        when(ragService.queryIndexedDocument(eq(ContentIndexingService.studyNoteDocumentId(3L)), any(), anyInt()))
+                .thenThrow(new IllegalStateException("store indisponível"));
+
+        String prompt = askAgent();
+
+        ArgumentCaptor<Pageable> page = ArgumentCaptor.forClass(Pageable.class);
+        verify(studyNoteRepository).findByTenantId(eq(7L), page.capture());
+        assertEquals(4, page.getValue().getPageSize());
+        verify(ragService, never()).queryIndexedDocument(eq(ContentIndexingService.studyNoteDocumentId(1L)), any(),
+                anyInt());
+        verify(ragService, times(3)).queryIndexedDocument(any(), any(), anyInt());
+        assertTrue(prompt.contains("grafo em camadas"));
+        assertFalse(prompt.contains("ruído"));
+        verify(studyNoteRepository, never()).findAll();
+    }
+
+    @Test
+    @DisplayName("Sem tenant no contexto, ASK_AGENT segue sem evidências em vez de buscar em todos os tenants")
+    void shouldNotSearchWithoutTenant() throws Exception {
+        String prompt = askAgent();
+
+        assertFalse(prompt.contains("EVIDÊNCIAS"));
+        verifyNoInteractions(ragService);
+        verify(studyNoteRepository, never()).findAll();
+        verify(studyNoteRepository, never()).findByTenantId(any(), any(Pageable.class));
+    }
+}
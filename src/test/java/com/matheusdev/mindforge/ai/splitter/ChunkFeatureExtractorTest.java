@@ -0,0 +1,154 @@
+package com.matheusdev.mindforge.ai.splitter;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChunkFeatureExtractorTest {
+
+    private static final List<String> SAMPLES = List.of(
+            "3.2 Arquitetura do Sistema\nO sistema consiste em três camadas.",
+            "| Métrica | Valor |\n|---|---|\n| Debt Score | 72 |",
+            "Na sprint 4 alocamos 30% para bugs e 70% para features.",
+            "public class Foo {\n  return 42;\n}",
+            "Os pilares são:\n- coesão\n- acoplamento",
+            "Itens:\n  1. primeiro\n  2. segundo",
+            "• item com marcador",
+            "Resumo: este trabalho apresenta uma técnica.",
+            "Um exemplo simples, custando $15 por mês.",
+            "Unified Modeling Language (UML) padroniza diagramas.",
+            "  O que é um grafo? Uma estrutura com vértices.",
+            "Texto corrido sem nada especial, apenas prosa comum.",
+            "Valores 1.2.3 e 4.5% e 12 e 7.%, fim",
+            "Classificação final: ouro\n\n",
+            "frase terminada em dois pontos:",
+            "Sistemas (AB) e a Rede Neural (RN)");
+
+    @Test
+    @DisplayName("Deve produzir as mesmas flags que as regex usadas antes do classificador de uma passada")
+    void shouldMatchLegacyRegexClassification() {
+        for (String sample : SAMPLES) {
+            ChunkFeatureExtractor.ChunkFeatures features = ChunkFeatureExtractor.extract(sample);
+
+            assertEquals(LegacyRegex.contentType(sample), features.contentType(), sample);
+            assertEquals(LegacyRegex.section(sample), features.section(), sample);
+            assertEquals(LegacyRegex.containsTable(sample), features.hasTable(), sample);
+            assertEquals(LegacyRegex.containsTable(sample) ? LegacyRegex.tableType(sample) : null,
+                    features.tableType(), sample);
+            assertEquals(LegacyRegex.containsCode(sample), features.hasCode(), sample);
+            assertEquals(LegacyRegex.containsList(sample), features.hasList(), sample);
+            assertEquals(LegacyRegex.containsDefinition(sample), features.hasDefinition(), sample);
+            assertEquals(LegacyRegex.containsNumericData(sample), features.hasNumericData(), sample);
+            if (features.hasNumericData()) {
+                assertEquals(LegacyRegex.numericValues(sample), features.numericValues(), sample);
+            }
+            assertEquals(LegacyRegex.isCentralConcept(sample), features.centralConcept(), sample);
+        }
+    }
+
+    @Test
+    @DisplayName("Deve reconhecer conceito central por definição, lista após dois pontos e sigla definida")
+    void shouldDetectCentralConcepts() {
+        assertTrue(ChunkFeatureExtractor.extract("Os fatores incluem custo e prazo.").centralConcept());
+        assertTrue(ChunkFeatureExtractor.extract("Componentes:\n- A\n- B").centralConcept());
+        assertTrue(ChunkFeatureExtractor.extract("Retrieval Augmented Generation (RAG) melhora respostas")
+                .centralConcept());
+        assertFalse(ChunkFeatureExtractor.extract("Reunião marcada para amanhã cedo.").centralConcept());
+        assertNull(ChunkFeatureExtractor.extract("Sem números aqui.").numericValues());
+    }
+
+    /**
+     * Implementação anterior (regex por flag), mantida como oráculo.
+     */
+    private static final class LegacyRegex {
+
+        // UNICODE_CHARACTER_CLASS: sem ele o \b é ASCII e o "é" de "Métrica" contava como palavra
+        private static final Pattern DEFINITION_PATTERN = Pattern.compile(
+                "(?i)(\\b(é|são|refere-se a|define-se como|significa)\\b|:\\s*$|^\\s*O que é)",
+                Pattern.MULTILINE | Pattern.UNICODE_CHARACTER_CLASS);
+        private static final Pattern LIST_PATTERN = Pattern.compile(
+                "(?i)(\\b(consiste em|composto por|inclui|fatores|elementos|pilares)\\b|:\\s*\\n\\s*-)",
+                Pattern.MULTILINE | Pattern.UNICODE_CHARACTER_CLASS);
+        private static final Pattern ACRONYM_DEF_PATTERN = Pattern.compile(
+                "\\b[A-Z][a-zA-Z\\s]+\\s+\\(([A-Z]{2,})\\)", Pattern.MULTILINE);
+
+        static String contentType(String text) {
+            if (text.matches("(?s).*\\d+\\.\\d+\\.?\\d?.*[A-Z].*"))
+                return "section_header";
+            if (containsTable(text))
+                return "table";
+            if (containsCode(text))
+                return "code";
+            if (containsList(text))
+                return "list";
+            if (containsDefinition(text))
+                return "definition";
+            if (text.startsWith("Resumo") || text.startsWith("Abstract"))
+                return "summary";
+            if (text.contains("Exemplo") || text.contains("exemplo"))
+                return "example";
+            return "prose";
+        }
+
+        static String section(String text) {
+            Matcher matcher = Pattern.compile("(\\d+\\.\\d+(?:\\.\\d+)?)")
+                    .matcher(text.substring(0, Math.min(150, text.length())));
+            return matcher.find() ? matcher.group(1) : null;
+        }
+
+        static boolean containsTable(String text) {
+            return text.matches("(?s).*\\|.*\\|.*")
+                    || (text.contains("%") && text.matches("(?s).*\\d{2,3}%.*\\d{2,3}%.*"))
+                    || (text.contains("Debt Score") || text.contains("Métrica") || text.contains("Classificação"));
+        }
+
+        static String tableType(String text) {
+            if (text.contains("Debt Score") || text.contains("Score"))
+                return "score_table";
+            if (text.contains("%") && text.contains("sprint"))
+                return "allocation_table";
+            if (text.contains("Métrica"))
+                return "metrics_table";
+            return "generic_table";
+        }
+
+        static boolean containsCode(String text) {
+            return text.matches("(?s).*(class|function|def|package|import|public|private|void|return).*");
+        }
+
+        static boolean containsList(String text) {
+            return text.matches("(?s).*[•●■].*")
+                    || text.matches("(?s).*\\n\\s*[-*]\\s+.*")
+                    || text.matches("(?s).*\\n\\s*\\d+\\.\\s+.*");
+        }
+
+        static boolean containsDefinition(String text) {
+            return text.matches("(?s).*(é definido como|consiste em|significa|refere-se a|é o processo de).*");
+        }
+
+        static boolean containsNumericData(String text) {
+            return text.matches("(?s).*\\d+%.*") || text.matches("(?s).*\\d+\\.\\d+.*")
+                    || text.matches("(?s).*\\$\\d+.*");
+        }
+
+        static String numericValues(String text) {
+            Matcher matcher = Pattern.compile("\\d+(?:\\.\\d+)?%?").matcher(text);
+            List<String> values = new ArrayList<>();
+            while (matcher.find() && values.size() < 5) {
+                values.add(matcher.group());
+            }
+            return String.join(", ", values);
+        }
+
+        static boolean isCentralConcept(String text) {
+            return DEFINITION_PATTERN.matcher(text).find() || LIST_PATTERN.matcher(text).find()
+                    || ACRONYM_DEF_PATTERN.matcher(text).find();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.matheusdev.mindforge.ai.splitter;
+
+import dev.langchain4j.data.document.Document;
+import dev.langchain4j.data.segment.TextSegment;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContentDefinedSplitterTest {
+
+    private final ContentDefinedSplitter splitter = new ContentDefinedSplitter(400, 80);
+
+    @Test
+    @DisplayName("Editar um parágrafo deve alterar apenas os chunks próximos")
+    void shouldKeepUnrelatedChunksStableAfterEdit() {
+        List<String> paragraphs = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            paragraphs.add("Parágrafo " + i + " com algum conteúdo de estudo sobre o tópico número " + i + ".");
+        }
+        List<String> before = texts(splitter.split(Document.from(String.join("\n\n", paragraphs))));
+
+        paragraphs.set(30, "Parágrafo 30 reescrito com outra redação e um exemplo novo.");
+        List<String> after = texts(splitter.split(Document.from(String.join("\n\n", paragraphs))));
+
+        Set<String> unchanged = new HashSet<>(before);
+        unchanged.retainAll(after);
+        // No máximo dois chunks (o editado e um vizinho) mudam
+        assertTrue(unchanged.size() >= before.size() - 2,
+                "Esperava chunks estáveis, mas só " + unchanged.size() + " de " + before.size() + " se mantiveram");
+        assertTrue(before.size() > 3);
+    }
+
+    @Test
+    @DisplayName("Deve iniciar um novo chunk em títulos e respeitar o tamanho máximo")
+    void shouldBreakOnHeadingsAndRespectMaxSize() {
+        String text = "# Introdução\n\nTexto curto.\n\n# Desenvolvimento\n\n" + "palavra ".repeat(200);
+
+        List<String> chunks = texts(splitter.split(Document.from(text)));
+
+        assertEquals("# Introdução\n\nTexto curto.", chunks.get(0));
+        assertTrue(chunks.get(1).startsWith("# Desenvolvimento"));
+        assertTrue(chunks.stream().allMatch(chunk -> chunk.length() <= 400));
+    }
+
+    private static List<String> texts(List<TextSegment> segments) {
+        return segments.stream().map(TextSegment::text).toList();
+    }
+}
@@ -0,0 +1,80 @@
+package com.matheusdev.mindforge.ai.splitter;
+
+import dev.langchain4j.data.document.Document;
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.output.Response;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SemanticDocumentSplitterTest {
+
+    @Mock
+    private EmbeddingModel embeddingModel;
+
+    @Test
+    @DisplayName("Deve embedar todos os blocos em uma única chamada e quebrar por mudança de tópico")
+    void shouldEmbedBlocksInSingleBatch() {
+        // Blocos sobre "java" são similares entre si e diferentes dos blocos sobre "cozinha"
+        when(embeddingModel.embedAll(anyList())).thenAnswer(invocation -> {
+            List<TextSegment> segments = invocation.getArgument(0);
+            return Response.from(segments.stream()
+                    .map(segment -> segment.text().contains("java")
+                            ? new Embedding(new float[] { 1f, 0f })
+                            : new Embedding(new float[] { 0f, 1f }))
+                    .toList());
+        });
+        SemanticDocumentSplitter splitter = new SemanticDocumentSplitter(embeddingModel, 0.82, 1000, 100, 0);
+        Document document = Document.from(
+                "Texto sobre java e JVM.\n\nMais detalhes de java.\n\nReceita de cozinha com arroz.\n\n");
+
+        List<SemanticDocumentSplitter.EmbeddedChunk> chunks = splitter.splitWithEmbeddings(document);
+
+        assertEquals(2, chunks.size());
+        assertTrue(chunks.get(0).segment().text().contains("Mais detalhes de java."));
+        assertArrayEquals(new float[] { 1f, 0f }, chunks.get(0).embedding().vector(), 1e-6f);
+        assertArrayEquals(new float[] { 0f, 1f }, chunks.get(1).embedding().vector(), 1e-6f);
+        verify(embeddingModel, times(1)).embedAll(anyList());
+        verify(embeddingModel, never()).embed(anyString());
+    }
+
+    @Test
+    @DisplayName("Blocos maiores que o máximo devem ser subdivididos")
+    void shouldSplitOversizedBlocks() {
+        when(embeddingModel.embedAll(anyList())).thenAnswer(invocation -> {
+            List<TextSegment> segments = invocation.getArgument(0);
+            return Response.from(segments.stream().map(segment -> new Embedding(new float[] { 1f, 0f })).toList());
+        });
+        SemanticDocumentSplitter splitter = new SemanticDocumentSplitter(embeddingModel, 0.82, 200, 50, 0);
+        String longBlock = "Uma frase de exemplo com algumas palavras. ".repeat(20);
+
+        List<TextSegment> segments = splitter.split(Document.from(longBlock));
+
+        assertTrue(segments.size() > 1);
+        segments.forEach(segment -> assertTrue(segment.text().length() <= 200));
+    }
+
+    @Test
+    @DisplayName("Sem embeddings o chunking deve seguir apenas pelo tamanho")
+    void shouldFallBackToSizeWhenEmbeddingFails() {
+        when(embeddingModel.embedAll(anyList())).thenThrow(new RuntimeException("Ollama offline"));
+        SemanticDocumentSplitter splitter = new SemanticDocumentSplitter(embeddingModel, 0.82, 1000, 100, 0);
+
+        List<SemanticDocumentSplitter.EmbeddedChunk> chunks = splitter
+                .splitWithEmbeddings(Document.from("Bloco um.\n\nBloco dois.\n\n"));
+
+        assertEquals(1, chunks.size());
+        assertNull(chunks.get(0).embedding());
+    }
+}
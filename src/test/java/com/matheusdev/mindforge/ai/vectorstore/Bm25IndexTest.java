@@ -0,0 +1,64 @@
+package com.matheusdev.mindforge.ai.vectorstore;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class Bm25IndexTest {
+
+    @Test
+    @DisplayName("Deve encontrar identificadores de código exatos, inclusive pelas partes camelCase")
+    void shouldMatchCodeIdentifiers() {
+        Bm25Index index = new Bm25Index();
+        index.add("O serviço de vetores cria o store sob demanda.");
+        int target = index.add("Chame getOrCreateVectorStore(documentId, document) antes da busca.");
+        index.add("A busca usa o índice HNSW para documentos grandes.");
+
+        assertEquals(target, index.search("getOrCreateVectorStore", 3).get(0).doc());
+        assertEquals(target, index.search("vector store", 3).get(0).doc());
+    }
+
+    @Test
+    @DisplayName("Deve ignorar acentos e caixa e privilegiar termos raros")
+    void shouldFoldAccentsAndWeightRareTerms() {
+        Bm25Index index = new Bm25Index();
+        index.add("Métrica de cobertura de testes");
+        int rare = index.add("A métrica SLA define disponibilidade");
+        index.add("Outra métrica qualquer");
+
+        List<Bm25Index.Hit> hits = index.search("metrica sla", 3);
+
+        assertEquals(3, hits.size());
+        assertEquals(rare, hits.get(0).doc());
+    }
+
+    @Test
+    @DisplayName("Documentos removidos não devem aparecer na busca")
+    void shouldSkipRemovedDocuments() {
+        Bm25Index index = new Bm25Index();
+        int removed = index.add("kafka consumer group");
+        int kept = index.add("kafka producer");
+        index.remove(removed);
+
+        List<Bm25Index.Hit> hits = index.search("kafka", 5);
+
+        assertEquals(1, hits.size());
+        assertEquals(kept, hits.get(0).doc());
+        assertTrue(index.search("inexistente", 5).isEmpty());
+    }
+
+    @Test
+    @DisplayName("RRF deve promover itens bem ranqueados nas duas listas")
+    void shouldFuseRankingsByReciprocalRank() {
+        List<String> vector = List.of("a", "b", "c");
+        List<String> lexical = List.of("c", "d", "b");
+
+        List<String> fused = ReciprocalRankFusion.fuse(id -> id, ReciprocalRankFusion.DEFAULT_K, vector, lexical);
+
+        // c: 1/63 + 1/61 > b: 1/62 + 1/63 > a: 1/61 > d: 1/62
+        assertEquals(List.of("c", "b", "a", "d"), fused);
+    }
+}
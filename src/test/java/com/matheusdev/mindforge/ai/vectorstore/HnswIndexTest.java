@@ -0,0 +1,112 @@
+package com.matheusdev.mindforge.ai.vectorstore;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HnswIndexTest {
+
+    private static final int DIMENSION = 32;
+
+    @TempDir
+    Path rescoreDirectory;
+
+    @Test
+    @DisplayName("Busca aproximada deve ter recall alto em relação à busca exata")
+    void searchShouldApproximateExactSearch() {
+        Random random = new Random(7);
+        HnswIndex index = new HnswIndex(16, 100);
+        for (int i = 0; i < 1000; i++) {
+            index.add(randomVector(random));
+        }
+
+        int k = 10;
+        int hits = 0;
+        int queries = 50;
+        for (int q = 0; q < queries; q++) {
+            float[] query = randomVector(random);
+            Set<Integer> exact = nodes(index.exactSearch(query, k));
+            for (HnswIndex.Candidate candidate : index.search(query, k, 80)) {
+                if (exact.contains(candidate.node())) {
+                    hits++;
+                }
+            }
+        }
+
+        double recall = hits / (double) (queries * k);
+        assertTrue(recall >= 0.9, "Recall abaixo do esperado: " + recall);
+    }
+
+    @Test
+    @DisplayName("Resultados devem vir ordenados por similaridade decrescente")
+    void searchShouldReturnOrderedResults() {
+        Random random = new Random(11);
+        HnswIndex index = new HnswIndex(8, 50);
+        float[] target = randomVector(random);
+        index.add(randomVector(random));
+        int targetNode = index.add(target);
+        for (int i = 0; i < 200; i++) {
+            index.add(randomVector(random));
+        }
+
+        List<HnswIndex.Candidate> results = index.search(target, 5, 50);
+
+        assertEquals(targetNode, results.get(0).node());
+        for (int i = 1; i < results.size(); i++) {
+            assertTrue(results.get(i - 1).similarity() >= results.get(i).similarity());
+        }
+    }
+
+    @Test
+    @DisplayName("Storage int8 com rescoring deve preservar o top-K da busca exata em float")
+    void quantizedStorageShouldPreserveExactRanking() {
+        Random random = new Random(3);
+        HnswIndex fullPrecision = new HnswIndex(16, 100, new FloatVectorStorage(), false, 1);
+        HnswIndex quantized = new HnswIndex(16, 100, new Int8VectorStorage(rescoreDirectory), false, 4);
+        for (int i = 0; i < 500; i++) {
+            float[] vector = randomVector(random);
+            fullPrecision.add(vector);
+            quantized.add(vector);
+        }
+
+        for (int q = 0; q < 20; q++) {
+            float[] query = randomVector(random);
+            List<HnswIndex.Candidate> expected = fullPrecision.exactSearch(query, 5);
+            List<HnswIndex.Candidate> actual = quantized.exactSearch(query, 5);
+
+            assertEquals(nodes(expected), nodes(actual));
+            assertEquals(expected.get(0).similarity(), actual.get(0).similarity(), 1e-5);
+        }
+    }
+
+    @Test
+    @DisplayName("Índice vazio deve retornar lista vazia")
+    void emptyIndexShouldReturnEmptyList() {
+        HnswIndex index = new HnswIndex(16, 100);
+
+        assertTrue(index.search(new float[DIMENSION], 5, 50).isEmpty());
+    }
+
+    private static Set<Integer> nodes(List<HnswIndex.Candidate> candidates) {
+        Set<Integer> nodes = new HashSet<>();
+        candidates.forEach(candidate -> nodes.add(candidate.node()));
+        return nodes;
+    }
+
+    private static float[] randomVector(Random random) {
+        float[] vector = new float[DIMENSION];
+        for (int i = 0; i < DIMENSION; i++) {
+            vector[i] = (float) random.nextGaussian();
+        }
+        return vector;
+    }
+}
@@ -0,0 +1,118 @@
+package com.matheusdev.mindforge.ai.vectorstore;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class Int8VectorStorageTest {
+
+    private static final int DIMENSION = 768;
+
+    @TempDir
+    Path rescoreDirectory;
+
+    @Test
+    @DisplayName("Sem rescoring: vetor dequantizado próximo do original e ~4x menos memória que float32")
+    void quantizedOnlyStorageShouldApproximateVectorsWithLessMemory() {
+        Random random = new Random(5);
+        Int8VectorStorage quantized = new Int8VectorStorage();
+        FloatVectorStorage full = new FloatVectorStorage();
+        float[] first = null;
+        for (int i = 0; i < 100; i++) {
+            float[] vector = normalized(random);
+            first = first == null ? vector : first;
+            quantized.add(vector);
+            full.add(vector);
+        }
+
+        assertFalse(quantized.supportsRescoring(), "Sem os vetores float32 não há o que reordenar");
+        float[] restored = quantized.vector(0);
+        for (int i = 0; i < DIMENSION; i++) {
+            // Erro máximo de meio passo de quantização
+            assertEquals(first[i], restored[i], 0.01);
+        }
+        assertEquals(1.0, quantized.exactDot(first, 0), 0.01);
+        assertTrue(quantized.estimatedHeapBytes() * 3 < full.estimatedHeapBytes(),
+                quantized.estimatedHeapBytes() + " vs " + full.estimatedHeapBytes());
+    }
+
+    @Test
+    @DisplayName("Com rescoring: vetores exatos lidos do arquivo mapeado, que não conta como memória residente")
+    void rescoreFileShouldBeExactAndOutOfResidentMemory() throws Exception {
+        Random random = new Random(9);
+        Int8VectorStorage storage = new Int8VectorStorage(rescoreDirectory);
+        List<float[]> vectors = new ArrayList<>();
+        // Passa de uma região mapeada para a seguinte
+        for (int i = 0; i <= Int8VectorStorage.VECTORS_PER_REGION; i++) {
+            float[] vector = normalized(random);
+            vectors.add(vector);
+            storage.add(vector);
+        }
+
+        assertTrue(storage.supportsRescoring());
+        for (int node : new int[] { 0, Int8VectorStorage.VECTORS_PER_REGION - 1, Int8VectorStorage.VECTORS_PER_REGION }) {
+            assertArrayEquals(vectors.get(node), storage.vector(node));
+            assertEquals(1.0, storage.exactDot(vectors.get(node), node), 1e-5);
+        }
+        // Só os códigos int8 contam no orçamento
+        assertEquals((Int8VectorStorage.VECTORS_PER_REGION + 1L) * (16 + DIMENSION + 8 + 4),
+                storage.estimatedHeapBytes());
+        if (!System.getProperty("os.name").toLowerCase().startsWith("windows")) {
+            // O arquivo perde o nome na abertura: nada fica para trás no diretório
+            try (Stream<Path> files = Files.list(rescoreDirectory)) {
+                assertEquals(0, files.count());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Orçamento de memória despeja o store menos usado; int8 custa ~1/4 do float32")
+    void memoryBudgetShouldEvictLeastRecentlyUsedStore() {
+        Random random = new Random(13);
+        FloatVectorStorage full = new FloatVectorStorage();
+        Int8VectorStorage quantized = new Int8VectorStorage(rescoreDirectory);
+        for (int i = 0; i < 64; i++) {
+            float[] vector = normalized(random);
+            full.add(vector);
+            quantized.add(vector);
+        }
+        VectorStoreMemoryBudget budget = new VectorStoreMemoryBudget();
+        // 64 x 768 x 4 bytes (~192 KB) por store float32 não cabem em 1 MB junto com outros 5 stores
+        ReflectionTestUtils.setField(budget, "maxHeapMb", 1L);
+        VectorStoreKey old = new VectorStoreKey(1L, "document_1");
+        budget.register(old, full.estimatedHeapBytes());
+        for (int i = 2; i <= 6; i++) {
+            budget.register(new VectorStoreKey(1L, "document_" + i), full.estimatedHeapBytes());
+        }
+        VectorStoreKey recent = new VectorStoreKey(1L, "document_7");
+        budget.register(recent, quantized.estimatedHeapBytes());
+
+        List<VectorStoreKey> evictions = budget.selectEvictions(recent);
+
+        assertEquals(List.of(old), evictions);
+    }
+
+    private static float[] normalized(Random random) {
+        float[] vector = new float[DIMENSION];
+        double norm = 0;
+        for (int i = 0; i < DIMENSION; i++) {
+            vector[i] = (float) random.nextGaussian();
+            norm += vector[i] * vector[i];
+        }
+        float inverse = (float) (1 / Math.sqrt(norm));
+        for (int i = 0; i < DIMENSION; i++) {
+            vector[i] *= inverse;
+        }
+        return vector;
+    }
+}
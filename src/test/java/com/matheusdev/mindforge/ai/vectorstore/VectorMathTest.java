@@ -0,0 +1,57 @@
+package com.matheusdev.mindforge.ai.vectorstore;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VectorMathTest {
+
+    @Test
+    @DisplayName("Kernel ativo deve produzir o mesmo produto escalar que o escalar, inclusive na cauda")
+    void shouldMatchScalarKernel() {
+        Random random = new Random(7);
+        ScalarVectorKernel scalar = new ScalarVectorKernel();
+        // Dimensões que não são múltiplas da largura do registrador exercitam a cauda
+        for (int dimension : new int[] { 1, 7, 17, 384, 771 }) {
+            float[] a = randomVector(random, dimension);
+            float[] b = randomVector(random, dimension);
+
+            assertEquals(scalar.dot(a, b), VectorMath.dot(a, b), 1e-3f * dimension);
+        }
+    }
+
+    @Test
+    @DisplayName("Vetores normalizados devem ter cosseno igual ao produto escalar")
+    void shouldTurnCosineIntoDotForNormalizedVectors() {
+        Random random = new Random(11);
+        float[] a = randomVector(random, 128);
+        float[] b = randomVector(random, 128);
+
+        float[] unitA = VectorMath.normalize(a);
+        float[] unitB = VectorMath.normalize(b);
+
+        assertEquals(1f, VectorMath.norm(unitA), 1e-5f);
+        assertEquals(VectorMath.cosine(a, b), VectorMath.dot(unitA, unitB), 1e-5);
+        assertNotSame(a, unitA);
+    }
+
+    @Test
+    @DisplayName("Normalizar vetor nulo não deve gerar NaN")
+    void shouldKeepZeroVector() {
+        float[] zero = VectorMath.normalize(new float[4]);
+
+        assertArrayEquals(new float[4], zero);
+        assertEquals(0.0, VectorMath.cosine(zero, new float[] { 1f, 0f, 0f, 0f }));
+    }
+
+    private static float[] randomVector(Random random, int dimension) {
+        float[] vector = new float[dimension];
+        for (int i = 0; i < dimension; i++) {
+            vector[i] = random.nextFloat() * 2f - 1f;
+        }
+        return vector;
+    }
+}
@@ -0,0 +1,80 @@
+package com.matheusdev.mindforge.config;
+
+import com.matheusdev.mindforge.core.tenant.context.TenantContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContextPropagatingExecutorTest {
+
+    private ContextPropagatingExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        // Uma única thread: a segunda tarefa roda na mesma thread da primeira
+        executor = new ContextPropagatingExecutor("test", Executors.newSingleThreadExecutor(), false);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.close();
+        TenantContext.clear();
+        SecurityContextHolder.clearContext();
+        MDC.clear();
+    }
+
+    @Test
+    @DisplayName("Deve propagar tenant, segurança e MDC pela cadeia e limpar a thread ao final")
+    void shouldPropagateContextAndRestoreWorkerThread() {
+        Authentication auth = new UsernamePasswordAuthenticationToken("user", null, List.of());
+        TenantContext.setTenantId(7L);
+        SecurityContextHolder.getContext().setAuthentication(auth);
+        MDC.put("requestId", "abc");
+
+        AtomicReference<Long> chainedTenant = new AtomicReference<>();
+        String seen = executor.supplyAsync(() -> TenantContext.getTenantId() + "|"
+                + SecurityContextHolder.getContext().getAuthentication().getName() + "|" + MDC.get("requestId"))
+                .thenCompose(value -> executor.supplyAsync(() -> {
+                    chainedTenant.set(TenantContext.getTenantId());
+                    return value;
+                }))
+                .join();
+
+        assertEquals("7|user|abc", seen);
+        assertEquals(7L, chainedTenant.get());
+
+        // Submissão sem contexto: a mesma thread não pode enxergar o tenant da tarefa anterior
+        TenantContext.clear();
+        SecurityContextHolder.clearContext();
+        MDC.clear();
+        String leaked = executor.supplyAsync(() -> TenantContext.getTenantId() + "|"
+                + SecurityContextHolder.getContext().getAuthentication() + "|" + MDC.get("requestId")).join();
+
+        assertEquals("null|null|null", leaked);
+    }
+
+    @Test
+    @DisplayName("Deve contabilizar tarefas concluídas e com falha")
+    void shouldCountCompletedAndFailedTasks() {
+        executor.supplyAsync(() -> "ok").join();
+        assertThrows(CompletionException.class, () -> executor.supplyAsync(() -> {
+            throw new IllegalStateException("falhou");
+        }).join());
+
+        ContextPropagatingExecutor.Stats stats = executor.stats();
+        assertEquals(2, stats.submitted());
+        assertEquals(1, stats.failed());
+    }
+}
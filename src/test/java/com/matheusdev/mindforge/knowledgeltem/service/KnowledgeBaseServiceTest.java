@@ -1,5 +1,6 @@
 package com.matheusdev.mindforge.knowledgeltem.service;
 
+import com.matheusdev.mindforge.ai.service.ContentIndexingService;
 import com.matheusdev.mindforge.core.tenant.context.TenantContext;
 import com.matheusdev.mindforge.exception.ResourceNotFoundException;
 import com.matheusdev.mindforge.knowledgeltem.model.KnowledgeItem;
@@ -41,6 +42,9 @@ class KnowledgeBaseServiceTest {
     @Mock
     private com.matheusdev.mindforge.knowledgeltem.mapper.KnowledgeItemMapper mapper;
 
+    @Mock
+    private ContentIndexingService contentIndexingService;
+
     @InjectMocks
     private KnowledgeBaseService service;
 